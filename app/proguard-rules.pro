@@ -18,4 +18,24 @@
 
 # If you keep the line number information, uncomment this to
 # hide the original source file name.
-#-renamesourcefileattribute SourceFile
\ No newline at end of file
+#-renamesourcefileattribute SourceFile
+
+# Keep line numbers in crash reports, but hide original source file names.
+-keepattributes SourceFile,LineNumberTable
+-renamesourcefileattribute SourceFile
+
+# Room instantiates the generated StudyDatabase_Impl by name. Entities and DAOs are only used
+# through generated code, so they may be shrunk and obfuscated like any other class.
+-keep class * extends androidx.room.RoomDatabase {
+    <init>();
+}
+-dontwarn androidx.room.paging.**
+
+# WorkManager instantiates workers by name through their (Context, WorkerParameters) constructor.
+-keep class * extends androidx.work.ListenableWorker {
+    <init>(android.content.Context, androidx.work.WorkerParameters);
+}
+
+# Volley optionally references the Apache HTTP client, which is not on the classpath.
+-dontwarn org.apache.http.**
+-dontwarn android.net.http.AndroidHttpClient
@@ -10,6 +10,7 @@ import static androidx.test.espresso.intent.Intents.intended;
 import static androidx.test.espresso.intent.Intents.intending;
 import static androidx.test.espresso.intent.matcher.IntentMatchers.hasComponent;
 import static androidx.test.espresso.intent.matcher.IntentMatchers.hasExtra;
+import static androidx.test.espresso.matcher.ViewMatchers.isDisplayed;
 import static androidx.test.espresso.matcher.ViewMatchers.withId;
 import static androidx.test.espresso.matcher.ViewMatchers.withText;
 
@@ -151,8 +152,9 @@ public class SubjectIntegrationTest {
         // Click on the Add menu item.
         onView(withText("Add")).perform(click());
 
-        // Verify the added question is displayed.
-        onView(withId(R.id.question_text_view)).check(matches(withText(questionText)));
+        // Verify the added question is displayed. Neighbouring pages are bound offscreen.
+        onView(allOf(withId(R.id.question_text_view), isDisplayed()))
+                .check(matches(withText(questionText)));
 
         // Clean up.
         activityScenario.close();
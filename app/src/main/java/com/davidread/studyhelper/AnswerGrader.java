@@ -0,0 +1,515 @@
+package com.davidread.studyhelper;
+
+import java.util.Arrays;
+
+/**
+ * {@link AnswerGrader} grades a typed answer against the answer of a {@link Question}. Both are
+ * normalized first: case is folded, and prose punctuation, hyphens joining words, and runs of
+ * whitespace become single spaces. Signs and symbols such as the minus in "-5" or the pluses in
+ * "C++" are kept, since they change the meaning of the answer. Numbers must match exactly, sign
+ * included, since a single edit can turn a right number into a wrong one. Answers holding nothing
+ * but punctuation are compared exactly, ignoring whitespace. The grade is the better of two
+ * scores. The token score is the overlap of the words used, ignoring order, which suits long
+ * answers worded a little differently. The edit score tolerates typos. It is computed with an
+ * edit distance limited to a band around the diagonal that starts narrow and doubles until it
+ * holds the distance, so it costs time proportional to the length of the answer times the number
+ * of edits actually made.
+ * <p>
+ * Grading allocates nothing once the internal buffers have grown to fit the longest answer seen,
+ * so it stays fast on multi-paragraph answers. An {@link AnswerGrader} is not thread safe.
+ */
+public class AnswerGrader {
+
+    /**
+     * Int grade of an answer that does not match.
+     */
+    public static final int GRADE_INCORRECT = 0;
+
+    /**
+     * Int grade of an answer that nearly matches, such as one with a wrong word or several typos.
+     */
+    public static final int GRADE_ALMOST = 1;
+
+    /**
+     * Int grade of an answer that matches, allowing for the odd typo.
+     */
+    public static final int GRADE_CORRECT = 2;
+
+    /**
+     * Float score from 0 to 1 at or above which an answer is graded correct.
+     */
+    private static final float CORRECT_SCORE = 0.8f;
+
+    /**
+     * Float score from 0 to 1 at or above which an answer is graded almost correct.
+     */
+    private static final float ALMOST_SCORE = 0.6f;
+
+    /**
+     * {@link String} of the punctuation that only separates words, and is ignored like whitespace.
+     */
+    private static final String PROSE_PUNCTUATION = ".,;:!?'\"()[]{}";
+
+    /**
+     * Int width of the first edit distance band tried on each side of the diagonal.
+     */
+    private static final int INITIAL_BAND = 8;
+
+    /**
+     * Int initial capacity of the buffers.
+     */
+    private static final int INITIAL_CAPACITY = 256;
+
+    /**
+     * Char array holding the normalized expected answer.
+     */
+    private char[] mExpected = new char[INITIAL_CAPACITY];
+
+    /**
+     * Char array holding the normalized typed answer.
+     */
+    private char[] mTyped = new char[INITIAL_CAPACITY];
+
+    /**
+     * Int array holding the previous row of the edit distance table.
+     */
+    private int[] mPreviousRow = new int[INITIAL_CAPACITY + 1];
+
+    /**
+     * Int array holding the current row of the edit distance table.
+     */
+    private int[] mCurrentRow = new int[INITIAL_CAPACITY + 1];
+
+    /**
+     * Int array of the hashes in the open addressing table of expected words. Zero marks an empty
+     * slot.
+     */
+    private int[] mWordHashes = new int[INITIAL_CAPACITY];
+
+    /**
+     * Int array of the number of unmatched occurrences of each word in {@link #mWordHashes}.
+     */
+    private int[] mWordCounts = new int[INITIAL_CAPACITY];
+
+    /**
+     * Int number of chars in {@link #mExpected}.
+     */
+    private int mExpectedLength;
+
+    /**
+     * Int number of chars in {@link #mTyped}.
+     */
+    private int mTypedLength;
+
+    /**
+     * Grades the passed typed answer against the passed expected answer.
+     *
+     * @param expected {@link CharSequence} expected answer.
+     * @param typed    {@link CharSequence} typed answer.
+     * @return The int grade. One of {@link #GRADE_CORRECT}, {@link #GRADE_ALMOST}, or
+     * {@link #GRADE_INCORRECT}.
+     */
+    public int grade(CharSequence expected, CharSequence typed) {
+        float score = score(expected, typed);
+        if (score >= CORRECT_SCORE) {
+            return GRADE_CORRECT;
+        } else if (score >= ALMOST_SCORE) {
+            return GRADE_ALMOST;
+        }
+        return GRADE_INCORRECT;
+    }
+
+    /**
+     * Scores the passed typed answer against the passed expected answer.
+     *
+     * @param expected {@link CharSequence} expected answer.
+     * @param typed    {@link CharSequence} typed answer.
+     * @return The float score from 0 for no match to 1 for a match after normalization.
+     */
+    public float score(CharSequence expected, CharSequence typed) {
+        mExpected = ensureCapacity(mExpected, expected.length());
+        mTyped = ensureCapacity(mTyped, typed.length());
+        mExpectedLength = normalize(expected, mExpected);
+        mTypedLength = normalize(typed, mTyped);
+
+        if (mExpectedLength == 0 || mTypedLength == 0) {
+            if (mExpectedLength != mTypedLength) {
+                return 0;
+            }
+
+            // Nothing but punctuation is left, so the punctuation itself is the answer.
+            return equalsIgnoringWhitespace(expected, typed) ? 1 : 0;
+        }
+        if (!numbersMatch()) {
+            return 0;
+        }
+        float tokenScore = tokenScore();
+        if (tokenScore >= CORRECT_SCORE) {
+            return tokenScore;
+        }
+        return Math.max(editScore(), tokenScore);
+    }
+
+    /**
+     * Returns one minus the edit distance between the normalized answers relative to the length
+     * of the expected answer. Distances too large to reach {@link #ALMOST_SCORE} are not computed
+     * and score zero.
+     *
+     * @return The float edit score from 0 to 1.
+     */
+    private float editScore() {
+        int maxDistance = Math.round(mExpectedLength * (1 - ALMOST_SCORE));
+        int band = Math.min(INITIAL_BAND, maxDistance);
+        int distance = bandedDistance(band);
+        while (distance > band && band < maxDistance) {
+            band = Math.min(band * 2, maxDistance);
+            distance = bandedDistance(band);
+        }
+        return distance > maxDistance ? 0 : 1 - (float) distance / mExpectedLength;
+    }
+
+    /**
+     * Returns the Levenshtein distance between {@link #mExpected} and {@link #mTyped}, computing
+     * only the cells within the passed distance of the diagonal.
+     *
+     * @param maxDistance Int largest distance of interest.
+     * @return The int distance, or any value greater than the passed distance if it is larger.
+     */
+    private int bandedDistance(int maxDistance) {
+        int n = mExpectedLength;
+        int m = mTypedLength;
+        if (Math.abs(n - m) > maxDistance) {
+            return maxDistance + 1;
+        }
+        mPreviousRow = ensureCapacity(mPreviousRow, m + 1);
+        mCurrentRow = ensureCapacity(mCurrentRow, m + 1);
+        int outside = maxDistance + 1;
+        int[] previous = mPreviousRow;
+        int[] current = mCurrentRow;
+
+        for (int j = 0; j <= Math.min(m, maxDistance); j++) {
+            previous[j] = j;
+        }
+        if (maxDistance < m) {
+            previous[maxDistance + 1] = outside;
+        }
+        for (int i = 1; i <= n; i++) {
+            int from = Math.max(1, i - maxDistance);
+            int to = Math.min(m, i + maxDistance);
+
+            // Cells just outside the band count as too far, so stale values are never read.
+            current[from - 1] = from == 1 ? i : outside;
+            if (to < m) {
+                current[to + 1] = outside;
+            }
+
+            int rowMin = current[from - 1];
+            char c = mExpected[i - 1];
+            for (int j = from; j <= to; j++) {
+                int cost = c == mTyped[j - 1] ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1),
+                        previous[j - 1] + cost);
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > maxDistance) {
+                return outside;
+            }
+
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[m];
+    }
+
+    /**
+     * Returns whether the normalized answers hold the same numbers in the same order. A number is
+     * any word holding a digit, along with the signs and symbols attached to it.
+     *
+     * @return True if the numbers match.
+     */
+    private boolean numbersMatch() {
+        int expectedStart = nextNumber(mExpected, mExpectedLength, 0);
+        int typedStart = nextNumber(mTyped, mTypedLength, 0);
+        while (expectedStart < mExpectedLength && typedStart < mTypedLength) {
+            int expectedEnd = wordEnd(mExpected, mExpectedLength, expectedStart);
+            int typedEnd = wordEnd(mTyped, mTypedLength, typedStart);
+            if (expectedEnd - expectedStart != typedEnd - typedStart) {
+                return false;
+            }
+            for (int i = 0; i < expectedEnd - expectedStart; i++) {
+                if (mExpected[expectedStart + i] != mTyped[typedStart + i]) {
+                    return false;
+                }
+            }
+            expectedStart = nextNumber(mExpected, mExpectedLength, expectedEnd);
+            typedStart = nextNumber(mTyped, mTypedLength, typedEnd);
+        }
+        return expectedStart >= mExpectedLength && typedStart >= mTypedLength;
+    }
+
+    /**
+     * Returns the start of the first word at or after the passed index that holds a digit.
+     *
+     * @param chars  {@link char} array of normalized chars.
+     * @param length Int number of chars.
+     * @param from   Int index of the start of a word, or of the space before it.
+     * @return The int index of the start of the word. The length if there is none.
+     */
+    private static int nextNumber(char[] chars, int length, int from) {
+        int start = from;
+        for (int i = from; i < length; i++) {
+            if (chars[i] == ' ') {
+                start = i + 1;
+            } else if (Character.isDigit(chars[i])) {
+                return start;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Returns the end of the word starting at the passed index.
+     *
+     * @param chars  {@link char} array of normalized chars.
+     * @param length Int number of chars.
+     * @param start  Int index of the start of the word.
+     * @return The int index after the last char of the word.
+     */
+    private static int wordEnd(char[] chars, int length, int start) {
+        int end = start;
+        while (end < length && chars[end] != ' ') {
+            end++;
+        }
+        return end;
+    }
+
+    /**
+     * Returns the Dice coefficient of the words in the normalized answers, counting repeated
+     * words as often as they appear.
+     *
+     * @return The float token score from 0 to 1.
+     */
+    private float tokenScore() {
+        // Size the table to a power of two at least twice the number of expected words.
+        int expectedWords = countWords(mExpected, mExpectedLength);
+        int capacity = Integer.highestOneBit(Math.max(1, expectedWords) * 2 - 1) << 1;
+        if (mWordHashes.length < capacity) {
+            mWordHashes = new int[capacity];
+            mWordCounts = new int[capacity];
+        }
+        Arrays.fill(mWordHashes, 0, capacity, 0);
+        int mask = capacity - 1;
+
+        // Count the expected words.
+        int start = 0;
+        for (int i = 0; i <= mExpectedLength; i++) {
+            if (i == mExpectedLength || mExpected[i] == ' ') {
+                if (i > start) {
+                    int slot = findSlot(hashWord(mExpected, start, i), mask);
+                    mWordCounts[slot]++;
+                }
+                start = i + 1;
+            }
+        }
+
+        // Match each typed word against a remaining expected occurrence.
+        int typedWords = 0;
+        int matches = 0;
+        start = 0;
+        for (int i = 0; i <= mTypedLength; i++) {
+            if (i == mTypedLength || mTyped[i] == ' ') {
+                if (i > start) {
+                    typedWords++;
+                    int slot = lookUpSlot(hashWord(mTyped, start, i), mask);
+                    if (slot >= 0 && mWordCounts[slot] > 0) {
+                        mWordCounts[slot]--;
+                        matches++;
+                    }
+                }
+                start = i + 1;
+            }
+        }
+        return 2f * matches / (expectedWords + typedWords);
+    }
+
+    /**
+     * Returns the slot of the passed hash in {@link #mWordHashes}, claiming an empty slot with a
+     * zero count if the hash is not there yet.
+     *
+     * @param hash Int non-zero word hash.
+     * @param mask Int mask for the table capacity.
+     * @return The int slot.
+     */
+    private int findSlot(int hash, int mask) {
+        int slot = hash & mask;
+        while (mWordHashes[slot] != 0 && mWordHashes[slot] != hash) {
+            slot = (slot + 1) & mask;
+        }
+        if (mWordHashes[slot] == 0) {
+            mWordHashes[slot] = hash;
+            mWordCounts[slot] = 0;
+        }
+        return slot;
+    }
+
+    /**
+     * Returns the slot of the passed hash in {@link #mWordHashes}.
+     *
+     * @param hash Int non-zero word hash.
+     * @param mask Int mask for the table capacity.
+     * @return The int slot. -1 if the hash is not in the table.
+     */
+    private int lookUpSlot(int hash, int mask) {
+        int slot = hash & mask;
+        while (mWordHashes[slot] != 0) {
+            if (mWordHashes[slot] == hash) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns a non-zero hash of the chars in the passed range.
+     *
+     * @param chars {@link char} array holding the word.
+     * @param start Int index of the first char.
+     * @param end   Int index after the last char.
+     * @return The int hash.
+     */
+    private static int hashWord(char[] chars, int start, int end) {
+        int hash = 1;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + chars[i];
+        }
+
+        // Spread the bits, since the low bits choose the slot.
+        hash ^= hash >>> 16;
+        hash *= 0x45d9f3b;
+        hash ^= hash >>> 16;
+        return hash == 0 ? 1 : hash;
+    }
+
+    /**
+     * Returns the number of space separated words in the passed normalized chars.
+     *
+     * @param chars  {@link char} array of normalized chars.
+     * @param length Int number of chars.
+     * @return The int number of words.
+     */
+    private static int countWords(char[] chars, int length) {
+        int words = length > 0 ? 1 : 0;
+        for (int i = 0; i < length; i++) {
+            if (chars[i] == ' ') {
+                words++;
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Writes the passed text into the passed buffer in lower case, with every run of separators
+     * replaced by a single space, and without leading or trailing spaces.
+     *
+     * @param text   {@link CharSequence} to normalize.
+     * @param buffer {@link char} array at least as long as the text.
+     * @return The int number of chars written.
+     */
+    private static int normalize(CharSequence text, char[] buffer) {
+        int length = 0;
+        boolean pendingSpace = false;
+        for (int i = 0; i < text.length(); i++) {
+            if (isSeparator(text, i)) {
+                pendingSpace = true;
+            } else {
+                if (pendingSpace && length > 0) {
+                    buffer[length++] = ' ';
+                }
+                pendingSpace = false;
+                buffer[length++] = Character.toLowerCase(text.charAt(i));
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Returns whether the char at the passed index only separates words. Whitespace, quotes,
+     * brackets, {@link #PROSE_PUNCTUATION}, and hyphens between two letters do. Letters, digits,
+     * and every other symbol do not.
+     *
+     * @param text  {@link CharSequence} holding the char.
+     * @param index Int index of the char.
+     * @return Boolean for whether the char is a separator.
+     */
+    private static boolean isSeparator(CharSequence text, int index) {
+        char c = text.charAt(index);
+        if (Character.isLetterOrDigit(c)) {
+            return false;
+        }
+        int type = Character.getType(c);
+        if (Character.isWhitespace(c) || Character.isSpaceChar(c)
+                || PROSE_PUNCTUATION.indexOf(c) >= 0
+                || type == Character.INITIAL_QUOTE_PUNCTUATION
+                || type == Character.FINAL_QUOTE_PUNCTUATION
+                || type == Character.START_PUNCTUATION
+                || type == Character.END_PUNCTUATION) {
+            return true;
+        }
+
+        // A hyphen joins words, but a minus sign is part of the answer.
+        return c == '-' && index > 0 && index < text.length() - 1
+                && Character.isLetter(text.charAt(index - 1))
+                && Character.isLetter(text.charAt(index + 1));
+    }
+
+    /**
+     * Returns whether the passed texts hold the same chars once whitespace is skipped.
+     *
+     * @param a {@link CharSequence} first text.
+     * @param b {@link CharSequence} second text.
+     * @return Boolean for whether the texts match.
+     */
+    private static boolean equalsIgnoringWhitespace(CharSequence a, CharSequence b) {
+        int i = 0;
+        int j = 0;
+        while (true) {
+            while (i < a.length() && Character.isWhitespace(a.charAt(i))) {
+                i++;
+            }
+            while (j < b.length() && Character.isWhitespace(b.charAt(j))) {
+                j++;
+            }
+            if (i == a.length() || j == b.length()) {
+                return i == a.length() && j == b.length();
+            }
+            if (a.charAt(i++) != b.charAt(j++)) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Returns the passed buffer if it holds at least the passed number of chars, or a larger one.
+     *
+     * @param buffer   {@link char} array.
+     * @param capacity Int number of chars needed.
+     * @return A {@link char} array of at least the needed capacity.
+     */
+    private static char[] ensureCapacity(char[] buffer, int capacity) {
+        return buffer.length >= capacity ? buffer : new char[Math.max(capacity, buffer.length * 2)];
+    }
+
+    /**
+     * Returns the passed buffer if it holds at least the passed number of ints, or a larger one.
+     *
+     * @param buffer   Int array.
+     * @param capacity Int number of ints needed.
+     * @return An int array of at least the needed capacity.
+     */
+    private static int[] ensureCapacity(int[] buffer, int capacity) {
+        return buffer.length >= capacity ? buffer : new int[Math.max(capacity, buffer.length * 2)];
+    }
+}
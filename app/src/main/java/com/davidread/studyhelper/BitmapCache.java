@@ -0,0 +1,319 @@
+package com.davidread.studyhelper;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.DisplayMetrics;
+import android.util.Log;
+import android.util.LruCache;
+import android.widget.ImageView;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * {@link BitmapCache} decodes the images managed by {@link ImageStore} on a background thread.
+ * Images are downsampled to the size they are displayed at and kept in a memory-bounded LRU cache.
+ * Downsampled copies are also written to a size-bounded disk cache, so large originals are only
+ * decoded once.
+ */
+public class BitmapCache {
+
+    /**
+     * {@link String} identifier for log messages in this class.
+     */
+    private static final String TAG = "BitmapCache";
+
+    /**
+     * {@link String} name of the disk cache directory.
+     */
+    private static final String DISK_CACHE_DIRECTORY = "bitmaps";
+
+    /**
+     * Long maximum number of bytes held by the disk cache.
+     */
+    private static final long MAX_DISK_CACHE_BYTES = 32 * 1024 * 1024;
+
+    /**
+     * Static reference of {@link BitmapCache} to follow singleton pattern.
+     */
+    private static BitmapCache mBitmapCache;
+
+    /**
+     * {@link LruCache} of decoded bitmaps keyed by file name, bounded by their byte size.
+     */
+    private final LruCache<String, Bitmap> mMemoryCache;
+
+    /**
+     * {@link Map} of callbacks waiting for a bitmap being decoded keyed by file name. Only
+     * accessed on the main thread.
+     */
+    private final Map<String, List<OnBitmapLoadedListener>> mPending = new HashMap<>();
+
+    /**
+     * {@link File} directory holding the original images.
+     */
+    private final File mImageDirectory;
+
+    /**
+     * {@link File} directory holding downsampled images.
+     */
+    private final File mDiskCacheDirectory;
+
+    /**
+     * Int width in pixels images are downsampled to.
+     */
+    private final int mTargetWidth;
+
+    /**
+     * Int height in pixels images are downsampled to.
+     */
+    private final int mTargetHeight;
+
+    /**
+     * {@link ExecutorService} that decodes images.
+     */
+    private final ExecutorService mExecutor = Executors.newSingleThreadExecutor();
+
+    /**
+     * {@link Handler} for delivering decoded bitmaps on the main thread.
+     */
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+
+    /**
+     * Long approximate number of bytes held by the disk cache. Negative until measured.
+     */
+    private long mDiskCacheBytes = -1;
+
+    /**
+     * {@link OnBitmapLoadedListener} is an interface that defines the callback invoked on the main
+     * thread when a bitmap has been decoded.
+     */
+    private interface OnBitmapLoadedListener {
+        void onBitmapLoaded(Bitmap bitmap);
+    }
+
+    /**
+     * Returns an instance of {@link BitmapCache}.
+     *
+     * @param context {@link Context} of the app.
+     * @return An instance of {@link BitmapCache}.
+     */
+    public static synchronized BitmapCache getInstance(Context context) {
+        if (mBitmapCache == null) {
+            mBitmapCache = new BitmapCache(context.getApplicationContext());
+        }
+        return mBitmapCache;
+    }
+
+    /**
+     * Constructs a new {@link BitmapCache}. Images are downsampled to the screen width and half
+     * the screen height, which bounds the size of an image shown on a question page.
+     *
+     * @param context {@link Context} of the app.
+     */
+    private BitmapCache(Context context) {
+        int maxBytes = (int) Math.min(Runtime.getRuntime().maxMemory() / 8, Integer.MAX_VALUE);
+        mMemoryCache = new LruCache<String, Bitmap>(maxBytes) {
+            @Override
+            protected int sizeOf(String key, Bitmap bitmap) {
+                return bitmap.getAllocationByteCount();
+            }
+        };
+
+        mImageDirectory = ImageStore.getImageDirectory(context);
+        mDiskCacheDirectory = new File(context.getCacheDir(), DISK_CACHE_DIRECTORY);
+
+        DisplayMetrics metrics = context.getResources().getDisplayMetrics();
+        mTargetWidth = metrics.widthPixels;
+        mTargetHeight = metrics.heightPixels / 2;
+    }
+
+    /**
+     * Shows the image with the passed file name in the passed {@link ImageView}. Cached bitmaps
+     * are shown immediately. Otherwise, the image is decoded on a background thread and shown
+     * once decoded, unless the {@link ImageView} was bound to another image in the meantime.
+     *
+     * @param imageView {@link ImageView} to show the image in.
+     * @param fileName  {@link String} file name of the image.
+     */
+    public void load(ImageView imageView, String fileName) {
+        imageView.setTag(R.id.image_file_tag, fileName);
+
+        Bitmap bitmap = mMemoryCache.get(fileName);
+        if (bitmap != null) {
+            imageView.setImageBitmap(bitmap);
+            return;
+        }
+
+        imageView.setImageDrawable(null);
+        decodeAsync(fileName, decoded -> {
+            if (fileName.equals(imageView.getTag(R.id.image_file_tag))) {
+                imageView.setImageBitmap(decoded);
+            }
+        });
+    }
+
+    /**
+     * Decodes the image with the passed file name on a background thread so a later call to
+     * {@link #load(ImageView, String)} finds it in the cache.
+     *
+     * @param fileName {@link String} file name of the image.
+     */
+    public void prefetch(String fileName) {
+        if (mMemoryCache.get(fileName) == null) {
+            decodeAsync(fileName, null);
+        }
+    }
+
+    /**
+     * Decodes the image with the passed file name on {@link #mExecutor} unless it is already
+     * being decoded. Must be invoked on the main thread.
+     *
+     * @param fileName {@link String} file name of the image.
+     * @param listener {@link OnBitmapLoadedListener} to invoke once decoded. May be null.
+     */
+    private void decodeAsync(String fileName, OnBitmapLoadedListener listener) {
+        List<OnBitmapLoadedListener> listeners = mPending.get(fileName);
+        if (listeners == null) {
+            listeners = new ArrayList<>();
+            mPending.put(fileName, listeners);
+            mExecutor.execute(() -> {
+                Bitmap bitmap = decode(fileName);
+                mMainHandler.post(() -> {
+                    if (bitmap != null) {
+                        mMemoryCache.put(fileName, bitmap);
+                    }
+                    List<OnBitmapLoadedListener> waiting = mPending.remove(fileName);
+                    if (bitmap != null && waiting != null) {
+                        for (OnBitmapLoadedListener waitingListener : waiting) {
+                            waitingListener.onBitmapLoaded(bitmap);
+                        }
+                    }
+                });
+            });
+        }
+        if (listener != null) {
+            listeners.add(listener);
+        }
+    }
+
+    /**
+     * Decodes the image with the passed file name, preferring its downsampled copy in the disk
+     * cache. Runs on {@link #mExecutor}.
+     *
+     * @param fileName {@link String} file name of the image.
+     * @return The decoded {@link Bitmap}, or null if it could not be decoded.
+     */
+    private Bitmap decode(String fileName) {
+        File cachedFile = new File(mDiskCacheDirectory,
+                fileName + "_" + mTargetWidth + "x" + mTargetHeight);
+        if (cachedFile.exists()) {
+            Bitmap bitmap = BitmapFactory.decodeFile(cachedFile.getPath());
+            if (bitmap != null) {
+                cachedFile.setLastModified(System.currentTimeMillis());
+                return bitmap;
+            }
+        }
+
+        // Read the dimensions of the original to pick a sample size.
+        File file = new File(mImageDirectory, fileName);
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeFile(file.getPath(), options);
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            return null;
+        }
+
+        options.inSampleSize = calculateInSampleSize(options.outWidth, options.outHeight,
+                mTargetWidth, mTargetHeight);
+        options.inJustDecodeBounds = false;
+        Bitmap bitmap = BitmapFactory.decodeFile(file.getPath(), options);
+
+        // Only downsampled images are worth caching on disk.
+        if (bitmap != null && options.inSampleSize > 1) {
+            writeToDiskCache(cachedFile, bitmap);
+        }
+        return bitmap;
+    }
+
+    /**
+     * Returns the largest power of two sample size that keeps an image at least as large as the
+     * requested size.
+     *
+     * @param width        Int width of the original image.
+     * @param height       Int height of the original image.
+     * @param targetWidth  Int requested width.
+     * @param targetHeight Int requested height.
+     * @return The int sample size.
+     */
+    static int calculateInSampleSize(int width, int height, int targetWidth, int targetHeight) {
+        int inSampleSize = 1;
+        while (width / (inSampleSize * 2) >= targetWidth
+                && height / (inSampleSize * 2) >= targetHeight) {
+            inSampleSize *= 2;
+        }
+        return inSampleSize;
+    }
+
+    /**
+     * Writes a downsampled bitmap to the disk cache and evicts the least recently used files if
+     * the cache grows past {@link #MAX_DISK_CACHE_BYTES}. Runs on {@link #mExecutor}.
+     *
+     * @param cachedFile {@link File} to write to.
+     * @param bitmap     {@link Bitmap} to write.
+     */
+    private void writeToDiskCache(File cachedFile, Bitmap bitmap) {
+        if (!mDiskCacheDirectory.exists() && !mDiskCacheDirectory.mkdirs()) {
+            return;
+        }
+        if (mDiskCacheBytes < 0) {
+            mDiskCacheBytes = 0;
+            File[] files = mDiskCacheDirectory.listFiles();
+            if (files != null) {
+                for (File file : files) {
+                    mDiskCacheBytes += file.length();
+                }
+            }
+        }
+
+        Bitmap.CompressFormat format = bitmap.hasAlpha()
+                ? Bitmap.CompressFormat.PNG : Bitmap.CompressFormat.JPEG;
+        try (OutputStream out = new FileOutputStream(cachedFile)) {
+            bitmap.compress(format, 90, out);
+        } catch (IOException e) {
+            Log.e(TAG, "Unable to cache " + cachedFile.getName() + ": " + e.getMessage());
+            cachedFile.delete();
+            return;
+        }
+        mDiskCacheBytes += cachedFile.length();
+
+        if (mDiskCacheBytes > MAX_DISK_CACHE_BYTES) {
+            File[] files = mDiskCacheDirectory.listFiles();
+            if (files == null) {
+                return;
+            }
+            Arrays.sort(files, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+            for (File file : files) {
+                if (mDiskCacheBytes <= MAX_DISK_CACHE_BYTES) {
+                    break;
+                }
+                long length = file.length();
+                if (file.delete()) {
+                    mDiskCacheBytes -= length;
+                }
+            }
+        }
+    }
+}
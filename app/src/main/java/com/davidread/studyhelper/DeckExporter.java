@@ -0,0 +1,219 @@
+package com.davidread.studyhelper;
+
+import android.database.Cursor;
+import android.util.JsonWriter;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * {@link DeckExporter} writes {@link Subject} objects and their {@link Question} objects to an
+ * {@link OutputStream} as JSON or CSV. Questions are streamed from a database {@link Cursor} one
+ * subject at a time and written as they are read, so memory use does not grow with the size of
+ * the deck. The JSON format holds a "subjects" array whose entries use the fields
+ * {@link StudyFetcher} reads, so an export can be served back as import data. Missing text and
+ * answers are written as empty strings, since the importer reads a JSON null as the string
+ * "null". Images are not exported: they are files in app storage that the import format has no
+ * field for, so an exported question keeps only its text and answer.
+ */
+public class DeckExporter {
+
+    /**
+     * Int format for JSON output.
+     */
+    public static final int FORMAT_JSON = 0;
+
+    /**
+     * Int format for CSV output, with a header row and one row per question.
+     */
+    public static final int FORMAT_CSV = 1;
+
+    /**
+     * Int number of questions written between progress reports.
+     */
+    private static final int PROGRESS_INTERVAL = 1000;
+
+    /**
+     * {@link ProgressListener} is notified of the progress of an export.
+     */
+    public interface ProgressListener {
+
+        /**
+         * Invoked on the exporting thread every thousand questions and once at the end.
+         *
+         * @param exportedCount Int number of questions written so far.
+         * @param totalCount    Int number of questions to write.
+         */
+        void onProgress(int exportedCount, int totalCount);
+    }
+
+    /**
+     * {@link StudyDatabase} to read from.
+     */
+    private final StudyDatabase mStudyDb;
+
+    /**
+     * Int number of questions written so far by the running export.
+     */
+    private int mExportedCount;
+
+    /**
+     * Int number of questions the running export will write.
+     */
+    private int mTotalCount;
+
+    /**
+     * {@link ProgressListener} of the running export.
+     */
+    private ProgressListener mListener;
+
+    /**
+     * Constructs a new {@link DeckExporter}.
+     *
+     * @param studyDb {@link StudyDatabase} to read from.
+     */
+    public DeckExporter(StudyDatabase studyDb) {
+        mStudyDb = studyDb;
+    }
+
+    /**
+     * Writes the {@link Subject} objects matching the passed ids and their {@link Question}
+     * objects to the passed {@link OutputStream} in the passed format. Must not be invoked on the
+     * main thread. The stream is flushed but not closed.
+     *
+     * @param subjectIds {@link List} of long ids of the {@link Subject} objects to export.
+     * @param format     Int format. Either {@link #FORMAT_JSON} or {@link #FORMAT_CSV}.
+     * @param out        {@link OutputStream} to write to.
+     * @param listener   {@link ProgressListener} to notify of progress.
+     * @return The int number of questions written.
+     * @throws IOException If writing fails.
+     */
+    public synchronized int export(List<Long> subjectIds, int format, OutputStream out,
+                                   ProgressListener listener) throws IOException {
+        List<Subject> subjects = mStudyDb.subjectDao().getSubjectsByIds(subjectIds);
+        SubjectSorter.sort(subjects, SubjectSorter.ORDER_ALPHA);
+
+        // Question counts are maintained by triggers, so the total is free.
+        mExportedCount = 0;
+        mTotalCount = 0;
+        for (Subject subject : subjects) {
+            mTotalCount += subject.getQuestionCount();
+        }
+        mListener = listener;
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == FORMAT_CSV) {
+            writeCsv(subjects, writer);
+        } else {
+            writeJson(subjects, writer);
+        }
+        writer.flush();
+
+        mListener.onProgress(mExportedCount, mTotalCount);
+        mListener = null;
+        return mExportedCount;
+    }
+
+    /**
+     * Writes the passed {@link Subject} objects and their questions as JSON.
+     *
+     * @param subjects {@link List} of {@link Subject} objects to write.
+     * @param writer   {@link Writer} to write to.
+     * @throws IOException If writing fails.
+     */
+    private void writeJson(List<Subject> subjects, Writer writer) throws IOException {
+        JsonWriter jsonWriter = new JsonWriter(writer);
+        jsonWriter.beginObject();
+        jsonWriter.name("subjects").beginArray();
+        for (Subject subject : subjects) {
+            jsonWriter.beginObject();
+            jsonWriter.name("subject").value(subject.getText());
+            jsonWriter.name("updatetime").value(subject.getUpdateTime());
+            jsonWriter.name("questions").beginArray();
+            try (Cursor cursor = mStudyDb.questionDao().getQuestionCursor(subject.getId())) {
+                while (cursor.moveToNext()) {
+                    jsonWriter.beginObject();
+                    jsonWriter.name("question").value(nonNull(cursor.getString(0)));
+                    jsonWriter.name("answer").value(nonNull(cursor.getString(1)));
+                    jsonWriter.endObject();
+                    onQuestionWritten();
+                }
+            }
+            jsonWriter.endArray();
+            jsonWriter.endObject();
+        }
+        jsonWriter.endArray();
+        jsonWriter.endObject();
+        jsonWriter.flush();
+    }
+
+    /**
+     * Writes the passed {@link Subject} objects and their questions as CSV.
+     *
+     * @param subjects {@link List} of {@link Subject} objects to write.
+     * @param writer   {@link Writer} to write to.
+     * @throws IOException If writing fails.
+     */
+    private void writeCsv(List<Subject> subjects, Writer writer) throws IOException {
+        writer.write("subject,question,answer\r\n");
+        for (Subject subject : subjects) {
+            String subjectField = toCsvField(subject.getText());
+            try (Cursor cursor = mStudyDb.questionDao().getQuestionCursor(subject.getId())) {
+                while (cursor.moveToNext()) {
+                    writer.write(subjectField);
+                    writer.write(',');
+                    writer.write(toCsvField(cursor.getString(0)));
+                    writer.write(',');
+                    writer.write(toCsvField(cursor.getString(1)));
+                    writer.write("\r\n");
+                    onQuestionWritten();
+                }
+            }
+        }
+    }
+
+    /**
+     * Counts a written question and reports progress every {@link #PROGRESS_INTERVAL} questions.
+     */
+    private void onQuestionWritten() {
+        mExportedCount++;
+        if (mExportedCount % PROGRESS_INTERVAL == 0) {
+            mListener.onProgress(mExportedCount, mTotalCount);
+        }
+    }
+
+    /**
+     * Returns the passed value, or an empty string if it is null.
+     *
+     * @param value {@link String} value. May be null.
+     * @return The {@link String} value. Never null.
+     */
+    private static String nonNull(String value) {
+        return value != null ? value : "";
+    }
+
+    /**
+     * Returns the passed value as a CSV field. Values containing a comma, quote, or line break
+     * are quoted, with quotes doubled.
+     *
+     * @param value {@link String} value. Null is written as an empty field.
+     * @return The {@link String} field.
+     */
+    static String toCsvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return '"' + value.replace("\"", "\"\"") + '"';
+            }
+        }
+        return value;
+    }
+}
@@ -0,0 +1,92 @@
+package com.davidread.studyhelper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * {@link DistractorSampler} picks the choices of a multiple-choice {@link Question}: its answer
+ * and a few wrong answers, called distractors, taken from other questions of the same subject.
+ * Candidates are sampled with indexed lookups by {@link QuestionDao#getRandomAnswers}, so the
+ * work does not grow with the size of the subject. More candidates are sampled than needed and
+ * those closest in length to the answer are kept, since they are the hardest to rule out at a
+ * glance. Blank answers are never offered as distractors.
+ */
+public class DistractorSampler {
+
+    /**
+     * Int number of choices offered per {@link Question}, including its answer.
+     */
+    public static final int CHOICE_COUNT = 4;
+
+    /**
+     * Int number of candidates sampled per distractor needed. One turns off the bias towards
+     * answers of similar length.
+     */
+    private static final int CANDIDATES_PER_DISTRACTOR = 3;
+
+    /**
+     * {@link QuestionDao} to sample answers from.
+     */
+    private final QuestionDao mQuestionDao;
+
+    /**
+     * Constructs a new {@link DistractorSampler}.
+     *
+     * @param questionDao {@link QuestionDao} to sample answers from.
+     */
+    public DistractorSampler(QuestionDao questionDao) {
+        mQuestionDao = questionDao;
+    }
+
+    /**
+     * Returns the choices for the passed {@link Question} in random order. Fewer than
+     * {@link #CHOICE_COUNT} choices are returned if its subject has too few other answers. Runs
+     * queries, so it must not be called on the main thread.
+     *
+     * @param question {@link Question} to pick choices for.
+     * @param random   {@link Random} to sample and order the choices with. The same seed picks
+     *                 the same choices as long as the subject does not change.
+     * @return A {@link List} of distinct {@link String} choices, one of which is the answer.
+     */
+    public List<String> sampleChoices(Question question, Random random) {
+        String answer = question.getAnswer() != null ? question.getAnswer() : "";
+        int distractorCount = CHOICE_COUNT - 1;
+        List<String> candidates = mQuestionDao.getRandomAnswers(question.getSubjectId(), random,
+                distractorCount * CANDIDATES_PER_DISTRACTOR);
+
+        // Skip answers that are blank or would look the same as the answer or another choice.
+        Set<String> keys = new HashSet<>();
+        keys.add("");
+        keys.add(createKey(answer));
+        List<String> distractors = new ArrayList<>();
+        for (String candidate : candidates) {
+            if (keys.add(createKey(candidate))) {
+                distractors.add(candidate);
+            }
+        }
+
+        int answerLength = answer.length();
+        distractors.sort((first, second) -> Integer.compare(
+                Math.abs(first.length() - answerLength), Math.abs(second.length() - answerLength)));
+        List<String> choices = new ArrayList<>(distractors.subList(0,
+                Math.min(distractorCount, distractors.size())));
+        choices.add(answer);
+        Collections.shuffle(choices, random);
+        return choices;
+    }
+
+    /**
+     * Returns the key choices are compared by, which ignores case and surrounding whitespace.
+     *
+     * @param choice {@link String} choice.
+     * @return The {@link String} key.
+     */
+    private static String createKey(String choice) {
+        return choice.trim().toLowerCase(Locale.ROOT);
+    }
+}
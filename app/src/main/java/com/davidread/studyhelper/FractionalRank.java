@@ -0,0 +1,98 @@
+package com.davidread.studyhelper;
+
+import java.util.List;
+
+/**
+ * {@link FractionalRank} computes the sort ranks that keep {@link Question} and {@link Subject}
+ * objects in a user-defined order. Each row holds a double rank, and moving a row only gives it
+ * a rank between those of its new neighbours, so a move is a single-row write however long the
+ * list is. Repeated moves into the same gap halve it each time, so lists are occasionally
+ * rebalanced to evenly spaced ranks, either by {@link MaintenanceWorker} while the device is idle
+ * or by the move itself once a gap can no longer be split.
+ */
+public class FractionalRank {
+
+    /**
+     * Double rank meaning no rank has been assigned yet. Rows inserted with it are given the rank
+     * after the last row by triggers defined in {@link StudyDatabase}.
+     */
+    public static final double UNRANKED = 0;
+
+    /**
+     * Double distance between neighbouring ranks after rebalancing and when appending.
+     */
+    public static final double RANK_STEP = 1;
+
+    /**
+     * Double distance between neighbouring ranks below which a list is rebalanced while the
+     * device is idle. Ten moves into the same gap get this close.
+     */
+    public static final double CROWDED_GAP = 1e-3;
+
+    /**
+     * Double smallest gap that is still split by a move. Smaller gaps are rebalanced first.
+     */
+    private static final double MIN_GAP = 1e-9;
+
+    /**
+     * Returns the rank between the passed ranks. Moving to the end of a list steps past the last
+     * rank rather than halving a gap.
+     *
+     * @param lower Double rank of the previous row. {@link #UNRANKED} if moving to the start.
+     * @param upper Double rank of the next row. Positive infinity if moving to the end.
+     * @return The double rank between both ranks.
+     */
+    public static double between(double lower, double upper) {
+        if (Double.isInfinite(upper)) {
+            return lower + RANK_STEP;
+        }
+        return lower + (upper - lower) / 2;
+    }
+
+    /**
+     * Returns whether a rank strictly between the passed ranks can still be computed by
+     * {@link #between(double, double)}.
+     *
+     * @param lower Double rank of the previous row.
+     * @param upper Double rank of the next row.
+     * @return True if the gap can be split.
+     */
+    public static boolean hasRoom(double lower, double upper) {
+        double rank = between(lower, upper);
+        return upper - lower >= MIN_GAP && rank > lower && rank < upper;
+    }
+
+    /**
+     * Returns the rank given to the row at the passed position when a list is rebalanced.
+     *
+     * @param index Int position of the row in the list.
+     * @return The double rank.
+     */
+    public static double rankAt(int index) {
+        return (index + 1) * RANK_STEP;
+    }
+
+    /**
+     * Moves the passed id within the passed ids in rank order so it follows the previous id, or
+     * precedes the next id if the previous id is not found.
+     *
+     * @param ids        {@link List} of long ids in rank order to change in place.
+     * @param id         Long id to move.
+     * @param previousId Long id the moved id should follow. Zero to move it to the start.
+     * @param nextId     Long id the moved id should precede. Zero to move it to the end.
+     */
+    public static void move(List<Long> ids, long id, long previousId, long nextId) {
+        ids.remove(Long.valueOf(id));
+        int index;
+        if (previousId == 0) {
+            index = 0;
+        } else if (ids.contains(previousId)) {
+            index = ids.indexOf(previousId) + 1;
+        } else if (nextId != 0 && ids.contains(nextId)) {
+            index = ids.indexOf(nextId);
+        } else {
+            index = ids.size();
+        }
+        ids.add(index, id);
+    }
+}
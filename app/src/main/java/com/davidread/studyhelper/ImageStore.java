@@ -0,0 +1,113 @@
+package com.davidread.studyhelper;
+
+import android.content.Context;
+import android.net.Uri;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * {@link ImageStore} manages the image files attached to {@link Question} objects. Images are
+ * stored as files in the app's private storage and referenced by file name from the database.
+ */
+public class ImageStore {
+
+    /**
+     * {@link String} name of the directory holding image files.
+     */
+    private static final String IMAGE_DIRECTORY = "images";
+
+    /**
+     * {@link ExecutorService} for copying image files off the main thread. It is kept apart from
+     * the database executor so a slow copy never holds up queries.
+     */
+    private static final ExecutorService mFileExecutor = Executors.newSingleThreadExecutor();
+
+    /**
+     * Returns an {@link ExecutorService} for copying image files off the main thread.
+     *
+     * @return An {@link ExecutorService}.
+     */
+    public static ExecutorService getFileExecutor() {
+        return mFileExecutor;
+    }
+
+    /**
+     * Returns the directory holding image files, creating it if needed.
+     *
+     * @param context {@link Context} of the app.
+     * @return A {@link File} for the directory holding image files.
+     */
+    public static File getImageDirectory(Context context) {
+        File directory = new File(context.getFilesDir(), IMAGE_DIRECTORY);
+        if (!directory.exists()) {
+            directory.mkdirs();
+        }
+        return directory;
+    }
+
+    /**
+     * Copies the image at the passed {@link Uri} into the image directory. Performs I/O, so it
+     * must not be called on the main thread. Run it on {@link #getFileExecutor()}.
+     *
+     * @param context {@link Context} of the app.
+     * @param uri     {@link Uri} of the image to copy.
+     * @return The {@link String} file name of the copied image.
+     * @throws IOException If the image could not be copied.
+     */
+    public static String importImage(Context context, Uri uri) throws IOException {
+        String fileName = UUID.randomUUID().toString();
+        File file = new File(getImageDirectory(context), fileName);
+
+        try (InputStream in = context.getContentResolver().openInputStream(uri);
+             OutputStream out = new FileOutputStream(file)) {
+            if (in == null) {
+                throw new IOException("Unable to open " + uri);
+            }
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+        } catch (IOException e) {
+            file.delete();
+            throw e;
+        }
+
+        return fileName;
+    }
+
+    /**
+     * Deletes image files that are not referenced by any {@link Question} and were last modified
+     * before the passed time. The age limit protects images attached to questions that are still
+     * being edited.
+     *
+     * @param context        {@link Context} of the app.
+     * @param referenced     {@link Set} of referenced {@link String} file names.
+     * @param modifiedBefore Long time before which a file must have been last modified.
+     * @return The number of files deleted.
+     */
+    public static int deleteUnreferencedImages(Context context, Set<String> referenced,
+                                               long modifiedBefore) {
+        File[] files = getImageDirectory(context).listFiles();
+        if (files == null) {
+            return 0;
+        }
+
+        int deleted = 0;
+        for (File file : files) {
+            if (!referenced.contains(file.getName()) && file.lastModified() < modifiedBefore
+                    && file.delete()) {
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+}
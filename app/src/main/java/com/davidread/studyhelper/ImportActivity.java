@@ -1,17 +1,35 @@
 package com.davidread.studyhelper;
 
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.work.WorkManager;
 
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.text.Editable;
+import android.text.TextWatcher;
+import android.util.Log;
+import android.util.LruCache;
+import android.view.LayoutInflater;
 import android.view.View;
+import android.view.ViewGroup;
 import android.widget.CheckBox;
-import android.widget.LinearLayout;
+import android.widget.EditText;
 import android.widget.ProgressBar;
+import android.widget.TextView;
 import android.widget.Toast;
 
 import com.android.volley.VolleyError;
 
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * {@link ImportActivity} represents a user interface where subject and question data may be
@@ -20,10 +38,97 @@ import java.util.List;
 public class ImportActivity extends AppCompatActivity {
 
     /**
-     * {@link LinearLayout} to be dynamically filled with a {@link CheckBox} for each subject
-     * fetched by {@link #mStudyFetcher}.
+     * {@link String} key for saving the positions of selected catalog subjects.
      */
-    private LinearLayout mSubjectLayoutContainer;
+    private static final String KEY_SELECTED_POSITIONS = "selected_positions";
+
+    /**
+     * Int number of catalog subjects added to {@link #mCatalogRecyclerView} per main thread
+     * message, so a large catalog streams in without blocking input and drawing.
+     */
+    private static final int CATALOG_CHUNK_SIZE = 200;
+
+    /**
+     * Int maximum number of characters of prefetched questions held in
+     * {@link #mStagedQuestions}.
+     */
+    private static final int MAX_STAGED_CHARS = 4 * 1024 * 1024;
+
+    /**
+     * {@link String} identifier for log messages in this class.
+     */
+    private static final String TAG = "ImportActivity";
+
+    /**
+     * {@link RecyclerView} showing a {@link CheckBox} for each subject fetched by
+     * {@link #mStudyFetcher}.
+     */
+    private RecyclerView mCatalogRecyclerView;
+
+    /**
+     * {@link CatalogAdapter} for {@link #mCatalogRecyclerView}.
+     */
+    private CatalogAdapter mCatalogAdapter;
+
+    /**
+     * {@link EditText} for filtering the catalog by name.
+     */
+    private EditText mFilterEditText;
+
+    /**
+     * {@link List} of every {@link Subject} received from {@link #mStudyFetcher}. The id of each
+     * {@link Subject} is its position in this list, since catalog subjects are not stored yet.
+     */
+    private final List<Subject> mCatalog = new ArrayList<>();
+
+    /**
+     * Int number of {@link Subject} objects of {@link #mCatalog} already added to
+     * {@link #mCatalogAdapter}.
+     */
+    private int mStreamedCount;
+
+    /**
+     * {@link BitSet} of the positions in {@link #mCatalog} of selected subjects.
+     */
+    private BitSet mSelectedPositions = new BitSet();
+
+    /**
+     * {@link LruCache} of {@link Question} objects prefetched for selected catalog subjects,
+     * keyed by catalog position and bounded by their number of characters. Subjects that are
+     * evicted or still downloading when importing are fetched by {@link ImportWorker} instead.
+     */
+    private final LruCache<Integer, List<Question>> mStagedQuestions =
+            new LruCache<Integer, List<Question>>(MAX_STAGED_CHARS) {
+                @Override
+                protected int sizeOf(Integer position, List<Question> questionList) {
+                    int chars = 0;
+                    for (Question question : questionList) {
+                        chars += question.getText().length() + question.getAnswer().length();
+                    }
+                    return chars;
+                }
+            };
+
+    /**
+     * {@link Handler} for streaming {@link #mCatalog} into {@link #mCatalogAdapter}.
+     */
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+
+    /**
+     * {@link Runnable} that adds the next chunk of {@link #mCatalog} to {@link #mCatalogAdapter}
+     * and posts itself again until the whole catalog is shown.
+     */
+    private final Runnable mStreamCatalogRunnable = new Runnable() {
+        @Override
+        public void run() {
+            int end = Math.min(mStreamedCount + CATALOG_CHUNK_SIZE, mCatalog.size());
+            mCatalogAdapter.addSubjects(mCatalog.subList(mStreamedCount, end));
+            mStreamedCount = end;
+            if (mStreamedCount < mCatalog.size()) {
+                mHandler.post(this);
+            }
+        }
+    };
 
     /**
      * {@link StudyFetcher} fetches {@link Subject} objects available to be imported from zyBook's
@@ -36,16 +141,50 @@ public class ImportActivity extends AppCompatActivity {
      */
     private ProgressBar mLoadingProgressBar;
 
+    /**
+     * {@link TextView} to display the progress of the import run by {@link ImportWorker}.
+     */
+    private TextView mImportProgressText;
+
     /**
      * Callback method invoked when this activity is created. It initializes this activity's
-     * member variables and begins fetching subjects using {@link #mStudyFetcher}.
+     * member variables, restores the selection, begins fetching subjects using
+     * {@link #mStudyFetcher}, and starts observing the progress of any import run by
+     * {@link ImportWorker}.
      */
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_import);
 
-        mSubjectLayoutContainer = findViewById(R.id.subject_layout);
+        // The catalog is fetched again in the same order, so positions stay valid.
+        if (savedInstanceState != null) {
+            long[] selectedPositions = savedInstanceState.getLongArray(KEY_SELECTED_POSITIONS);
+            if (selectedPositions != null) {
+                mSelectedPositions = BitSet.valueOf(selectedPositions);
+            }
+        }
+
+        mCatalogAdapter = new CatalogAdapter();
+        mCatalogRecyclerView = findViewById(R.id.catalog_recycler_view);
+        mCatalogRecyclerView.setLayoutManager(new LinearLayoutManager(this));
+        mCatalogRecyclerView.setAdapter(mCatalogAdapter);
+
+        mFilterEditText = findViewById(R.id.catalog_filter_edit_text);
+        mFilterEditText.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                mCatalogAdapter.setFilter(s.toString());
+            }
+        });
 
         // Show progress bar.
         mLoadingProgressBar = findViewById(R.id.loading_progress_bar);
@@ -53,6 +192,97 @@ public class ImportActivity extends AppCompatActivity {
 
         mStudyFetcher = new StudyFetcher(this);
         mStudyFetcher.fetchSubjects(mFetchListener);
+
+        // Show import progress, including progress of an import started before a reattach.
+        mImportProgressText = findViewById(R.id.import_progress_text_view);
+        WorkManager.getInstance(getApplicationContext())
+                .getWorkInfosForUniqueWorkLiveData(ImportWorker.WORK_NAME)
+                .observe(this, workInfos -> updateImportProgress());
+    }
+
+    /**
+     * Callback method invoked before this activity may be destroyed. It saves the positions of
+     * selected catalog subjects.
+     *
+     * @param outState {@link Bundle} to save state in.
+     */
+    @Override
+    protected void onSaveInstanceState(@NonNull Bundle outState) {
+        super.onSaveInstanceState(outState);
+        outState.putLongArray(KEY_SELECTED_POSITIONS, mSelectedPositions.toLongArray());
+    }
+
+    /**
+     * Callback method invoked when this activity is destroyed. It stops {@link #mStudyFetcher},
+     * which cancels any prefetches, and streaming the catalog.
+     */
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        mStudyFetcher.stop();
+        mHandler.removeCallbacks(mStreamCatalogRunnable);
+    }
+
+    /**
+     * Starts fetching the {@link Question} objects of the passed catalog {@link Subject} into
+     * {@link #mStagedQuestions}, unless they are staged already.
+     *
+     * @param subject Catalog {@link Subject} that was selected.
+     */
+    private void prefetchQuestions(Subject subject) {
+        if (mStagedQuestions.get((int) subject.getId()) == null) {
+            mStudyFetcher.fetchQuestions(subject, mPrefetchListener);
+        }
+    }
+
+    /**
+     * Cancels fetching the {@link Question} objects of the passed catalog {@link Subject} and
+     * drops any that were staged.
+     *
+     * @param subject Catalog {@link Subject} that was deselected.
+     */
+    private void cancelPrefetch(Subject subject) {
+        mStudyFetcher.cancelQuestions(subject);
+        mStagedQuestions.remove((int) subject.getId());
+    }
+
+    /**
+     * Returns the number of catalog subjects whose {@link Question} objects are staged.
+     *
+     * @return The int number of staged subjects.
+     */
+    @VisibleForTesting
+    int getStagedSubjectCount() {
+        return mStagedQuestions.snapshot().size();
+    }
+
+    /**
+     * Queries the states of persisted {@link ImportJob} objects on a background thread and shows
+     * the import progress in {@link #mImportProgressText}.
+     */
+    private void updateImportProgress() {
+        StudyDatabase studyDb = StudyDatabase.getInstance(getApplicationContext());
+        StudyDatabase.getDatabaseExecutor().execute(() -> {
+            int total = studyDb.importJobDao().countAllJobs();
+            int pending = studyDb.importJobDao().countJobs(ImportJob.STATE_PENDING);
+            int failed = studyDb.importJobDao().countJobs(ImportJob.STATE_FAILED);
+
+            runOnUiThread(() -> {
+                if (total == 0) {
+                    mImportProgressText.setVisibility(View.GONE);
+                    return;
+                }
+                if (pending > 0) {
+                    mImportProgressText.setText(getString(R.string.import_progress,
+                            total - pending, total));
+                } else if (failed > 0) {
+                    mImportProgressText.setText(getString(R.string.import_failed, failed));
+                } else {
+                    mImportProgressText.setText(R.string.import_complete);
+                }
+                mImportProgressText.setVisibility(View.VISIBLE);
+            });
+        });
     }
 
     /**
@@ -65,8 +295,10 @@ public class ImportActivity extends AppCompatActivity {
 
                 /**
                  * Invoked when {@link Subject} objects are successfully received from
-                 * {@link ImportActivity#mStudyFetcher}. It creates a {@link CheckBox} for
-                 * each {@link Subject} in {@link ImportActivity#mSubjectLayoutContainer}.
+                 * {@link ImportActivity#mStudyFetcher}. It appends them to
+                 * {@link ImportActivity#mCatalog} and streams them into
+                 * {@link ImportActivity#mCatalogRecyclerView} a chunk at a time. Subjects
+                 * selected before this activity was recreated are prefetched again.
                  *
                  * @param subjectList   {@link List} of {@link Subject} objects received from
                  *                      zyBook's servers.
@@ -77,20 +309,25 @@ public class ImportActivity extends AppCompatActivity {
                     // Hide ProgressBar.
                     mLoadingProgressBar.setVisibility(View.GONE);
 
-                    // Create a CheckBox for each subject.
                     for (Subject subject : subjectList) {
-                        CheckBox checkBox = new CheckBox(getApplicationContext());
-                        checkBox.setTextSize(24);
-                        checkBox.setText(subject.getText());
-                        checkBox.setTag(subject);
-                        mSubjectLayoutContainer.addView(checkBox);
+                        subject.setId(mCatalog.size());
+                        mCatalog.add(subject);
+                    }
+
+                    // Show the first chunk right away and the rest over the next messages.
+                    mHandler.removeCallbacks(mStreamCatalogRunnable);
+                    mStreamCatalogRunnable.run();
+
+                    for (int i = mSelectedPositions.nextSetBit(0); i >= 0 && i < mCatalog.size();
+                         i = mSelectedPositions.nextSetBit(i + 1)) {
+                        prefetchQuestions(mCatalog.get(i));
                     }
                 }
 
                 /**
                  * Invoked when {@link Question} objects are successfully received from
-                 * {@link ImportActivity#mStudyFetcher} for each {@link Subject}. It adds all
-                 * {@link Question} objects to the database via a {@link StudyDatabase} instance.
+                 * {@link ImportActivity#mStudyFetcher}. It does nothing, since questions are
+                 * fetched and committed by {@link ImportWorker}.
                  *
                  * @param subject       {@link Subject} that the {@link List} of {@link Question}
                  *                      objects are from.
@@ -99,22 +336,6 @@ public class ImportActivity extends AppCompatActivity {
                  */
                 @Override
                 public void onQuestionsReceived(Subject subject, List<Question> questionList) {
-
-                    if (!questionList.isEmpty()) {
-                        StudyDatabase studyDb = StudyDatabase.getInstance(getApplicationContext());
-
-                        // Add the questions to the database.
-                        for (Question question : questionList) {
-                            question.setSubjectId(subject.getId());
-                            studyDb.questionDao().insertQuestion(question);
-                        }
-
-                        Toast.makeText(getApplicationContext(), subject.getText() + " imported successfully",
-                                Toast.LENGTH_SHORT).show();
-                    } else {
-                        Toast.makeText(getApplicationContext(), subject.getText() + " contained no questions",
-                                Toast.LENGTH_SHORT).show();
-                    }
                 }
 
                 /**
@@ -133,32 +354,287 @@ public class ImportActivity extends AppCompatActivity {
             };
 
     /**
-     * Invoked when the "Import" {@link android.widget.Button} is clicked. It saves the
-     * {@link Subject} and {@link Question} objects selected to the database via a
-     * {@link StudyDatabase} instance.
+     * {@link StudyFetcher.OnStudyDataReceivedListener} that stages prefetched {@link Question}
+     * objects in {@link #mStagedQuestions}.
+     */
+    private final StudyFetcher.OnStudyDataReceivedListener mPrefetchListener =
+            new StudyFetcher.OnStudyDataReceivedListener() {
+
+                /**
+                 * Invoked when {@link Subject} objects are received. It does nothing, since
+                 * this listener only prefetches questions.
+                 *
+                 * @param subjectList {@link List} of {@link Subject} objects received.
+                 */
+                @Override
+                public void onSubjectsReceived(List<Subject> subjectList) {
+                }
+
+                /**
+                 * Invoked when prefetched {@link Question} objects are received. It stages them
+                 * if their {@link Subject} is still selected.
+                 *
+                 * @param subject      Catalog {@link Subject} the questions are from.
+                 * @param questionList {@link List} of {@link Question} objects received.
+                 */
+                @Override
+                public void onQuestionsReceived(Subject subject, List<Question> questionList) {
+                    int position = (int) subject.getId();
+                    if (mSelectedPositions.get(position)) {
+                        mStagedQuestions.put(position, questionList);
+                    }
+                }
+
+                /**
+                 * Invoked when a prefetch fails. It only logs the error, since
+                 * {@link ImportWorker} fetches the subject with retries when importing.
+                 *
+                 * @param error {@link VolleyError} invoking this method.
+                 */
+                @Override
+                public void onErrorResponse(VolleyError error) {
+                    Log.w(TAG, "Error prefetching questions: " + error);
+                }
+            };
+
+    /**
+     * Invoked when the "Import" {@link android.widget.Button} is clicked. It persists an
+     * {@link ImportJob} for each selected {@link Subject}. Subjects whose questions were already
+     * prefetched are committed right away, and an {@link ImportWorker} is enqueued to fetch and
+     * process the rest in the background. Subjects that were already imported are looked up in
+     * a single query and are only topped up with questions they do not hold yet.
      */
     public void importButtonClick(View view) {
 
+        // Determine which subjects were selected and take their prefetched questions.
+        List<Subject> selectedSubjects = new ArrayList<>();
+        List<List<Question>> stagedQuestionLists = new ArrayList<>();
+        for (int i = mSelectedPositions.nextSetBit(0); i >= 0 && i < mCatalog.size();
+             i = mSelectedPositions.nextSetBit(i + 1)) {
+            selectedSubjects.add(mCatalog.get(i));
+            stagedQuestionLists.add(mStagedQuestions.remove(i));
+        }
+        if (selectedSubjects.isEmpty()) {
+            return;
+        }
+        boolean fetchNeeded = stagedQuestionLists.contains(null);
+
         StudyDatabase studyDb = StudyDatabase.getInstance(getApplicationContext());
+        StudyDatabase.getDatabaseExecutor().execute(() -> {
+            List<ImportJob> jobList = new ArrayList<>();
+            List<String> importedTexts = new ArrayList<>();
 
-        // Determine which subjects were selected.
-        int numCheckBoxes = mSubjectLayoutContainer.getChildCount();
-        for (int i = 0; i < numCheckBoxes; i++) {
-            CheckBox checkBox = (CheckBox) mSubjectLayoutContainer.getChildAt(i);
-            if (checkBox.isChecked()) {
-                Subject subject = (Subject) checkBox.getTag();
-
-                // See if this subject has already been imported.
-                if (studyDb.subjectDao().getSubjectByText(subject.getText()) == null) {
-                    // Add subject to the database and import.
-                    long newId = studyDb.subjectDao().insertSubject(subject);
-                    subject.setId(newId);
-                    mStudyFetcher.fetchQuestions(subject, mFetchListener);
-                } else {
-                    Toast.makeText(this, subject.getText() + " is already imported.",
+            studyDb.runInTransaction(() -> {
+
+                // Start progress from scratch if no previous import is still running.
+                if (studyDb.importJobDao().countJobs(ImportJob.STATE_PENDING) == 0) {
+                    studyDb.importJobDao().deleteFinishedJobs();
+                }
+
+                // See which subjects have already been imported.
+                List<String> selectedTexts = new ArrayList<>();
+                for (Subject subject : selectedSubjects) {
+                    selectedTexts.add(subject.getText());
+                }
+                Set<String> existingTexts = new HashSet<>();
+                for (Subject subject : studyDb.subjectDao().getSubjectsByTexts(selectedTexts)) {
+                    existingTexts.add(subject.getText());
+                }
+
+                for (Subject subject : selectedSubjects) {
+                    jobList.add(new ImportJob(subject.getText(), subject.getUpdateTime()));
+                    if (existingTexts.contains(subject.getText())) {
+                        importedTexts.add(subject.getText());
+                    }
+                }
+                long[] jobIds = studyDb.importJobDao().insertJobs(jobList);
+
+                // Commit prefetched questions now and leave only the rest to the worker.
+                for (int i = 0; i < jobList.size(); i++) {
+                    ImportJob job = jobList.get(i);
+                    job.setId(jobIds[i]);
+                    List<Question> questionList = stagedQuestionLists.get(i);
+                    if (questionList == null) {
+                        continue;
+                    }
+
+                    // Catalog ids are positions, so a fresh subject is inserted.
+                    Subject subject = new Subject(job.getSubjectText());
+                    subject.setUpdateTime(job.getSubjectUpdateTime());
+                    ImportWorker.commitJob(studyDb, job, subject, questionList);
+                }
+            });
+
+            if (fetchNeeded) {
+                ImportWorker.enqueue(getApplicationContext());
+            }
+
+            runOnUiThread(() -> {
+                for (String subjectText : importedTexts) {
+                    Toast.makeText(getApplicationContext(), subjectText
+                                    + " is already imported. Only new questions will be added.",
                             Toast.LENGTH_SHORT).show();
                 }
+                updateImportProgress();
+            });
+        });
+    }
+
+    /**
+     * {@link CatalogHolder} is a model class that describes a single catalog item view and
+     * metadata about its place within a {@link RecyclerView}.
+     */
+    private class CatalogHolder extends RecyclerView.ViewHolder implements View.OnClickListener {
+
+        /**
+         * {@link Subject} associated with this {@link CatalogHolder}.
+         */
+        private Subject mSubject;
+
+        /**
+         * {@link CheckBox} to display and select {@link #mSubject}.
+         */
+        private final CheckBox mCheckBox;
+
+        /**
+         * Constructs a new {@link CatalogHolder}.
+         *
+         * @param inflater For inflating layouts.
+         * @param parent   Parent {@link ViewGroup} of the {@link RecyclerView}.
+         */
+        public CatalogHolder(LayoutInflater inflater, ViewGroup parent) {
+            super(inflater.inflate(R.layout.catalog_items, parent, false));
+            mCheckBox = itemView.findViewById(R.id.catalog_check_box);
+            mCheckBox.setOnClickListener(this);
+        }
+
+        /**
+         * Binds a new {@link Subject} to this {@link CatalogHolder}.
+         *
+         * @param subject {@link Subject} to bind to this {@link CatalogHolder}.
+         */
+        public void bind(Subject subject) {
+            mSubject = subject;
+            mCheckBox.setText(subject.getText());
+            mCheckBox.setChecked(mSelectedPositions.get((int) subject.getId()));
+        }
+
+        /**
+         * Invoked when the {@link CheckBox} held by this {@link CatalogHolder} is clicked. It
+         * records whether {@link #mSubject} is now selected, and starts or cancels prefetching
+         * its questions.
+         */
+        @Override
+        public void onClick(View view) {
+            boolean checked = mCheckBox.isChecked();
+            mSelectedPositions.set((int) mSubject.getId(), checked);
+            if (checked) {
+                prefetchQuestions(mSubject);
+            } else {
+                cancelPrefetch(mSubject);
             }
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * {@link CatalogAdapter} provides a binding from the catalog {@link Subject} objects streamed
+     * in so far to a {@link RecyclerView}.
+     */
+    private class CatalogAdapter extends RecyclerView.Adapter<CatalogHolder> {
+
+        /**
+         * {@link SubjectIndex} of all streamed in {@link Subject} objects, including those hidden
+         * by the filter.
+         */
+        private final SubjectIndex mSubjectIndex = new SubjectIndex(new ArrayList<>());
+
+        /**
+         * {@link List} of {@link Subject} objects matching {@link #mFilterQuery} to adapt.
+         */
+        private List<Subject> mSubjectList = new ArrayList<>();
+
+        /**
+         * {@link String} query the adapted {@link Subject} objects are filtered by. Empty if not
+         * filtered.
+         */
+        private String mFilterQuery = "";
+
+        /**
+         * Callback method invoked when {@link RecyclerView} needs a new empty {@link CatalogHolder}
+         * to represent a {@link Subject}.
+         *
+         * @param parent   {@link ViewGroup} into which the new {@link View} will be added after it
+         *                 is bound to an adapter position.
+         * @param viewType The view type of the new {@link View}.
+         * @return A new {@link CatalogHolder}.
+         */
+        @NonNull
+        @Override
+        public CatalogHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+            LayoutInflater layoutInflater = LayoutInflater.from(ImportActivity.this);
+            return new CatalogHolder(layoutInflater, parent);
+        }
+
+        /**
+         * Callback method invoked when {@link RecyclerView} needs to bind data to a
+         * {@link CatalogHolder} at a certain position index.
+         *
+         * @param holder   {@link CatalogHolder} to be bound.
+         * @param position The {@link CatalogHolder} object's position index in the adapter.
+         */
+        @Override
+        public void onBindViewHolder(@NonNull CatalogHolder holder, int position) {
+            holder.bind(mSubjectList.get(position));
+        }
+
+        /**
+         * Returns the total number of items this adapter is adapting.
+         *
+         * @return The total number of items this adapter is adapting.
+         */
+        @Override
+        public int getItemCount() {
+            return mSubjectList.size();
+        }
+
+        /**
+         * Appends {@link Subject} objects to the end of the catalog. Without a filter, only the
+         * appended range is bound.
+         *
+         * @param subjects {@link List} of {@link Subject} objects to append.
+         */
+        public void addSubjects(List<Subject> subjects) {
+            for (Subject subject : subjects) {
+                mSubjectIndex.add(mSubjectIndex.size(), subject);
+            }
+            if (isFiltered()) {
+                setFilter(mFilterQuery);
+                return;
+            }
+            int start = mSubjectList.size();
+            mSubjectList.addAll(subjects);
+            notifyItemRangeInserted(start, subjects.size());
+        }
+
+        /**
+         * Adapts only the {@link Subject} objects whose text contains the passed query, with
+         * those starting with it first.
+         *
+         * @param query {@link String} to filter by. Empty to adapt all {@link Subject} objects.
+         */
+        public void setFilter(String query) {
+            mFilterQuery = query.trim();
+            mSubjectList = mSubjectIndex.search(mFilterQuery);
+            notifyDataSetChanged();
+        }
+
+        /**
+         * Returns whether the adapted {@link Subject} objects are filtered.
+         *
+         * @return True if a filter query is set.
+         */
+        private boolean isFiltered() {
+            return !mFilterQuery.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.davidread.studyhelper;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+/**
+ * {@link ImportJob} is a class used to model the import of a single subject from zyBook's servers.
+ * Jobs are persisted so that {@link ImportWorker} can resume an import after the app's process is
+ * killed. Each job acts as a per-subject checkpoint: once its state leaves {@link #STATE_PENDING},
+ * the subject is never fetched again.
+ */
+@Entity
+public class ImportJob {
+
+    /**
+     * State of a job whose subject has not been imported yet.
+     */
+    public static final int STATE_PENDING = 0;
+
+    /**
+     * State of a job whose subject and questions have been committed to the database.
+     */
+    public static final int STATE_DONE = 1;
+
+    /**
+     * State of a job whose subject was already present in the database.
+     */
+    public static final int STATE_SKIPPED = 2;
+
+    /**
+     * State of a job that gave up after {@link ImportWorker} exhausted its attempts.
+     */
+    public static final int STATE_FAILED = 3;
+
+    /**
+     * Unique long id for the job.
+     */
+    @PrimaryKey(autoGenerate = true)
+    @ColumnInfo(name = "id")
+    private long mId;
+
+    /**
+     * {@link String} text of the subject to import.
+     */
+    @NonNull
+    @ColumnInfo(name = "subject_text")
+    private String mSubjectText;
+
+    /**
+     * Long representing the update time of the subject to import.
+     */
+    @ColumnInfo(name = "subject_updated")
+    private long mSubjectUpdateTime;
+
+    /**
+     * Int state of the job. One of {@link #STATE_PENDING}, {@link #STATE_DONE},
+     * {@link #STATE_SKIPPED}, or {@link #STATE_FAILED}.
+     */
+    @ColumnInfo(name = "state")
+    private int mState;
+
+    /**
+     * Int number of questions committed by the job.
+     */
+    @ColumnInfo(name = "question_count")
+    private int mQuestionCount;
+
+    /**
+     * Int number of failed attempts to fetch the subject's questions.
+     */
+    @ColumnInfo(name = "attempts")
+    private int mAttempts;
+
+    /**
+     * Long representing the creation time of the job.
+     */
+    @ColumnInfo(name = "created")
+    private long mCreateTime;
+
+    /**
+     * Constructs a new pending {@link ImportJob}.
+     *
+     * @param subjectText       {@link String} text of the subject to import.
+     * @param subjectUpdateTime Long representing the update time of the subject to import.
+     */
+    public ImportJob(@NonNull String subjectText, long subjectUpdateTime) {
+        mSubjectText = subjectText;
+        mSubjectUpdateTime = subjectUpdateTime;
+        mState = STATE_PENDING;
+        mCreateTime = System.currentTimeMillis();
+    }
+
+    public long getId() {
+        return mId;
+    }
+
+    public void setId(long id) {
+        mId = id;
+    }
+
+    @NonNull
+    public String getSubjectText() {
+        return mSubjectText;
+    }
+
+    public void setSubjectText(@NonNull String subjectText) {
+        mSubjectText = subjectText;
+    }
+
+    public long getSubjectUpdateTime() {
+        return mSubjectUpdateTime;
+    }
+
+    public void setSubjectUpdateTime(long subjectUpdateTime) {
+        mSubjectUpdateTime = subjectUpdateTime;
+    }
+
+    public int getState() {
+        return mState;
+    }
+
+    public void setState(int state) {
+        mState = state;
+    }
+
+    public int getQuestionCount() {
+        return mQuestionCount;
+    }
+
+    public void setQuestionCount(int questionCount) {
+        mQuestionCount = questionCount;
+    }
+
+    public int getAttempts() {
+        return mAttempts;
+    }
+
+    public void setAttempts(int attempts) {
+        mAttempts = attempts;
+    }
+
+    public long getCreateTime() {
+        return mCreateTime;
+    }
+
+    public void setCreateTime(long createTime) {
+        mCreateTime = createTime;
+    }
+}
@@ -0,0 +1,76 @@
+package com.davidread.studyhelper;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.Query;
+import androidx.room.Update;
+
+import java.util.List;
+
+/**
+ * {@link ImportJobDao} defines methods to select, insert, update, and delete {@link ImportJob}
+ * entities from the database maintained by {@link StudyDatabase}. At compile time, Room
+ * automatically generates implementations of these methods.
+ */
+@Dao
+public interface ImportJobDao {
+
+    /**
+     * Queries for all {@link ImportJob} objects that have not been processed yet and returns them
+     * in the order they were created.
+     *
+     * @return A {@link List} of pending {@link ImportJob} objects.
+     */
+    @Query("SELECT * FROM ImportJob WHERE state = " + ImportJob.STATE_PENDING + " ORDER BY id")
+    public List<ImportJob> getPendingJobs();
+
+    /**
+     * Queries for all {@link ImportJob} objects and returns them in the order they were created.
+     *
+     * @return A {@link List} of {@link ImportJob} objects.
+     */
+    @Query("SELECT * FROM ImportJob ORDER BY id")
+    public List<ImportJob> getJobs();
+
+    /**
+     * Counts the {@link ImportJob} objects in the passed state.
+     *
+     * @param state Int state to match.
+     * @return The number of {@link ImportJob} objects in the passed state.
+     */
+    @Query("SELECT COUNT(*) FROM ImportJob WHERE state = :state")
+    public int countJobs(int state);
+
+    /**
+     * Counts all {@link ImportJob} objects.
+     *
+     * @return The number of {@link ImportJob} objects.
+     */
+    @Query("SELECT COUNT(*) FROM ImportJob")
+    public int countAllJobs();
+
+    /**
+     * Inserts new {@link ImportJob} objects.
+     *
+     * @param jobs {@link List} of new {@link ImportJob} objects.
+     * @return The long ids of the newly inserted {@link ImportJob} objects.
+     */
+    @Insert
+    public long[] insertJobs(List<ImportJob> jobs);
+
+    /**
+     * Updates all {@link ImportJob} objects matching the id set in the object with the values set
+     * in the object.
+     *
+     * @param job An {@link ImportJob} whose id will be matched and whose values will be set onto
+     *            all matching objects.
+     */
+    @Update
+    public void updateJob(ImportJob job);
+
+    /**
+     * Deletes all {@link ImportJob} objects that are no longer pending.
+     */
+    @Query("DELETE FROM ImportJob WHERE state != " + ImportJob.STATE_PENDING)
+    public void deleteFinishedJobs();
+}
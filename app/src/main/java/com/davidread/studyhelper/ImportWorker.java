@@ -0,0 +1,176 @@
+package com.davidread.studyhelper;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.BackoffPolicy;
+import androidx.work.Constraints;
+import androidx.work.Data;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * {@link ImportWorker} is a {@link Worker} that processes pending {@link ImportJob} objects in the
+ * background. Each subject is committed together with its questions in a single transaction, so a
+ * subject only becomes visible once it is complete. Since jobs and their states are persisted,
+ * {@link WorkManager} can resume an import from the last completed subject after process death.
+ */
+public class ImportWorker extends Worker {
+
+    /**
+     * {@link String} unique work name under which import work is enqueued.
+     */
+    public static final String WORK_NAME = "import";
+
+    /**
+     * {@link String} progress key for the number of jobs processed by this worker.
+     */
+    public static final String PROGRESS_DONE = "done";
+
+    /**
+     * {@link String} progress key for the number of jobs this worker started with.
+     */
+    public static final String PROGRESS_TOTAL = "total";
+
+    /**
+     * Int number of attempts to fetch a subject's questions before its job is marked as failed.
+     */
+    private static final int MAX_ATTEMPTS = 3;
+
+    /**
+     * {@link String} identifier for log messages in this class.
+     */
+    private static final String TAG = "ImportWorker";
+
+    /**
+     * Constructs a new {@link ImportWorker}.
+     *
+     * @param context {@link Context} of the app.
+     * @param params  {@link WorkerParameters} to set up this worker.
+     */
+    public ImportWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    /**
+     * Enqueues an {@link ImportWorker} that processes all pending {@link ImportJob} objects. The
+     * work is appended after any import already running so newly added jobs are never missed.
+     *
+     * @param context {@link Context} for getting a {@link WorkManager} instance.
+     */
+    public static void enqueue(Context context) {
+        Constraints constraints = new Constraints.Builder()
+                .setRequiredNetworkType(NetworkType.CONNECTED)
+                .build();
+        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(ImportWorker.class)
+                .setConstraints(constraints)
+                .setBackoffCriteria(BackoffPolicy.EXPONENTIAL, 30, TimeUnit.SECONDS)
+                .build();
+        WorkManager.getInstance(context)
+                .enqueueUniqueWork(WORK_NAME, ExistingWorkPolicy.APPEND_OR_REPLACE, request);
+    }
+
+    /**
+     * Invoked on a background thread to process all pending {@link ImportJob} objects.
+     *
+     * @return {@link Result#success()} if every job reached a final state.
+     * {@link Result#retry()} if some jobs should be attempted again later.
+     */
+    @NonNull
+    @Override
+    public Result doWork() {
+        StudyDatabase studyDb = StudyDatabase.getInstance(getApplicationContext());
+        StudyFetcher studyFetcher = new StudyFetcher(getApplicationContext());
+
+        List<ImportJob> jobList = studyDb.importJobDao().getPendingJobs();
+        boolean retry = false;
+
+        try {
+            for (int i = 0; i < jobList.size(); i++) {
+                if (isStopped()) {
+                    return Result.retry();
+                }
+                setProgressAsync(new Data.Builder()
+                        .putInt(PROGRESS_DONE, i)
+                        .putInt(PROGRESS_TOTAL, jobList.size())
+                        .build());
+
+                ImportJob job = jobList.get(i);
+                Subject subject = new Subject(job.getSubjectText());
+                subject.setUpdateTime(job.getSubjectUpdateTime());
+
+                try {
+                    List<Question> questionList = studyFetcher.fetchQuestionsSync(subject);
+                    commitJob(studyDb, job, subject, questionList);
+                } catch (ExecutionException | TimeoutException e) {
+                    Log.e(TAG, "Error fetching " + job.getSubjectText() + ": " + e.getMessage());
+                    job.setAttempts(job.getAttempts() + 1);
+                    if (job.getAttempts() >= MAX_ATTEMPTS) {
+                        job.setState(ImportJob.STATE_FAILED);
+                    } else {
+                        retry = true;
+                    }
+                    studyDb.importJobDao().updateJob(job);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Result.retry();
+        } finally {
+            studyFetcher.stop();
+        }
+
+        return retry ? Result.retry() : Result.success();
+    }
+
+    /**
+     * Commits the passed {@link Subject}, its {@link Question} objects, and the new state of its
+     * {@link ImportJob} in a single transaction. If a {@link Subject} with the same text already
+     * exists, only the {@link Question} objects it does not hold yet are added to it, so importing
+     * a subject again never creates duplicates. Also used by {@link ImportActivity} to commit
+     * questions it prefetched.
+     *
+     * @param studyDb      {@link StudyDatabase} to commit to.
+     * @param job          {@link ImportJob} being processed.
+     * @param subject      {@link Subject} to insert.
+     * @param questionList {@link List} of {@link Question} objects belonging to the subject.
+     */
+    static void commitJob(StudyDatabase studyDb, ImportJob job, Subject subject,
+                          List<Question> questionList) {
+        studyDb.runInTransaction(() -> {
+
+            // See if this subject has already been imported.
+            Subject existingSubject = studyDb.subjectDao().getSubjectByText(subject.getText());
+            long subjectId = existingSubject != null ? existingSubject.getId()
+                    : studyDb.subjectDao().insertSubject(subject);
+            for (Question question : questionList) {
+                question.setSubjectId(subjectId);
+            }
+
+            int insertedCount = 0;
+            for (long id : studyDb.questionDao().insertQuestionsIfAbsent(questionList)) {
+                if (id != -1) {
+                    insertedCount++;
+                }
+            }
+            job.setQuestionCount(insertedCount);
+            if (existingSubject != null && insertedCount == 0) {
+                job.setState(ImportJob.STATE_SKIPPED);
+            } else {
+                job.setState(ImportJob.STATE_DONE);
+            }
+
+            studyDb.importJobDao().updateJob(job);
+        });
+    }
+}
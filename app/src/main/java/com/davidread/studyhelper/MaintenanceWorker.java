@@ -0,0 +1,257 @@
+package com.davidread.studyhelper;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.work.Constraints;
+import androidx.work.Data;
+import androidx.work.ExistingPeriodicWorkPolicy;
+import androidx.work.PeriodicWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link MaintenanceWorker} is a {@link Worker} that keeps {@link StudyDatabase} compact and its
+ * query planner informed. It runs daily while the device is idle and charging. Free pages left by
+ * deletes are returned to the file system with incremental vacuum steps, table statistics are
+ * refreshed with ANALYZE, and the database is checked for corruption. The auto vacuum mode can
+ * only be changed by a full vacuum once the file has tables, so the first run switches the
+ * database to incremental vacuum with one full vacuum whatever its size. That rewrite holds the
+ * write lock, but only happens once and only while the device is idle. Crowded
+ * {@link FractionalRank} ranks are rebalanced first, so moves rarely have to. Every other step is
+ * a short statement or transaction of its own, so the write lock is only ever held briefly. The
+ * file size, free pages, and fragmentation before and after are logged and set as the output of
+ * the work.
+ */
+public class MaintenanceWorker extends Worker {
+
+    /**
+     * {@link String} unique work name under which maintenance work is enqueued.
+     */
+    private static final String WORK_NAME = "maintenance";
+
+    /**
+     * {@link String} output key for the size of the database file in bytes.
+     */
+    public static final String OUTPUT_FILE_SIZE = "file_size";
+
+    /**
+     * {@link String} output key for the number of free pages in the database file.
+     */
+    public static final String OUTPUT_FREELIST_PAGES = "freelist_pages";
+
+    /**
+     * {@link String} output key for the share of free pages in the database file, from 0 to 1.
+     */
+    public static final String OUTPUT_FRAGMENTATION = "fragmentation";
+
+    /**
+     * {@link String} output key for the number of pages freed by this run.
+     */
+    public static final String OUTPUT_PAGES_FREED = "pages_freed";
+
+    /**
+     * {@link String} output key for whether the integrity check passed.
+     */
+    public static final String OUTPUT_INTEGRITY_OK = "integrity_ok";
+
+    /**
+     * {@link String} output key for the number of lists of ranks rebalanced by this run.
+     */
+    public static final String OUTPUT_RANKS_REBALANCED = "ranks_rebalanced";
+
+    /**
+     * {@link String} identifier for log messages in this class.
+     */
+    private static final String TAG = "MaintenanceWorker";
+
+    /**
+     * Int value of the auto_vacuum pragma for incremental vacuum.
+     */
+    private static final int AUTO_VACUUM_INCREMENTAL = 2;
+
+    /**
+     * Int number of pages freed per incremental vacuum step.
+     */
+    private static final int VACUUM_PAGES_PER_STEP = 256;
+
+    /**
+     * Int maximum number of incremental vacuum steps per run.
+     */
+    private static final int MAX_VACUUM_STEPS = 64;
+
+    /**
+     * Int number of rows sampled per index by ANALYZE on SQLite versions that support it.
+     */
+    private static final int ANALYSIS_LIMIT = 1000;
+
+    /**
+     * Int maximum number of errors reported by the integrity check.
+     */
+    private static final int MAX_INTEGRITY_ERRORS = 10;
+
+    /**
+     * {@link String} array of the tables analyzed one at a time.
+     */
+    private static final String[] TABLES = {"Subject", "Question", "ImportJob", "StudyEvent",
+            "SubjectDailyStats", "QuestionDailyStats"};
+
+    /**
+     * Constructs a new {@link MaintenanceWorker}.
+     *
+     * @param context {@link Context} of the app.
+     * @param params  {@link WorkerParameters} to set up this worker.
+     */
+    public MaintenanceWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    /**
+     * Schedules a daily {@link MaintenanceWorker} unless one is already scheduled.
+     *
+     * @param context {@link Context} for getting a {@link WorkManager} instance.
+     */
+    public static void schedule(Context context) {
+        Constraints constraints = new Constraints.Builder()
+                .setRequiresDeviceIdle(true)
+                .setRequiresCharging(true)
+                .build();
+        PeriodicWorkRequest request =
+                new PeriodicWorkRequest.Builder(MaintenanceWorker.class, 1, TimeUnit.DAYS)
+                        .setConstraints(constraints)
+                        .build();
+        WorkManager.getInstance(context)
+                .enqueueUniquePeriodicWork(WORK_NAME, ExistingPeriodicWorkPolicy.KEEP, request);
+    }
+
+    /**
+     * Invoked on a background thread to rebalance ranks and vacuum, analyze, and check the
+     * database.
+     *
+     * @return {@link Result#success()} with the database statistics as output.
+     * {@link Result#retry()} if the work was stopped before it finished.
+     */
+    @NonNull
+    @Override
+    public Result doWork() {
+        StudyDatabase studyDb = StudyDatabase.getInstance(getApplicationContext());
+        SupportSQLiteDatabase database = studyDb.getOpenHelper().getWritableDatabase();
+        long freelistBefore = queryLong(database, "PRAGMA freelist_count");
+
+        // Rebalance one subject per transaction, stopping early if the device is no longer idle.
+        int ranksRebalanced = 0;
+        for (long subjectId : studyDb.questionDao()
+                .getSubjectIdsWithCrowdedRanks(FractionalRank.CROWDED_GAP)) {
+            if (isStopped()) {
+                return Result.retry();
+            }
+            studyDb.questionDao().rebalanceQuestionRanks(subjectId);
+            ranksRebalanced++;
+        }
+        if (studyDb.subjectDao().hasCrowdedSubjectRanks(FractionalRank.CROWDED_GAP)) {
+            studyDb.subjectDao().rebalanceSubjectRanks();
+            ranksRebalanced++;
+        }
+
+        // The new mode only takes effect once a full vacuum outside a transaction rewrites the
+        // file, which also returns every free page.
+        if (isStopped()) {
+            return Result.retry();
+        }
+        if (queryLong(database, "PRAGMA auto_vacuum") != AUTO_VACUUM_INCREMENTAL) {
+            database.execSQL("PRAGMA auto_vacuum = INCREMENTAL");
+            database.execSQL("VACUUM");
+        }
+
+        // Free pages in bounded steps, stopping early if the device is no longer idle.
+        for (int i = 0; i < MAX_VACUUM_STEPS; i++) {
+            if (isStopped()) {
+                return Result.retry();
+            }
+            if (queryLong(database, "PRAGMA freelist_count") == 0) {
+                break;
+            }
+            drain(database, "PRAGMA incremental_vacuum(" + VACUUM_PAGES_PER_STEP + ")");
+        }
+
+        // Refresh planner statistics one table at a time, sampling on newer SQLite versions.
+        drain(database, "PRAGMA analysis_limit = " + ANALYSIS_LIMIT);
+        for (String table : TABLES) {
+            if (isStopped()) {
+                return Result.retry();
+            }
+            database.execSQL("ANALYZE `" + table + "`");
+        }
+
+        boolean integrityOk = checkIntegrity(database);
+
+        long pageSize = queryLong(database, "PRAGMA page_size");
+        long pageCount = queryLong(database, "PRAGMA page_count");
+        long freelistAfter = queryLong(database, "PRAGMA freelist_count");
+        float fragmentation = pageCount == 0 ? 0 : (float) freelistAfter / pageCount;
+        Data output = new Data.Builder()
+                .putLong(OUTPUT_FILE_SIZE, pageSize * pageCount)
+                .putLong(OUTPUT_FREELIST_PAGES, freelistAfter)
+                .putFloat(OUTPUT_FRAGMENTATION, fragmentation)
+                .putLong(OUTPUT_PAGES_FREED, Math.max(0, freelistBefore - freelistAfter))
+                .putBoolean(OUTPUT_INTEGRITY_OK, integrityOk)
+                .putInt(OUTPUT_RANKS_REBALANCED, ranksRebalanced)
+                .build();
+        Log.i(TAG, "Maintenance done: " + output.getKeyValueMap());
+        return Result.success(output);
+    }
+
+    /**
+     * Runs a quick integrity check and logs any problems found.
+     *
+     * @param database {@link SupportSQLiteDatabase} to check.
+     * @return True if no problems were found.
+     */
+    private static boolean checkIntegrity(SupportSQLiteDatabase database) {
+        boolean ok = true;
+        try (Cursor cursor = database.query("PRAGMA quick_check(" + MAX_INTEGRITY_ERRORS + ")")) {
+            while (cursor.moveToNext()) {
+                String result = cursor.getString(0);
+                if (!"ok".equals(result)) {
+                    Log.e(TAG, "Integrity check failed: " + result);
+                    ok = false;
+                }
+            }
+        }
+        return ok;
+    }
+
+    /**
+     * Runs the passed query and returns the first column of its first row as a long.
+     *
+     * @param database {@link SupportSQLiteDatabase} to query.
+     * @param sql      {@link String} SQL query.
+     * @return The long value. Zero if there are no rows.
+     */
+    private static long queryLong(SupportSQLiteDatabase database, String sql) {
+        try (Cursor cursor = database.query(sql)) {
+            return cursor.moveToFirst() ? cursor.getLong(0) : 0;
+        }
+    }
+
+    /**
+     * Runs the passed statement and steps through all its rows. Some pragmas, like
+     * incremental_vacuum, only do part of their work per row stepped.
+     *
+     * @param database {@link SupportSQLiteDatabase} to run the statement on.
+     * @param sql      {@link String} SQL statement.
+     */
+    private static void drain(SupportSQLiteDatabase database, String sql) {
+        try (Cursor cursor = database.query(sql)) {
+            while (cursor.moveToNext()) {
+                // Each step does part of the work.
+            }
+        }
+    }
+}
@@ -0,0 +1,503 @@
+package com.davidread.studyhelper;
+
+import android.graphics.Typeface;
+import android.text.Layout;
+import android.text.SpannableStringBuilder;
+import android.text.Spanned;
+import android.text.style.AlignmentSpan;
+import android.text.style.BackgroundColorSpan;
+import android.text.style.BulletSpan;
+import android.text.style.RelativeSizeSpan;
+import android.text.style.StyleSpan;
+import android.text.style.SubscriptSpan;
+import android.text.style.SuperscriptSpan;
+import android.text.style.TypefaceSpan;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@link MarkdownRenderer} turns the Markdown used in question and answer bodies into styled text.
+ * It supports headings, bullet lists, fenced code blocks, inline code, bold, italic, and TeX math
+ * between dollar signs. Math is set in italic serif, with common commands replaced by their
+ * Unicode symbols, exponents and indices raised and lowered, and fractions written with a slash.
+ * Rendering only builds spans, so it is safe on a background thread. Text without any markup
+ * characters is returned as is.
+ */
+public class MarkdownRenderer {
+
+    /**
+     * {@link String} of the characters that may start markup. Text without any is not parsed.
+     */
+    private static final String MARKUP_CHARS = "*_`$#-+\\";
+
+    /**
+     * Int translucent gray behind code, readable on both light and dark themes.
+     */
+    private static final int CODE_BACKGROUND_COLOR = 0x33808080;
+
+    /**
+     * Float array of the relative text sizes of headings by level.
+     */
+    private static final float[] HEADING_SIZES = {1.5f, 1.3f, 1.15f};
+
+    /**
+     * Float relative text size of exponents, indices, and fraction parts in math.
+     */
+    private static final float SCRIPT_SIZE = 0.7f;
+
+    /**
+     * Int gap in pixels between a bullet and its text.
+     */
+    private static final int BULLET_GAP = 16;
+
+    /**
+     * {@link Map} of TeX commands without the backslash to the Unicode text they render as.
+     */
+    private static final Map<String, String> SYMBOLS = new HashMap<>();
+
+    static {
+        String[] symbols = {
+                "alpha", "\u03b1", "beta", "\u03b2", "gamma", "\u03b3", "delta", "\u03b4",
+                "epsilon", "\u03b5", "varepsilon", "\u03b5", "zeta", "\u03b6", "eta", "\u03b7",
+                "theta", "\u03b8", "iota", "\u03b9", "kappa", "\u03ba", "lambda", "\u03bb",
+                "mu", "\u03bc", "nu", "\u03bd", "xi", "\u03be", "pi", "\u03c0", "rho", "\u03c1",
+                "sigma", "\u03c3", "tau", "\u03c4", "upsilon", "\u03c5", "phi", "\u03c6",
+                "varphi", "\u03c6", "chi", "\u03c7", "psi", "\u03c8", "omega", "\u03c9",
+                "Gamma", "\u0393", "Delta", "\u0394", "Theta", "\u0398", "Lambda", "\u039b",
+                "Xi", "\u039e", "Pi", "\u03a0", "Sigma", "\u03a3", "Phi", "\u03a6", "Psi", "\u03a8",
+                "Omega", "\u03a9", "times", "\u00d7", "cdot", "\u00b7", "div", "\u00f7",
+                "pm", "\u00b1", "mp", "\u2213", "le", "\u2264", "leq", "\u2264", "ge", "\u2265",
+                "geq", "\u2265", "ne", "\u2260", "neq", "\u2260", "approx", "\u2248",
+                "equiv", "\u2261", "sim", "\u223c", "propto", "\u221d", "infty", "\u221e",
+                "partial", "\u2202", "nabla", "\u2207", "sum", "\u2211", "prod", "\u220f",
+                "int", "\u222b", "oint", "\u222e", "in", "\u2208", "notin", "\u2209",
+                "subset", "\u2282", "subseteq", "\u2286", "cup", "\u222a", "cap", "\u2229",
+                "emptyset", "\u2205", "forall", "\u2200", "exists", "\u2203", "neg", "\u00ac",
+                "land", "\u2227", "lor", "\u2228", "to", "\u2192", "rightarrow", "\u2192",
+                "leftarrow", "\u2190", "Rightarrow", "\u21d2", "Leftarrow", "\u21d0",
+                "leftrightarrow", "\u2194", "Leftrightarrow", "\u21d4", "circ", "\u2218",
+                "degree", "\u00b0", "ldots", "\u2026", "cdots", "\u22ef", "angle", "\u2220",
+                "perp", "\u22a5", "parallel", "\u2225", "hbar", "\u210f", "ell", "\u2113",
+                ",", " ", ";", " ", "quad", "\u2003", "{", "{", "}", "}", "%", "%", "$", "$"
+        };
+        for (int i = 0; i < symbols.length; i += 2) {
+            SYMBOLS.put(symbols[i], symbols[i + 1]);
+        }
+    }
+
+    /**
+     * Returns the passed Markdown text as styled text.
+     *
+     * @param source {@link CharSequence} Markdown text.
+     * @return The styled {@link CharSequence}. The passed text itself if it has no markup.
+     */
+    public CharSequence render(CharSequence source) {
+        if (!hasMarkup(source)) {
+            return source;
+        }
+        String text = source.toString();
+        SpannableStringBuilder out = new SpannableStringBuilder();
+        boolean firstLine = true;
+        boolean inCodeBlock = false;
+        int codeStart = -1;
+        int lineStart = 0;
+        while (lineStart <= text.length()) {
+            int lineEnd = text.indexOf('\n', lineStart);
+            if (lineEnd < 0) {
+                lineEnd = text.length();
+            }
+            String line = text.substring(lineStart, lineEnd);
+            lineStart = lineEnd + 1;
+
+            // Fence lines are not shown and toggle between code and Markdown.
+            if (line.trim().startsWith("```")) {
+                if (inCodeBlock && codeStart >= 0) {
+                    setCodeSpans(out, codeStart, out.length());
+                }
+                inCodeBlock = !inCodeBlock;
+                codeStart = -1;
+                continue;
+            }
+
+            if (!firstLine) {
+                out.append('\n');
+            }
+            firstLine = false;
+            if (inCodeBlock) {
+                if (codeStart < 0) {
+                    codeStart = out.length();
+                }
+                out.append(line);
+            } else {
+                renderLine(out, line);
+            }
+        }
+        if (inCodeBlock && codeStart >= 0) {
+            setCodeSpans(out, codeStart, out.length());
+        }
+        return out;
+    }
+
+    /**
+     * Appends the passed line of Markdown outside a code block to the passed builder.
+     *
+     * @param out  {@link SpannableStringBuilder} to append to.
+     * @param line {@link String} line without its line break.
+     */
+    private void renderLine(SpannableStringBuilder out, String line) {
+        int start = out.length();
+
+        // Heading, such as "## Title".
+        int level = 0;
+        while (level < line.length() && line.charAt(level) == '#') {
+            level++;
+        }
+        if (level > 0 && level < line.length() && line.charAt(level) == ' ') {
+            renderInline(out, line.substring(level + 1));
+            float size = HEADING_SIZES[Math.min(level, HEADING_SIZES.length) - 1];
+            out.setSpan(new StyleSpan(Typeface.BOLD), start, out.length(),
+                    Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+            out.setSpan(new RelativeSizeSpan(size), start, out.length(),
+                    Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+            return;
+        }
+
+        // Bullet list item, such as "- Item".
+        String trimmed = line.trim();
+        if (trimmed.length() > 2 && "-*+".indexOf(trimmed.charAt(0)) >= 0
+                && trimmed.charAt(1) == ' ') {
+            renderInline(out, trimmed.substring(2));
+            out.setSpan(new BulletSpan(BULLET_GAP), start, out.length(),
+                    Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+            return;
+        }
+
+        // Display math on a line of its own, such as "$$E = mc^2$$".
+        if (trimmed.length() > 4 && trimmed.startsWith("$$") && trimmed.endsWith("$$")) {
+            renderMath(out, trimmed, 2, trimmed.length() - 2);
+            out.setSpan(new AlignmentSpan.Standard(Layout.Alignment.ALIGN_CENTER), start,
+                    out.length(), Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+            return;
+        }
+
+        renderInline(out, line);
+    }
+
+    /**
+     * Appends the passed Markdown text with inline code, bold, italic, and math to the passed
+     * builder.
+     *
+     * @param out  {@link SpannableStringBuilder} to append to.
+     * @param text {@link String} text within one line.
+     */
+    private void renderInline(SpannableStringBuilder out, String text) {
+        int i = 0;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            int start = out.length();
+
+            if (c == '\\' && i + 1 < text.length()
+                    && MARKUP_CHARS.indexOf(text.charAt(i + 1)) >= 0) {
+                // Escaped markup character.
+                out.append(text.charAt(i + 1));
+                i += 2;
+                continue;
+            }
+
+            if (c == '`') {
+                int end = text.indexOf('`', i + 1);
+                if (end > i + 1) {
+                    out.append(text, i + 1, end);
+                    setCodeSpans(out, start, out.length());
+                    i = end + 1;
+                    continue;
+                }
+            } else if (c == '*' && text.startsWith("**", i)) {
+                int end = text.indexOf("**", i + 2);
+                if (end > i + 2) {
+                    renderInline(out, text.substring(i + 2, end));
+                    out.setSpan(new StyleSpan(Typeface.BOLD), start, out.length(),
+                            Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+                    i = end + 2;
+                    continue;
+                }
+            } else if (c == '*' || (c == '_' && !isWordChar(text, i - 1))) {
+                int end = findEmphasisEnd(text, i, c);
+                if (end > 0) {
+                    renderInline(out, text.substring(i + 1, end));
+                    out.setSpan(new StyleSpan(Typeface.ITALIC), start, out.length(),
+                            Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+                    i = end + 1;
+                    continue;
+                }
+            } else if (c == '$') {
+                int delimiter = text.startsWith("$$", i) ? 2 : 1;
+                int end = findMathEnd(text, i + delimiter, delimiter);
+                if (end > 0) {
+                    renderMath(out, text, i + delimiter, end);
+                    i = end + delimiter;
+                    continue;
+                }
+            }
+
+            out.append(c);
+            i++;
+        }
+    }
+
+    /**
+     * Returns the index of the char closing the emphasis opened at the passed index. Emphasis
+     * with underscores must end at a word boundary, so names like snake_case are left alone.
+     *
+     * @param text      {@link String} text within one line.
+     * @param open      Int index of the opening char.
+     * @param delimiter Char that opened the emphasis.
+     * @return The int index of the closing char, or -1 if there is none.
+     */
+    private static int findEmphasisEnd(String text, int open, char delimiter) {
+        if (open + 1 >= text.length() || text.charAt(open + 1) == ' ') {
+            return -1;
+        }
+        for (int i = open + 2; i < text.length(); i++) {
+            if (text.charAt(i) == delimiter && text.charAt(i - 1) != ' '
+                    && (delimiter != '_' || !isWordChar(text, i + 1))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the index of the dollar signs closing the math that starts at the passed index.
+     * Like Pandoc, math may not start or end with a space and may not be directly followed by a
+     * digit, so prices like "$5 and $10" stay text.
+     *
+     * @param text      {@link String} text within one line.
+     * @param from      Int index of the first char of the math.
+     * @param delimiter Int number of dollar signs that open and close the math.
+     * @return The int index of the closing dollar signs, or -1 if there are none.
+     */
+    private static int findMathEnd(String text, int from, int delimiter) {
+        if (from >= text.length() || text.charAt(from) == ' ') {
+            return -1;
+        }
+        String close = delimiter == 2 ? "$$" : "$";
+        int end = text.indexOf(close, from + 1);
+        while (end > 0) {
+            char before = text.charAt(end - 1);
+            int after = end + delimiter;
+            boolean digitAfter = after < text.length() && Character.isDigit(text.charAt(after));
+            if (before != ' ' && before != '\\' && !digitAfter) {
+                return end;
+            }
+            end = text.indexOf(close, end + 1);
+        }
+        return -1;
+    }
+
+    /**
+     * Appends the passed range of TeX math to the passed builder in italic serif.
+     *
+     * @param out  {@link SpannableStringBuilder} to append to.
+     * @param text {@link String} holding the math.
+     * @param from Int index of the first char of the math.
+     * @param to   Int index after the last char of the math.
+     */
+    private void renderMath(SpannableStringBuilder out, String text, int from, int to) {
+        int start = out.length();
+        appendMath(out, text, from, to);
+        out.setSpan(new TypefaceSpan("serif"), start, out.length(),
+                Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+        out.setSpan(new StyleSpan(Typeface.ITALIC), start, out.length(),
+                Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+    }
+
+    /**
+     * Appends the passed range of TeX math to the passed builder, replacing commands with their
+     * symbols and styling exponents, indices, and fractions.
+     *
+     * @param out  {@link SpannableStringBuilder} to append to.
+     * @param text {@link String} holding the math.
+     * @param from Int index of the first char of the range.
+     * @param to   Int index after the last char of the range.
+     */
+    private void appendMath(SpannableStringBuilder out, String text, int from, int to) {
+        int i = from;
+        while (i < to) {
+            char c = text.charAt(i);
+            if (c == '\\') {
+                int nameEnd = i + 1;
+                while (nameEnd < to && Character.isLetter(text.charAt(nameEnd))) {
+                    nameEnd++;
+                }
+                if (nameEnd == i + 1 && nameEnd < to) {
+                    // Escaped symbol, such as "\{" or "\,".
+                    nameEnd++;
+                }
+                i = appendCommand(out, text.substring(i + 1, nameEnd), text, nameEnd, to);
+            } else if (c == '^' || c == '_') {
+                int start = out.length();
+                i = appendGroup(out, text, i + 1, to);
+                out.setSpan(c == '^' ? new SuperscriptSpan() : new SubscriptSpan(), start,
+                        out.length(), Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+                out.setSpan(new RelativeSizeSpan(SCRIPT_SIZE), start, out.length(),
+                        Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+            } else if (c == '{') {
+                i = appendGroup(out, text, i, to);
+            } else if (c == '}') {
+                // Stray closing brace.
+                i++;
+            } else {
+                out.append(c);
+                i++;
+            }
+        }
+    }
+
+    /**
+     * Appends the TeX command with the passed name, reading any arguments that follow it.
+     *
+     * @param out  {@link SpannableStringBuilder} to append to.
+     * @param name {@link String} command name without the backslash.
+     * @param text {@link String} holding the math.
+     * @param from Int index after the command name.
+     * @param to   Int index after the last char of the math.
+     * @return The int index after the command and its arguments.
+     */
+    private int appendCommand(SpannableStringBuilder out, String name, String text, int from,
+                              int to) {
+        switch (name) {
+            case "frac": {
+                int start = out.length();
+                int i = appendGroup(out, text, from, to);
+                out.setSpan(new SuperscriptSpan(), start, out.length(),
+                        Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+                out.setSpan(new RelativeSizeSpan(SCRIPT_SIZE), start, out.length(),
+                        Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+                out.append('\u2044');
+                start = out.length();
+                i = appendGroup(out, text, i, to);
+                out.setSpan(new SubscriptSpan(), start, out.length(),
+                        Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+                out.setSpan(new RelativeSizeSpan(SCRIPT_SIZE), start, out.length(),
+                        Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+                return i;
+            }
+            case "sqrt": {
+                out.append('\u221a');
+                boolean single = from < to && text.charAt(from) != '{';
+                if (!single) {
+                    out.append('(');
+                }
+                int i = appendGroup(out, text, from, to);
+                if (!single) {
+                    out.append(')');
+                }
+                return i;
+            }
+            case "mathbf": {
+                int start = out.length();
+                int i = appendGroup(out, text, from, to);
+                out.setSpan(new StyleSpan(Typeface.BOLD), start, out.length(),
+                        Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+                return i;
+            }
+            case "text":
+            case "mathrm":
+            case "operatorname":
+                return appendGroup(out, text, from, to);
+            case "left":
+            case "right":
+                // The delimiter that follows is shown as is.
+                return from;
+            default:
+                String symbol = SYMBOLS.get(name);
+                out.append(symbol != null ? symbol : name);
+                return from;
+        }
+    }
+
+    /**
+     * Appends the TeX group starting at the passed index: either the contents of matching
+     * braces, a command, or a single char.
+     *
+     * @param out  {@link SpannableStringBuilder} to append to.
+     * @param text {@link String} holding the math.
+     * @param from Int index of the first char of the group.
+     * @param to   Int index after the last char of the math.
+     * @return The int index after the group.
+     */
+    private int appendGroup(SpannableStringBuilder out, String text, int from, int to) {
+        if (from >= to) {
+            return to;
+        }
+        char c = text.charAt(from);
+        if (c == '{') {
+            int depth = 0;
+            for (int i = from; i < to; i++) {
+                if (text.charAt(i) == '{') {
+                    depth++;
+                } else if (text.charAt(i) == '}' && --depth == 0) {
+                    appendMath(out, text, from + 1, i);
+                    return i + 1;
+                }
+            }
+            // Unbalanced, so the rest of the math is the group.
+            appendMath(out, text, from + 1, to);
+            return to;
+        }
+        if (c == '\\') {
+            int end = from + 1;
+            while (end < to && Character.isLetter(text.charAt(end))) {
+                end++;
+            }
+            if (end == from + 1 && end < to) {
+                end++;
+            }
+            appendMath(out, text, from, end);
+            return end;
+        }
+        out.append(c);
+        return from + 1;
+    }
+
+    /**
+     * Sets the spans for code on the passed range of the passed builder.
+     *
+     * @param out   {@link SpannableStringBuilder} holding the code.
+     * @param start Int index of the first char of the code.
+     * @param end   Int index after the last char of the code.
+     */
+    private static void setCodeSpans(SpannableStringBuilder out, int start, int end) {
+        out.setSpan(new TypefaceSpan("monospace"), start, end, Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+        out.setSpan(new BackgroundColorSpan(CODE_BACKGROUND_COLOR), start, end,
+                Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+    }
+
+    /**
+     * Returns whether the char at the passed index is a letter or digit.
+     *
+     * @param text  {@link String} text.
+     * @param index Int index. May be out of range.
+     * @return True if the index is in range and the char is a letter or digit.
+     */
+    private static boolean isWordChar(String text, int index) {
+        return index >= 0 && index < text.length() && Character.isLetterOrDigit(text.charAt(index));
+    }
+
+    /**
+     * Returns whether the passed text contains any char that may start markup.
+     *
+     * @param text {@link CharSequence} text.
+     * @return True if the text may contain markup.
+     */
+    private static boolean hasMarkup(CharSequence text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (MARKUP_CHARS.indexOf(text.charAt(i)) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
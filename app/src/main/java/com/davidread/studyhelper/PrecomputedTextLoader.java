@@ -0,0 +1,289 @@
+package com.davidread.studyhelper;
+
+import android.text.TextUtils;
+import android.util.LruCache;
+
+import androidx.appcompat.widget.AppCompatTextView;
+import androidx.core.text.PrecomputedTextCompat;
+import androidx.core.widget.TextViewCompat;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+/**
+ * {@link PrecomputedTextLoader} renders and lays out text for {@link AppCompatTextView} objects on
+ * a background thread using a {@link Renderer} and {@link PrecomputedTextCompat}. Laid out text is
+ * kept in an LRU cache keyed by a long id and a hash of the content, so text that was prefetched
+ * or shown recently is set without any parsing or layout work on the main thread, and edited text
+ * is never served stale.
+ */
+public class PrecomputedTextLoader {
+
+    /**
+     * {@link Renderer} turns source text into the styled text that is laid out.
+     */
+    public interface Renderer {
+
+        /**
+         * Invoked on a background thread to render the passed source text.
+         *
+         * @param source {@link CharSequence} source text.
+         * @return The rendered {@link CharSequence}.
+         */
+        CharSequence render(CharSequence source);
+    }
+
+    /**
+     * {@link LruCache} of laid out text keyed by id and content hash.
+     */
+    private final LruCache<Key, Entry> mCache;
+
+    /**
+     * {@link Map} of laid out text still being computed keyed by id and content hash.
+     */
+    private final Map<Key, Pending> mPending = new ConcurrentHashMap<>();
+
+    /**
+     * {@link Renderer} that renders text before it is laid out.
+     */
+    private final Renderer mRenderer;
+
+    /**
+     * {@link Executor} that renders and lays out text.
+     */
+    private final Executor mExecutor;
+
+    /**
+     * {@link PrecomputedTextCompat.Params} of the last {@link AppCompatTextView} passed to
+     * {@link #load(AppCompatTextView, long, long, CharSequence)}. Used by
+     * {@link #prefetch(long, long, CharSequence)}.
+     */
+    private PrecomputedTextCompat.Params mParams;
+
+    /**
+     * Constructs a new {@link PrecomputedTextLoader}.
+     *
+     * @param maxEntries Int maximum number of laid out texts to cache.
+     * @param renderer   {@link Renderer} that renders text before it is laid out.
+     * @param executor   {@link Executor} that renders and lays out text.
+     */
+    public PrecomputedTextLoader(int maxEntries, Renderer renderer, Executor executor) {
+        mCache = new LruCache<>(maxEntries);
+        mRenderer = renderer;
+        mExecutor = executor;
+    }
+
+    /**
+     * Sets the passed text onto the passed {@link AppCompatTextView}. Cached text is set
+     * immediately. Otherwise, the text is rendered and laid out on a background thread and set
+     * once the view is measured.
+     *
+     * @param textView    {@link AppCompatTextView} to set the text on.
+     * @param id          Long id identifying the text.
+     * @param contentHash Long hash of the content the text belongs to.
+     * @param text        {@link CharSequence} source text to render and set.
+     */
+    public void load(AppCompatTextView textView, long id, long contentHash, CharSequence text) {
+        PrecomputedTextCompat.Params params = TextViewCompat.getTextMetricsParams(textView);
+        mParams = params;
+
+        Key key = new Key(id, contentHash);
+        Entry cached = mCache.get(key);
+        if (cached != null && cached.mText.getParams().equals(params)
+                && TextUtils.equals(cached.mSource, text)) {
+            textView.setText(cached.mText);
+            return;
+        }
+
+        // Text still being laid out from another source or with other metrics is not reused.
+        Pending pending = mPending.get(key);
+        if (pending != null && pending.matches(text, params)) {
+            textView.setTextFuture(pending);
+        } else {
+            textView.setTextFuture(submit(key, text, params));
+        }
+    }
+
+    /**
+     * Renders and lays out the passed text on a background thread so a later call to
+     * {@link #load(AppCompatTextView, long, long, CharSequence)} finds it in the cache. Does
+     * nothing until a view has been loaded, since the text metrics are not known before.
+     *
+     * @param id          Long id identifying the text.
+     * @param contentHash Long hash of the content the text belongs to.
+     * @param text        {@link CharSequence} source text to render and lay out.
+     */
+    public void prefetch(long id, long contentHash, CharSequence text) {
+        if (mParams == null) {
+            return;
+        }
+        Key key = new Key(id, contentHash);
+        Entry cached = mCache.get(key);
+        Pending pending = mPending.get(key);
+        if ((cached == null || !TextUtils.equals(cached.mSource, text))
+                && (pending == null || !pending.matches(text, mParams))) {
+            submit(key, text, mParams);
+        }
+    }
+
+    /**
+     * Submits the passed text to be rendered and laid out by {@link #mExecutor}.
+     *
+     * @param key    {@link Key} identifying the text.
+     * @param text   {@link CharSequence} source text to render and lay out.
+     * @param params {@link PrecomputedTextCompat.Params} to lay out the text with.
+     * @return A {@link Future} for the laid out text.
+     */
+    private Future<PrecomputedTextCompat> submit(Key key, CharSequence text,
+                                                 PrecomputedTextCompat.Params params) {
+        Pending pending = new Pending(key, text, params);
+        mPending.put(key, pending);
+        mExecutor.execute(pending);
+        return pending;
+    }
+
+    /**
+     * {@link Pending} is text being rendered and laid out, along with the source text and
+     * metrics it was submitted with. Once done, it caches the laid out text and leaves
+     * {@link #mPending} unless a newer submission for the same {@link Key} has replaced it.
+     */
+    private final class Pending extends FutureTask<PrecomputedTextCompat> {
+
+        /**
+         * {@link Key} identifying the text.
+         */
+        private final Key mKey;
+
+        /**
+         * {@link CharSequence} source text.
+         */
+        private final CharSequence mSource;
+
+        /**
+         * {@link PrecomputedTextCompat.Params} the text is laid out with.
+         */
+        private final PrecomputedTextCompat.Params mTextParams;
+
+        /**
+         * Constructs a new {@link Pending}.
+         *
+         * @param key    {@link Key} identifying the text.
+         * @param source {@link CharSequence} source text to render and lay out.
+         * @param params {@link PrecomputedTextCompat.Params} to lay out the text with.
+         */
+        Pending(Key key, CharSequence source, PrecomputedTextCompat.Params params) {
+            super(() -> {
+                PrecomputedTextCompat precomputedText =
+                        PrecomputedTextCompat.create(mRenderer.render(source), params);
+                mCache.put(key, new Entry(source, precomputedText));
+                return precomputedText;
+            });
+            mKey = key;
+            mSource = source;
+            mTextParams = params;
+        }
+
+        /**
+         * Returns whether this was submitted with the passed source text and metrics.
+         *
+         * @param source {@link CharSequence} source text.
+         * @param params {@link PrecomputedTextCompat.Params} to lay out the text with.
+         * @return True if the source text and metrics are equal.
+         */
+        boolean matches(CharSequence source, PrecomputedTextCompat.Params params) {
+            return mTextParams.equals(params) && TextUtils.equals(mSource, source);
+        }
+
+        /**
+         * Invoked once the text is laid out, fails, or is cancelled. It removes this from
+         * {@link #mPending} if it is still the current submission for its {@link Key}.
+         */
+        @Override
+        protected void done() {
+            mPending.remove(mKey, this);
+        }
+    }
+
+    /**
+     * {@link Key} identifies cached text by id and content hash.
+     */
+    private static final class Key {
+
+        /**
+         * Long id identifying the text.
+         */
+        private final long mId;
+
+        /**
+         * Long hash of the content the text belongs to.
+         */
+        private final long mContentHash;
+
+        /**
+         * Constructs a new {@link Key}.
+         *
+         * @param id          Long id identifying the text.
+         * @param contentHash Long hash of the content the text belongs to.
+         */
+        Key(long id, long contentHash) {
+            mId = id;
+            mContentHash = contentHash;
+        }
+
+        /**
+         * Returns whether the passed object is a {@link Key} with the same id and content hash.
+         *
+         * @param o {@link Object} to compare with.
+         * @return True if the keys are equal.
+         */
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return mId == other.mId && mContentHash == other.mContentHash;
+        }
+
+        /**
+         * Returns a hash code consistent with {@link #equals(Object)}.
+         *
+         * @return The int hash code.
+         */
+        @Override
+        public int hashCode() {
+            return 31 * Long.hashCode(mId) + Long.hashCode(mContentHash);
+        }
+    }
+
+    /**
+     * {@link Entry} is cached laid out text along with the source text it was rendered from. The
+     * source is compared on every hit, since the content hash ignores case and spacing.
+     */
+    private static final class Entry {
+
+        /**
+         * {@link CharSequence} source text.
+         */
+        private final CharSequence mSource;
+
+        /**
+         * {@link PrecomputedTextCompat} laid out text.
+         */
+        private final PrecomputedTextCompat mText;
+
+        /**
+         * Constructs a new {@link Entry}.
+         *
+         * @param source {@link CharSequence} source text.
+         * @param text   {@link PrecomputedTextCompat} laid out text.
+         */
+        Entry(CharSequence source, PrecomputedTextCompat text) {
+            mSource = source;
+            mText = text;
+        }
+    }
+}
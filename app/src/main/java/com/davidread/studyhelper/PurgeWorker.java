@@ -0,0 +1,108 @@
+package com.davidread.studyhelper;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.work.Constraints;
+import androidx.work.ExistingPeriodicWorkPolicy;
+import androidx.work.PeriodicWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link PurgeWorker} is a {@link Worker} that permanently deletes {@link Question} and
+ * {@link Subject} tombstones along with their {@link StudyEvent} and daily statistics rows. Rows
+ * are deleted in small batches, each in its own transaction, so the database is never locked for
+ * long. Image files no longer referenced by any {@link Question} are deleted afterwards.
+ */
+public class PurgeWorker extends Worker {
+
+    /**
+     * {@link String} unique work name under which purge work is enqueued.
+     */
+    private static final String WORK_NAME = "purge";
+
+    /**
+     * Long number of milliseconds a tombstone is kept before it may be purged. Deletes can be
+     * undone until then.
+     */
+    private static final long PURGE_DELAY_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    /**
+     * Int maximum number of rows deleted per transaction.
+     */
+    private static final int BATCH_SIZE = 200;
+
+    /**
+     * Constructs a new {@link PurgeWorker}.
+     *
+     * @param context {@link Context} of the app.
+     * @param params  {@link WorkerParameters} to set up this worker.
+     */
+    public PurgeWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    /**
+     * Schedules a periodic {@link PurgeWorker} unless one is already scheduled.
+     *
+     * @param context {@link Context} for getting a {@link WorkManager} instance.
+     */
+    public static void schedule(Context context) {
+        Constraints constraints = new Constraints.Builder()
+                .setRequiresBatteryNotLow(true)
+                .build();
+        PeriodicWorkRequest request =
+                new PeriodicWorkRequest.Builder(PurgeWorker.class, 6, TimeUnit.HOURS)
+                        .setConstraints(constraints)
+                        .build();
+        WorkManager.getInstance(context)
+                .enqueueUniquePeriodicWork(WORK_NAME, ExistingPeriodicWorkPolicy.KEEP, request);
+    }
+
+    /**
+     * Invoked on a background thread to purge tombstones older than {@link #PURGE_DELAY_MILLIS}.
+     * Questions of deleted subjects are purged before the subjects themselves.
+     *
+     * @return {@link Result#success()} once all tombstones are purged.
+     * {@link Result#retry()} if the work was stopped before.
+     */
+    @NonNull
+    @Override
+    public Result doWork() {
+        StudyDatabase studyDb = StudyDatabase.getInstance(getApplicationContext());
+        long deletedBefore = System.currentTimeMillis() - PURGE_DELAY_MILLIS;
+
+        int deleted;
+        do {
+            if (isStopped()) {
+                return Result.retry();
+            }
+            deleted = studyDb.questionDao().purgeDeletedQuestions(deletedBefore, BATCH_SIZE);
+        } while (deleted == BATCH_SIZE);
+
+        do {
+            if (isStopped()) {
+                return Result.retry();
+            }
+            deleted = studyDb.questionDao()
+                    .purgeQuestionsOfDeletedSubjects(deletedBefore, BATCH_SIZE);
+        } while (deleted == BATCH_SIZE);
+
+        do {
+            if (isStopped()) {
+                return Result.retry();
+            }
+            deleted = studyDb.subjectDao().purgeDeletedSubjects(deletedBefore, BATCH_SIZE);
+        } while (deleted == BATCH_SIZE);
+
+        ImageStore.deleteUnreferencedImages(getApplicationContext(),
+                new HashSet<>(studyDb.questionDao().getImageFileNames()), deletedBefore);
+
+        return Result.success();
+    }
+}
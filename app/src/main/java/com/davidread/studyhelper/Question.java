@@ -5,16 +5,37 @@ import static androidx.room.ForeignKey.CASCADE;
 import androidx.room.ColumnInfo;
 import androidx.room.Entity;
 import androidx.room.ForeignKey;
+import androidx.room.Ignore;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
 /**
  * {@link Question} is a class used to model a single question. A question has a unique id, text, an
- * answer, and a subject id.
+ * answer, optional images for the text and answer, a subject id, and a deletion time. Images are
+ * stored as files by {@link ImageStore} and referenced by file name. Deleted questions are kept
+ * as tombstones until they are purged by {@link PurgeWorker}. A hash of the normalized content is
+ * kept with each question, and a unique index on it stops a subject from holding the same
+ * question twice. Questions of a subject are shown in the order of their {@link FractionalRank}.
  */
 @Entity(foreignKeys = @ForeignKey(entity = Subject.class, parentColumns = "id",
-        childColumns = "subject_id", onDelete = CASCADE))
+        childColumns = "subject_id", onDelete = CASCADE),
+        indices = {@Index(value = {"subject_id", "deleted"}), @Index(value = "deleted"),
+                @Index(value = {"subject_id", "content_hash", "deleted"}, unique = true),
+                @Index(value = {"subject_id", "deleted", "sort_rank"})})
 public class Question {
 
+    /**
+     * {@link Pattern} matching runs of whitespace, which are collapsed when normalizing content.
+     */
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
     /**
      * Unique long id for the question.
      */
@@ -34,12 +55,50 @@ public class Question {
     @ColumnInfo(name = "answer")
     private String mAnswer;
 
+    /**
+     * {@link String} file name of the image attached to the question text. Null if none.
+     */
+    @ColumnInfo(name = "question_image")
+    private String mQuestionImage;
+
+    /**
+     * {@link String} file name of the image attached to the answer. Null if none.
+     */
+    @ColumnInfo(name = "answer_image")
+    private String mAnswerImage;
+
     /**
      * Long id corresponding to an existing subject.
      */
     @ColumnInfo(name = "subject_id")
     private long mSubjectId;
 
+    /**
+     * Long representing the time the question was deleted. Zero if not deleted.
+     */
+    @ColumnInfo(name = "deleted", defaultValue = "0")
+    private long mDeletedTime;
+
+    /**
+     * Long hash of the normalized text, answer, and image names of the question. See
+     * {@link #computeContentHash(String, String, String, String)}.
+     */
+    @ColumnInfo(name = "content_hash", defaultValue = "0")
+    private long mContentHash;
+
+    /**
+     * Double {@link FractionalRank} of the question within its subject. Questions inserted with
+     * {@link FractionalRank#UNRANKED} are ranked after the last question by a trigger.
+     */
+    @ColumnInfo(name = "sort_rank", defaultValue = "0")
+    private double mRank;
+
+    /**
+     * Boolean for whether {@link #mContentHash} must be recomputed because the content changed.
+     */
+    @Ignore
+    private boolean mContentHashStale = true;
+
     /**
      * Constructs a new {@link Question} with null attributes.
      */
@@ -73,6 +132,7 @@ public class Question {
 
     public void setText(String text) {
         mText = text;
+        mContentHashStale = true;
     }
 
     public String getAnswer() {
@@ -81,6 +141,25 @@ public class Question {
 
     public void setAnswer(String answer) {
         mAnswer = answer;
+        mContentHashStale = true;
+    }
+
+    public String getQuestionImage() {
+        return mQuestionImage;
+    }
+
+    public void setQuestionImage(String questionImage) {
+        mQuestionImage = questionImage;
+        mContentHashStale = true;
+    }
+
+    public String getAnswerImage() {
+        return mAnswerImage;
+    }
+
+    public void setAnswerImage(String answerImage) {
+        mAnswerImage = answerImage;
+        mContentHashStale = true;
     }
 
     public long getSubjectId() {
@@ -90,4 +169,79 @@ public class Question {
     public void setSubjectId(long subjectId) {
         mSubjectId = subjectId;
     }
+
+    public long getDeletedTime() {
+        return mDeletedTime;
+    }
+
+    public void setDeletedTime(long deletedTime) {
+        mDeletedTime = deletedTime;
+    }
+
+    public double getRank() {
+        return mRank;
+    }
+
+    public void setRank(double rank) {
+        mRank = rank;
+    }
+
+    public long getContentHash() {
+        if (mContentHashStale) {
+            mContentHash = computeContentHash(mText, mAnswer, mQuestionImage, mAnswerImage);
+            mContentHashStale = false;
+        }
+        return mContentHash;
+    }
+
+    public void setContentHash(long contentHash) {
+        mContentHash = contentHash;
+        mContentHashStale = false;
+    }
+
+    /**
+     * Returns a hash of the passed content of a {@link Question}. Text is normalized first, so
+     * content differing only in case, Unicode form, or whitespace hashes the same.
+     *
+     * @param text          {@link String} text for the question.
+     * @param answer        {@link String} answer to the question.
+     * @param questionImage {@link String} file name of the question image. Null if none.
+     * @param answerImage   {@link String} file name of the answer image. Null if none.
+     * @return The long hash of the content.
+     */
+    public static long computeContentHash(String text, String answer, String questionImage,
+                                          String answerImage) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        String content = normalize(text) + '\0' + normalize(answer) + '\0'
+                + (questionImage == null ? "" : questionImage) + '\0'
+                + (answerImage == null ? "" : answerImage);
+        byte[] bytes = digest.digest(content.getBytes(StandardCharsets.UTF_8));
+
+        // The first 64 bits are plenty to tell apart the questions of one subject.
+        long hash = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            hash = (hash << 8) | (bytes[i] & 0xFF);
+        }
+        return hash;
+    }
+
+    /**
+     * Returns the passed text in Unicode normal form, in lower case, and with whitespace trimmed
+     * and collapsed.
+     *
+     * @param text {@link String} text to normalize. Null is treated as empty.
+     * @return The normalized {@link String}.
+     */
+    private static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC);
+        return WHITESPACE.matcher(normalized.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
 }
@@ -3,12 +3,16 @@ package com.davidread.studyhelper;
 import android.app.Activity;
 import android.content.Intent;
 import android.os.Bundle;
+import android.view.LayoutInflater;
 import android.view.Menu;
 import android.view.MenuInflater;
 import android.view.MenuItem;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.Button;
+import android.widget.EditText;
+import android.widget.ImageView;
+import android.widget.LinearLayout;
 import android.widget.TextView;
 
 import androidx.activity.result.ActivityResult;
@@ -16,18 +20,36 @@ import androidx.activity.result.ActivityResultCallback;
 import androidx.activity.result.ActivityResultLauncher;
 import androidx.activity.result.contract.ActivityResultContracts;
 import androidx.annotation.NonNull;
+import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.appcompat.widget.AppCompatTextView;
+import androidx.lifecycle.ViewModelProvider;
+import androidx.recyclerview.widget.ItemTouchHelper;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.viewpager2.widget.ViewPager2;
 
 import com.google.android.material.snackbar.BaseTransientBottomBar;
 import com.google.android.material.snackbar.Snackbar;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * {@link QuestionActivity} provides a user interface for browsing the questions associated with
- * the selected subject. {@link #mAnswerButton} toggles the visibility of the question's answer.
- * Previous and next app bar buttons show the previous and next question in the set. Add, edit, and
- * delete overflow app bar buttons allow modification of the question set.
+ * the selected subject, or for a random quiz across all subjects. Questions are loaded in order,
+ * shuffled, or sampled by {@link QuestionSampler}. Questions are shown in a {@link ViewPager2}
+ * that can be swiped. Each page's answer button toggles the visibility of the question's answer.
+ * When answers are typed, the button first grades the typed answer with an {@link AnswerGrader}
+ * and then shows it. In multiple-choice mode, the answer is picked from choices sampled by a
+ * {@link DistractorSampler} and the pick is graded instead. Previous and next app bar buttons show
+ * the previous and next question in the set. Add, edit, and delete overflow app bar buttons allow
+ * modification of the question set. A reorder overflow app bar button lets questions shown in
+ * their user-defined order be dragged into a new order.
  */
 public class QuestionActivity extends AppCompatActivity {
 
@@ -36,6 +58,53 @@ public class QuestionActivity extends AppCompatActivity {
      */
     public static final String EXTRA_SUBJECT_ID = "com.davidread.studyhelper.subject_id";
 
+    /**
+     * {@link String} identifier for whether the questions passed to this activity are shuffled.
+     */
+    public static final String EXTRA_SHUFFLE = "com.davidread.studyhelper.shuffle";
+
+    /**
+     * {@link String} identifier for the number of random questions to study. Every question is
+     * studied if it is not passed.
+     */
+    public static final String EXTRA_SAMPLE_SIZE = "com.davidread.studyhelper.sample_size";
+
+    /**
+     * Int number of laid out question and answer texts to keep in memory.
+     */
+    private static final int TEXT_CACHE_SIZE = 32;
+
+    /**
+     * Int number of questions on each side of the current one whose text is laid out ahead of
+     * time. {@link #mViewPager} already binds the direct neighbours offscreen.
+     */
+    private static final int PREFETCH_DISTANCE = 2;
+
+    /**
+     * {@link Object} payload used to re-bind only the answer visibility of a page.
+     */
+    private static final Object PAYLOAD_ANSWER_VISIBILITY = new Object();
+
+    /**
+     * {@link Object} payload used to re-bind only the multiple-choice choices of a page.
+     */
+    private static final Object PAYLOAD_CHOICES = new Object();
+
+    /**
+     * {@link String} key for saving {@link #mCurrentQuestionIndex} in the instance state.
+     */
+    private static final String STATE_QUESTION_INDEX = "question_index";
+
+    /**
+     * {@link String} key for saving {@link #mAnswerVisible} in the instance state.
+     */
+    private static final String STATE_ANSWER_VISIBLE = "answer_visible";
+
+    /**
+     * {@link String} key for saving the seed of the question order in the instance state.
+     */
+    private static final String STATE_SEED = "seed";
+
     /**
      * {@link StudyDatabase} to get and put persisted {@link Question} objects for whatever subject
      * id is passed to this activity.
@@ -43,10 +112,28 @@ public class QuestionActivity extends AppCompatActivity {
     private StudyDatabase mStudyDb;
 
     /**
-     * Long subject id passed to this activity.
+     * {@link QuestionViewModel} holding the study session across configuration changes.
+     */
+    private QuestionViewModel mViewModel;
+
+    /**
+     * Long subject id passed to this activity. {@link QuestionSampler#ALL_SUBJECTS} if questions
+     * are from all subjects.
      */
     private long mSubjectId;
 
+    /**
+     * Boolean for whether {@link #mQuestionList} holds every question of a single subject in
+     * their user-defined order, so they can be reordered.
+     */
+    private boolean mReorderable;
+
+    /**
+     * {@link String} text of the subject whose questions are shown. Loaded once so the app bar
+     * title can be updated without querying {@link #mStudyDb}.
+     */
+    private String mSubjectText;
+
     /**
      * {@link List} of {@link Question} objects to display in this activity.
      */
@@ -59,36 +146,91 @@ public class QuestionActivity extends AppCompatActivity {
     private Question mDeletedQuestion;
 
     /**
-     * {@link TextView} for the answer label.
+     * Int index in {@link #mQuestionList} of {@link #mDeletedQuestion}. Saved so an undone delete
+     * puts it back in place.
      */
-    private TextView mAnswerLabel;
+    private int mDeletedQuestionIndex;
 
     /**
-     * {@link TextView} to display the current answer's text.
+     * {@link ViewPager2} for swiping through the {@link Question} objects in
+     * {@link #mQuestionList}.
      */
-    private TextView mAnswerText;
+    private ViewPager2 mViewPager;
 
     /**
-     * {@link Button} for toggling the visibility of the answer.
+     * {@link QuestionAdapter} for adapting {@link Question} objects to be shown in
+     * {@link #mViewPager}.
      */
-    private Button mAnswerButton;
+    private QuestionAdapter mQuestionAdapter;
 
     /**
-     * {@link TextView} to display the question's text.
+     * {@link ExecutorService} that lays out question and answer text in the background.
      */
-    private TextView mQuestionText;
+    private ExecutorService mTextExecutor;
 
     /**
-     * Int representing what question from {@link #mQuestionList} is currently being shown in this
-     * activity.
+     * {@link PrecomputedTextLoader} for question text.
      */
-    private int mCurrentQuestionIndex;
+    private PrecomputedTextLoader mQuestionTextLoader;
+
+    /**
+     * {@link PrecomputedTextLoader} for answer text.
+     */
+    private PrecomputedTextLoader mAnswerTextLoader;
+
+    /**
+     * {@link BitmapCache} for decoding question and answer images in the background.
+     */
+    private BitmapCache mBitmapCache;
+
+    /**
+     * {@link StudyEventLogger} for recording what is studied in this activity.
+     */
+    private StudyEventLogger mEventLogger;
+
+    /**
+     * {@link AnswerGrader} for grading typed answers.
+     */
+    private final AnswerGrader mAnswerGrader = new AnswerGrader();
+
+    /**
+     * {@link DistractorSampler} for sampling the choices of multiple-choice questions.
+     */
+    private DistractorSampler mDistractorSampler;
+
+    /**
+     * {@link Set} of ids of the {@link Question} objects whose choices are being sampled, so each
+     * is only sampled once at a time.
+     */
+    private final Set<Long> mPendingChoiceIds = new HashSet<>();
+
+    /**
+     * Int incremented whenever the sampled choices are cleared, so choices still being sampled
+     * from before are dropped.
+     */
+    private int mChoiceGeneration;
+
+    /**
+     * Boolean for whether answers are currently visible.
+     */
+    private boolean mAnswerVisible;
+
+    /**
+     * Boolean for whether answers are typed and graded before they are shown.
+     */
+    private boolean mTypedAnswers;
 
     /**
-     * {@link ViewGroup} for the layout shown when {@link #mQuestionList} has at least one
-     * {@link Question}.
+     * Boolean for whether answers are picked from multiple choices. Takes precedence over
+     * {@link #mTypedAnswers}.
      */
-    private ViewGroup mShowQuestionLayout;
+    private boolean mMultipleChoice;
+
+    /**
+     * Int representing what question from {@link #mQuestionList} is currently being shown in this
+     * activity.
+     */
+    private int mCurrentQuestionIndex;
 
     /**
      * {@link ViewGroup} for the layout shown when {@link #mQuestionList} is empty.
@@ -108,19 +250,111 @@ public class QuestionActivity extends AppCompatActivity {
         Intent intent = getIntent();
         mSubjectId = intent.getLongExtra(EXTRA_SUBJECT_ID, 0);
 
-        // Get all questions for this subject.
         mStudyDb = StudyDatabase.getInstance(getApplicationContext());
-        mQuestionList = mStudyDb.questionDao().getQuestions(mSubjectId);
+        mViewModel = new ViewModelProvider(this).get(QuestionViewModel.class);
+
+        // Only the whole deck in its own order can be reordered, since ranks are set relative to
+        // the neighbouring questions.
+        boolean allSubjects = mSubjectId == QuestionSampler.ALL_SUBJECTS;
+        int sampleSize = intent.getIntExtra(EXTRA_SAMPLE_SIZE, QuestionSampler.SAMPLE_ALL);
+        mReorderable = !allSubjects && !intent.getBooleanExtra(EXTRA_SHUFFLE, false)
+                && sampleSize == QuestionSampler.SAMPLE_ALL;
+
+        boolean restored = mViewModel.isLoaded() || savedInstanceState != null;
+        if (mViewModel.isLoaded()) {
+            // Recreated after a configuration change, so the session is still in memory.
+            mCurrentQuestionIndex = mViewModel.getCurrentQuestionIndex();
+            mAnswerVisible = mViewModel.isAnswerVisible();
+        } else {
+            // Recreated after process death, so load the same order from the saved seed.
+            long seed = savedInstanceState != null ? savedInstanceState.getLong(STATE_SEED)
+                    : new Random().nextLong();
+
+            // The subject may have been deleted while the process was dead.
+            Subject subject = allSubjects ? null : mStudyDb.subjectDao().getSubject(mSubjectId);
+            if (!allSubjects && subject == null) {
+                finish();
+                return;
+            }
+
+            // Get the subject and its questions in the requested order.
+            String subjectText = allSubjects ? getString(R.string.all_subjects)
+                    : subject.getText();
+            mViewModel.load(subjectText, QuestionSampler.loadQuestions(mStudyDb.questionDao(),
+                    mSubjectId, intent.getBooleanExtra(EXTRA_SHUFFLE, false), sampleSize, seed),
+                    seed);
+            if (savedInstanceState != null) {
+                mCurrentQuestionIndex = savedInstanceState.getInt(STATE_QUESTION_INDEX);
+                mAnswerVisible = savedInstanceState.getBoolean(STATE_ANSWER_VISIBLE);
+            }
+        }
+        mSubjectText = mViewModel.getSubjectText();
+        mQuestionList = mViewModel.getQuestionList();
+
+        // Record that this subject is being studied, once per session.
+        if (!restored && !allSubjects) {
+            long subjectId = mSubjectId;
+            StudyDatabase.getDatabaseExecutor().execute(() -> mStudyDb.subjectDao()
+                    .updateLastStudiedTime(subjectId, System.currentTimeMillis()));
+        }
+
+        mTextExecutor = Executors.newSingleThreadExecutor();
+        MarkdownRenderer markdownRenderer = new MarkdownRenderer();
+        mQuestionTextLoader = new PrecomputedTextLoader(TEXT_CACHE_SIZE,
+                markdownRenderer::render, mTextExecutor);
+        mAnswerTextLoader = new PrecomputedTextLoader(TEXT_CACHE_SIZE,
+                markdownRenderer::render, mTextExecutor);
+        mBitmapCache = BitmapCache.getInstance(getApplicationContext());
+        mEventLogger = StudyEventLogger.getInstance(getApplicationContext());
+        mDistractorSampler = new DistractorSampler(mStudyDb.questionDao());
 
-        mQuestionText = findViewById(R.id.question_text_view);
-        mAnswerLabel = findViewById(R.id.answer_label_text_view);
-        mAnswerText = findViewById(R.id.answer_text_view);
-        mAnswerButton = findViewById(R.id.answer_button);
-        mShowQuestionLayout = findViewById(R.id.show_question_layout);
         mNoQuestionLayout = findViewById(R.id.no_question_layout);
+        if (allSubjects) {
+            findViewById(R.id.add_question_button).setVisibility(View.GONE);
+        }
+        mViewPager = findViewById(R.id.show_question_layout);
+        mQuestionAdapter = new QuestionAdapter();
+        mViewPager.setAdapter(mQuestionAdapter);
+
+        // Keep the neighbouring pages bound offscreen so swiping to them is instant.
+        mViewPager.setOffscreenPageLimit(1);
+        mViewPager.registerOnPageChangeCallback(new ViewPager2.OnPageChangeCallback() {
+            @Override
+            public void onPageSelected(int position) {
+                mCurrentQuestionIndex = position;
+                updateAppBarTitle();
+                prefetchQuestions(position);
+                logQuestionShown(position);
+            }
+        });
+
+        if (restored && !mQuestionList.isEmpty()) {
+            // Jump back to the saved question without animating.
+            mCurrentQuestionIndex = Math.max(0,
+                    Math.min(mCurrentQuestionIndex, mQuestionList.size() - 1));
+            mViewPager.setCurrentItem(mCurrentQuestionIndex, false);
+            updateAppBarTitle();
+        } else {
+            // Show first question.
+            showQuestion(0);
+        }
+    }
 
-        // Show first question.
-        showQuestion(0);
+    /**
+     * Callback method invoked before this activity may be destroyed. It saves the position and
+     * answer visibility in {@link #mViewModel} for configuration changes, and together with the
+     * seed of the question order in the passed {@link Bundle} for process death.
+     *
+     * @param outState {@link Bundle} to save the instance state in.
+     */
+    @Override
+    protected void onSaveInstanceState(@NonNull Bundle outState) {
+        super.onSaveInstanceState(outState);
+        mViewModel.setCurrentQuestionIndex(mCurrentQuestionIndex);
+        mViewModel.setAnswerVisible(mAnswerVisible);
+        outState.putInt(STATE_QUESTION_INDEX, mCurrentQuestionIndex);
+        outState.putBoolean(STATE_ANSWER_VISIBLE, mAnswerVisible);
+        outState.putLong(STATE_SEED, mViewModel.getSeed());
     }
 
     /**
@@ -131,12 +365,47 @@ public class QuestionActivity extends AppCompatActivity {
     protected void onStart() {
         super.onStart();
 
+        // The settings may have changed while this activity was stopped.
+        StudyPreferences preferences = StudyPreferences.getInstance(this);
+        boolean typedAnswers = preferences.isTypedAnswers();
+        boolean multipleChoice = preferences.isMultipleChoice();
+        if (typedAnswers != mTypedAnswers || multipleChoice != mMultipleChoice) {
+            mTypedAnswers = typedAnswers;
+            mMultipleChoice = multipleChoice;
+            mQuestionAdapter.notifyItemRangeChanged(0, mQuestionList.size(),
+                    PAYLOAD_ANSWER_VISIBILITY);
+            if (mCurrentQuestionIndex >= 0) {
+                prefetchQuestions(mCurrentQuestionIndex);
+            }
+        }
+
         if (mQuestionList.size() == 0) {
             updateAppBarTitle();
             displayQuestion(false);
         } else {
             displayQuestion(true);
-            toggleAnswerVisibility();
+        }
+    }
+
+    /**
+     * Callback method invoked when this activity is no longer visible. It writes any buffered
+     * study events so they are not lost if the process is killed.
+     */
+    @Override
+    protected void onStop() {
+        super.onStop();
+        mEventLogger.flush();
+    }
+
+    /**
+     * Callback method invoked when this activity is destroyed. It shuts down
+     * {@link #mTextExecutor}, which is null if the activity finished while being created.
+     */
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (mTextExecutor != null) {
+            mTextExecutor.shutdown();
         }
     }
 
@@ -150,6 +419,10 @@ public class QuestionActivity extends AppCompatActivity {
     public boolean onCreateOptionsMenu(Menu menu) {
         MenuInflater inflater = getMenuInflater();
         inflater.inflate(R.menu.question_menu, menu);
+
+        // New questions need a subject to be added to.
+        menu.findItem(R.id.add).setVisible(mSubjectId != QuestionSampler.ALL_SUBJECTS);
+        menu.findItem(R.id.reorder).setVisible(mReorderable);
         return true;
     }
 
@@ -176,6 +449,9 @@ public class QuestionActivity extends AppCompatActivity {
         } else if (item.getItemId() == R.id.delete) {
             deleteQuestion();
             return true;
+        } else if (item.getItemId() == R.id.reorder) {
+            reorderQuestions();
+            return true;
         }
         return super.onOptionsItemSelected(item);
     }
@@ -190,22 +466,45 @@ public class QuestionActivity extends AppCompatActivity {
 
     /**
      * Callback method invoked when the "Show Answer"/"Hide Answer" {@link Button} is clicked. It
-     * calls {@link #toggleAnswerVisibility()}.
+     * grades the typed answer if answers are typed and hidden, then calls
+     * {@link #toggleAnswerVisibility()}.
      */
     public void answerButtonClick(View view) {
+        if (mTypedAnswers && !mAnswerVisible && !mQuestionList.isEmpty()
+                && !showsChoices(mQuestionList.get(mCurrentQuestionIndex))) {
+            EditText answerEditText = ((View) view.getParent()).findViewById(R.id.answer_edit_text);
+            gradeTypedAnswer(answerEditText.getText());
+        }
         toggleAnswerVisibility();
     }
 
     /**
-     * If display is true, it only displays {@link #mShowQuestionLayout} in this activity.
-     * Otherwise, it only displays {@link #mNoQuestionLayout}.
+     * Callback method invoked when a multiple-choice {@link Button} is clicked. It grades the
+     * picked choice against the answer of the current {@link Question}, then shows the answer.
+     */
+    public void choiceButtonClick(View view) {
+        if (mAnswerVisible || mQuestionList.isEmpty()) {
+            return;
+        }
+        Question question = mQuestionList.get(mCurrentQuestionIndex);
+        String answer = question.getAnswer() != null ? question.getAnswer() : "";
+        int message = answer.contentEquals(((Button) view).getText())
+                ? R.string.typed_answer_correct : R.string.typed_answer_incorrect;
+        Snackbar.make(findViewById(R.id.coordinator_layout), message,
+                BaseTransientBottomBar.LENGTH_SHORT).show();
+        toggleAnswerVisibility();
+    }
+
+    /**
+     * If display is true, it only displays {@link #mViewPager} in this activity. Otherwise, it
+     * only displays {@link #mNoQuestionLayout}.
      */
     private void displayQuestion(boolean display) {
         if (display) {
-            mShowQuestionLayout.setVisibility(View.VISIBLE);
+            mViewPager.setVisibility(View.VISIBLE);
             mNoQuestionLayout.setVisibility(View.GONE);
         } else {
-            mShowQuestionLayout.setVisibility(View.GONE);
+            mViewPager.setVisibility(View.GONE);
             mNoQuestionLayout.setVisibility(View.VISIBLE);
         }
     }
@@ -214,9 +513,8 @@ public class QuestionActivity extends AppCompatActivity {
      * Updates the app bar title to display the subject and number of questions.
      */
     private void updateAppBarTitle() {
-        Subject subject = mStudyDb.subjectDao().getSubject(mSubjectId);
         String title = getResources().getString(R.string.question_number,
-                subject.getText(), mCurrentQuestionIndex + 1, mQuestionList.size());
+                mSubjectText, mCurrentQuestionIndex + 1, mQuestionList.size());
         setTitle(title);
     }
 
@@ -249,6 +547,7 @@ public class QuestionActivity extends AppCompatActivity {
 
                             // Add newly created question to the question list and show it.
                             mQuestionList.add(newQuestion);
+                            mQuestionAdapter.notifyItemInserted(mQuestionList.size() - 1);
                             showQuestion(mQuestionList.size() - 1);
 
                             // Change layout in case this is the first question.
@@ -295,6 +594,12 @@ public class QuestionActivity extends AppCompatActivity {
                             Question currentQuestion = mQuestionList.get(mCurrentQuestionIndex);
                             currentQuestion.setText(updatedQuestion.getText());
                             currentQuestion.setAnswer(updatedQuestion.getAnswer());
+                            currentQuestion.setQuestionImage(updatedQuestion.getQuestionImage());
+                            currentQuestion.setAnswerImage(updatedQuestion.getAnswerImage());
+
+                            // The old answer may be a choice of any question.
+                            clearChoices();
+                            mQuestionAdapter.notifyItemChanged(mCurrentQuestionIndex);
                             showQuestion(mCurrentQuestionIndex);
 
                             Snackbar.make(findViewById(R.id.coordinator_layout), R.string.question_updated, BaseTransientBottomBar.LENGTH_SHORT).show();
@@ -304,19 +609,21 @@ public class QuestionActivity extends AppCompatActivity {
             });
 
     /**
-     * Invoked when the "Delete" app bar button is clicked. It deletes the currently displayed
-     * {@link Question} from {@link #mQuestionList} and {@link #mStudyDb}. However, it stores it
-     * at {@link #mDeletedQuestion} in case the user wants to undo this action via a
-     * {@link Snackbar} button click.
+     * Invoked when the "Delete" app bar button is clicked. It removes the currently displayed
+     * {@link Question} from {@link #mQuestionList} and marks it as deleted in {@link #mStudyDb}.
+     * However, it stores it at {@link #mDeletedQuestion} in case the user wants to undo this
+     * action via a {@link Snackbar} button click.
      */
     private void deleteQuestion() {
         if (mCurrentQuestionIndex >= 0) {
             Question question = mQuestionList.get(mCurrentQuestionIndex);
-            mStudyDb.questionDao().deleteQuestion(question);
+            mStudyDb.questionDao().setQuestionDeleted(question.getId(), System.currentTimeMillis());
             mQuestionList.remove(mCurrentQuestionIndex);
+            mQuestionAdapter.notifyItemRemoved(mCurrentQuestionIndex);
 
             // Save question in case user wants to undo delete
             mDeletedQuestion = question;
+            mDeletedQuestionIndex = mCurrentQuestionIndex;
 
             if (mQuestionList.isEmpty()) {
                 // No questions left to show
@@ -331,13 +638,19 @@ public class QuestionActivity extends AppCompatActivity {
             Snackbar snackbar = Snackbar.make(findViewById(R.id.coordinator_layout),
                     R.string.question_deleted, Snackbar.LENGTH_LONG);
             snackbar.setAction(R.string.undo, v -> {
-                // Add question back with a new auto-increment id
-                mDeletedQuestion.setId(0);
-                mStudyDb.questionDao().insertQuestion(mDeletedQuestion);
+                // Restore the question, keeping its id and position
+                if (mStudyDb.questionDao().setQuestionDeleted(mDeletedQuestion.getId(), 0) == 0) {
+                    // An identical question was added since, so this one stays deleted.
+                    Snackbar.make(findViewById(R.id.coordinator_layout), R.string.question_exists,
+                            BaseTransientBottomBar.LENGTH_SHORT).show();
+                    return;
+                }
 
                 // Add question back to list of questions, and display it
-                mQuestionList.add(mDeletedQuestion);
-                showQuestion(mQuestionList.size() - 1);
+                int index = Math.min(mDeletedQuestionIndex, mQuestionList.size());
+                mQuestionList.add(index, mDeletedQuestion);
+                mQuestionAdapter.notifyItemInserted(index);
+                showQuestion(index);
                 displayQuestion(true);
             });
             snackbar.show();
@@ -345,8 +658,102 @@ public class QuestionActivity extends AppCompatActivity {
     }
 
     /**
-     * Updates {@link #mQuestionText} and {@link #mAnswerText} with attributes of the
-     * {@link Question} in {@link #mQuestionList} at the passed index.
+     * Invoked when the "Reorder" app bar button is clicked. It shows the {@link Question} objects
+     * of {@link #mQuestionList} in a dialog where they can be dragged into a new order. Each drop
+     * writes only the new rank of the dropped {@link Question}, on a background thread.
+     */
+    private void reorderQuestions() {
+        RecyclerView reorderRecyclerView = new RecyclerView(this);
+        reorderRecyclerView.setLayoutManager(new LinearLayoutManager(this));
+        ReorderAdapter adapter = new ReorderAdapter();
+        reorderRecyclerView.setAdapter(adapter);
+        new ItemTouchHelper(new ItemTouchHelper.SimpleCallback(
+                ItemTouchHelper.UP | ItemTouchHelper.DOWN, 0) {
+
+            /**
+             * Int position the dragged {@link Question} was picked up at.
+             * {@link RecyclerView#NO_POSITION} if none is dragged.
+             */
+            private int mDragFromPosition = RecyclerView.NO_POSITION;
+
+            @Override
+            public boolean onMove(@NonNull RecyclerView recyclerView,
+                                  @NonNull RecyclerView.ViewHolder viewHolder,
+                                  @NonNull RecyclerView.ViewHolder target) {
+                int from = viewHolder.getAdapterPosition();
+                int to = target.getAdapterPosition();
+                if (mDragFromPosition == RecyclerView.NO_POSITION) {
+                    mDragFromPosition = from;
+                }
+                moveQuestion(from, to);
+                adapter.notifyItemMoved(from, to);
+                return true;
+            }
+
+            @Override
+            public void onSwiped(@NonNull RecyclerView.ViewHolder viewHolder, int direction) {
+            }
+
+            @Override
+            public void clearView(@NonNull RecyclerView recyclerView,
+                                  @NonNull RecyclerView.ViewHolder viewHolder) {
+                super.clearView(recyclerView, viewHolder);
+                int position = viewHolder.getAdapterPosition();
+                if (position != RecyclerView.NO_POSITION && position != mDragFromPosition
+                        && mDragFromPosition != RecyclerView.NO_POSITION) {
+                    saveQuestionPosition(position);
+                }
+                mDragFromPosition = RecyclerView.NO_POSITION;
+            }
+        }).attachToRecyclerView(reorderRecyclerView);
+        reorderRecyclerView.scrollToPosition(Math.max(0, mCurrentQuestionIndex));
+
+        new AlertDialog.Builder(this)
+                .setTitle(R.string.reorder_questions)
+                .setView(reorderRecyclerView)
+                .setPositiveButton(R.string.done, null)
+                .show();
+    }
+
+    /**
+     * Moves the {@link Question} at the passed index of {@link #mQuestionList} to another index
+     * and keeps {@link #mViewPager} on the {@link Question} it was showing.
+     *
+     * @param fromIndex Int index of the {@link Question} to move.
+     * @param toIndex   Int index to move it to.
+     */
+    private void moveQuestion(int fromIndex, int toIndex) {
+        mQuestionList.add(toIndex, mQuestionList.remove(fromIndex));
+        mQuestionAdapter.notifyItemMoved(fromIndex, toIndex);
+
+        if (mCurrentQuestionIndex == fromIndex) {
+            mCurrentQuestionIndex = toIndex;
+        } else if (fromIndex < mCurrentQuestionIndex && toIndex >= mCurrentQuestionIndex) {
+            mCurrentQuestionIndex--;
+        } else if (fromIndex > mCurrentQuestionIndex && toIndex <= mCurrentQuestionIndex) {
+            mCurrentQuestionIndex++;
+        }
+        mViewPager.setCurrentItem(mCurrentQuestionIndex, false);
+        updateAppBarTitle();
+    }
+
+    /**
+     * Writes the position of the {@link Question} at the passed index of {@link #mQuestionList}
+     * to {@link #mStudyDb} on a background thread, as a rank between those of its neighbours.
+     *
+     * @param index Int index of the moved {@link Question}.
+     */
+    private void saveQuestionPosition(int index) {
+        long questionId = mQuestionList.get(index).getId();
+        long previousId = index > 0 ? mQuestionList.get(index - 1).getId() : 0;
+        long nextId = index < mQuestionList.size() - 1 ? mQuestionList.get(index + 1).getId() : 0;
+        StudyDatabase.getDatabaseExecutor().execute(() ->
+                mStudyDb.questionDao().moveQuestion(questionId, previousId, nextId));
+    }
+
+    /**
+     * Scrolls {@link #mViewPager} to the {@link Question} in {@link #mQuestionList} at the passed
+     * index. Indices past either end of the list wrap around.
      *
      * @param questionIndex Which {@link Question} should be shown.
      */
@@ -354,18 +761,22 @@ public class QuestionActivity extends AppCompatActivity {
 
         // Show question at the given index
         if (mQuestionList.size() > 0) {
+            boolean wrapped = false;
             if (questionIndex < 0) {
                 questionIndex = mQuestionList.size() - 1;
+                wrapped = true;
             } else if (questionIndex >= mQuestionList.size()) {
                 questionIndex = 0;
+                wrapped = true;
             }
 
             mCurrentQuestionIndex = questionIndex;
             updateAppBarTitle();
 
-            Question question = mQuestionList.get(mCurrentQuestionIndex);
-            mQuestionText.setText(question.getText());
-            mAnswerText.setText(question.getAnswer());
+            // Only animate moves to a neighbouring page.
+            boolean smoothScroll = !wrapped
+                    && Math.abs(mViewPager.getCurrentItem() - questionIndex) == 1;
+            mViewPager.setCurrentItem(questionIndex, smoothScroll);
         } else {
             // No questions yet
             mCurrentQuestionIndex = -1;
@@ -373,17 +784,451 @@ public class QuestionActivity extends AppCompatActivity {
     }
 
     /**
-     * Toggles the visibility of {@link #mAnswerText} and {@link #mAnswerLabel}.
+     * Lays out the text and decodes the images of the {@link Question} objects within
+     * {@link #PREFETCH_DISTANCE} of the passed index on background threads, so their pages bind
+     * without layout or decoding work.
+     *
+     * @param questionIndex Index of the {@link Question} currently shown.
      */
-    private void toggleAnswerVisibility() {
-        if (mAnswerText.getVisibility() == View.VISIBLE) {
-            mAnswerButton.setText(R.string.show_answer);
-            mAnswerText.setVisibility(View.INVISIBLE);
-            mAnswerLabel.setVisibility(View.INVISIBLE);
+    private void prefetchQuestions(int questionIndex) {
+        int from = Math.max(0, questionIndex - PREFETCH_DISTANCE);
+        int to = Math.min(mQuestionList.size() - 1, questionIndex + PREFETCH_DISTANCE);
+        for (int i = from; i <= to; i++) {
+            Question question = mQuestionList.get(i);
+            mQuestionTextLoader.prefetch(question.getId(), question.getContentHash(),
+                    question.getText());
+            mAnswerTextLoader.prefetch(question.getId(), question.getContentHash(),
+                    question.getAnswer());
+            if (question.getQuestionImage() != null) {
+                mBitmapCache.prefetch(question.getQuestionImage());
+            }
+            if (question.getAnswerImage() != null) {
+                mBitmapCache.prefetch(question.getAnswerImage());
+            }
+            if (showsChoices(question)) {
+                requestChoices(question);
+            }
+        }
+    }
+
+    /**
+     * Returns whether the passed {@link Question} is answered by picking one of its choices. A
+     * {@link Question} without an answer has nothing to pick, so it is answered as if
+     * {@link #mMultipleChoice} were not set.
+     *
+     * @param question {@link Question} to check. May be null.
+     * @return Boolean for whether choices are shown for the {@link Question}.
+     */
+    private boolean showsChoices(Question question) {
+        return mMultipleChoice && question != null && question.getAnswer() != null
+                && !question.getAnswer().trim().isEmpty();
+    }
+
+    /**
+     * Clears every sampled choice and drops the choices still being sampled, so pages request
+     * choices again when they are bound.
+     */
+    private void clearChoices() {
+        mViewModel.clearChoices();
+        mPendingChoiceIds.clear();
+        mChoiceGeneration++;
+    }
+
+    /**
+     * Samples the multiple-choice choices of the passed {@link Question} on a background thread
+     * unless they are already sampled or being sampled. Once sampled, they are kept in
+     * {@link #mViewModel} and the page of the {@link Question} is re-bound.
+     *
+     * @param question {@link Question} to sample choices for.
+     */
+    private void requestChoices(Question question) {
+        long questionId = question.getId();
+        if (mViewModel.getChoices(questionId) != null || !mPendingChoiceIds.add(questionId)) {
+            return;
+        }
+
+        // Seeding by the session keeps the choices the same when the activity is recreated.
+        Random random = new Random(mViewModel.getSeed() * 31 + questionId);
+        int generation = mChoiceGeneration;
+        StudyDatabase.getDatabaseExecutor().execute(() -> {
+            List<String> choices = mDistractorSampler.sampleChoices(question, random);
+            runOnUiThread(() -> {
+                // Choices sampled before they were cleared may hold an old answer.
+                if (isDestroyed() || generation != mChoiceGeneration) {
+                    return;
+                }
+                mPendingChoiceIds.remove(questionId);
+                mViewModel.putChoices(questionId, choices);
+                for (int i = 0; i < mQuestionList.size(); i++) {
+                    if (mQuestionList.get(i).getId() == questionId) {
+                        mQuestionAdapter.notifyItemChanged(i, PAYLOAD_CHOICES);
+                        break;
+                    }
+                }
+            });
+        });
+    }
+
+    /**
+     * Records that the {@link Question} at the passed position of {@link #mQuestionList} was
+     * shown. Nothing is recorded when the same {@link Question} is selected again, such as after
+     * rotation.
+     *
+     * @param position Int position of the shown {@link Question}.
+     */
+    private void logQuestionShown(int position) {
+        if (position >= mQuestionList.size()) {
+            return;
+        }
+        Question question = mQuestionList.get(position);
+        if (question.getId() != mViewModel.getLastShownQuestionId()) {
+            mViewModel.setLastShownQuestionId(question.getId());
+            mEventLogger.log(question, StudyEvent.TYPE_SHOWN);
+        }
+    }
+
+    /**
+     * Grades the passed typed answer against the answer of the current {@link Question} and shows
+     * the grade in a {@link Snackbar}.
+     *
+     * @param typedAnswer {@link CharSequence} answer typed on the current page.
+     */
+    private void gradeTypedAnswer(CharSequence typedAnswer) {
+        Question question = mQuestionList.get(mCurrentQuestionIndex);
+        String answer = question.getAnswer() != null ? question.getAnswer() : "";
+        int grade = mAnswerGrader.grade(answer, typedAnswer);
+        int message;
+        if (grade == AnswerGrader.GRADE_CORRECT) {
+            message = R.string.typed_answer_correct;
+        } else if (grade == AnswerGrader.GRADE_ALMOST) {
+            message = R.string.typed_answer_almost;
         } else {
-            mAnswerButton.setText(R.string.hide_answer);
-            mAnswerText.setVisibility(View.VISIBLE);
-            mAnswerLabel.setVisibility(View.VISIBLE);
+            message = R.string.typed_answer_incorrect;
+        }
+        Snackbar.make(findViewById(R.id.coordinator_layout), message,
+                BaseTransientBottomBar.LENGTH_SHORT).show();
+    }
+
+    /**
+     * Toggles the visibility of the answer on every page of {@link #mViewPager}.
+     */
+    private void toggleAnswerVisibility() {
+        mAnswerVisible = !mAnswerVisible;
+        if (mAnswerVisible && !mQuestionList.isEmpty()) {
+            mEventLogger.log(mQuestionList.get(mCurrentQuestionIndex),
+                    StudyEvent.TYPE_ANSWER_REVEALED);
+        }
+        mQuestionAdapter.notifyItemRangeChanged(0, mQuestionList.size(),
+                PAYLOAD_ANSWER_VISIBILITY);
+    }
+
+    /**
+     * {@link QuestionHolder} is a model class that describes a single page of
+     * {@link #mViewPager}.
+     */
+    private class QuestionHolder extends RecyclerView.ViewHolder {
+
+        /**
+         * {@link AppCompatTextView} to display the question's text.
+         */
+        private final AppCompatTextView mQuestionText;
+
+        /**
+         * {@link ImageView} to display the question's image.
+         */
+        private final ImageView mQuestionImage;
+
+        /**
+         * {@link TextView} for the answer label.
+         */
+        private final TextView mAnswerLabel;
+
+        /**
+         * {@link AppCompatTextView} to display the answer's text.
+         */
+        private final AppCompatTextView mAnswerText;
+
+        /**
+         * {@link ImageView} to display the answer's image.
+         */
+        private final ImageView mAnswerImage;
+
+        /**
+         * {@link String} file name of the answer's image. Null if none.
+         */
+        private String mAnswerImageFile;
+
+        /**
+         * {@link Button} for toggling the visibility of the answer.
+         */
+        private final Button mAnswerButton;
+
+        /**
+         * {@link EditText} for typing the answer.
+         */
+        private final EditText mAnswerEditText;
+
+        /**
+         * {@link LinearLayout} holding a {@link Button} per multiple-choice choice.
+         */
+        private final LinearLayout mChoicesLayout;
+
+        /**
+         * {@link Question} bound to this {@link QuestionHolder}.
+         */
+        private Question mQuestion;
+
+        /**
+         * Constructs a new {@link QuestionHolder}.
+         *
+         * @param inflater For inflating layouts.
+         * @param parent   Parent {@link ViewGroup} of the page.
+         */
+        public QuestionHolder(LayoutInflater inflater, ViewGroup parent) {
+            super(inflater.inflate(R.layout.pager_items, parent, false));
+            mQuestionText = itemView.findViewById(R.id.question_text_view);
+            mQuestionImage = itemView.findViewById(R.id.question_image_view);
+            mAnswerImage = itemView.findViewById(R.id.answer_image_view);
+            mAnswerLabel = itemView.findViewById(R.id.answer_label_text_view);
+            mAnswerText = itemView.findViewById(R.id.answer_text_view);
+            mAnswerButton = itemView.findViewById(R.id.answer_button);
+            mAnswerEditText = itemView.findViewById(R.id.answer_edit_text);
+            mChoicesLayout = itemView.findViewById(R.id.choices_layout);
+        }
+
+        /**
+         * Binds a new {@link Question} to this {@link QuestionHolder}.
+         *
+         * @param question {@link Question} to bind to this {@link QuestionHolder}.
+         */
+        public void bind(Question question) {
+            mQuestion = question;
+            mQuestionTextLoader.load(mQuestionText, question.getId(), question.getContentHash(),
+                    question.getText());
+            mAnswerTextLoader.load(mAnswerText, question.getId(), question.getContentHash(),
+                    question.getAnswer());
+            bindImage(mQuestionImage, question.getQuestionImage());
+            bindImage(mAnswerImage, question.getAnswerImage());
+            mAnswerImageFile = question.getAnswerImage();
+            mAnswerEditText.setText(null);
+            bindAnswerVisibility();
+        }
+
+        /**
+         * Shows the image with the passed file name in the passed {@link ImageView}, or hides the
+         * {@link ImageView} if there is no image.
+         *
+         * @param imageView {@link ImageView} to show the image in.
+         * @param fileName  {@link String} file name of the image. May be null.
+         */
+        private void bindImage(ImageView imageView, String fileName) {
+            if (fileName == null) {
+                imageView.setTag(R.id.image_file_tag, null);
+                imageView.setImageDrawable(null);
+                imageView.setVisibility(View.GONE);
+            } else {
+                imageView.setVisibility(View.VISIBLE);
+                mBitmapCache.load(imageView, fileName);
+            }
+        }
+
+        /**
+         * Shows or hides the answer of this {@link QuestionHolder} given {@link #mAnswerVisible},
+         * the typed answer given {@link #mTypedAnswers}, and the choices given
+         * {@link #showsChoices(Question)}.
+         */
+        public void bindAnswerVisibility() {
+            boolean typedAnswers = mTypedAnswers && !showsChoices(mQuestion);
+            mAnswerEditText.setVisibility(typedAnswers ? View.VISIBLE : View.GONE);
+            mAnswerEditText.setEnabled(!mAnswerVisible);
+            bindChoices();
+            if (mAnswerVisible) {
+                mAnswerButton.setText(R.string.hide_answer);
+                mAnswerText.setVisibility(View.VISIBLE);
+                mAnswerLabel.setVisibility(View.VISIBLE);
+                if (mAnswerImageFile != null) {
+                    mAnswerImage.setVisibility(View.VISIBLE);
+                }
+            } else {
+                mAnswerButton.setText(typedAnswers ? R.string.check_answer
+                        : R.string.show_answer);
+                mAnswerText.setVisibility(View.INVISIBLE);
+                mAnswerLabel.setVisibility(View.INVISIBLE);
+                if (mAnswerImageFile != null) {
+                    mAnswerImage.setVisibility(View.INVISIBLE);
+                }
+            }
+        }
+
+        /**
+         * Shows the multiple-choice choices of the bound {@link Question} if
+         * {@link #showsChoices(Question)}, requesting them if they are not sampled yet. Choices
+         * can only be picked while the answer is hidden.
+         */
+        public void bindChoices() {
+            if (!showsChoices(mQuestion)) {
+                mChoicesLayout.setVisibility(View.GONE);
+                return;
+            }
+            mChoicesLayout.setVisibility(View.VISIBLE);
+            List<String> choices = mViewModel.getChoices(mQuestion.getId());
+            if (choices == null) {
+                requestChoices(mQuestion);
+            }
+            for (int i = 0; i < mChoicesLayout.getChildCount(); i++) {
+                Button choiceButton = (Button) mChoicesLayout.getChildAt(i);
+                if (choices != null && i < choices.size()) {
+                    choiceButton.setText(choices.get(i));
+                    choiceButton.setEnabled(!mAnswerVisible);
+                    choiceButton.setVisibility(View.VISIBLE);
+                } else {
+                    // Keep the space of choices still being sampled so the page does not jump.
+                    choiceButton.setText(null);
+                    choiceButton.setVisibility(choices == null ? View.INVISIBLE : View.GONE);
+                }
+            }
+        }
+    }
+
+    /**
+     * {@link QuestionAdapter} provides a binding from {@link #mQuestionList} to
+     * {@link #mViewPager}.
+     */
+    private class QuestionAdapter extends RecyclerView.Adapter<QuestionHolder> {
+
+        /**
+         * Callback method invoked when {@link #mViewPager} needs a new empty
+         * {@link QuestionHolder} to represent a {@link Question}.
+         *
+         * @param parent   {@link ViewGroup} into which the new {@link View} will be added after it
+         *                 is bound to an adapter position.
+         * @param viewType The view type of the new {@link View}.
+         * @return A new {@link QuestionHolder}.
+         */
+        @NonNull
+        @Override
+        public QuestionHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+            LayoutInflater layoutInflater = LayoutInflater.from(parent.getContext());
+            return new QuestionHolder(layoutInflater, parent);
+        }
+
+        /**
+         * Callback method invoked when {@link #mViewPager} needs to bind data to a
+         * {@link QuestionHolder} at a certain position index.
+         *
+         * @param holder   {@link QuestionHolder} to be bound.
+         * @param position The {@link QuestionHolder} object's position index in the adapter.
+         */
+        @Override
+        public void onBindViewHolder(@NonNull QuestionHolder holder, int position) {
+            holder.bind(mQuestionList.get(position));
+        }
+
+        /**
+         * Callback method invoked when {@link #mViewPager} needs to partially re-bind a
+         * {@link QuestionHolder}. Answer visibility and choice changes skip re-binding the text.
+         *
+         * @param holder   {@link QuestionHolder} to be bound.
+         * @param position The {@link QuestionHolder} object's position index in the adapter.
+         * @param payloads {@link List} of payloads describing what changed.
+         */
+        @Override
+        public void onBindViewHolder(@NonNull QuestionHolder holder, int position,
+                                     @NonNull List<Object> payloads) {
+            if (payloads.contains(PAYLOAD_ANSWER_VISIBILITY)) {
+                holder.bindAnswerVisibility();
+            } else if (payloads.contains(PAYLOAD_CHOICES)) {
+                holder.bindChoices();
+            } else {
+                super.onBindViewHolder(holder, position, payloads);
+            }
+        }
+
+        /**
+         * Returns the total number of items this adapter is adapting.
+         *
+         * @return The total number of items this adapter is adapting.
+         */
+        @Override
+        public int getItemCount() {
+            return mQuestionList.size();
+        }
+    }
+
+    /**
+     * {@link ReorderHolder} is a model class that describes a single item view of the reorder
+     * dialog.
+     */
+    private class ReorderHolder extends RecyclerView.ViewHolder {
+
+        /**
+         * {@link TextView} to display the question's text.
+         */
+        private final TextView mTextView;
+
+        /**
+         * Constructs a new {@link ReorderHolder}.
+         *
+         * @param inflater For inflating layouts.
+         * @param parent   Parent {@link ViewGroup} of the item view.
+         */
+        public ReorderHolder(LayoutInflater inflater, ViewGroup parent) {
+            super(inflater.inflate(R.layout.reorder_items, parent, false));
+            mTextView = itemView.findViewById(R.id.reorder_text_view);
+        }
+
+        /**
+         * Binds a new {@link Question} to this {@link ReorderHolder}.
+         *
+         * @param question {@link Question} to bind to this {@link ReorderHolder}.
+         */
+        public void bind(Question question) {
+            mTextView.setText(question.getText());
+        }
+    }
+
+    /**
+     * {@link ReorderAdapter} provides a binding from {@link #mQuestionList} to the list of the
+     * reorder dialog.
+     */
+    private class ReorderAdapter extends RecyclerView.Adapter<ReorderHolder> {
+
+        /**
+         * Callback method invoked when the list needs a new empty {@link ReorderHolder} to
+         * represent a {@link Question}.
+         *
+         * @param parent   {@link ViewGroup} into which the new {@link View} will be added after it
+         *                 is bound to an adapter position.
+         * @param viewType The view type of the new {@link View}.
+         * @return A new {@link ReorderHolder}.
+         */
+        @NonNull
+        @Override
+        public ReorderHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+            LayoutInflater layoutInflater = LayoutInflater.from(parent.getContext());
+            return new ReorderHolder(layoutInflater, parent);
+        }
+
+        /**
+         * Callback method invoked when the list needs to bind data to a {@link ReorderHolder} at
+         * a certain position index.
+         *
+         * @param holder   {@link ReorderHolder} to be bound.
+         * @param position The {@link ReorderHolder} object's position index in the adapter.
+         */
+        @Override
+        public void onBindViewHolder(@NonNull ReorderHolder holder, int position) {
+            holder.bind(mQuestionList.get(position));
+        }
+
+        /**
+         * Returns the total number of items this adapter is adapting.
+         *
+         * @return The total number of items this adapter is adapting.
+         */
+        @Override
+        public int getItemCount() {
+            return mQuestionList.size();
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,98 @@
+package com.davidread.studyhelper;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Index;
+
+/**
+ * {@link QuestionDailyStats} is a class used to model how much a single {@link Question} was
+ * studied on a single day. Rows are maintained incrementally from {@link StudyEvent} objects as
+ * they are written. Instances are also used to carry the increments themselves.
+ */
+@Entity(primaryKeys = {"question_id", "day"},
+        indices = @Index(value = {"subject_id", "day"}))
+public class QuestionDailyStats {
+
+    /**
+     * Long id of the {@link Question}.
+     */
+    @ColumnInfo(name = "question_id")
+    private long mQuestionId;
+
+    /**
+     * Long id of the {@link Subject} the {@link Question} belongs to.
+     */
+    @ColumnInfo(name = "subject_id")
+    private long mSubjectId;
+
+    /**
+     * Long number of the local calendar day, counted from the epoch.
+     */
+    @ColumnInfo(name = "day")
+    private long mDay;
+
+    /**
+     * Int number of times the {@link Question} was shown.
+     */
+    @ColumnInfo(name = "shown_count")
+    private int mShownCount;
+
+    /**
+     * Int number of times the answer to the {@link Question} was revealed.
+     */
+    @ColumnInfo(name = "revealed_count")
+    private int mRevealedCount;
+
+    /**
+     * Constructs a new {@link QuestionDailyStats} with zero counts.
+     *
+     * @param questionId Long id of the {@link Question}.
+     * @param subjectId  Long id of the {@link Subject} the {@link Question} belongs to.
+     * @param day        Long number of the local calendar day.
+     */
+    public QuestionDailyStats(long questionId, long subjectId, long day) {
+        mQuestionId = questionId;
+        mSubjectId = subjectId;
+        mDay = day;
+    }
+
+    public long getQuestionId() {
+        return mQuestionId;
+    }
+
+    public void setQuestionId(long questionId) {
+        mQuestionId = questionId;
+    }
+
+    public long getSubjectId() {
+        return mSubjectId;
+    }
+
+    public void setSubjectId(long subjectId) {
+        mSubjectId = subjectId;
+    }
+
+    public long getDay() {
+        return mDay;
+    }
+
+    public void setDay(long day) {
+        mDay = day;
+    }
+
+    public int getShownCount() {
+        return mShownCount;
+    }
+
+    public void setShownCount(int shownCount) {
+        mShownCount = shownCount;
+    }
+
+    public int getRevealedCount() {
+        return mRevealedCount;
+    }
+
+    public void setRevealedCount(int revealedCount) {
+        mRevealedCount = revealedCount;
+    }
+}
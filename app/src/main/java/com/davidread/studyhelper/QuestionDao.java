@@ -1,18 +1,28 @@
 package com.davidread.studyhelper;
 
+import android.database.Cursor;
+
 import androidx.room.Dao;
 import androidx.room.Delete;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import androidx.room.Transaction;
 import androidx.room.Update;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
 
 /**
  * {@link QuestionDao} defines methods to select, insert, update, and delete {@link Question}
  * entities from the database maintained by {@link StudyDatabase}. At compile time, Room
- * automatically generates implementations of these methods.
+ * automatically generates implementations of these methods. Queries skip deleted {@link Question}
+ * objects, which are kept as tombstones until purged.
  */
 @Dao
 public interface QuestionDao {
@@ -23,34 +33,385 @@ public interface QuestionDao {
      * @param id Long id to match.
      * @return A {@link Question}.
      */
-    @Query("SELECT * FROM Question WHERE id = :id")
+    @Query("SELECT * FROM Question WHERE id = :id AND deleted = 0")
     public Question getQuestion(long id);
 
     /**
      * Queries for all {@link Question} objects matching a subject id and returns them in a
-     * {@link List}.
+     * {@link List} in their user-defined order.
      *
      * @param subjectId Long subject id to match.
      * @return A {@link List} of {@link Question} objects matching a subject id.
      */
-    @Query("SELECT * FROM Question WHERE subject_id = :subjectId ORDER BY id")
+    @Query("SELECT * FROM Question WHERE subject_id = :subjectId AND deleted = 0 "
+            + "ORDER BY sort_rank, id")
     public List<Question> getQuestions(long subjectId);
 
+    /**
+     * Queries for the ids of all {@link Question} objects matching a subject id, in the same
+     * order as {@link #getQuestions(long)}. Answered from the rank index alone.
+     *
+     * @param subjectId Long subject id to match.
+     * @return A {@link List} of long ids.
+     */
+    @Query("SELECT id FROM Question WHERE subject_id = :subjectId AND deleted = 0 "
+            + "ORDER BY sort_rank, id")
+    public List<Long> getQuestionIds(long subjectId);
+
+    /**
+     * Queries for the ids of all {@link Question} objects that are not deleted and whose
+     * {@link Subject} is not deleted, in id order.
+     *
+     * @return A {@link List} of long ids.
+     */
+    @Query("SELECT id FROM Question WHERE deleted = 0 "
+            + "AND subject_id NOT IN (SELECT id FROM Subject WHERE deleted != 0) ORDER BY id")
+    public List<Long> getAllQuestionIds();
+
+    /**
+     * Queries for all {@link Question} objects matching any of the passed ids. Use
+     * {@link #getQuestionsByIds(List)} instead, which does not limit the number of ids.
+     *
+     * @param ids {@link List} of at most {@link SubjectDao#MAX_BOUND_IDS} long ids to match.
+     * @return A {@link List} of matching {@link Question} objects.
+     */
+    @Query("SELECT * FROM Question WHERE id IN (:ids) AND deleted = 0")
+    public List<Question> getQuestionChunkByIds(List<Long> ids);
+
+    /**
+     * Queries for all {@link Question} objects matching any of the passed ids and returns them in
+     * the order of the ids. Ids are bound in chunks to stay below SQLite's limit on host
+     * parameters.
+     *
+     * @param ids {@link List} of long ids to match.
+     * @return A {@link List} of matching {@link Question} objects.
+     */
+    @Transaction
+    public default List<Question> getQuestionsByIds(List<Long> ids) {
+        Map<Long, Question> questionsById = new HashMap<>();
+        for (int i = 0; i < ids.size(); i += SubjectDao.MAX_BOUND_IDS) {
+            for (Question question : getQuestionChunkByIds(ids.subList(i,
+                    Math.min(i + SubjectDao.MAX_BOUND_IDS, ids.size())))) {
+                questionsById.put(question.getId(), question);
+            }
+        }
+
+        List<Question> questions = new ArrayList<>(questionsById.size());
+        for (long id : ids) {
+            Question question = questionsById.get(id);
+            if (question != null) {
+                questions.add(question);
+            }
+        }
+        return questions;
+    }
+
+    /**
+     * Queries for up to the passed number of distinct random {@link Question} objects across all
+     * subjects, in the order they were picked. Each pick works like
+     * {@link #getRandomQuestion(Random)}, so no query sorts or scans the table. Fewer
+     * {@link Question} objects are returned if repeated picks keep landing on ones already taken,
+     * which happens when there are not many more questions than requested.
+     *
+     * @param random {@link Random} to pick ids with. The same seed picks the same questions as
+     *               long as the table does not change.
+     * @param count  Int number of {@link Question} objects to pick.
+     * @return A {@link List} of at most count {@link Question} objects.
+     */
+    @Transaction
+    public default List<Question> getRandomQuestions(Random random, int count) {
+        List<Question> questions = new ArrayList<>();
+        long maxId = getMaxQuestionId();
+        if (maxId <= 0) {
+            return questions;
+        }
+
+        Set<Long> pickedIds = new HashSet<>();
+        for (int attempt = 0; attempt < count * 3 && questions.size() < count; attempt++) {
+            long startId = 1 + (long) (random.nextDouble() * maxId);
+            Question question = getFirstQuestionFrom(startId);
+            if (question == null) {
+                question = getFirstQuestionFrom(0);
+            }
+            if (question == null) {
+                break;
+            }
+            if (pickedIds.add(question.getId())) {
+                questions.add(question);
+            }
+        }
+        return questions;
+    }
+
+    /**
+     * Queries for up to the passed number of distinct random answers of {@link Question} objects
+     * matching a subject id. Each pick is a random id between the first and last id of the
+     * subject followed by a single seek in the subject index, so no query reads every answer of
+     * the subject. Fewer answers are returned if repeated picks keep landing on answers already
+     * taken, which happens when the subject does not have many more questions than requested.
+     *
+     * @param subjectId Long subject id to match.
+     * @param random    {@link Random} to pick ids with. The same seed picks the same answers as
+     *                  long as the subject does not change.
+     * @param count     Int number of answers to pick.
+     * @return A {@link List} of at most count distinct {@link String} answers.
+     */
+    @Transaction
+    public default List<String> getRandomAnswers(long subjectId, Random random, int count) {
+        List<String> answers = new ArrayList<>();
+        long firstId = getFirstQuestionId(subjectId);
+        long lastId = getLastQuestionId(subjectId);
+        if (lastId <= 0) {
+            return answers;
+        }
+
+        Set<String> pickedAnswers = new HashSet<>();
+        for (int attempt = 0; attempt < count * 3 && answers.size() < count; attempt++) {
+            long startId = firstId + (long) (random.nextDouble() * (lastId - firstId + 1));
+            String answer = getAnswerFrom(subjectId, startId);
+            if (answer != null && pickedAnswers.add(answer)) {
+                answers.add(answer);
+            }
+        }
+        return answers;
+    }
+
+    /**
+     * Queries for the smallest id of any {@link Question} matching a subject id that is not
+     * deleted. Answered from the start of the subject index.
+     *
+     * @param subjectId Long subject id to match.
+     * @return The smallest long id. Zero if the subject has no {@link Question} objects.
+     */
+    @Query("SELECT IFNULL(MIN(id), 0) FROM Question WHERE subject_id = :subjectId AND deleted = 0")
+    public long getFirstQuestionId(long subjectId);
+
+    /**
+     * Queries for the largest id of any {@link Question} matching a subject id that is not
+     * deleted. Answered from the end of the subject index.
+     *
+     * @param subjectId Long subject id to match.
+     * @return The largest long id. Zero if the subject has no {@link Question} objects.
+     */
+    @Query("SELECT IFNULL(MAX(id), 0) FROM Question WHERE subject_id = :subjectId AND deleted = 0")
+    public long getLastQuestionId(long subjectId);
+
+    /**
+     * Queries for the answer of the {@link Question} matching a subject id with the smallest id
+     * not below the passed id that is not deleted. Use
+     * {@link #getRandomAnswers(long, Random, int)} instead.
+     *
+     * @param subjectId Long subject id to match.
+     * @param id        Long id to start from.
+     * @return The {@link String} answer. Null if there is none from the passed id.
+     */
+    @Query("SELECT answer FROM Question WHERE subject_id = :subjectId AND deleted = 0 "
+            + "AND id >= :id ORDER BY id LIMIT 1")
+    public String getAnswerFrom(long subjectId, long id);
+
+    /**
+     * Queries for the text and answer of all {@link Question} objects matching a subject id, in
+     * the same order as {@link #getQuestions(long)}. The returned {@link Cursor} reads rows in
+     * windows as it is moved, so any number of questions can be streamed in constant memory. The
+     * caller must close it.
+     *
+     * @param subjectId Long subject id to match.
+     * @return A {@link Cursor} with text and answer columns.
+     */
+    @Query("SELECT text, answer FROM Question WHERE subject_id = :subjectId AND deleted = 0 "
+            + "ORDER BY sort_rank, id")
+    public Cursor getQuestionCursor(long subjectId);
+
+    /**
+     * Queries for a random {@link Question} that is not deleted and whose {@link Subject} is not
+     * deleted. A random id is picked below the largest id and the first matching
+     * {@link Question} from there is returned, wrapping around to the start, so only a couple of
+     * indexed lookups run however many questions there are. Questions following a gap in the ids
+     * are slightly more likely to be picked.
+     *
+     * @param random {@link Random} to pick the id with.
+     * @return A random {@link Question}. Null if there are none.
+     */
+    @Transaction
+    public default Question getRandomQuestion(Random random) {
+        long maxId = getMaxQuestionId();
+        if (maxId <= 0) {
+            return null;
+        }
+        long startId = 1 + (long) (random.nextDouble() * maxId);
+        Question question = getFirstQuestionFrom(startId);
+        return question != null ? question : getFirstQuestionFrom(0);
+    }
+
+    /**
+     * Queries for the largest id of any {@link Question}. Answered from the end of the table
+     * without scanning it.
+     *
+     * @return The largest long id. Zero if there are no {@link Question} objects.
+     */
+    @Query("SELECT IFNULL(MAX(id), 0) FROM Question")
+    public long getMaxQuestionId();
+
+    /**
+     * Queries for the {@link Question} with the smallest id not below the passed id that is not
+     * deleted and whose {@link Subject} is not deleted. Use {@link #getRandomQuestion(Random)}
+     * instead.
+     *
+     * @param id Long id to start from.
+     * @return A {@link Question}. Null if there is none from the passed id.
+     */
+    @Query("SELECT * FROM Question WHERE id >= :id AND deleted = 0 "
+            + "AND subject_id NOT IN (SELECT id FROM Subject WHERE deleted != 0) "
+            + "ORDER BY id LIMIT 1")
+    public Question getFirstQuestionFrom(long id);
+
+    /**
+     * Queries for the {@link FractionalRank} of the {@link Question} matching the passed id,
+     * including deleted ones.
+     *
+     * @param id Long id to match.
+     * @return The double rank. Zero if there is no such {@link Question}.
+     */
+    @Query("SELECT sort_rank FROM Question WHERE id = :id")
+    public double getQuestionRank(long id);
+
+    /**
+     * Queries for the subject id of the {@link Question} matching the passed id, including
+     * deleted ones.
+     *
+     * @param id Long id to match.
+     * @return The long subject id. Zero if there is no such {@link Question}.
+     */
+    @Query("SELECT subject_id FROM Question WHERE id = :id")
+    public long getQuestionSubjectId(long id);
+
+    /**
+     * Queries for the ids of all {@link Question} objects matching a subject id in their
+     * user-defined order, including deleted ones so they keep their place if restored.
+     *
+     * @param subjectId Long subject id to match.
+     * @return A {@link List} of long ids.
+     */
+    @Query("SELECT id FROM Question WHERE subject_id = :subjectId ORDER BY sort_rank, id")
+    public List<Long> getQuestionIdsByRank(long subjectId);
+
+    /**
+     * Queries for the ids of all subjects holding two {@link Question} objects that are not
+     * deleted and whose ranks are closer than the passed gap. Each question is checked with a
+     * range lookup in the rank index, so no subject is sorted.
+     *
+     * @param gap Double distance between ranks below which they are crowded.
+     * @return A {@link List} of long subject ids.
+     */
+    @Query("SELECT DISTINCT subject_id FROM Question AS q WHERE deleted = 0 AND EXISTS "
+            + "(SELECT 1 FROM Question AS p WHERE p.subject_id = q.subject_id AND p.deleted = 0 "
+            + "AND p.sort_rank >= q.sort_rank AND p.sort_rank < q.sort_rank + :gap "
+            + "AND p.id != q.id)")
+    public List<Long> getSubjectIdsWithCrowdedRanks(double gap);
+
+    /**
+     * Sets the {@link FractionalRank} of the {@link Question} matching the passed id.
+     *
+     * @param id   Long id to match.
+     * @param rank Double rank to set.
+     */
+    @Query("UPDATE Question SET sort_rank = :rank WHERE id = :id")
+    public void setQuestionRank(long id, double rank);
+
+    /**
+     * Moves the {@link Question} matching the passed id between the passed neighbours of its
+     * subject. Usually only the moved row is written. If the gap between the neighbours can no
+     * longer be split, the whole subject is rebalanced with the move applied instead.
+     *
+     * @param id         Long id of the {@link Question} to move.
+     * @param previousId Long id of the {@link Question} it should follow. Zero to move it to the
+     *                   start.
+     * @param nextId     Long id of the {@link Question} it should precede. Zero to move it to
+     *                   the end.
+     * @return The new double rank of the moved {@link Question}.
+     */
+    @Transaction
+    public default double moveQuestion(long id, long previousId, long nextId) {
+        double lower = previousId != 0 ? getQuestionRank(previousId) : FractionalRank.UNRANKED;
+        double upper = nextId != 0 ? getQuestionRank(nextId) : Double.POSITIVE_INFINITY;
+        if (FractionalRank.hasRoom(lower, upper)) {
+            double rank = FractionalRank.between(lower, upper);
+            setQuestionRank(id, rank);
+            return rank;
+        }
+
+        List<Long> ids = getQuestionIdsByRank(getQuestionSubjectId(id));
+        FractionalRank.move(ids, id, previousId, nextId);
+        setQuestionRanksInOrder(ids);
+        return FractionalRank.rankAt(ids.indexOf(id));
+    }
+
+    /**
+     * Rebalances the ranks of all {@link Question} objects matching a subject id to evenly
+     * spaced ranks, keeping their order.
+     *
+     * @param subjectId Long subject id to match.
+     */
+    @Transaction
+    public default void rebalanceQuestionRanks(long subjectId) {
+        setQuestionRanksInOrder(getQuestionIdsByRank(subjectId));
+    }
+
+    /**
+     * Sets evenly spaced ranks on the {@link Question} objects matching the passed ids, in the
+     * order of the ids. Use {@link #rebalanceQuestionRanks(long)} instead.
+     *
+     * @param ids {@link List} of long ids in their new order.
+     */
+    public default void setQuestionRanksInOrder(List<Long> ids) {
+        for (int i = 0; i < ids.size(); i++) {
+            setQuestionRank(ids.get(i), FractionalRank.rankAt(i));
+        }
+    }
+
+    /**
+     * Queries for the file names of all images attached to {@link Question} objects, including
+     * deleted ones that may still be restored.
+     *
+     * @return A {@link List} of {@link String} file names.
+     */
+    @Query("SELECT question_image FROM Question WHERE question_image IS NOT NULL "
+            + "UNION SELECT answer_image FROM Question WHERE answer_image IS NOT NULL")
+    public List<String> getImageFileNames();
+
     /**
      * Inserts a new {@link Question}.
      *
      * @param question A new {@link Question}.
      * @return The long id of the newly inserted {@link Question}.
+     * @throws android.database.sqlite.SQLiteConstraintException If the subject already has a
+     *                                                           {@link Question} with the same
+     *                                                           content.
      */
-    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    @Insert
     public long insertQuestion(Question question);
 
+    /**
+     * Inserts each new {@link Question} unless its subject already has one with the same content.
+     * Each check is a single lookup in the unique content index, so importing the same questions
+     * again is cheap and adds nothing.
+     *
+     * @param questions {@link List} of new {@link Question} objects.
+     * @return An array of the long ids of the inserted {@link Question} objects, in the order
+     * passed. -1 for each {@link Question} that was skipped.
+     */
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    public long[] insertQuestionsIfAbsent(List<Question> questions);
+
     /**
      * Updates all {@link Question} objects matching the id set in the object with the values set
      * in the object.
      *
      * @param question A {@link Question} whose id will be matched and whose values will be set onto
      *                 all matching objects.
+     * @throws android.database.sqlite.SQLiteConstraintException If the subject already has another
+     *                                                           {@link Question} with the same
+     *                                                           content.
      */
     @Update
     public void updateQuestion(Question question);
@@ -62,4 +423,122 @@ public interface QuestionDao {
      */
     @Delete
     public void deleteQuestion(Question question);
+
+    /**
+     * Marks the {@link Question} matching the passed id as deleted or restores it. The row is
+     * kept in place, so restoring it preserves its id and position. Nothing happens if the
+     * subject already has a {@link Question} with the same content in the requested state, such
+     * as when an identical question was added after this one was deleted.
+     *
+     * @param id          Long id to match.
+     * @param deletedTime Long representing the time of deletion. Zero to restore the
+     *                    {@link Question}.
+     * @return The int number of changed rows. Zero if nothing happened.
+     */
+    @Query("UPDATE OR IGNORE Question SET deleted = :deletedTime WHERE id = :id")
+    public int setQuestionDeleted(long id, long deletedTime);
+
+    /**
+     * Permanently deletes up to the passed number of {@link Question} objects that were marked as
+     * deleted before the passed time, along with their {@link StudyEvent} and
+     * {@link QuestionDailyStats} rows, in a single transaction.
+     *
+     * @param deletedBefore Long time before which {@link Question} objects must have been
+     *                      deleted.
+     * @param limit         Int maximum number of {@link Question} objects to delete. At most
+     *                      {@link SubjectDao#MAX_BOUND_IDS}.
+     * @return The number of {@link Question} objects deleted.
+     */
+    @Transaction
+    public default int purgeDeletedQuestions(long deletedBefore, int limit) {
+        return purgeQuestionChunk(getDeletedQuestionIds(deletedBefore, limit));
+    }
+
+    /**
+     * Permanently deletes up to the passed number of {@link Question} objects belonging to
+     * {@link Subject} objects that were marked as deleted before the passed time, along with their
+     * {@link StudyEvent} and {@link QuestionDailyStats} rows, in a single transaction.
+     *
+     * @param deletedBefore Long time before which {@link Subject} objects must have been
+     *                      deleted.
+     * @param limit         Int maximum number of {@link Question} objects to delete. At most
+     *                      {@link SubjectDao#MAX_BOUND_IDS}.
+     * @return The number of {@link Question} objects deleted.
+     */
+    @Transaction
+    public default int purgeQuestionsOfDeletedSubjects(long deletedBefore, int limit) {
+        return purgeQuestionChunk(getQuestionIdsOfDeletedSubjects(deletedBefore, limit));
+    }
+
+    /**
+     * Queries for the ids of up to the passed number of {@link Question} objects that were marked
+     * as deleted before the passed time.
+     *
+     * @param deletedBefore Long time before which {@link Question} objects must have been
+     *                      deleted.
+     * @param limit         Int maximum number of ids to return.
+     * @return A {@link List} of long ids.
+     */
+    @Query("SELECT id FROM Question WHERE deleted BETWEEN 1 AND :deletedBefore LIMIT :limit")
+    public List<Long> getDeletedQuestionIds(long deletedBefore, int limit);
+
+    /**
+     * Queries for the ids of up to the passed number of {@link Question} objects belonging to
+     * {@link Subject} objects that were marked as deleted before the passed time.
+     *
+     * @param deletedBefore Long time before which {@link Subject} objects must have been
+     *                      deleted.
+     * @param limit         Int maximum number of ids to return.
+     * @return A {@link List} of long ids.
+     */
+    @Query("SELECT Question.id FROM Question "
+            + "INNER JOIN Subject ON Subject.id = Question.subject_id "
+            + "WHERE Subject.deleted BETWEEN 1 AND :deletedBefore LIMIT :limit")
+    public List<Long> getQuestionIdsOfDeletedSubjects(long deletedBefore, int limit);
+
+    /**
+     * Permanently deletes the {@link Question} objects matching the passed ids along with their
+     * {@link StudyEvent} and {@link QuestionDailyStats} rows. The statistics tables have no
+     * foreign keys, so they are cleaned up here rather than by a cascade.
+     *
+     * @param ids {@link List} of at most {@link SubjectDao#MAX_BOUND_IDS} long ids to match.
+     * @return The number of {@link Question} objects deleted.
+     */
+    @Transaction
+    public default int purgeQuestionChunk(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        deleteQuestionEventChunk(ids);
+        deleteQuestionStatsChunk(ids);
+        return deleteQuestionChunk(ids);
+    }
+
+    /**
+     * Deletes all {@link StudyEvent} objects about the {@link Question} objects matching the
+     * passed ids. Use {@link #purgeQuestionChunk(List)} instead, which deletes the questions too.
+     *
+     * @param ids {@link List} of at most {@link SubjectDao#MAX_BOUND_IDS} long ids to match.
+     */
+    @Query("DELETE FROM StudyEvent WHERE question_id IN (:ids)")
+    public void deleteQuestionEventChunk(List<Long> ids);
+
+    /**
+     * Deletes all {@link QuestionDailyStats} objects of the {@link Question} objects matching the
+     * passed ids. Use {@link #purgeQuestionChunk(List)} instead, which deletes the questions too.
+     *
+     * @param ids {@link List} of at most {@link SubjectDao#MAX_BOUND_IDS} long ids to match.
+     */
+    @Query("DELETE FROM QuestionDailyStats WHERE question_id IN (:ids)")
+    public void deleteQuestionStatsChunk(List<Long> ids);
+
+    /**
+     * Deletes all {@link Question} objects matching the passed ids. Use
+     * {@link #purgeQuestionChunk(List)} instead, which also deletes their statistics.
+     *
+     * @param ids {@link List} of at most {@link SubjectDao#MAX_BOUND_IDS} long ids to match.
+     * @return The number of {@link Question} objects deleted.
+     */
+    @Query("DELETE FROM Question WHERE id IN (:ids)")
+    public int deleteQuestionChunk(List<Long> ids);
 }
\ No newline at end of file
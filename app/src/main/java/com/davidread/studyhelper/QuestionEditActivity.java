@@ -1,13 +1,21 @@
 package com.davidread.studyhelper;
 
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
+import androidx.annotation.NonNull;
+import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
-import androidx.preference.PreferenceManager;
 
 import android.content.Intent;
-import android.content.SharedPreferences;
+import android.database.sqlite.SQLiteConstraintException;
+import android.net.Uri;
 import android.os.Bundle;
 import android.view.View;
 import android.widget.EditText;
+import android.widget.ImageButton;
+import android.widget.Toast;
+
+import java.io.IOException;
 
 /**
  * {@link QuestionEditActivity} provides a user interface for adding or modifying the attributes of
@@ -25,6 +33,26 @@ public class QuestionEditActivity extends AppCompatActivity {
      */
     public static final String EXTRA_SUBJECT_ID = "com.davidread.studyhelper.subject_id";
 
+    /**
+     * {@link String} key for saving the question image file name in the instance state.
+     */
+    private static final String STATE_QUESTION_IMAGE = "question_image";
+
+    /**
+     * {@link String} key for saving the answer image file name in the instance state.
+     */
+    private static final String STATE_ANSWER_IMAGE = "answer_image";
+
+    /**
+     * {@link String} key for saving {@link #mPickingAnswerImage} in the instance state.
+     */
+    private static final String STATE_PICKING_ANSWER_IMAGE = "picking_answer_image";
+
+    /**
+     * {@link String} key for saving {@link #mPendingImageUri} in the instance state.
+     */
+    private static final String STATE_PENDING_IMAGE_URI = "pending_image_uri";
+
     /**
      * {@link EditText} for the question text attribute.
      */
@@ -35,6 +63,33 @@ public class QuestionEditActivity extends AppCompatActivity {
      */
     private EditText mAnswerText;
 
+    /**
+     * {@link ImageButton} showing the question image attribute.
+     */
+    private ImageButton mQuestionImageButton;
+
+    /**
+     * {@link ImageButton} showing the answer image attribute.
+     */
+    private ImageButton mAnswerImageButton;
+
+    /**
+     * Boolean for whether the image being picked is for the answer rather than the question.
+     */
+    private boolean mPickingAnswerImage;
+
+    /**
+     * {@link Uri} of the picked image being copied into app storage. Null if none is being
+     * copied.
+     */
+    private Uri mPendingImageUri;
+
+    /**
+     * {@link ActivityResultLauncher} for picking an image to attach.
+     */
+    private final ActivityResultLauncher<String> mImagePicker = registerForActivityResult(
+            new ActivityResultContracts.GetContent(), this::onImagePicked);
+
     /**
      * {@link StudyDatabase} for getting the attributes of an existing question.
      */
@@ -62,6 +117,8 @@ public class QuestionEditActivity extends AppCompatActivity {
 
         mQuestionText = findViewById(R.id.question_edit_text);
         mAnswerText = findViewById(R.id.answer_edit_text);
+        mQuestionImageButton = findViewById(R.id.question_image_button);
+        mAnswerImageButton = findViewById(R.id.answer_image_button);
 
         mStudyDb = StudyDatabase.getInstance(getApplicationContext());
 
@@ -76,8 +133,8 @@ public class QuestionEditActivity extends AppCompatActivity {
             mQuestion.setSubjectId(subjectId);
 
             // Load default question text.
-            SharedPreferences sharedPrefs = PreferenceManager.getDefaultSharedPreferences(this);
-            String defaultText = sharedPrefs.getString("default_question", "");
+            String defaultText = StudyPreferences.getInstance(getApplicationContext())
+                    .getDefaultQuestion();
             mQuestion.setText(defaultText);
             mQuestionText.setText(defaultText);
 
@@ -87,8 +144,139 @@ public class QuestionEditActivity extends AppCompatActivity {
             mQuestion = mStudyDb.questionDao().getQuestion(mQuestionId);
             mQuestionText.setText(mQuestion.getText());
             mAnswerText.setText(mQuestion.getAnswer());
+            showImage(mQuestionImageButton, mQuestion.getQuestionImage());
+            showImage(mAnswerImageButton, mQuestion.getAnswerImage());
             setTitle(R.string.update_question);
         }
+
+        if (savedInstanceState != null) {
+            // Recreated, so keep the images attached before, which are not saved yet.
+            setImage(false, savedInstanceState.getString(STATE_QUESTION_IMAGE));
+            setImage(true, savedInstanceState.getString(STATE_ANSWER_IMAGE));
+            mPickingAnswerImage = savedInstanceState.getBoolean(STATE_PICKING_ANSWER_IMAGE);
+
+            // Copy an image picked just before being recreated again, since that copy was lost.
+            onImagePicked(savedInstanceState.getParcelable(STATE_PENDING_IMAGE_URI));
+        }
+    }
+
+    /**
+     * Callback method invoked before this activity may be destroyed. It saves the attached
+     * images and any picked image still being copied in the passed {@link Bundle}.
+     *
+     * @param outState {@link Bundle} to save the instance state in.
+     */
+    @Override
+    protected void onSaveInstanceState(@NonNull Bundle outState) {
+        super.onSaveInstanceState(outState);
+        outState.putString(STATE_QUESTION_IMAGE, mQuestion.getQuestionImage());
+        outState.putString(STATE_ANSWER_IMAGE, mQuestion.getAnswerImage());
+        outState.putBoolean(STATE_PICKING_ANSWER_IMAGE, mPickingAnswerImage);
+        outState.putParcelable(STATE_PENDING_IMAGE_URI, mPendingImageUri);
+    }
+
+    /**
+     * Invoked when the question image {@link ImageButton} is clicked. It lets the user attach,
+     * replace, or remove the question image.
+     */
+    public void questionImageButtonClick(View view) {
+        chooseImage(false, mQuestion.getQuestionImage());
+    }
+
+    /**
+     * Invoked when the answer image {@link ImageButton} is clicked. It lets the user attach,
+     * replace, or remove the answer image.
+     */
+    public void answerImageButtonClick(View view) {
+        chooseImage(true, mQuestion.getAnswerImage());
+    }
+
+    /**
+     * Launches the image picker if no image is attached. Otherwise, shows a dialog for replacing
+     * or removing the attached image.
+     *
+     * @param answer       Boolean for whether the image is for the answer.
+     * @param currentImage {@link String} file name of the attached image. May be null.
+     */
+    private void chooseImage(boolean answer, String currentImage) {
+        mPickingAnswerImage = answer;
+        if (currentImage == null) {
+            mImagePicker.launch("image/*");
+            return;
+        }
+
+        String[] options = {getString(R.string.replace_image), getString(R.string.remove_image)};
+        new AlertDialog.Builder(this)
+                .setTitle(answer ? R.string.answer_image : R.string.question_image)
+                .setItems(options, (dialog, which) -> {
+                    if (which == 0) {
+                        mImagePicker.launch("image/*");
+                    } else {
+                        setImage(answer, null);
+                    }
+                })
+                .show();
+    }
+
+    /**
+     * Invoked when the image picker returns. It copies the picked image into app storage on the
+     * image file thread, since the source may be a large file or a remote document.
+     *
+     * @param uri {@link Uri} of the picked image. Null if nothing was picked.
+     */
+    private void onImagePicked(Uri uri) {
+        if (uri == null) {
+            return;
+        }
+        mPendingImageUri = uri;
+        boolean answer = mPickingAnswerImage;
+        ImageStore.getFileExecutor().execute(() -> {
+            try {
+                String fileName = ImageStore.importImage(getApplicationContext(), uri);
+                runOnUiThread(() -> {
+                    mPendingImageUri = null;
+                    setImage(answer, fileName);
+                });
+            } catch (IOException e) {
+                runOnUiThread(() -> {
+                    mPendingImageUri = null;
+                    Toast.makeText(this, R.string.image_not_attached, Toast.LENGTH_SHORT).show();
+                });
+            }
+        });
+    }
+
+    /**
+     * Sets the question or answer image of {@link #mQuestion} and shows it. The replaced file is
+     * left in place and deleted by {@link PurgeWorker} once it is no longer referenced.
+     *
+     * @param answer   Boolean for whether the image is for the answer.
+     * @param fileName {@link String} file name of the image. Null to remove the image.
+     */
+    private void setImage(boolean answer, String fileName) {
+        if (answer) {
+            mQuestion.setAnswerImage(fileName);
+            showImage(mAnswerImageButton, fileName);
+        } else {
+            mQuestion.setQuestionImage(fileName);
+            showImage(mQuestionImageButton, fileName);
+        }
+    }
+
+    /**
+     * Shows a thumbnail of the image with the passed file name in the passed {@link ImageButton},
+     * or the default icon if there is no image.
+     *
+     * @param imageButton {@link ImageButton} to show the image in.
+     * @param fileName    {@link String} file name of the image. May be null.
+     */
+    private void showImage(ImageButton imageButton, String fileName) {
+        if (fileName == null) {
+            imageButton.setTag(R.id.image_file_tag, null);
+            imageButton.setImageResource(R.drawable.image);
+        } else {
+            BitmapCache.getInstance(getApplicationContext()).load(imageButton, fileName);
+        }
     }
 
     /**
@@ -102,13 +290,19 @@ public class QuestionEditActivity extends AppCompatActivity {
         mQuestion.setText(mQuestionText.getText().toString());
         mQuestion.setAnswer(mAnswerText.getText().toString());
 
-        if (mQuestionId == -1) {
-            // New question
-            long newId = mStudyDb.questionDao().insertQuestion(mQuestion);
-            mQuestion.setId(newId);
-        } else {
-            // Existing question
-            mStudyDb.questionDao().updateQuestion(mQuestion);
+        try {
+            if (mQuestionId == -1) {
+                // New question
+                long newId = mStudyDb.questionDao().insertQuestion(mQuestion);
+                mQuestion.setId(newId);
+            } else {
+                // Existing question
+                mStudyDb.questionDao().updateQuestion(mQuestion);
+            }
+        } catch (SQLiteConstraintException e) {
+            // The subject already has a question with the same content.
+            Toast.makeText(this, R.string.question_exists, Toast.LENGTH_SHORT).show();
+            return;
         }
 
         // Send back question ID
@@ -0,0 +1,113 @@
+package com.davidread.studyhelper;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * {@link QuestionSampler} loads the {@link Question} objects of a study session in order, shuffled,
+ * or as a random sample, for one subject or across all subjects. Orders come from a permutation of
+ * question ids generated from a seed rather than from sorting by a random value in SQL, so a
+ * session can be loaded again in the same order from its seed alone.
+ */
+public class QuestionSampler {
+
+    /**
+     * Long subject id meaning questions are taken from all subjects.
+     */
+    public static final long ALL_SUBJECTS = -1;
+
+    /**
+     * Int sample size meaning every matching question is included.
+     */
+    public static final int SAMPLE_ALL = 0;
+
+    /**
+     * Loads the {@link Question} objects of a study session. The same arguments return the same
+     * questions in the same order as long as the questions do not change.
+     *
+     * @param questionDao {@link QuestionDao} to query.
+     * @param subjectId   Long id of the subject, or {@link #ALL_SUBJECTS}.
+     * @param shuffle     Boolean for whether to shuffle the questions. Otherwise questions of a
+     *                    subject are in their user-defined order, and questions from all
+     *                    subjects are in id order.
+     * @param sampleSize  Int number of random questions to include, or {@link #SAMPLE_ALL}.
+     * @param seed        Long seed of the session.
+     * @return A {@link List} of {@link Question} objects.
+     */
+    public static List<Question> loadQuestions(QuestionDao questionDao, long subjectId,
+                                               boolean shuffle, int sampleSize, long seed) {
+        boolean allSubjects = subjectId == ALL_SUBJECTS;
+        if (!allSubjects && !shuffle && sampleSize == SAMPLE_ALL) {
+            return questionDao.getQuestions(subjectId);
+        }
+
+        // Picking random ids avoids reading every id when only a few questions are wanted.
+        if (allSubjects && sampleSize != SAMPLE_ALL) {
+            List<Question> questions = questionDao.getRandomQuestions(new Random(seed),
+                    sampleSize);
+            if (questions.size() == sampleSize) {
+                if (!shuffle) {
+                    sortById(questions);
+                }
+                return questions;
+            }
+        }
+
+        List<Long> idList = allSubjects ? questionDao.getAllQuestionIds()
+                : questionDao.getQuestionIds(subjectId);
+        long[] ids = new long[idList.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = idList.get(i);
+        }
+        int count = sampleSize == SAMPLE_ALL ? ids.length : Math.min(sampleSize, ids.length);
+        shuffle(ids, count, new Random(seed));
+
+        List<Long> pickedIds = new ArrayList<>(count);
+        if (shuffle) {
+            for (int i = 0; i < count; i++) {
+                pickedIds.add(ids[i]);
+            }
+        } else {
+            // Keep the picked ids in the order they were queried in.
+            Set<Long> picked = new HashSet<>(count);
+            for (int i = 0; i < count; i++) {
+                picked.add(ids[i]);
+            }
+            for (long id : idList) {
+                if (picked.contains(id)) {
+                    pickedIds.add(id);
+                }
+            }
+        }
+        return questionDao.getQuestionsByIds(pickedIds);
+    }
+
+    /**
+     * Moves a uniformly random selection of the passed number of ids to the front of the passed
+     * array, in random order. Only as many swaps as ids selected are made.
+     *
+     * @param ids    Long array of ids to shuffle in place.
+     * @param count  Int number of ids to select.
+     * @param random {@link Random} to pick ids with.
+     */
+    public static void shuffle(long[] ids, int count, Random random) {
+        for (int i = 0; i < count; i++) {
+            int j = i + random.nextInt(ids.length - i);
+            long id = ids[i];
+            ids[i] = ids[j];
+            ids[j] = id;
+        }
+    }
+
+    /**
+     * Sorts the passed {@link Question} objects by id.
+     *
+     * @param questions {@link List} of {@link Question} objects to sort in place.
+     */
+    private static void sortById(List<Question> questions) {
+        questions.sort((first, second) -> Long.compare(first.getId(), second.getId()));
+    }
+}
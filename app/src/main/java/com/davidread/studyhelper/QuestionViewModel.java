@@ -0,0 +1,139 @@
+package com.davidread.studyhelper;
+
+import androidx.lifecycle.ViewModel;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link QuestionViewModel} holds the study session shown by {@link QuestionActivity}. It survives
+ * configuration changes such as rotation, so the activity can be recreated without querying the
+ * database again or losing its place.
+ */
+public class QuestionViewModel extends ViewModel {
+
+    /**
+     * {@link String} text of the subject being studied.
+     */
+    private String mSubjectText;
+
+    /**
+     * {@link List} of {@link Question} objects being studied. Null until loaded.
+     */
+    private List<Question> mQuestionList;
+
+    /**
+     * Long seed the order of {@link #mQuestionList} was generated from.
+     */
+    private long mSeed;
+
+    /**
+     * Int index in {@link #mQuestionList} of the {@link Question} being shown.
+     */
+    private int mCurrentQuestionIndex;
+
+    /**
+     * Boolean for whether answers are visible.
+     */
+    private boolean mAnswerVisible;
+
+    /**
+     * Long id of the last {@link Question} recorded as shown, so it is not recorded again when
+     * the activity is recreated.
+     */
+    private long mLastShownQuestionId = -1;
+
+    /**
+     * {@link Map} of multiple-choice choices keyed by the id of their {@link Question}, so they
+     * are not sampled again when pages are re-bound or the activity is recreated.
+     */
+    private final Map<Long, List<String>> mChoices = new HashMap<>();
+
+    /**
+     * Returns whether a study session has been loaded into this {@link QuestionViewModel}.
+     *
+     * @return True if loaded.
+     */
+    public boolean isLoaded() {
+        return mQuestionList != null;
+    }
+
+    /**
+     * Loads a study session into this {@link QuestionViewModel}.
+     *
+     * @param subjectText  {@link String} text of the subject being studied.
+     * @param questionList {@link List} of {@link Question} objects being studied.
+     * @param seed         Long seed the order of the {@link Question} objects was generated
+     *                     from.
+     */
+    public void load(String subjectText, List<Question> questionList, long seed) {
+        mSubjectText = subjectText;
+        mQuestionList = questionList;
+        mSeed = seed;
+    }
+
+    public String getSubjectText() {
+        return mSubjectText;
+    }
+
+    public List<Question> getQuestionList() {
+        return mQuestionList;
+    }
+
+    public long getSeed() {
+        return mSeed;
+    }
+
+    public int getCurrentQuestionIndex() {
+        return mCurrentQuestionIndex;
+    }
+
+    public void setCurrentQuestionIndex(int currentQuestionIndex) {
+        mCurrentQuestionIndex = currentQuestionIndex;
+    }
+
+    public boolean isAnswerVisible() {
+        return mAnswerVisible;
+    }
+
+    public void setAnswerVisible(boolean answerVisible) {
+        mAnswerVisible = answerVisible;
+    }
+
+    public long getLastShownQuestionId() {
+        return mLastShownQuestionId;
+    }
+
+    public void setLastShownQuestionId(long lastShownQuestionId) {
+        mLastShownQuestionId = lastShownQuestionId;
+    }
+
+    /**
+     * Returns the multiple-choice choices of the {@link Question} matching the passed id.
+     *
+     * @param questionId Long id of the {@link Question}.
+     * @return The {@link List} of {@link String} choices. Null if not sampled yet.
+     */
+    public List<String> getChoices(long questionId) {
+        return mChoices.get(questionId);
+    }
+
+    /**
+     * Puts the multiple-choice choices of the {@link Question} matching the passed id.
+     *
+     * @param questionId Long id of the {@link Question}.
+     * @param choices    {@link List} of {@link String} choices.
+     */
+    public void putChoices(long questionId, List<String> choices) {
+        mChoices.put(questionId, choices);
+    }
+
+    /**
+     * Removes all multiple-choice choices, so they are sampled again. Used when an answer
+     * changes, since it may be a choice of any {@link Question}.
+     */
+    public void clearChoices() {
+        mChoices.clear();
+    }
+}
@@ -0,0 +1,86 @@
+package com.davidread.studyhelper;
+
+import android.app.PendingIntent;
+import android.appwidget.AppWidgetManager;
+import android.appwidget.AppWidgetProvider;
+import android.content.Context;
+import android.content.Intent;
+import android.widget.RemoteViews;
+
+import androidx.core.app.TaskStackBuilder;
+
+import java.util.Random;
+
+/**
+ * {@link QuestionWidgetProvider} is an {@link AppWidgetProvider} for a home screen widget showing
+ * a random question, replaced every hour. Tapping the widget opens {@link QuestionActivity} for the
+ * question's subject. Picking the question takes a couple of indexed lookups, so a refresh never
+ * loads a whole subject.
+ */
+public class QuestionWidgetProvider extends AppWidgetProvider {
+
+    /**
+     * {@link Random} for picking questions.
+     */
+    private static final Random RANDOM = new Random();
+
+    /**
+     * Callback method invoked when the widgets need to be updated. It picks a random question on
+     * a background thread and shows it on every widget.
+     *
+     * @param context          {@link Context} of the app.
+     * @param appWidgetManager {@link AppWidgetManager} to update the widgets with.
+     * @param appWidgetIds     Int array of the ids of the widgets to update.
+     */
+    @Override
+    public void onUpdate(Context context, AppWidgetManager appWidgetManager, int[] appWidgetIds) {
+        Context appContext = context.getApplicationContext();
+        PendingResult pendingResult = goAsync();
+        StudyDatabase.getDatabaseExecutor().execute(() -> {
+            try {
+                StudyDatabase studyDb = StudyDatabase.getInstance(appContext);
+                Question question = studyDb.questionDao().getRandomQuestion(RANDOM);
+                Subject subject = question == null ? null
+                        : studyDb.subjectDao().getSubject(question.getSubjectId());
+                appWidgetManager.updateAppWidget(appWidgetIds,
+                        createViews(appContext, question, subject));
+            } finally {
+                pendingResult.finish();
+            }
+        });
+    }
+
+    /**
+     * Returns the {@link RemoteViews} of a widget showing the passed {@link Question}.
+     *
+     * @param context  {@link Context} of the app.
+     * @param question {@link Question} to show. Null if there are no questions.
+     * @param subject  {@link Subject} the {@link Question} belongs to. Null if there are no
+     *                 questions.
+     * @return The {@link RemoteViews} of the widget.
+     */
+    private static RemoteViews createViews(Context context, Question question, Subject subject) {
+        RemoteViews views = new RemoteViews(context.getPackageName(), R.layout.widget_question);
+        Intent intent;
+        if (question == null || subject == null) {
+            views.setTextViewText(R.id.widget_subject_text_view,
+                    context.getString(R.string.app_name));
+            views.setTextViewText(R.id.widget_question_text_view,
+                    context.getString(R.string.widget_no_questions));
+            intent = new Intent(context, SubjectActivity.class);
+        } else {
+            views.setTextViewText(R.id.widget_subject_text_view, subject.getText());
+            views.setTextViewText(R.id.widget_question_text_view, question.getText());
+            intent = new Intent(context, QuestionActivity.class);
+            intent.putExtra(QuestionActivity.EXTRA_SUBJECT_ID, subject.getId());
+        }
+
+        // Open the activity with its parents on the back stack.
+        PendingIntent pendingIntent = TaskStackBuilder.create(context)
+                .addNextIntentWithParentStack(intent)
+                .getPendingIntent(0,
+                        PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
+        views.setOnClickPendingIntent(R.id.widget_layout, pendingIntent);
+        return views;
+    }
+}
@@ -0,0 +1,361 @@
+package com.davidread.studyhelper;
+
+import android.content.ContentProvider;
+import android.content.ContentUris;
+import android.content.ContentValues;
+import android.content.Context;
+import android.content.UriMatcher;
+import android.database.Cursor;
+import android.net.Uri;
+import android.text.TextUtils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.room.InvalidationTracker;
+import androidx.sqlite.db.SupportSQLiteQuery;
+import androidx.sqlite.db.SupportSQLiteQueryBuilder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * {@link StudyContentProvider} is a read-only {@link ContentProvider} that lets other apps signed
+ * with the same key read subjects and questions. The URIs and columns are defined in
+ * {@link StudyContract}. Projection, selection, and sort order are pushed down into a single SQL
+ * query, and the returned {@link Cursor} reads rows in windows as it is moved, so no result is
+ * ever loaded into a {@link List}. Selection and sort order are checked to only name exposed
+ * columns, a few keywords and functions, literals, and operators, so they can neither read
+ * internal columns or other tables through a subquery nor escape the scope that hides deleted
+ * subjects and questions.
+ */
+public class StudyContentProvider extends ContentProvider {
+
+    /**
+     * Int {@link UriMatcher} code for all subjects.
+     */
+    private static final int SUBJECTS = 1;
+
+    /**
+     * Int {@link UriMatcher} code for a single subject.
+     */
+    private static final int SUBJECT_ID = 2;
+
+    /**
+     * Int {@link UriMatcher} code for all questions.
+     */
+    private static final int QUESTIONS = 3;
+
+    /**
+     * Int {@link UriMatcher} code for a single question.
+     */
+    private static final int QUESTION_ID = 4;
+
+    /**
+     * Int {@link UriMatcher} code for the questions of a single subject.
+     */
+    private static final int SUBJECT_QUESTIONS = 5;
+
+    /**
+     * {@link UriMatcher} for the URIs defined in {@link StudyContract}.
+     */
+    private static final UriMatcher URI_MATCHER = new UriMatcher(UriMatcher.NO_MATCH);
+
+    static {
+        URI_MATCHER.addURI(StudyContract.AUTHORITY, StudyContract.Subjects.PATH, SUBJECTS);
+        URI_MATCHER.addURI(StudyContract.AUTHORITY, StudyContract.Subjects.PATH + "/#",
+                SUBJECT_ID);
+        URI_MATCHER.addURI(StudyContract.AUTHORITY, StudyContract.Questions.PATH, QUESTIONS);
+        URI_MATCHER.addURI(StudyContract.AUTHORITY, StudyContract.Questions.PATH + "/#",
+                QUESTION_ID);
+        URI_MATCHER.addURI(StudyContract.AUTHORITY, StudyContract.Subjects.PATH + "/#/"
+                + StudyContract.Questions.PATH, SUBJECT_QUESTIONS);
+    }
+
+    /**
+     * {@link String} selection excluding deleted subjects.
+     */
+    private static final String SUBJECT_NOT_DELETED = "deleted = 0";
+
+    /**
+     * {@link String} selection excluding deleted questions and questions of deleted subjects.
+     */
+    private static final String QUESTION_NOT_DELETED = "deleted = 0 "
+            + "AND subject_id NOT IN (SELECT id FROM Subject WHERE deleted != 0)";
+
+    /**
+     * {@link Set} of upper case SQL keywords and functions allowed in a selection or sort order
+     * besides the exposed columns. SELECT is not allowed, so no subquery can be written.
+     */
+    private static final Set<String> ALLOWED_WORDS = Collections.unmodifiableSet(new HashSet<>(
+            Arrays.asList("AND", "OR", "NOT", "IS", "NULL", "LIKE", "GLOB", "IN", "BETWEEN",
+                    "ESCAPE", "COLLATE", "NOCASE", "BINARY", "RTRIM", "ASC", "DESC", "LOWER",
+                    "UPPER", "LENGTH", "ABS", "IFNULL", "COALESCE", "SUBSTR", "TRIM", "INSTR")));
+
+    /**
+     * {@link String} of the operator and punctuation characters allowed in a selection or sort
+     * order. Semicolons, dots, and quoted identifiers are not.
+     */
+    private static final String ALLOWED_OPERATORS = "=<>!+-*/%|(),";
+
+    /**
+     * {@link StudyDatabase} to read from. Opened on the first query, so creating this provider
+     * does not slow down app startup.
+     */
+    private StudyDatabase mStudyDb;
+
+    /**
+     * {@link InvalidationTracker.Observer} that notifies cursors returned by this provider when
+     * the {@link Subject} or {@link Question} tables change.
+     */
+    private InvalidationTracker.Observer mTableObserver;
+
+    /**
+     * Callback method invoked when this provider is created. It does nothing, since the database
+     * is opened on demand.
+     *
+     * @return True, since this provider was loaded.
+     */
+    @Override
+    public boolean onCreate() {
+        return true;
+    }
+
+    /**
+     * Returns {@link #mStudyDb}, opening it and observing its tables first if needed.
+     *
+     * @return The {@link StudyDatabase} to read from.
+     */
+    private synchronized StudyDatabase getStudyDatabase() {
+        if (mStudyDb == null) {
+            Context context = getContext().getApplicationContext();
+            mStudyDb = StudyDatabase.getInstance(context);
+            mTableObserver = new InvalidationTracker.Observer("Subject", "Question") {
+                @Override
+                public void onInvalidated(@NonNull Set<String> tables) {
+                    context.getContentResolver().notifyChange(StudyContract.AUTHORITY_URI, null);
+                }
+            };
+            mStudyDb.getInvalidationTracker().addObserver(mTableObserver);
+        }
+        return mStudyDb;
+    }
+
+    /**
+     * Queries for the rows matching the passed {@link Uri} and arguments.
+     *
+     * @param uri           {@link Uri} from {@link StudyContract} to query.
+     * @param projection    {@link String} array of columns from {@link StudyContract} to return.
+     *                      Null for the default columns.
+     * @param selection     {@link String} SQL filter over the columns. Null for all rows.
+     * @param selectionArgs {@link String} array of values bound to the ? in the selection.
+     * @param sortOrder     {@link String} SQL order of the rows. Null for id order.
+     * @return A {@link Cursor} over the matching rows.
+     * @throws IllegalArgumentException If the {@link Uri} is unknown, or a column in the
+     *                                  projection, selection, or sort order is not exposed.
+     */
+    @Nullable
+    @Override
+    public Cursor query(@NonNull Uri uri, @Nullable String[] projection, @Nullable String selection,
+                        @Nullable String[] selectionArgs, @Nullable String sortOrder) {
+        String table;
+        String[] exposedColumns;
+        String scope;
+        List<Object> scopeArgs = new ArrayList<>();
+        switch (URI_MATCHER.match(uri)) {
+            case SUBJECTS:
+                table = "Subject";
+                exposedColumns = StudyContract.Subjects.COLUMNS;
+                scope = SUBJECT_NOT_DELETED;
+                break;
+            case SUBJECT_ID:
+                table = "Subject";
+                exposedColumns = StudyContract.Subjects.COLUMNS;
+                scope = SUBJECT_NOT_DELETED + " AND id = ?";
+                scopeArgs.add(ContentUris.parseId(uri));
+                break;
+            case QUESTIONS:
+                table = "Question";
+                exposedColumns = StudyContract.Questions.COLUMNS;
+                scope = QUESTION_NOT_DELETED;
+                break;
+            case QUESTION_ID:
+                table = "Question";
+                exposedColumns = StudyContract.Questions.COLUMNS;
+                scope = QUESTION_NOT_DELETED + " AND id = ?";
+                scopeArgs.add(ContentUris.parseId(uri));
+                break;
+            case SUBJECT_QUESTIONS:
+                table = "Question";
+                exposedColumns = StudyContract.Questions.COLUMNS;
+                scope = QUESTION_NOT_DELETED + " AND subject_id = ?";
+                scopeArgs.add(Long.parseLong(uri.getPathSegments().get(1)));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown URI: " + uri);
+        }
+
+        // Only the exposed columns may be read, so internal columns stay private.
+        if (projection == null) {
+            projection = exposedColumns;
+        } else {
+            List<String> exposed = Arrays.asList(exposedColumns);
+            for (String column : projection) {
+                if (!exposed.contains(column)) {
+                    throw new IllegalArgumentException("Unknown column: " + column);
+                }
+            }
+        }
+        checkClause(selection, exposedColumns);
+        checkClause(sortOrder, exposedColumns);
+
+        // The scope arguments come first, since the scope comes first in the selection.
+        String where = scope;
+        List<Object> whereArgs = new ArrayList<>(scopeArgs);
+        if (!TextUtils.isEmpty(selection)) {
+            where += " AND (" + selection + ")";
+            if (selectionArgs != null) {
+                Collections.addAll(whereArgs, (Object[]) selectionArgs);
+            }
+        }
+
+        SupportSQLiteQuery query = SupportSQLiteQueryBuilder.builder(table)
+                .columns(projection)
+                .selection(where, whereArgs.toArray())
+                .orderBy(TextUtils.isEmpty(sortOrder) ? "id" : sortOrder)
+                .create();
+        Cursor cursor = getStudyDatabase().query(query);
+        cursor.setNotificationUri(getContext().getContentResolver(), uri);
+        return cursor;
+    }
+
+    /**
+     * Checks that the passed selection or sort order only holds exposed columns, the words in
+     * {@link #ALLOWED_WORDS}, string and number literals, ? arguments, and the operators in
+     * {@link #ALLOWED_OPERATORS}, with balanced parentheses and no comments.
+     *
+     * @param clause         {@link String} selection or sort order. May be null.
+     * @param exposedColumns {@link String} array of the columns that may be read.
+     * @throws IllegalArgumentException If the clause holds anything else.
+     */
+    static void checkClause(@Nullable String clause, String[] exposedColumns) {
+        if (TextUtils.isEmpty(clause)) {
+            return;
+        }
+        List<String> exposed = Arrays.asList(exposedColumns);
+        int depth = 0;
+        int i = 0;
+        while (i < clause.length()) {
+            char c = clause.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '\'') {
+                // String literal, in which quotes are doubled.
+                i++;
+                while (true) {
+                    int end = clause.indexOf('\'', i);
+                    if (end < 0) {
+                        throw new IllegalArgumentException("Unterminated string: " + clause);
+                    }
+                    i = end + 1;
+                    if (i == clause.length() || clause.charAt(i) != '\'') {
+                        break;
+                    }
+                    i++;
+                }
+            } else if (Character.isLetter(c) || c == '_') {
+                int start = i;
+                while (i < clause.length() && (Character.isLetterOrDigit(clause.charAt(i))
+                        || clause.charAt(i) == '_')) {
+                    i++;
+                }
+                String word = clause.substring(start, i);
+                if (!exposed.contains(word)
+                        && !ALLOWED_WORDS.contains(word.toUpperCase(Locale.ROOT))) {
+                    throw new IllegalArgumentException("Unknown column: " + word);
+                }
+            } else if (Character.isDigit(c) || c == '?') {
+                // Number literal or numbered argument.
+                i++;
+                while (i < clause.length() && (Character.isDigit(clause.charAt(i))
+                        || (c != '?' && clause.charAt(i) == '.'))) {
+                    i++;
+                }
+            } else if (ALLOWED_OPERATORS.indexOf(c) >= 0
+                    && !clause.startsWith("--", i) && !clause.startsWith("/*", i)) {
+                if (c == '(') {
+                    depth++;
+                } else if (c == ')' && --depth < 0) {
+                    throw new IllegalArgumentException("Unbalanced parentheses: " + clause);
+                }
+                i++;
+            } else {
+                throw new IllegalArgumentException("Unexpected '" + c + "' in: " + clause);
+            }
+        }
+        if (depth != 0) {
+            throw new IllegalArgumentException("Unbalanced parentheses: " + clause);
+        }
+    }
+
+    /**
+     * Returns the MIME type of the rows at the passed {@link Uri}.
+     *
+     * @param uri {@link Uri} from {@link StudyContract}.
+     * @return The {@link String} MIME type. Null if the {@link Uri} is unknown.
+     */
+    @Nullable
+    @Override
+    public String getType(@NonNull Uri uri) {
+        switch (URI_MATCHER.match(uri)) {
+            case SUBJECTS:
+                return StudyContract.Subjects.CONTENT_TYPE;
+            case SUBJECT_ID:
+                return StudyContract.Subjects.CONTENT_ITEM_TYPE;
+            case QUESTIONS:
+            case SUBJECT_QUESTIONS:
+                return StudyContract.Questions.CONTENT_TYPE;
+            case QUESTION_ID:
+                return StudyContract.Questions.CONTENT_ITEM_TYPE;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Not supported, since this provider is read-only.
+     *
+     * @throws UnsupportedOperationException Always.
+     */
+    @Nullable
+    @Override
+    public Uri insert(@NonNull Uri uri, @Nullable ContentValues values) {
+        throw new UnsupportedOperationException("Read-only provider");
+    }
+
+    /**
+     * Not supported, since this provider is read-only.
+     *
+     * @throws UnsupportedOperationException Always.
+     */
+    @Override
+    public int delete(@NonNull Uri uri, @Nullable String selection,
+                      @Nullable String[] selectionArgs) {
+        throw new UnsupportedOperationException("Read-only provider");
+    }
+
+    /**
+     * Not supported, since this provider is read-only.
+     *
+     * @throws UnsupportedOperationException Always.
+     */
+    @Override
+    public int update(@NonNull Uri uri, @Nullable ContentValues values,
+                      @Nullable String selection, @Nullable String[] selectionArgs) {
+        throw new UnsupportedOperationException("Read-only provider");
+    }
+}
@@ -0,0 +1,166 @@
+package com.davidread.studyhelper;
+
+import android.content.ContentResolver;
+import android.net.Uri;
+
+/**
+ * {@link StudyContract} defines the URIs and columns exposed by {@link StudyContentProvider} to
+ * other apps. Reading them requires the {@link #PERMISSION_READ} permission, which is only granted
+ * to apps signed with the same key as this one.
+ */
+public final class StudyContract {
+
+    /**
+     * {@link String} authority of {@link StudyContentProvider}.
+     */
+    public static final String AUTHORITY = "com.davidread.studyhelper.provider";
+
+    /**
+     * {@link String} permission required to read from {@link StudyContentProvider}.
+     */
+    public static final String PERMISSION_READ =
+            "com.davidread.studyhelper.permission.READ_STUDY_DATA";
+
+    /**
+     * {@link Uri} every URI of {@link StudyContentProvider} starts with.
+     */
+    public static final Uri AUTHORITY_URI =
+            Uri.parse(ContentResolver.SCHEME_CONTENT + "://" + AUTHORITY);
+
+    /**
+     * Not instantiable.
+     */
+    private StudyContract() {
+    }
+
+    /**
+     * {@link Subjects} defines the URIs and columns of {@link Subject} rows.
+     */
+    public static final class Subjects {
+
+        /**
+         * {@link String} path of the subject URIs.
+         */
+        public static final String PATH = "subjects";
+
+        /**
+         * {@link Uri} of all subjects. Append an id for a single subject.
+         */
+        public static final Uri CONTENT_URI = Uri.withAppendedPath(AUTHORITY_URI, PATH);
+
+        /**
+         * {@link String} MIME type of a list of subjects.
+         */
+        public static final String CONTENT_TYPE = ContentResolver.CURSOR_DIR_BASE_TYPE
+                + "/vnd." + AUTHORITY + "." + PATH;
+
+        /**
+         * {@link String} MIME type of a single subject.
+         */
+        public static final String CONTENT_ITEM_TYPE = ContentResolver.CURSOR_ITEM_BASE_TYPE
+                + "/vnd." + AUTHORITY + "." + PATH;
+
+        /**
+         * Long id column.
+         */
+        public static final String ID = "id";
+
+        /**
+         * {@link String} text column.
+         */
+        public static final String TEXT = "text";
+
+        /**
+         * Long update time column.
+         */
+        public static final String UPDATED = "updated";
+
+        /**
+         * Int question count column.
+         */
+        public static final String QUESTION_COUNT = "question_count";
+
+        /**
+         * {@link String} array of the columns returned when no projection is passed.
+         */
+        public static final String[] COLUMNS = {ID, TEXT, UPDATED, QUESTION_COUNT};
+
+        /**
+         * Not instantiable.
+         */
+        private Subjects() {
+        }
+    }
+
+    /**
+     * {@link Questions} defines the URIs and columns of {@link Question} rows.
+     */
+    public static final class Questions {
+
+        /**
+         * {@link String} path of the question URIs.
+         */
+        public static final String PATH = "questions";
+
+        /**
+         * {@link Uri} of all questions. Append an id for a single question.
+         */
+        public static final Uri CONTENT_URI = Uri.withAppendedPath(AUTHORITY_URI, PATH);
+
+        /**
+         * {@link String} MIME type of a list of questions.
+         */
+        public static final String CONTENT_TYPE = ContentResolver.CURSOR_DIR_BASE_TYPE
+                + "/vnd." + AUTHORITY + "." + PATH;
+
+        /**
+         * {@link String} MIME type of a single question.
+         */
+        public static final String CONTENT_ITEM_TYPE = ContentResolver.CURSOR_ITEM_BASE_TYPE
+                + "/vnd." + AUTHORITY + "." + PATH;
+
+        /**
+         * Long id column.
+         */
+        public static final String ID = "id";
+
+        /**
+         * {@link String} text column.
+         */
+        public static final String TEXT = "text";
+
+        /**
+         * {@link String} answer column.
+         */
+        public static final String ANSWER = "answer";
+
+        /**
+         * Long subject id column.
+         */
+        public static final String SUBJECT_ID = "subject_id";
+
+        /**
+         * {@link String} array of the columns returned when no projection is passed.
+         */
+        public static final String[] COLUMNS = {ID, TEXT, ANSWER, SUBJECT_ID};
+
+        /**
+         * Returns the {@link Uri} of all questions of the subject matching the passed id.
+         *
+         * @param subjectId Long subject id to match.
+         * @return The {@link Uri} of the questions.
+         */
+        public static Uri forSubject(long subjectId) {
+            return Subjects.CONTENT_URI.buildUpon()
+                    .appendPath(String.valueOf(subjectId))
+                    .appendPath(PATH)
+                    .build();
+        }
+
+        /**
+         * Not instantiable.
+         */
+        private Questions() {
+        }
+    }
+}
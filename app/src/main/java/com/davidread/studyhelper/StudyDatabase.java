@@ -1,16 +1,26 @@
 package com.davidread.studyhelper;
 
 import android.content.Context;
+import android.database.Cursor;
 
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
 import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * {@link StudyDatabase} defines this app's database configuration and serves as the main access
  * point for manipulating persisted {@link Subject} and {@link Question} objects.
  */
-@Database(entities = {Question.class, Subject.class}, version = 1)
+@Database(entities = {Question.class, Subject.class, ImportJob.class, StudyEvent.class,
+        SubjectDailyStats.class, QuestionDailyStats.class}, version = 8)
 public abstract class StudyDatabase extends RoomDatabase {
 
     /**
@@ -24,20 +34,289 @@ public abstract class StudyDatabase extends RoomDatabase {
     private static StudyDatabase mStudyDatabase;
 
     /**
-     * Returns an instance of {@link StudyDatabase}.
+     * {@link ExecutorService} for running database work off the main thread.
+     */
+    private static final ExecutorService mDatabaseExecutor = Executors.newFixedThreadPool(4);
+
+    /**
+     * {@link Migration} that adds the {@link ImportJob} table.
+     */
+    static final Migration MIGRATION_1_2 = new Migration(1, 2) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE IF NOT EXISTS `ImportJob` ("
+                    + "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                    + "`subject_text` TEXT NOT NULL, "
+                    + "`subject_updated` INTEGER NOT NULL, "
+                    + "`state` INTEGER NOT NULL, "
+                    + "`question_count` INTEGER NOT NULL, "
+                    + "`attempts` INTEGER NOT NULL, "
+                    + "`created` INTEGER NOT NULL)");
+        }
+    };
+
+    /**
+     * {@link Migration} that adds the question count and last studied columns to the
+     * {@link Subject} table.
+     */
+    static final Migration MIGRATION_2_3 = new Migration(2, 3) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("ALTER TABLE `Subject` ADD COLUMN "
+                    + "`question_count` INTEGER NOT NULL DEFAULT 0");
+            database.execSQL("ALTER TABLE `Subject` ADD COLUMN "
+                    + "`last_studied` INTEGER NOT NULL DEFAULT 0");
+            database.execSQL("UPDATE `Subject` SET `question_count` = "
+                    + "(SELECT COUNT(*) FROM `Question` WHERE `subject_id` = `Subject`.`id`)");
+
+            // Triggers are created by the last migration that changes them.
+        }
+    };
+
+    /**
+     * {@link Migration} that adds the deleted columns used for tombstones to the
+     * {@link Question} and {@link Subject} tables.
+     */
+    static final Migration MIGRATION_3_4 = new Migration(3, 4) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("ALTER TABLE `Question` ADD COLUMN "
+                    + "`deleted` INTEGER NOT NULL DEFAULT 0");
+            database.execSQL("ALTER TABLE `Subject` ADD COLUMN "
+                    + "`deleted` INTEGER NOT NULL DEFAULT 0");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_Question_subject_id_deleted` "
+                    + "ON `Question` (`subject_id`, `deleted`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_Question_deleted` "
+                    + "ON `Question` (`deleted`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_Subject_deleted` "
+                    + "ON `Subject` (`deleted`)");
+            database.execSQL("DROP TRIGGER IF EXISTS `question_count_insert`");
+            database.execSQL("DROP TRIGGER IF EXISTS `question_count_delete`");
+            database.execSQL("DROP TRIGGER IF EXISTS `question_count_move`");
+            createTriggers(database);
+        }
+    };
+
+    /**
+     * {@link Migration} that adds the image columns to the {@link Question} table.
+     */
+    static final Migration MIGRATION_4_5 = new Migration(4, 5) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("ALTER TABLE `Question` ADD COLUMN `question_image` TEXT");
+            database.execSQL("ALTER TABLE `Question` ADD COLUMN `answer_image` TEXT");
+        }
+    };
+
+    /**
+     * {@link Migration} that adds the {@link StudyEvent} log and its daily rollup tables.
+     */
+    static final Migration MIGRATION_5_6 = new Migration(5, 6) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE IF NOT EXISTS `StudyEvent` ("
+                    + "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                    + "`question_id` INTEGER NOT NULL, `subject_id` INTEGER NOT NULL, "
+                    + "`type` INTEGER NOT NULL, `time` INTEGER NOT NULL, `day` INTEGER NOT NULL)");
+            database.execSQL("CREATE TABLE IF NOT EXISTS `SubjectDailyStats` ("
+                    + "`subject_id` INTEGER NOT NULL, `day` INTEGER NOT NULL, "
+                    + "`shown_count` INTEGER NOT NULL, `revealed_count` INTEGER NOT NULL, "
+                    + "PRIMARY KEY(`subject_id`, `day`))");
+            database.execSQL("CREATE TABLE IF NOT EXISTS `QuestionDailyStats` ("
+                    + "`question_id` INTEGER NOT NULL, `subject_id` INTEGER NOT NULL, "
+                    + "`day` INTEGER NOT NULL, `shown_count` INTEGER NOT NULL, "
+                    + "`revealed_count` INTEGER NOT NULL, PRIMARY KEY(`question_id`, `day`))");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_QuestionDailyStats_subject_id_day` "
+                    + "ON `QuestionDailyStats` (`subject_id`, `day`)");
+        }
+    };
+
+    /**
+     * {@link Migration} that adds the content hash column to the {@link Question} table, removes
+     * questions duplicated within a subject, and adds the unique index that keeps them out.
+     */
+    static final Migration MIGRATION_6_7 = new Migration(6, 7) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("ALTER TABLE `Question` ADD COLUMN "
+                    + "`content_hash` INTEGER NOT NULL DEFAULT 0");
+
+            // The hash is computed in Java, so read every row before setting it row by row.
+            long[] ids;
+            long[] contentHashes;
+            try (Cursor cursor = database.query("SELECT `id`, `text`, `answer`, "
+                    + "`question_image`, `answer_image` FROM `Question`")) {
+                ids = new long[cursor.getCount()];
+                contentHashes = new long[cursor.getCount()];
+                for (int i = 0; cursor.moveToNext(); i++) {
+                    ids[i] = cursor.getLong(0);
+                    contentHashes[i] = Question.computeContentHash(cursor.getString(1),
+                            cursor.getString(2), cursor.getString(3), cursor.getString(4));
+                }
+            }
+            for (int i = 0; i < ids.length; i++) {
+                database.execSQL("UPDATE `Question` SET `content_hash` = ? WHERE `id` = ?",
+                        new Object[]{contentHashes[i], ids[i]});
+            }
+
+            // Keep the oldest of each set of duplicates. The delete triggers fix question counts.
+            database.execSQL("DELETE FROM `Question` WHERE `id` NOT IN (SELECT MIN(`id`) "
+                    + "FROM `Question` GROUP BY `subject_id`, `content_hash`, `deleted`)");
+            database.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS "
+                    + "`index_Question_subject_id_content_hash_deleted` "
+                    + "ON `Question` (`subject_id`, `content_hash`, `deleted`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_Subject_text` "
+                    + "ON `Subject` (`text`)");
+        }
+    };
+
+    /**
+     * {@link Migration} that adds the {@link FractionalRank} columns to the {@link Question} and
+     * {@link Subject} tables. Existing rows are ranked by id, which keeps their current order.
+     */
+    static final Migration MIGRATION_7_8 = new Migration(7, 8) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("ALTER TABLE `Question` ADD COLUMN "
+                    + "`sort_rank` REAL NOT NULL DEFAULT 0");
+            database.execSQL("ALTER TABLE `Subject` ADD COLUMN "
+                    + "`sort_rank` REAL NOT NULL DEFAULT 0");
+            database.execSQL("UPDATE `Question` SET `sort_rank` = `id`");
+            database.execSQL("UPDATE `Subject` SET `sort_rank` = `id`");
+            database.execSQL("CREATE INDEX IF NOT EXISTS "
+                    + "`index_Question_subject_id_deleted_sort_rank` "
+                    + "ON `Question` (`subject_id`, `deleted`, `sort_rank`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_Subject_sort_rank` "
+                    + "ON `Subject` (`sort_rank`)");
+            createTriggers(database);
+        }
+    };
+
+    /**
+     * {@link RoomDatabase.Callback} that creates the triggers of a freshly created database.
+     */
+    private static final RoomDatabase.Callback mCallback = new RoomDatabase.Callback() {
+        @Override
+        public void onCreate(@NonNull SupportSQLiteDatabase database) {
+            createTriggers(database);
+        }
+    };
+
+    /**
+     * Returns an instance of {@link StudyDatabase}. Synchronized since background workers may
+     * request the instance at the same time as the user interface.
      *
      * @return An instance of {@link StudyDatabase}.
      */
-    public static StudyDatabase getInstance(Context context) {
+    public static synchronized StudyDatabase getInstance(Context context) {
         if (mStudyDatabase == null) {
             mStudyDatabase = Room.databaseBuilder(context, StudyDatabase.class, DATABASE_NAME)
                     .allowMainThreadQueries()
+                    .addMigrations(MIGRATION_1_2, MIGRATION_2_3, MIGRATION_3_4,
+                            MIGRATION_4_5, MIGRATION_5_6, MIGRATION_6_7, MIGRATION_7_8)
+                    .addCallback(mCallback)
                     .build();
             mStudyDatabase.addStarterData();
         }
         return mStudyDatabase;
     }
 
+    /**
+     * Returns a new {@link StudyDatabase} held in memory with the same triggers as the persisted
+     * database and no starter data. Used by tests that load large synthetic decks.
+     *
+     * @param context {@link Context} of the app.
+     * @return A new in-memory {@link StudyDatabase}.
+     */
+    static StudyDatabase createInMemoryDatabase(Context context) {
+        return createInMemoryDatabase(context, null);
+    }
+
+    /**
+     * Returns a new {@link StudyDatabase} held in memory that reports every query it runs to the
+     * passed {@link RoomDatabase.QueryCallback} on the querying thread. Used by tests that count
+     * the queries an interaction makes.
+     *
+     * @param context       {@link Context} of the app.
+     * @param queryCallback {@link RoomDatabase.QueryCallback} to report queries to. May be null.
+     * @return A new in-memory {@link StudyDatabase}.
+     */
+    static StudyDatabase createInMemoryDatabase(Context context,
+                                                @Nullable QueryCallback queryCallback) {
+        RoomDatabase.Builder<StudyDatabase> builder =
+                Room.inMemoryDatabaseBuilder(context, StudyDatabase.class)
+                        .allowMainThreadQueries()
+                        .addCallback(mCallback);
+        if (queryCallback != null) {
+            builder.setQueryCallback(queryCallback, Runnable::run);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Replaces the instance returned by {@link #getInstance(Context)}. Used by tests that launch
+     * activities against a pre-seeded database.
+     *
+     * @param studyDatabase {@link StudyDatabase} to return. Null to create the persisted database
+     *                      on next use.
+     */
+    @VisibleForTesting
+    static synchronized void setInstanceForTesting(@Nullable StudyDatabase studyDatabase) {
+        mStudyDatabase = studyDatabase;
+    }
+
+    /**
+     * Creates the triggers that keep the question count of each {@link Subject} in sync with the
+     * {@link Question} table, so counts never need to be computed per subject. Only questions that
+     * are not deleted are counted. Also creates the triggers that rank each {@link Question} and
+     * {@link Subject} inserted without a {@link FractionalRank} after the last one, so new rows
+     * are appended to the user-defined order with a single indexed lookup.
+     *
+     * @param database {@link SupportSQLiteDatabase} to create the triggers in.
+     */
+    private static void createTriggers(SupportSQLiteDatabase database) {
+        database.execSQL("CREATE TRIGGER IF NOT EXISTS `question_count_insert` "
+                + "AFTER INSERT ON `Question` WHEN NEW.`deleted` = 0 BEGIN "
+                + "UPDATE `Subject` SET `question_count` = `question_count` + 1 "
+                + "WHERE `id` = NEW.`subject_id`; END");
+        database.execSQL("CREATE TRIGGER IF NOT EXISTS `question_count_delete` "
+                + "AFTER DELETE ON `Question` WHEN OLD.`deleted` = 0 BEGIN "
+                + "UPDATE `Subject` SET `question_count` = `question_count` - 1 "
+                + "WHERE `id` = OLD.`subject_id`; END");
+        database.execSQL("CREATE TRIGGER IF NOT EXISTS `question_count_move` "
+                + "AFTER UPDATE OF `subject_id` ON `Question` "
+                + "WHEN OLD.`subject_id` != NEW.`subject_id` "
+                + "AND OLD.`deleted` = 0 AND NEW.`deleted` = 0 BEGIN "
+                + "UPDATE `Subject` SET `question_count` = `question_count` - 1 "
+                + "WHERE `id` = OLD.`subject_id`; "
+                + "UPDATE `Subject` SET `question_count` = `question_count` + 1 "
+                + "WHERE `id` = NEW.`subject_id`; END");
+        database.execSQL("CREATE TRIGGER IF NOT EXISTS `question_count_tombstone` "
+                + "AFTER UPDATE OF `deleted` ON `Question` "
+                + "WHEN (OLD.`deleted` = 0) != (NEW.`deleted` = 0) BEGIN "
+                + "UPDATE `Subject` SET `question_count` = `question_count` "
+                + "+ (CASE WHEN NEW.`deleted` = 0 THEN 1 ELSE -1 END) "
+                + "WHERE `id` = NEW.`subject_id`; END");
+        database.execSQL("CREATE TRIGGER IF NOT EXISTS `question_rank_insert` "
+                + "AFTER INSERT ON `Question` WHEN NEW.`sort_rank` = 0 BEGIN "
+                + "UPDATE `Question` SET `sort_rank` = IFNULL((SELECT `sort_rank` FROM `Question` "
+                + "WHERE `subject_id` = NEW.`subject_id` AND `deleted` = 0 "
+                + "ORDER BY `sort_rank` DESC LIMIT 1), 0) + 1 WHERE `id` = NEW.`id`; END");
+        database.execSQL("CREATE TRIGGER IF NOT EXISTS `subject_rank_insert` "
+                + "AFTER INSERT ON `Subject` WHEN NEW.`sort_rank` = 0 BEGIN "
+                + "UPDATE `Subject` SET `sort_rank` = IFNULL((SELECT `sort_rank` FROM `Subject` "
+                + "ORDER BY `sort_rank` DESC LIMIT 1), 0) + 1 WHERE `id` = NEW.`id`; END");
+    }
+
+    /**
+     * Returns an {@link ExecutorService} for running database work off the main thread.
+     *
+     * @return An {@link ExecutorService}.
+     */
+    public static ExecutorService getDatabaseExecutor() {
+        return mDatabaseExecutor;
+    }
+
     /**
      * {@link QuestionDao} instance for manipulating persisted {@link Question} objects.
      *
@@ -52,6 +331,21 @@ public abstract class StudyDatabase extends RoomDatabase {
      */
     public abstract SubjectDao subjectDao();
 
+    /**
+     * {@link ImportJobDao} instance for manipulating persisted {@link ImportJob} objects.
+     *
+     * @return An {@link ImportJobDao} instance.
+     */
+    public abstract ImportJobDao importJobDao();
+
+    /**
+     * {@link StudyEventDao} instance for recording {@link StudyEvent} objects and reading their
+     * daily rollups.
+     *
+     * @return A {@link StudyEventDao} instance.
+     */
+    public abstract StudyEventDao studyEventDao();
+
     /**
      * Checks if the database is empty. If so, it initializes it with some dummy {@link Subject} and
      * {@link Question} objects.
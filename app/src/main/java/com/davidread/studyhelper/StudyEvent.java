@@ -0,0 +1,127 @@
+package com.davidread.studyhelper;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+/**
+ * {@link StudyEvent} is a class used to model a single thing a student did while studying, such
+ * as viewing a {@link Question} or revealing its answer. Events are only ever appended. They are
+ * rolled up into {@link SubjectDailyStats} and {@link QuestionDailyStats} as they are written, so
+ * statistics never need to scan them.
+ */
+@Entity
+public class StudyEvent {
+
+    /**
+     * Type of an event recorded when a {@link Question} is shown.
+     */
+    public static final int TYPE_SHOWN = 0;
+
+    /**
+     * Type of an event recorded when the answer to a {@link Question} is revealed.
+     */
+    public static final int TYPE_ANSWER_REVEALED = 1;
+
+    /**
+     * Unique long id for the event.
+     */
+    @PrimaryKey(autoGenerate = true)
+    @ColumnInfo(name = "id")
+    private long mId;
+
+    /**
+     * Long id of the {@link Question} the event is about.
+     */
+    @ColumnInfo(name = "question_id")
+    private long mQuestionId;
+
+    /**
+     * Long id of the {@link Subject} the {@link Question} belongs to.
+     */
+    @ColumnInfo(name = "subject_id")
+    private long mSubjectId;
+
+    /**
+     * Int type of the event. One of {@link #TYPE_SHOWN} or {@link #TYPE_ANSWER_REVEALED}.
+     */
+    @ColumnInfo(name = "type")
+    private int mType;
+
+    /**
+     * Long representing the time of the event.
+     */
+    @ColumnInfo(name = "time")
+    private long mTime;
+
+    /**
+     * Long number of the local calendar day of the event, counted from the epoch.
+     */
+    @ColumnInfo(name = "day")
+    private long mDay;
+
+    /**
+     * Constructs a new {@link StudyEvent}.
+     *
+     * @param questionId Long id of the {@link Question} the event is about.
+     * @param subjectId  Long id of the {@link Subject} the {@link Question} belongs to.
+     * @param type       Int type of the event.
+     * @param time       Long representing the time of the event.
+     * @param day        Long number of the local calendar day of the event.
+     */
+    public StudyEvent(long questionId, long subjectId, int type, long time, long day) {
+        mQuestionId = questionId;
+        mSubjectId = subjectId;
+        mType = type;
+        mTime = time;
+        mDay = day;
+    }
+
+    public long getId() {
+        return mId;
+    }
+
+    public void setId(long id) {
+        mId = id;
+    }
+
+    public long getQuestionId() {
+        return mQuestionId;
+    }
+
+    public void setQuestionId(long questionId) {
+        mQuestionId = questionId;
+    }
+
+    public long getSubjectId() {
+        return mSubjectId;
+    }
+
+    public void setSubjectId(long subjectId) {
+        mSubjectId = subjectId;
+    }
+
+    public int getType() {
+        return mType;
+    }
+
+    public void setType(int type) {
+        mType = type;
+    }
+
+    public long getTime() {
+        return mTime;
+    }
+
+    public void setTime(long time) {
+        mTime = time;
+    }
+
+    public long getDay() {
+        return mDay;
+    }
+
+    public void setDay(long day) {
+        mDay = day;
+    }
+}
@@ -0,0 +1,145 @@
+package com.davidread.studyhelper;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.Query;
+import androidx.room.Transaction;
+
+import java.util.List;
+
+/**
+ * {@link StudyEventDao} defines methods to append {@link StudyEvent} entities to the database
+ * maintained by {@link StudyDatabase} and to read the {@link SubjectDailyStats} and
+ * {@link QuestionDailyStats} rollups maintained alongside them. At compile time, Room
+ * automatically generates implementations of these methods.
+ */
+@Dao
+public interface StudyEventDao {
+
+    /**
+     * Appends the passed {@link StudyEvent} objects and adds the passed increments to the daily
+     * rollups in a single transaction, so the rollups always match the events.
+     *
+     * @param events             {@link List} of new {@link StudyEvent} objects.
+     * @param subjectIncrements  {@link List} of {@link SubjectDailyStats} holding the counts to
+     *                           add for each subject and day.
+     * @param questionIncrements {@link List} of {@link QuestionDailyStats} holding the counts to
+     *                           add for each question and day.
+     */
+    @Transaction
+    public default void recordEvents(List<StudyEvent> events,
+                                     List<SubjectDailyStats> subjectIncrements,
+                                     List<QuestionDailyStats> questionIncrements) {
+        insertEvents(events);
+        for (SubjectDailyStats increment : subjectIncrements) {
+            if (addSubjectStats(increment.getSubjectId(), increment.getDay(),
+                    increment.getShownCount(), increment.getRevealedCount()) == 0) {
+                insertSubjectStats(increment);
+            }
+        }
+        for (QuestionDailyStats increment : questionIncrements) {
+            if (addQuestionStats(increment.getQuestionId(), increment.getDay(),
+                    increment.getShownCount(), increment.getRevealedCount()) == 0) {
+                insertQuestionStats(increment);
+            }
+        }
+    }
+
+    /**
+     * Inserts new {@link StudyEvent} objects.
+     *
+     * @param events {@link List} of new {@link StudyEvent} objects.
+     */
+    @Insert
+    public void insertEvents(List<StudyEvent> events);
+
+    /**
+     * Inserts a new {@link SubjectDailyStats}. Use
+     * {@link #recordEvents(List, List, List)} instead, which also updates existing rows.
+     *
+     * @param stats A new {@link SubjectDailyStats}.
+     */
+    @Insert
+    public void insertSubjectStats(SubjectDailyStats stats);
+
+    /**
+     * Inserts a new {@link QuestionDailyStats}. Use
+     * {@link #recordEvents(List, List, List)} instead, which also updates existing rows.
+     *
+     * @param stats A new {@link QuestionDailyStats}.
+     */
+    @Insert
+    public void insertQuestionStats(QuestionDailyStats stats);
+
+    /**
+     * Adds the passed counts to the {@link SubjectDailyStats} matching the passed subject id and
+     * day.
+     *
+     * @param subjectId Long subject id to match.
+     * @param day       Long day to match.
+     * @param shown     Int number to add to the shown count.
+     * @param revealed  Int number to add to the revealed count.
+     * @return The number of rows updated. Zero if no row exists yet.
+     */
+    @Query("UPDATE SubjectDailyStats SET shown_count = shown_count + :shown, "
+            + "revealed_count = revealed_count + :revealed "
+            + "WHERE subject_id = :subjectId AND day = :day")
+    public int addSubjectStats(long subjectId, long day, int shown, int revealed);
+
+    /**
+     * Adds the passed counts to the {@link QuestionDailyStats} matching the passed question id and
+     * day.
+     *
+     * @param questionId Long question id to match.
+     * @param day        Long day to match.
+     * @param shown      Int number to add to the shown count.
+     * @param revealed   Int number to add to the revealed count.
+     * @return The number of rows updated. Zero if no row exists yet.
+     */
+    @Query("UPDATE QuestionDailyStats SET shown_count = shown_count + :shown, "
+            + "revealed_count = revealed_count + :revealed "
+            + "WHERE question_id = :questionId AND day = :day")
+    public int addQuestionStats(long questionId, long day, int shown, int revealed);
+
+    /**
+     * Queries for the daily statistics of the {@link Subject} matching the passed id between the
+     * passed days, inclusive.
+     *
+     * @param subjectId Long subject id to match.
+     * @param fromDay   Long first day to include.
+     * @param toDay     Long last day to include.
+     * @return A {@link List} of {@link SubjectDailyStats} objects in day order.
+     */
+    @Query("SELECT * FROM SubjectDailyStats "
+            + "WHERE subject_id = :subjectId AND day BETWEEN :fromDay AND :toDay ORDER BY day")
+    public List<SubjectDailyStats> getSubjectStats(long subjectId, long fromDay, long toDay);
+
+    /**
+     * Queries for the total statistics of every {@link Subject} since the passed day. The day of
+     * each returned object is set to the passed day.
+     *
+     * @param fromDay Long first day to include.
+     * @return A {@link List} of {@link SubjectDailyStats} objects, most studied first.
+     */
+    @Query("SELECT subject_id, :fromDay AS day, SUM(shown_count) AS shown_count, "
+            + "SUM(revealed_count) AS revealed_count FROM SubjectDailyStats "
+            + "WHERE day >= :fromDay GROUP BY subject_id ORDER BY shown_count DESC")
+    public List<SubjectDailyStats> getSubjectTotals(long fromDay);
+
+    /**
+     * Queries for the {@link Question} objects of the {@link Subject} matching the passed id whose
+     * answers were revealed most often relative to how often they were shown since the passed
+     * day. The day of each returned object is set to the passed day.
+     *
+     * @param subjectId Long subject id to match.
+     * @param fromDay   Long first day to include.
+     * @param limit     Int maximum number of objects to return.
+     * @return A {@link List} of {@link QuestionDailyStats} objects, hardest first.
+     */
+    @Query("SELECT question_id, subject_id, :fromDay AS day, SUM(shown_count) AS shown_count, "
+            + "SUM(revealed_count) AS revealed_count FROM QuestionDailyStats "
+            + "WHERE subject_id = :subjectId AND day >= :fromDay GROUP BY question_id "
+            + "ORDER BY CAST(SUM(revealed_count) AS REAL) / MAX(SUM(shown_count), 1) DESC, "
+            + "shown_count DESC LIMIT :limit")
+    public List<QuestionDailyStats> getHardestQuestions(long subjectId, long fromDay, int limit);
+}
@@ -0,0 +1,200 @@
+package com.davidread.studyhelper;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link StudyEventLogger} records {@link StudyEvent} objects without touching the database on
+ * the calling thread. Events are buffered in memory and written behind in batches, each in a
+ * single transaction that also updates the daily rollups. A batch is written once it is full, a
+ * few seconds after its first event, or when {@link #flush()} is called.
+ */
+public class StudyEventLogger {
+
+    /**
+     * {@link String} identifier for log messages in this class.
+     */
+    private static final String TAG = "StudyEventLogger";
+
+    /**
+     * Int number of buffered events that triggers a write.
+     */
+    private static final int BATCH_SIZE = 50;
+
+    /**
+     * Long number of milliseconds an event may wait in the buffer before it is written.
+     */
+    private static final long FLUSH_DELAY_MILLIS = 5000;
+
+    /**
+     * Int maximum number of events kept in the buffer while writes fail. Older events are dropped
+     * beyond this.
+     */
+    private static final int MAX_BUFFERED_EVENTS = 5000;
+
+    /**
+     * Static reference of {@link StudyEventLogger} to follow singleton pattern.
+     */
+    private static StudyEventLogger mStudyEventLogger;
+
+    /**
+     * {@link StudyDatabase} events are written to.
+     */
+    private final StudyDatabase mStudyDb;
+
+    /**
+     * {@link ScheduledExecutorService} that writes events. A single thread keeps batches in order.
+     */
+    private final ScheduledExecutorService mExecutor =
+            Executors.newSingleThreadScheduledExecutor();
+
+    /**
+     * {@link List} of events not written yet. Guarded by this object.
+     */
+    private List<StudyEvent> mBuffer = new ArrayList<>();
+
+    /**
+     * {@link ScheduledFuture} of the delayed write of {@link #mBuffer}. Null if none is scheduled.
+     * Guarded by this object.
+     */
+    private ScheduledFuture<?> mScheduledFlush;
+
+    /**
+     * Returns an instance of {@link StudyEventLogger}.
+     *
+     * @param context {@link Context} of the app.
+     * @return An instance of {@link StudyEventLogger}.
+     */
+    public static synchronized StudyEventLogger getInstance(Context context) {
+        if (mStudyEventLogger == null) {
+            mStudyEventLogger = new StudyEventLogger(
+                    StudyDatabase.getInstance(context.getApplicationContext()));
+        }
+        return mStudyEventLogger;
+    }
+
+    /**
+     * Constructs a new {@link StudyEventLogger}.
+     *
+     * @param studyDb {@link StudyDatabase} to write events to.
+     */
+    StudyEventLogger(StudyDatabase studyDb) {
+        mStudyDb = studyDb;
+    }
+
+    /**
+     * Buffers a new {@link StudyEvent} about the passed {@link Question}.
+     *
+     * @param question {@link Question} the event is about.
+     * @param type     Int type of the event. One of the types in {@link StudyEvent}.
+     */
+    public void log(Question question, int type) {
+        long time = System.currentTimeMillis();
+        StudyEvent event = new StudyEvent(question.getId(), question.getSubjectId(), type, time,
+                getDay(time));
+
+        synchronized (this) {
+            mBuffer.add(event);
+            if (mBuffer.size() >= BATCH_SIZE) {
+                flush();
+            } else if (mScheduledFlush == null) {
+                mScheduledFlush = mExecutor.schedule(this::writeBuffer, FLUSH_DELAY_MILLIS,
+                        TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * Writes all buffered events on a background thread. Should be invoked when the user leaves
+     * a screen that logs events.
+     *
+     * @return A {@link Future} that completes once the events are written.
+     */
+    public synchronized Future<?> flush() {
+        if (mScheduledFlush != null) {
+            mScheduledFlush.cancel(false);
+            mScheduledFlush = null;
+        }
+        return mExecutor.submit(this::writeBuffer);
+    }
+
+    /**
+     * Writes the buffered events and their rollup increments in a single transaction. Runs on
+     * {@link #mExecutor}. If the write fails, the events are put back to be retried with the next
+     * batch.
+     */
+    private void writeBuffer() {
+        List<StudyEvent> events;
+        synchronized (this) {
+            mScheduledFlush = null;
+            if (mBuffer.isEmpty()) {
+                return;
+            }
+            events = mBuffer;
+            mBuffer = new ArrayList<>();
+        }
+
+        // Sum the increments per subject and day, and per question and day.
+        Map<String, SubjectDailyStats> subjectIncrements = new HashMap<>();
+        Map<String, QuestionDailyStats> questionIncrements = new HashMap<>();
+        for (StudyEvent event : events) {
+            String subjectKey = event.getSubjectId() + "/" + event.getDay();
+            SubjectDailyStats subjectStats = subjectIncrements.get(subjectKey);
+            if (subjectStats == null) {
+                subjectStats = new SubjectDailyStats(event.getSubjectId(), event.getDay());
+                subjectIncrements.put(subjectKey, subjectStats);
+            }
+
+            String questionKey = event.getQuestionId() + "/" + event.getDay();
+            QuestionDailyStats questionStats = questionIncrements.get(questionKey);
+            if (questionStats == null) {
+                questionStats = new QuestionDailyStats(event.getQuestionId(),
+                        event.getSubjectId(), event.getDay());
+                questionIncrements.put(questionKey, questionStats);
+            }
+
+            if (event.getType() == StudyEvent.TYPE_SHOWN) {
+                subjectStats.setShownCount(subjectStats.getShownCount() + 1);
+                questionStats.setShownCount(questionStats.getShownCount() + 1);
+            } else if (event.getType() == StudyEvent.TYPE_ANSWER_REVEALED) {
+                subjectStats.setRevealedCount(subjectStats.getRevealedCount() + 1);
+                questionStats.setRevealedCount(questionStats.getRevealedCount() + 1);
+            }
+        }
+
+        try {
+            mStudyDb.studyEventDao().recordEvents(events,
+                    new ArrayList<>(subjectIncrements.values()),
+                    new ArrayList<>(questionIncrements.values()));
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Unable to write " + events.size() + " events: " + e.getMessage());
+            synchronized (this) {
+                events.addAll(mBuffer);
+                int dropped = Math.max(0, events.size() - MAX_BUFFERED_EVENTS);
+                mBuffer = new ArrayList<>(events.subList(dropped, events.size()));
+            }
+        }
+    }
+
+    /**
+     * Returns the local calendar day of the passed time, counted from the epoch.
+     *
+     * @param time Long representing a time.
+     * @return The long number of the day.
+     */
+    static long getDay(long time) {
+        long localTime = time + TimeZone.getDefault().getOffset(time);
+        return Math.floorDiv(localTime, TimeUnit.DAYS.toMillis(1));
+    }
+}
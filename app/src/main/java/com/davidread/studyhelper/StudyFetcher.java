@@ -4,10 +4,13 @@ import android.content.Context;
 import android.net.Uri;
 import android.util.Log;
 
+import androidx.annotation.VisibleForTesting;
+
 import com.android.volley.Request;
 import com.android.volley.RequestQueue;
 import com.android.volley.VolleyError;
 import com.android.volley.toolbox.JsonObjectRequest;
+import com.android.volley.toolbox.RequestFuture;
 import com.android.volley.toolbox.Volley;
 
 import org.json.JSONArray;
@@ -16,10 +19,14 @@ import org.json.JSONObject;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * {@link StudyFetcher} uses Volley's networking library to get {@link Subject} and {@link Question}
- * object data from zyBook's servers.
+ * object data from zyBook's servers. The base URL and {@link RequestQueue} can be injected, so the
+ * same code can be pointed at a local stand-in server.
  */
 public class StudyFetcher {
 
@@ -39,25 +46,74 @@ public class StudyFetcher {
     /**
      * {@link String} base URL used to contact zyBook's servers.
      */
-    private final String WEBAPI_BASE_URL = "https://wp.zybooks.com/study-helper.php";
+    public static final String DEFAULT_BASE_URL = "https://wp.zybooks.com/study-helper.php";
+
+    /**
+     * {@link String} base URL used instead of {@link #DEFAULT_BASE_URL} by fetchers constructed
+     * from a {@link Context}. Null unless set by a test.
+     */
+    private static volatile String mBaseUrlOverride;
 
     /**
      * {@link String} identifier for log messages in this class.
      */
     private final String TAG = "StudyFetcher";
 
+    /**
+     * Long number of seconds {@link #fetchQuestionsSync(Subject)} waits for a response.
+     */
+    private static final long SYNC_TIMEOUT_SECONDS = 60;
+
     /**
      * {@link RequestQueue} for enqueuing network requests to zyBook's servers.
      */
     private final RequestQueue mRequestQueue;
 
     /**
-     * Constructs a new {@link StudyFetcher}.
+     * {@link String} base URL requests are sent to.
+     */
+    private final String mBaseUrl;
+
+    /**
+     * Constructs a new {@link StudyFetcher} that contacts zyBook's servers.
      *
      * @param context {@link Context} for setting up {@link #mRequestQueue}.
      */
     public StudyFetcher(Context context) {
-        mRequestQueue = Volley.newRequestQueue(context);
+        this(context, mBaseUrlOverride != null ? mBaseUrlOverride : DEFAULT_BASE_URL);
+    }
+
+    /**
+     * Constructs a new {@link StudyFetcher} that contacts the server at the passed base URL.
+     *
+     * @param context {@link Context} for setting up {@link #mRequestQueue}.
+     * @param baseUrl {@link String} base URL of the server.
+     */
+    public StudyFetcher(Context context, String baseUrl) {
+        this(Volley.newRequestQueue(context), baseUrl);
+    }
+
+    /**
+     * Constructs a new {@link StudyFetcher} that sends requests through the passed
+     * {@link RequestQueue} to the server at the passed base URL. The queue must be started.
+     *
+     * @param requestQueue {@link RequestQueue} to enqueue requests on.
+     * @param baseUrl      {@link String} base URL of the server.
+     */
+    StudyFetcher(RequestQueue requestQueue, String baseUrl) {
+        mRequestQueue = requestQueue;
+        mBaseUrl = baseUrl;
+    }
+
+    /**
+     * Sets the base URL used by fetchers constructed from a {@link Context} from now on. Used by
+     * tests to point screens and workers at a local server.
+     *
+     * @param baseUrl {@link String} base URL, or null for {@link #DEFAULT_BASE_URL}.
+     */
+    @VisibleForTesting
+    static void setBaseUrlForTesting(String baseUrl) {
+        mBaseUrlOverride = baseUrl;
     }
 
     /**
@@ -69,7 +125,7 @@ public class StudyFetcher {
      */
     public void fetchSubjects(final OnStudyDataReceivedListener listener) {
 
-        String url = Uri.parse(WEBAPI_BASE_URL).buildUpon()
+        String url = Uri.parse(mBaseUrl).buildUpon()
                 .appendQueryParameter("type", "subjects").build().toString();
 
         // Request all subjects.
@@ -112,7 +168,8 @@ public class StudyFetcher {
 
     /**
      * Asynchronously fetches {@link Question} objects for a {@link Subject} from zyBook's servers
-     * and invokes methods in the passed listener given the fetch result.
+     * and invokes methods in the passed listener given the fetch result. The request may be
+     * cancelled with {@link #cancelQuestions(Subject)}.
      *
      * @param subject  {@link Subject} for which to fetch {@link Question} objects for.
      * @param listener {@link OnStudyDataReceivedListener} specifying what to do when the fetch
@@ -120,7 +177,7 @@ public class StudyFetcher {
      */
     public void fetchQuestions(final Subject subject, final OnStudyDataReceivedListener listener) {
 
-        String url = Uri.parse(WEBAPI_BASE_URL).buildUpon()
+        String url = Uri.parse(mBaseUrl).buildUpon()
                 .appendQueryParameter("type", "questions")
                 .appendQueryParameter("subject", subject.getText())
                 .build().toString();
@@ -130,10 +187,56 @@ public class StudyFetcher {
                 Request.Method.GET, url, null,
                 response -> listener.onQuestionsReceived(subject, jsonToQuestions(response)),
                 error -> listener.onErrorResponse(error));
+        jsObjRequest.setTag(subject);
 
         mRequestQueue.add(jsObjRequest);
     }
 
+    /**
+     * Cancels any request made by {@link #fetchQuestions(Subject, OnStudyDataReceivedListener)}
+     * for the passed {@link Subject} instance. The listener of a cancelled request is not invoked.
+     * Must be called on the main thread, where responses are delivered.
+     *
+     * @param subject {@link Subject} whose requests to cancel.
+     */
+    public void cancelQuestions(Subject subject) {
+        mRequestQueue.cancelAll(subject);
+    }
+
+    /**
+     * Synchronously fetches {@link Question} objects for a {@link Subject} from zyBook's servers.
+     * Must not be called on the main thread, since responses are delivered there.
+     *
+     * @param subject {@link Subject} for which to fetch {@link Question} objects for.
+     * @return A {@link List} of {@link Question} objects.
+     * @throws InterruptedException If the calling thread is interrupted while waiting.
+     * @throws ExecutionException   If the request fails. The cause is a {@link VolleyError}.
+     * @throws TimeoutException     If no response arrives in time.
+     */
+    public List<Question> fetchQuestionsSync(final Subject subject)
+            throws InterruptedException, ExecutionException, TimeoutException {
+
+        String url = Uri.parse(mBaseUrl).buildUpon()
+                .appendQueryParameter("type", "questions")
+                .appendQueryParameter("subject", subject.getText())
+                .build().toString();
+
+        // Request questions for this subject and block until they arrive.
+        RequestFuture<JSONObject> future = RequestFuture.newFuture();
+        JsonObjectRequest jsObjRequest = new JsonObjectRequest(
+                Request.Method.GET, url, null, future, future);
+        future.setRequest(mRequestQueue.add(jsObjRequest));
+
+        return jsonToQuestions(future.get(SYNC_TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Stops {@link #mRequestQueue}. No further requests are processed afterwards.
+     */
+    public void stop() {
+        mRequestQueue.stop();
+    }
+
     /**
      * Converts a {@link JSONObject} into a {@link List} of {@link Question} objects.
      *
@@ -0,0 +1,202 @@
+package com.davidread.studyhelper;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import androidx.annotation.VisibleForTesting;
+import androidx.preference.PreferenceManager;
+
+/**
+ * {@link StudyPreferences} is a snapshot of this app's settings. The settings are read from
+ * {@link SharedPreferences} once and kept up to date by a change listener, so screens can check
+ * them on every resume without reading or parsing preferences again.
+ */
+public class StudyPreferences {
+
+    /**
+     * {@link String} preference key for the dark theme setting.
+     */
+    public static final String KEY_DARK_THEME = "dark_theme";
+
+    /**
+     * {@link String} preference key for the subject order setting.
+     */
+    public static final String KEY_SUBJECT_ORDER = "subject_order";
+
+    /**
+     * {@link String} preference key for the default question text setting.
+     */
+    public static final String KEY_DEFAULT_QUESTION = "default_question";
+
+    /**
+     * {@link String} preference key for the typed answers setting.
+     */
+    public static final String KEY_TYPED_ANSWERS = "typed_answers";
+
+    /**
+     * {@link String} preference key for the multiple choice setting.
+     */
+    public static final String KEY_MULTIPLE_CHOICE = "multiple_choice";
+
+    /**
+     * {@link String} preference key for the shuffle questions setting.
+     */
+    public static final String KEY_SHUFFLE_QUESTIONS = "shuffle_questions";
+
+    /**
+     * {@link String} preference key for the quiz size setting.
+     */
+    public static final String KEY_QUIZ_SIZE = "quiz_size";
+
+    /**
+     * Static reference of {@link StudyPreferences} to follow singleton pattern.
+     */
+    private static StudyPreferences mStudyPreferences;
+
+    /**
+     * {@link SharedPreferences} the settings are read from.
+     */
+    private final SharedPreferences mSharedPrefs;
+
+    /**
+     * {@link SharedPreferences.OnSharedPreferenceChangeListener} that updates the snapshot. Held
+     * here since {@link SharedPreferences} only keeps weak references to its listeners.
+     */
+    private final SharedPreferences.OnSharedPreferenceChangeListener mListener =
+            (sharedPrefs, key) -> update(key);
+
+    /**
+     * Boolean for whether the dark theme is on.
+     */
+    private volatile boolean mDarkTheme;
+
+    /**
+     * {@link String} value of the subject order setting. One of the values in
+     * {@link SubjectSorter}.
+     */
+    private volatile String mSubjectOrder;
+
+    /**
+     * {@link String} text new questions start with.
+     */
+    private volatile String mDefaultQuestion;
+
+    /**
+     * Boolean for whether answers are typed and graded instead of revealed.
+     */
+    private volatile boolean mTypedAnswers;
+
+    /**
+     * Boolean for whether answers are picked from multiple choices instead of revealed.
+     */
+    private volatile boolean mMultipleChoice;
+
+    /**
+     * Boolean for whether questions are studied in a shuffled order.
+     */
+    private volatile boolean mShuffleQuestions;
+
+    /**
+     * Int number of random questions studied per session, or {@link QuestionSampler#SAMPLE_ALL}.
+     */
+    private volatile int mQuizSize;
+
+    /**
+     * Returns an instance of {@link StudyPreferences}.
+     *
+     * @param context {@link Context} of the app.
+     * @return An instance of {@link StudyPreferences}.
+     */
+    public static synchronized StudyPreferences getInstance(Context context) {
+        if (mStudyPreferences == null) {
+            mStudyPreferences = new StudyPreferences(context.getApplicationContext());
+        }
+        return mStudyPreferences;
+    }
+
+    /**
+     * Discards the instance returned by {@link #getInstance(Context)}, so the next call reads the
+     * settings again. Used by tests that run each case in a fresh app.
+     */
+    @VisibleForTesting
+    static synchronized void resetInstanceForTesting() {
+        if (mStudyPreferences != null) {
+            mStudyPreferences.mSharedPrefs
+                    .unregisterOnSharedPreferenceChangeListener(mStudyPreferences.mListener);
+            mStudyPreferences = null;
+        }
+    }
+
+    /**
+     * Constructs a new {@link StudyPreferences} and reads every setting once.
+     *
+     * @param context {@link Context} of the app.
+     */
+    private StudyPreferences(Context context) {
+        mSharedPrefs = PreferenceManager.getDefaultSharedPreferences(context);
+        update(null);
+        mSharedPrefs.registerOnSharedPreferenceChangeListener(mListener);
+    }
+
+    /**
+     * Re-reads the setting matching the passed key, or every setting if the key is null.
+     *
+     * @param key {@link String} preference key that changed. May be null.
+     */
+    private void update(String key) {
+        if (key == null || key.equals(KEY_DARK_THEME)) {
+            mDarkTheme = mSharedPrefs.getBoolean(KEY_DARK_THEME, false);
+        }
+        if (key == null || key.equals(KEY_SUBJECT_ORDER)) {
+            mSubjectOrder = mSharedPrefs.getString(KEY_SUBJECT_ORDER, SubjectSorter.ORDER_ALPHA);
+        }
+        if (key == null || key.equals(KEY_DEFAULT_QUESTION)) {
+            mDefaultQuestion = mSharedPrefs.getString(KEY_DEFAULT_QUESTION, "");
+        }
+        if (key == null || key.equals(KEY_TYPED_ANSWERS)) {
+            mTypedAnswers = mSharedPrefs.getBoolean(KEY_TYPED_ANSWERS, false);
+        }
+        if (key == null || key.equals(KEY_MULTIPLE_CHOICE)) {
+            mMultipleChoice = mSharedPrefs.getBoolean(KEY_MULTIPLE_CHOICE, false);
+        }
+        if (key == null || key.equals(KEY_SHUFFLE_QUESTIONS)) {
+            mShuffleQuestions = mSharedPrefs.getBoolean(KEY_SHUFFLE_QUESTIONS, false);
+        }
+        if (key == null || key.equals(KEY_QUIZ_SIZE)) {
+            try {
+                mQuizSize = Integer.parseInt(mSharedPrefs.getString(KEY_QUIZ_SIZE,
+                        String.valueOf(QuestionSampler.SAMPLE_ALL)));
+            } catch (NumberFormatException e) {
+                mQuizSize = QuestionSampler.SAMPLE_ALL;
+            }
+        }
+    }
+
+    public boolean isDarkTheme() {
+        return mDarkTheme;
+    }
+
+    public String getSubjectOrder() {
+        return mSubjectOrder;
+    }
+
+    public String getDefaultQuestion() {
+        return mDefaultQuestion;
+    }
+
+    public boolean isTypedAnswers() {
+        return mTypedAnswers;
+    }
+
+    public boolean isMultipleChoice() {
+        return mMultipleChoice;
+    }
+
+    public boolean isShuffleQuestions() {
+        return mShuffleQuestions;
+    }
+
+    public int getQuizSize() {
+        return mQuizSize;
+    }
+}
@@ -3,13 +3,17 @@ package com.davidread.studyhelper;
 import androidx.annotation.NonNull;
 import androidx.room.ColumnInfo;
 import androidx.room.Entity;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
 /**
- * {@link Subject} is a class used to model a single subject. A subject has a unique id, text, and
- * an update time.
+ * {@link Subject} is a class used to model a single subject. A subject has a unique id, text, an
+ * update time, a question count, the time it was last studied, and a deletion time. The question
+ * count is maintained by triggers defined in {@link StudyDatabase}. Deleted subjects are kept as
+ * tombstones until they are purged by {@link PurgeWorker}. A {@link FractionalRank} holds the
+ * position of the subject in the user-defined order.
  */
-@Entity
+@Entity(indices = {@Index(value = "deleted"), @Index(value = "text"), @Index(value = "sort_rank")})
 public class Subject {
 
     /**
@@ -32,6 +36,32 @@ public class Subject {
     @ColumnInfo(name = "updated")
     private long mUpdateTime;
 
+    /**
+     * Int number of questions belonging to the subject. Maintained by triggers on the
+     * {@link Question} table, so it should never be written by the app.
+     */
+    @ColumnInfo(name = "question_count", defaultValue = "0")
+    private int mQuestionCount;
+
+    /**
+     * Long representing the last time the subject was studied. Zero if never studied.
+     */
+    @ColumnInfo(name = "last_studied", defaultValue = "0")
+    private long mLastStudiedTime;
+
+    /**
+     * Long representing the time the subject was deleted. Zero if not deleted.
+     */
+    @ColumnInfo(name = "deleted", defaultValue = "0")
+    private long mDeletedTime;
+
+    /**
+     * Double {@link FractionalRank} of the subject in the user-defined order. Subjects inserted
+     * with {@link FractionalRank#UNRANKED} are ranked after the last subject by a trigger.
+     */
+    @ColumnInfo(name = "sort_rank", defaultValue = "0")
+    private double mRank;
+
     /**
      * Constructs a new {@link Subject}.
      *
@@ -65,4 +95,36 @@ public class Subject {
     public void setUpdateTime(long updateTime) {
         mUpdateTime = updateTime;
     }
-}
+
+    public int getQuestionCount() {
+        return mQuestionCount;
+    }
+
+    public void setQuestionCount(int questionCount) {
+        mQuestionCount = questionCount;
+    }
+
+    public long getLastStudiedTime() {
+        return mLastStudiedTime;
+    }
+
+    public void setLastStudiedTime(long lastStudiedTime) {
+        mLastStudiedTime = lastStudiedTime;
+    }
+
+    public long getDeletedTime() {
+        return mDeletedTime;
+    }
+
+    public void setDeletedTime(long deletedTime) {
+        mDeletedTime = deletedTime;
+    }
+
+    public double getRank() {
+        return mRank;
+    }
+
+    public void setRank(double rank) {
+        mRank = rank;
+    }
+}
\ No newline at end of file
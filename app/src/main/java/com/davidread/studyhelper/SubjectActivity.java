@@ -1,17 +1,27 @@
 package com.davidread.studyhelper;
 
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
 import androidx.annotation.NonNull;
+import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.app.AppCompatDelegate;
 import androidx.fragment.app.FragmentManager;
-import androidx.preference.PreferenceManager;
+import androidx.room.InvalidationTracker;
 import androidx.recyclerview.widget.GridLayoutManager;
+import androidx.recyclerview.widget.ItemTouchHelper;
 import androidx.recyclerview.widget.RecyclerView;
 
 import android.content.Intent;
-import android.content.SharedPreferences;
 import android.graphics.Color;
+import android.net.Uri;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.text.Editable;
+import android.text.TextWatcher;
+import android.text.format.DateUtils;
+import android.util.SparseArray;
 import android.view.ActionMode;
 import android.view.LayoutInflater;
 import android.view.Menu;
@@ -19,17 +29,47 @@ import android.view.MenuInflater;
 import android.view.MenuItem;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.EditText;
 import android.widget.TextView;
 
+import com.google.android.material.snackbar.Snackbar;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * {@link SubjectActivity} provides a user interface for viewing {@link Subject} objects provided
- * by {@link #mStudyDb}.
+ * by {@link #mStudyDb}. In the custom sort order, subjects can be long pressed and dragged into a
+ * new order while no filter is typed.
  */
 public class SubjectActivity extends AppCompatActivity
         implements SubjectDialogFragment.OnSubjectEnteredListener {
 
+    /**
+     * Long number of milliseconds typing must pause before stale {@link Subject} objects are
+     * reloaded for filtering.
+     */
+    private static final long FILTER_RELOAD_DELAY_MILLIS = 300;
+
+    /**
+     * {@link String} key for saving {@link #mExportSubjectIds} in the instance state.
+     */
+    private static final String STATE_EXPORT_SUBJECT_IDS = "export_subject_ids";
+
+    /**
+     * {@link String} key for saving {@link #mExportFormat} in the instance state.
+     */
+    private static final String STATE_EXPORT_FORMAT = "export_format";
+
+    /**
+     * {@link Object} payload used to re-bind only the selection state of an item view.
+     */
+    private static final Object PAYLOAD_SELECTION = new Object();
+
     /**
      * {@link StudyDatabase} to get and put {@link Subject} objects.
      */
@@ -47,21 +87,32 @@ public class SubjectActivity extends AppCompatActivity
     private RecyclerView mRecyclerView;
 
     /**
-     * Int array containing color values to apply to item views of {@link #mRecyclerView}.
+     * {@link EditText} for filtering the {@link Subject} objects shown in {@link #mRecyclerView}.
      */
-    private int[] mSubjectColors;
+    private EditText mFilterEditText;
+
+    /**
+     * {@link Handler} for debouncing reloads while the user types a filter.
+     */
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
 
     /**
-     * {@link Subject} currently selected when an item view of {@link #mRecyclerView} is long
-     * clicked.
+     * {@link Runnable} that reloads the {@link Subject} objects on a background thread once typing
+     * pauses.
      */
-    private Subject mSelectedSubject;
+    private final Runnable mReloadSubjectsRunnable = this::reloadSubjectsInBackground;
 
     /**
-     * Int adapter position of {@link #mSelectedSubject} set when an item view of
-     * {@link #mRecyclerView} is long clicked.
+     * Int array containing color values to apply to item views of {@link #mRecyclerView}.
+     */
+    private int[] mSubjectColors;
+
+    /**
+     * {@link Set} of ids of the {@link Subject} objects currently selected. Item views of
+     * {@link #mRecyclerView} are selected by long clicking them, or by clicking them while
+     * {@link #mActionMode} is visible.
      */
-    private int mSelectedSubjectPosition = RecyclerView.NO_POSITION;
+    private final Set<Long> mSelectedSubjectIds = new HashSet<>();
 
     /**
      * {@link ActionMode} representing the contextual app bar user interface started when an item
@@ -71,10 +122,45 @@ public class SubjectActivity extends AppCompatActivity
     private ActionMode mActionMode = null;
 
     /**
-     * Reference to this app's {@link SharedPreferences}. General settings about the app can be
+     * Long array of the ids of the {@link Subject} objects to export once the user picks a file.
+     * Null if no export is pending.
+     */
+    private long[] mExportSubjectIds;
+
+    /**
+     * Int format of the pending export. One of the formats in {@link DeckExporter}.
+     */
+    private int mExportFormat;
+
+    /**
+     * Reference to this app's {@link StudyPreferences}. General settings about the app can be
      * retrieved from here.
      */
-    private SharedPreferences mSharedPrefs;
+    private StudyPreferences mStudyPrefs;
+
+    /**
+     * {@link String} sort order of the {@link Subject} objects shown in {@link #mRecyclerView}.
+     */
+    private String mShownOrder;
+
+    /**
+     * Boolean for whether the {@link Subject} table changed since the shown {@link Subject}
+     * objects were loaded. Set on a background thread by {@link #mSubjectObserver}.
+     */
+    private volatile boolean mSubjectsChanged = true;
+
+    /**
+     * {@link InvalidationTracker.Observer} that sets {@link #mSubjectsChanged} when the
+     * {@link Subject} table changes. Question count changes are included, since they are written
+     * to the {@link Subject} table by triggers.
+     */
+    private final InvalidationTracker.Observer mSubjectObserver =
+            new InvalidationTracker.Observer("Subject") {
+                @Override
+                public void onInvalidated(@NonNull Set<String> tables) {
+                    mSubjectsChanged = true;
+                }
+            };
 
     /**
      * Callback method invoked when this activity is created. It initializes member variables and
@@ -86,32 +172,95 @@ public class SubjectActivity extends AppCompatActivity
         setContentView(R.layout.activity_subject);
 
         mStudyDb = StudyDatabase.getInstance(getApplicationContext());
+        mStudyDb.getInvalidationTracker().addObserver(mSubjectObserver);
+
+        // Restore an export waiting for the user to pick a file.
+        if (savedInstanceState != null) {
+            mExportSubjectIds = savedInstanceState.getLongArray(STATE_EXPORT_SUBJECT_IDS);
+            mExportFormat = savedInstanceState.getInt(STATE_EXPORT_FORMAT);
+        }
         mSubjectColors = getResources().getIntArray(R.array.subjectColors);
 
         mRecyclerView = findViewById(R.id.subject_recycler_view);
         mRecyclerView.setLayoutManager(new GridLayoutManager(getApplicationContext(), 2));
+        new ItemTouchHelper(mReorderCallback).attachToRecyclerView(mRecyclerView);
+
+        // Filter the shown subjects as the user types.
+        mFilterEditText = findViewById(R.id.subject_filter_edit_text);
+        mFilterEditText.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                filterSubjects(s.toString());
+            }
+        });
 
-        // Set the light/dark theme based on value in SharedPreferences.
-        mSharedPrefs = PreferenceManager.getDefaultSharedPreferences(this);
-        boolean darkTheme = mSharedPrefs.getBoolean("dark_theme", false);
-        if (darkTheme) {
+        // Permanently delete old tombstones in the background.
+        PurgeWorker.schedule(getApplicationContext());
+
+        // Keep the database compact while the device is idle and charging.
+        MaintenanceWorker.schedule(getApplicationContext());
+
+        // Set the light/dark theme based on value in StudyPreferences.
+        mStudyPrefs = StudyPreferences.getInstance(getApplicationContext());
+        if (mStudyPrefs.isDarkTheme()) {
             AppCompatDelegate.setDefaultNightMode(AppCompatDelegate.MODE_NIGHT_YES);
         } else {
             AppCompatDelegate.setDefaultNightMode(AppCompatDelegate.MODE_NIGHT_NO);
         }
     }
 
+    /**
+     * Callback method invoked before this activity may be destroyed. It saves any export waiting
+     * for the user to pick a file.
+     *
+     * @param outState {@link Bundle} to save the instance state in.
+     */
+    @Override
+    protected void onSaveInstanceState(@NonNull Bundle outState) {
+        super.onSaveInstanceState(outState);
+        outState.putLongArray(STATE_EXPORT_SUBJECT_IDS, mExportSubjectIds);
+        outState.putInt(STATE_EXPORT_FORMAT, mExportFormat);
+    }
+
     /**
      * Callback method invoked when this activity comes to the foreground. It initializes
-     * {@link #mRecyclerView} with a new {@link SubjectAdapter}.
+     * {@link #mRecyclerView} with a new {@link SubjectAdapter} if the {@link Subject} table
+     * changed. If only the sort order setting changed, the shown {@link Subject} objects are
+     * sorted in memory instead.
      */
     @Override
     protected void onResume() {
         super.onResume();
 
-        // Load subjects here in case settings changed.
-        mSubjectAdapter = new SubjectAdapter(loadSubjects());
-        mRecyclerView.setAdapter(mSubjectAdapter);
+        String order = mStudyPrefs.getSubjectOrder();
+        if (mSubjectAdapter == null || mSubjectsChanged) {
+            // Clear the flag first, so changes made while loading mark the list stale again.
+            mSubjectsChanged = false;
+            mSubjectAdapter = new SubjectAdapter(loadSubjects(order), getFilterQuery());
+            mRecyclerView.setAdapter(mSubjectAdapter);
+        } else if (!order.equals(mShownOrder)) {
+            mSubjectAdapter.sortSubjects(order);
+        }
+        mShownOrder = order;
+    }
+
+    /**
+     * Callback method invoked when this activity is destroyed. It stops observing the
+     * {@link Subject} table.
+     */
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        mStudyDb.getInvalidationTracker().removeObserver(mSubjectObserver);
+        mHandler.removeCallbacks(mReloadSubjectsRunnable);
     }
 
     /**
@@ -151,6 +300,17 @@ public class SubjectActivity extends AppCompatActivity
             return true;
         }
 
+        // If "Random quiz" is clicked, study shuffled questions from all subjects.
+        else if (item.getItemId() == R.id.random_quiz) {
+            Intent intent = new Intent(this, QuestionActivity.class);
+            intent.putExtra(QuestionActivity.EXTRA_SUBJECT_ID, QuestionSampler.ALL_SUBJECTS);
+            intent.putExtra(QuestionActivity.EXTRA_SHUFFLE, true);
+            intent.putExtra(QuestionActivity.EXTRA_SAMPLE_SIZE,
+                    StudyPreferences.getInstance(this).getQuizSize());
+            startActivity(intent);
+            return true;
+        }
+
         return super.onOptionsItemSelected(item);
     }
 
@@ -170,8 +330,9 @@ public class SubjectActivity extends AppCompatActivity
             // Add new Subject to database.
             long subjectId = mStudyDb.subjectDao().insertSubject(subject);
 
-            // Assign id to new Subject.
+            // Assign id and the rank given by the database to new Subject.
             subject.setId(subjectId);
+            subject.setRank(mStudyDb.subjectDao().getSubjectRank(subjectId));
 
             // Add new Subject with id to RecyclerView.
             mSubjectAdapter.addSubject(subject);
@@ -190,20 +351,390 @@ public class SubjectActivity extends AppCompatActivity
     }
 
     /**
-     * Returns the {@link List} of {@link Subject} objects stored in {@link #mStudyDb}. Sort order
-     * is determined by this app's {@link SharedPreferences}.
+     * Filters the shown {@link Subject} objects by the passed query. The shown objects are
+     * filtered in memory immediately. If they are stale, they are also reloaded in the background
+     * once typing pauses for {@link #FILTER_RELOAD_DELAY_MILLIS}.
+     *
+     * @param query {@link String} to filter by.
+     */
+    private void filterSubjects(String query) {
+        if (mSubjectAdapter == null) {
+            return;
+        }
+        mSubjectAdapter.setFilter(query);
+
+        mHandler.removeCallbacks(mReloadSubjectsRunnable);
+        if (mSubjectsChanged) {
+            mHandler.postDelayed(mReloadSubjectsRunnable, FILTER_RELOAD_DELAY_MILLIS);
+        }
+    }
+
+    /**
+     * Loads the {@link Subject} objects on a background thread and shows them filtered by the
+     * current query.
+     */
+    private void reloadSubjectsInBackground() {
+        mSubjectsChanged = false;
+        String order = mStudyPrefs.getSubjectOrder();
+        StudyDatabase.getDatabaseExecutor().execute(() -> {
+            List<Subject> subjects = loadSubjects(order);
+            runOnUiThread(() -> {
+                // Keep the shown subjects while a selection is being made.
+                if (isDestroyed() || mActionMode != null) {
+                    mSubjectsChanged = true;
+                    return;
+                }
+                mSubjectAdapter = new SubjectAdapter(subjects, getFilterQuery());
+                mRecyclerView.setAdapter(mSubjectAdapter);
+                mShownOrder = order;
+            });
+        });
+    }
+
+    /**
+     * Returns the query typed into {@link #mFilterEditText}.
+     *
+     * @return The {@link String} query.
      */
-    private List<Subject> loadSubjects() {
-        String order = mSharedPrefs.getString("subject_order", "alpha");
-        if (order.equals("alpha")) {
+    private String getFilterQuery() {
+        return mFilterEditText.getText().toString();
+    }
+
+    /**
+     * Returns the {@link List} of {@link Subject} objects stored in {@link #mStudyDb}, sorted in
+     * the passed order. {@link SubjectSorter} sorts in the same orders in memory.
+     *
+     * @param order {@link String} order value from {@link SubjectSorter}.
+     */
+    private List<Subject> loadSubjects(String order) {
+        if (order.equals(SubjectSorter.ORDER_ALPHA)) {
             return mStudyDb.subjectDao().getSubjects();
-        } else if (order.equals("new_first")) {
+        } else if (order.equals(SubjectSorter.ORDER_NEW_FIRST)) {
             return mStudyDb.subjectDao().getSubjectsNewerFirst();
+        } else if (order.equals(SubjectSorter.ORDER_MOST_QUESTIONS)) {
+            return mStudyDb.subjectDao().getSubjectsLargestFirst();
+        } else if (order.equals(SubjectSorter.ORDER_RECENTLY_STUDIED)) {
+            return mStudyDb.subjectDao().getSubjectsRecentlyStudied();
+        } else if (order.equals(SubjectSorter.ORDER_CUSTOM)) {
+            return mStudyDb.subjectDao().getSubjectsByRank();
         } else {
             return mStudyDb.subjectDao().getSubjectsOlderFirst();
         }
     }
 
+    /**
+     * Selects the passed {@link Subject} if it is not selected. Otherwise, deselects it. Closes
+     * the contextual app bar once no {@link Subject} is selected.
+     *
+     * @param subject  {@link Subject} to select or deselect.
+     * @param position Int adapter position of the {@link Subject}.
+     */
+    private void toggleSubjectSelection(Subject subject, int position) {
+        if (!mSelectedSubjectIds.remove(subject.getId())) {
+            mSelectedSubjectIds.add(subject.getId());
+        }
+        mSubjectAdapter.notifyItemChanged(position, PAYLOAD_SELECTION);
+
+        if (mSelectedSubjectIds.isEmpty()) {
+            mActionMode.finish();
+        } else {
+            mActionMode.setTitle(getResources().getQuantityString(R.plurals.subjects_selected,
+                    mSelectedSubjectIds.size(), mSelectedSubjectIds.size()));
+        }
+    }
+
+    /**
+     * Returns whether the shown {@link Subject} objects can be dragged into a new order. They can
+     * only in the custom order and while not filtered, so every neighbour is shown.
+     *
+     * @return True if the shown {@link Subject} objects can be reordered.
+     */
+    private boolean canReorderSubjects() {
+        return SubjectSorter.ORDER_CUSTOM.equals(mShownOrder) && mSubjectAdapter != null
+                && !mSubjectAdapter.isFiltered();
+    }
+
+    /**
+     * Deletes the selected {@link Subject} objects. They are removed from {@link #mRecyclerView}
+     * immediately while they are marked as deleted in a single transaction on a background
+     * thread. If the delete fails, they are put back in their previous positions. Otherwise, a
+     * {@link Snackbar} allows the user to undo the delete.
+     */
+    private void deleteSelectedSubjects() {
+        List<Long> subjectIds = new ArrayList<>(mSelectedSubjectIds);
+        SubjectAdapter adapter = mSubjectAdapter;
+        SparseArray<Subject> removedSubjects = adapter.removeSubjects(mSelectedSubjectIds);
+
+        StudyDatabase.getDatabaseExecutor().execute(() -> {
+            try {
+                mStudyDb.subjectDao().setSubjectsDeleted(subjectIds, System.currentTimeMillis());
+            } catch (RuntimeException e) {
+                runOnUiThread(() -> {
+                    // Roll back, unless the subjects were reloaded in the meantime.
+                    if (adapter == mSubjectAdapter) {
+                        adapter.restoreSubjects(removedSubjects);
+                    }
+                    Snackbar.make(mRecyclerView, R.string.subjects_not_deleted,
+                            Snackbar.LENGTH_LONG).show();
+                });
+                return;
+            }
+
+            runOnUiThread(() -> {
+                // Show delete message with Undo button
+                String message = getResources().getQuantityString(R.plurals.subjects_deleted,
+                        subjectIds.size(), subjectIds.size());
+                Snackbar snackbar = Snackbar.make(mRecyclerView, message, Snackbar.LENGTH_LONG);
+                snackbar.setAction(R.string.undo, v -> {
+                    if (adapter == mSubjectAdapter) {
+                        adapter.restoreSubjects(removedSubjects);
+                    }
+                    StudyDatabase.getDatabaseExecutor().execute(() ->
+                            mStudyDb.subjectDao().setSubjectsDeleted(subjectIds, 0));
+                });
+                snackbar.show();
+            });
+        });
+    }
+
+    /**
+     * Asks the user for a format and then a file to export the selected {@link Subject} objects
+     * to.
+     */
+    private void exportSelectedSubjects() {
+        long[] subjectIds = new long[mSelectedSubjectIds.size()];
+        int i = 0;
+        for (long subjectId : mSelectedSubjectIds) {
+            subjectIds[i++] = subjectId;
+        }
+
+        new AlertDialog.Builder(this)
+                .setTitle(R.string.export_format)
+                .setItems(R.array.export_formats, (dialog, which) -> {
+                    mExportSubjectIds = subjectIds;
+                    mExportFormat = which == 1 ? DeckExporter.FORMAT_CSV
+                            : DeckExporter.FORMAT_JSON;
+                    mExportLauncher.launch(mExportFormat == DeckExporter.FORMAT_CSV
+                            ? "study-helper.csv" : "study-helper.json");
+                })
+                .show();
+    }
+
+    /**
+     * {@link ActivityResultLauncher} that lets the user create the file to export to and then
+     * runs the pending export.
+     */
+    private final ActivityResultLauncher<String> mExportLauncher = registerForActivityResult(
+            new ActivityResultContracts.CreateDocument(), this::onExportFileCreated);
+
+    /**
+     * Invoked when the user picked the file to export to. It streams the pending export into the
+     * file on a background thread, showing progress in a {@link Snackbar}.
+     *
+     * @param uri {@link Uri} of the created file. Null if the user cancelled.
+     */
+    private void onExportFileCreated(Uri uri) {
+        long[] subjectIds = mExportSubjectIds;
+        int format = mExportFormat;
+        mExportSubjectIds = null;
+        if (uri == null || subjectIds == null) {
+            return;
+        }
+
+        List<Long> subjectIdList = new ArrayList<>(subjectIds.length);
+        for (long subjectId : subjectIds) {
+            subjectIdList.add(subjectId);
+        }
+        Snackbar snackbar = Snackbar.make(mRecyclerView, getString(R.string.export_progress, 0, 0),
+                Snackbar.LENGTH_INDEFINITE);
+        snackbar.show();
+
+        StudyDatabase.getDatabaseExecutor().execute(() -> {
+            String message;
+            try (OutputStream out = getContentResolver().openOutputStream(uri)) {
+                if (out == null) {
+                    throw new IOException("Unable to open " + uri);
+                }
+                int exportedCount = new DeckExporter(mStudyDb).export(subjectIdList, format, out,
+                        (exported, total) -> runOnUiThread(() -> snackbar.setText(
+                                getString(R.string.export_progress, exported, total))));
+                message = getResources().getQuantityString(R.plurals.questions_exported,
+                        exportedCount, exportedCount);
+            } catch (IOException | RuntimeException e) {
+                message = getString(R.string.export_failed);
+            }
+
+            String finalMessage = message;
+            runOnUiThread(() -> {
+                snackbar.setText(finalMessage);
+                snackbar.setDuration(Snackbar.LENGTH_LONG);
+                snackbar.show();
+            });
+        });
+    }
+
+    /**
+     * {@link ActionMode.Callback} that specifies callbacks for the contextual app bar displayed
+     * when an item view of {@link #mRecyclerView} is long clicked.
+     */
+    private final ActionMode.Callback mActionModeCallback = new ActionMode.Callback() {
+
+        /**
+         * Callback invoked when action mode if first created. It specifies the {@link Menu} to
+         * be shown in the contextual app bar.
+         *
+         * @param mode  {@link ActionMode} being created.
+         * @param menu  {@link Menu} used to populate action buttons.
+         * @return True if the action mode should be created. False if entering this mode
+         * should be aborted.
+         */
+        @Override
+        public boolean onCreateActionMode(ActionMode mode, Menu menu) {
+            // Provide context menu for CAB
+            MenuInflater inflater = mode.getMenuInflater();
+            inflater.inflate(R.menu.context_menu, menu);
+            return true;
+        }
+
+        /**
+         * Callback invoked to refresh an action mode's action menu when it is invalidated. It
+         * does nothing.
+         *
+         * @param mode  {@link ActionMode} being refreshed.
+         * @param menu  {@link Menu} used to populate action buttons.
+         * @return True if anything was updated. False otherwise.
+         */
+        @Override
+        public boolean onPrepareActionMode(ActionMode mode, Menu menu) {
+            return false;
+        }
+
+        /**
+         * Callback invoked when an action button is clicked.
+         *
+         * @param mode The current action mode.
+         * @param item The item that was clicked.
+         * @return True if this callback handles the event. False otherwise.
+         */
+        @Override
+        public boolean onActionItemClicked(ActionMode mode, MenuItem item) {
+            if (item.getItemId() == R.id.delete) {
+                // Delete from the database and remove from the RecyclerView.
+                deleteSelectedSubjects();
+
+                // Close the contextual app bar.
+                mode.finish();
+                return true;
+            } else if (item.getItemId() == R.id.export) {
+                exportSelectedSubjects();
+                mode.finish();
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Callback invoked when an action mode is destroyed.
+         * @param mode The action mode being destroyed.
+         */
+        @Override
+        public void onDestroyActionMode(ActionMode mode) {
+            mActionMode = null;
+
+            // Deselect items if not deleted.
+            mSelectedSubjectIds.clear();
+            mSubjectAdapter.notifyItemRangeChanged(0, mSubjectAdapter.getItemCount());
+        }
+    };
+
+    /**
+     * {@link ItemTouchHelper.Callback} that lets item views of {@link #mRecyclerView} be long
+     * pressed and dragged into a new order. Only the rank of the dropped {@link Subject} is
+     * written, on a background thread.
+     */
+    private final ItemTouchHelper.Callback mReorderCallback = new ItemTouchHelper.SimpleCallback(
+            ItemTouchHelper.UP | ItemTouchHelper.DOWN | ItemTouchHelper.LEFT
+                    | ItemTouchHelper.RIGHT, 0) {
+
+        /**
+         * Int position the dragged {@link Subject} was picked up at.
+         * {@link RecyclerView#NO_POSITION} if none is dragged.
+         */
+        private int mDragFromPosition = RecyclerView.NO_POSITION;
+
+        /**
+         * Callback invoked to get the directions an item view can be dragged in. Dragging is
+         * turned off unless {@link #canReorderSubjects()}.
+         *
+         * @param recyclerView {@link RecyclerView} holding the item view.
+         * @param viewHolder   {@link RecyclerView.ViewHolder} of the item view.
+         * @return The int drag direction flags.
+         */
+        @Override
+        public int getDragDirs(@NonNull RecyclerView recyclerView,
+                               @NonNull RecyclerView.ViewHolder viewHolder) {
+            return canReorderSubjects() ? super.getDragDirs(recyclerView, viewHolder) : 0;
+        }
+
+        /**
+         * Callback invoked when a dragged item view passes over another one. It moves the
+         * dragged {@link Subject} to the position of the other one.
+         *
+         * @param recyclerView {@link RecyclerView} holding the item views.
+         * @param viewHolder   {@link RecyclerView.ViewHolder} being dragged.
+         * @param target       {@link RecyclerView.ViewHolder} dragged over.
+         * @return True since the {@link Subject} was moved.
+         */
+        @Override
+        public boolean onMove(@NonNull RecyclerView recyclerView,
+                              @NonNull RecyclerView.ViewHolder viewHolder,
+                              @NonNull RecyclerView.ViewHolder target) {
+            int from = viewHolder.getAdapterPosition();
+            if (mDragFromPosition == RecyclerView.NO_POSITION) {
+                mDragFromPosition = from;
+            }
+            mSubjectAdapter.moveSubject(from, target.getAdapterPosition());
+            return true;
+        }
+
+        /**
+         * Callback invoked when an item view is swiped away. Swiping is turned off.
+         *
+         * @param viewHolder {@link RecyclerView.ViewHolder} swiped away.
+         * @param direction  Int direction of the swipe.
+         */
+        @Override
+        public void onSwiped(@NonNull RecyclerView.ViewHolder viewHolder, int direction) {
+        }
+
+        /**
+         * Callback invoked when a dragged item view is dropped. It saves the new position of the
+         * dropped {@link Subject} and closes the contextual app bar opened by the long press.
+         *
+         * @param recyclerView {@link RecyclerView} holding the item view.
+         * @param viewHolder   {@link RecyclerView.ViewHolder} dropped.
+         */
+        @Override
+        public void clearView(@NonNull RecyclerView recyclerView,
+                              @NonNull RecyclerView.ViewHolder viewHolder) {
+            super.clearView(recyclerView, viewHolder);
+            int position = viewHolder.getAdapterPosition();
+            if (position != RecyclerView.NO_POSITION && position != mDragFromPosition
+                    && mDragFromPosition != RecyclerView.NO_POSITION) {
+                mSubjectAdapter.saveSubjectPosition(position);
+                if (mActionMode != null) {
+                    // Rebinding the item views must wait until the drop is done.
+                    mRecyclerView.post(() -> {
+                        if (mActionMode != null) {
+                            mActionMode.finish();
+                        }
+                    });
+                }
+            }
+            mDragFromPosition = RecyclerView.NO_POSITION;
+        }
+    };
+
     /**
      * {@link SubjectHolder} is a model class that describes a single band item view and metadata
      * about its place within a {@link RecyclerView}.
@@ -221,6 +752,12 @@ public class SubjectActivity extends AppCompatActivity
          */
         private TextView mTextView;
 
+        /**
+         * {@link TextView} to display the question count and last studied time of
+         * {@link #mSubject}.
+         */
+        private TextView mStatsTextView;
+
         /**
          * Constructs a new {@link SubjectHolder}.
          *
@@ -232,6 +769,7 @@ public class SubjectActivity extends AppCompatActivity
             itemView.setOnClickListener(this);
             itemView.setOnLongClickListener(this);
             mTextView = itemView.findViewById(R.id.subject_text_view);
+            mStatsTextView = itemView.findViewById(R.id.subject_stats_text_view);
         }
 
         /**
@@ -243,125 +781,84 @@ public class SubjectActivity extends AppCompatActivity
         public void bind(Subject subject, int position) {
             mSubject = subject;
             mTextView.setText(subject.getText());
+            mStatsTextView.setText(getSubjectStats(subject));
+            bindSelection();
+        }
 
-            if (mSelectedSubjectPosition == position) {
+        /**
+         * Colors the background of this {@link SubjectHolder} given whether {@link #mSubject} is
+         * selected.
+         */
+        public void bindSelection() {
+            if (mSelectedSubjectIds.contains(mSubject.getId())) {
                 // Make selected subject stand out.
                 mTextView.setBackgroundColor(Color.RED);
             } else {
                 // Make the background color dependent on the length of the subject string.
-                int colorIndex = subject.getText().length() % mSubjectColors.length;
+                int colorIndex = mSubject.getText().length() % mSubjectColors.length;
                 mTextView.setBackgroundColor(mSubjectColors[colorIndex]);
             }
         }
 
         /**
-         * Invoked when the {@link View} held by this {@link SubjectHolder} is clicked. It starts
-         * the {@link QuestionActivity} while passing {@link #mSubject} as an argument.
+         * Returns a {@link String} describing the question count and last studied time of the
+         * passed {@link Subject}. Both values are stored on the {@link Subject} itself, so no
+         * query is needed.
+         *
+         * @param subject {@link Subject} to describe.
+         * @return A {@link String} describing the {@link Subject}.
+         */
+        private String getSubjectStats(Subject subject) {
+            int count = subject.getQuestionCount();
+            String questions = getResources().getQuantityString(R.plurals.question_count,
+                    count, count);
+            if (subject.getLastStudiedTime() == 0) {
+                return questions;
+            }
+            CharSequence studied = DateUtils.getRelativeTimeSpanString(
+                    subject.getLastStudiedTime(), System.currentTimeMillis(),
+                    DateUtils.MINUTE_IN_MILLIS);
+            return getString(R.string.subject_stats, questions, studied);
+        }
+
+        /**
+         * Invoked when the {@link View} held by this {@link SubjectHolder} is clicked. It toggles
+         * the selection of {@link #mSubject} if the contextual app bar is visible. Otherwise, it
+         * starts the {@link QuestionActivity} while passing {@link #mSubject} and the question
+         * order settings as arguments.
          */
         @Override
         public void onClick(View view) {
+            if (mActionMode != null) {
+                toggleSubjectSelection(mSubject, getAdapterPosition());
+                return;
+            }
+
+            StudyPreferences preferences = StudyPreferences.getInstance(SubjectActivity.this);
             Intent intent = new Intent(SubjectActivity.this, QuestionActivity.class);
             intent.putExtra(QuestionActivity.EXTRA_SUBJECT_ID, mSubject.getId());
+            intent.putExtra(QuestionActivity.EXTRA_SHUFFLE, preferences.isShuffleQuestions());
             startActivity(intent);
         }
 
         /**
          * Invoked when the {@link View} held by this {@link SubjectHolder} is long clicked. It
-         * displays a contextual app bar in {@link SubjectActivity} for the {@link View} that
-         * invoked this callback.
+         * displays a contextual app bar in {@link SubjectActivity} if not already visible and
+         * toggles the selection of {@link #mSubject}.
          *
          * @return True if this callback consumed the long click. False otherwise.
          */
         @Override
         public boolean onLongClick(View view) {
 
-            // Do not display contextual app bar if already visible.
-            if (mActionMode != null) {
-                return false;
-            }
-
-            mSelectedSubject = mSubject;
-            mSelectedSubjectPosition = getAdapterPosition();
-
-            // Re-bind the selected item.
-            mSubjectAdapter.notifyItemChanged(mSelectedSubjectPosition);
-
             // Show the contextual app bar.
-            mActionMode = SubjectActivity.this.startActionMode(mActionModeCallback);
+            if (mActionMode == null) {
+                mActionMode = SubjectActivity.this.startActionMode(mActionModeCallback);
+            }
 
+            toggleSubjectSelection(mSubject, getAdapterPosition());
             return true;
         }
-
-        /**
-         * {@link ActionMode.Callback} that specifies callbacks for the contextual app bar displayed
-         * when an item view of {@link #mRecyclerView} is long clicked.
-         */
-        private final ActionMode.Callback mActionModeCallback = new ActionMode.Callback() {
-
-            /**
-             * Callback invoked when action mode if first created. It specifies the {@link Menu} to
-             * be shown in the contextual app bar.
-             *
-             * @param mode  {@link ActionMode} being created.
-             * @param menu  {@link Menu} used to populate action buttons.
-             * @return True if the action mode should be created. False if entering this mode
-             * should be aborted.
-             */
-            @Override
-            public boolean onCreateActionMode(ActionMode mode, Menu menu) {
-                // Provide context menu for CAB
-                MenuInflater inflater = mode.getMenuInflater();
-                inflater.inflate(R.menu.context_menu, menu);
-                return true;
-            }
-
-            /**
-             * Callback invoked to refresh an action mode's action menu when it is invalidated. It
-             * does nothing.
-             *
-             * @param mode  {@link ActionMode} being refreshed.
-             * @param menu  {@link Menu} used to populate action buttons.
-             * @return True if anything was updated. False otherwise.
-             */
-            @Override
-            public boolean onPrepareActionMode(ActionMode mode, Menu menu) {
-                return false;
-            }
-
-            /**
-             * Callback invoked when an action button is clicked.
-             *
-             * @param mode The current action mode.
-             * @param item The item that was clicked.
-             * @return True if this callback handles the event. False otherwise.
-             */
-            @Override
-            public boolean onActionItemClicked(ActionMode mode, MenuItem item) {
-                if (item.getItemId() == R.id.delete) {
-                    // Delete from the database and remove from the RecyclerView.
-                    mStudyDb.subjectDao().deleteSubject(mSelectedSubject);
-                    mSubjectAdapter.removeSubject(mSelectedSubject);
-
-                    // Close the contextual app bar.
-                    mode.finish();
-                    return true;
-                }
-                return false;
-            }
-
-            /**
-             * Callback invoked when an action mode is destroyed.
-             * @param mode The action mode being destroyed.
-             */
-            @Override
-            public void onDestroyActionMode(ActionMode mode) {
-                mActionMode = null;
-
-                // Deselect item if not deleted.
-                mSubjectAdapter.notifyItemChanged(mSelectedSubjectPosition);
-                mSelectedSubjectPosition = RecyclerView.NO_POSITION;
-            }
-        };
     }
 
     /**
@@ -371,17 +868,32 @@ public class SubjectActivity extends AppCompatActivity
     private class SubjectAdapter extends RecyclerView.Adapter<SubjectHolder> {
 
         /**
-         * {@link List} of {@link Subject} objects to adapt.
+         * {@link SubjectIndex} of all {@link Subject} objects, including those hidden by the
+         * filter.
+         */
+        private final SubjectIndex mSubjectIndex;
+
+        /**
+         * {@link List} of {@link Subject} objects matching {@link #mFilterQuery} to adapt.
          */
         private List<Subject> mSubjectList;
 
+        /**
+         * {@link String} query the adapted {@link Subject} objects are filtered by. Empty if not
+         * filtered.
+         */
+        private String mFilterQuery = "";
+
         /**
          * Constructs a new {@link SubjectAdapter}.
          *
          * @param subjects {@link List} of {@link Subject} objects to adapt.
+         * @param query    {@link String} query to filter the {@link Subject} objects by.
          */
-        public SubjectAdapter(List<Subject> subjects) {
-            mSubjectList = subjects;
+        public SubjectAdapter(List<Subject> subjects, String query) {
+            mSubjectIndex = new SubjectIndex(subjects);
+            mFilterQuery = query.trim();
+            mSubjectList = mSubjectIndex.search(mFilterQuery);
         }
 
         /**
@@ -412,6 +924,25 @@ public class SubjectActivity extends AppCompatActivity
             holder.bind(mSubjectList.get(position), position);
         }
 
+        /**
+         * Callback method invoked when {@link RecyclerView} needs to partially re-bind a
+         * {@link SubjectHolder}. Selection changes only re-bind the background color, so the
+         * same item view is kept, including while it is dragged.
+         *
+         * @param holder   {@link SubjectHolder} to be bound.
+         * @param position The {@link SubjectHolder} object's position index in the adapter.
+         * @param payloads {@link List} of payloads describing what changed.
+         */
+        @Override
+        public void onBindViewHolder(@NonNull SubjectHolder holder, int position,
+                                     @NonNull List<Object> payloads) {
+            if (payloads.contains(PAYLOAD_SELECTION)) {
+                holder.bindSelection();
+            } else {
+                super.onBindViewHolder(holder, position, payloads);
+            }
+        }
+
         /**
          * Returns the total number of items this adapter is adapting.
          *
@@ -429,23 +960,124 @@ public class SubjectActivity extends AppCompatActivity
          * @param subject {@link Subject} to be inserted.
          */
         public void addSubject(Subject subject) {
-            mSubjectList.add(0, subject);
-            notifyItemInserted(0);
-            mRecyclerView.scrollToPosition(0);
+            // New subjects are ranked last in the custom order.
+            int index = SubjectSorter.ORDER_CUSTOM.equals(mShownOrder) ? mSubjectIndex.size() : 0;
+            mSubjectIndex.add(index, subject);
+            if (isFiltered()) {
+                setFilter(mFilterQuery);
+                return;
+            }
+            mSubjectList.add(index, subject);
+            notifyItemInserted(index);
+            mRecyclerView.scrollToPosition(index);
         }
 
         /**
-         * Removes a {@link Subject} from {@link #mSubjectList} and animates its deletion from
-         * {@link #mRecyclerView}.
+         * Removes all {@link Subject} objects matching the passed ids from {@link #mSubjectList}
+         * and animates their deletion from {@link #mRecyclerView}.
          *
-         * @param subject {@link Subject} to be deleted.
+         * @param subjectIds {@link Set} of ids of the {@link Subject} objects to be deleted.
+         * @return A {@link SparseArray} of the removed {@link Subject} objects keyed by their
+         * former positions in {@link #mSubjectIndex}. May be passed to
+         * {@link #restoreSubjects(SparseArray)}.
          */
-        public void removeSubject(Subject subject) {
-            int index = mSubjectList.indexOf(subject);
-            if (index >= 0) {
-                mSubjectList.remove(index);
-                notifyItemRemoved(index);
+        public SparseArray<Subject> removeSubjects(Set<Long> subjectIds) {
+            for (int i = mSubjectList.size() - 1; i >= 0; i--) {
+                if (subjectIds.contains(mSubjectList.get(i).getId())) {
+                    mSubjectList.remove(i);
+                    notifyItemRemoved(i);
+                }
+            }
+            return mSubjectIndex.removeAll(subjectIds);
+        }
+
+        /**
+         * Inserts {@link Subject} objects removed by {@link #removeSubjects(Set)} back into their
+         * former positions and animates their insertion in {@link #mRecyclerView}.
+         *
+         * @param removedSubjects {@link SparseArray} of {@link Subject} objects keyed by their
+         *                        former positions.
+         */
+        public void restoreSubjects(SparseArray<Subject> removedSubjects) {
+            for (int i = 0; i < removedSubjects.size(); i++) {
+                int index = Math.min(removedSubjects.keyAt(i), mSubjectIndex.size());
+                mSubjectIndex.add(index, removedSubjects.valueAt(i));
+
+                // Without a filter, positions in the index and the adapter are the same.
+                if (!isFiltered()) {
+                    mSubjectList.add(index, removedSubjects.valueAt(i));
+                    notifyItemInserted(index);
+                }
             }
+            if (isFiltered()) {
+                setFilter(mFilterQuery);
+            }
+        }
+
+        /**
+         * Moves the {@link Subject} at the passed position to another position and animates the
+         * move in {@link #mRecyclerView}. Only called while not filtered, so positions in the
+         * index and the adapter are the same.
+         *
+         * @param fromPosition Int position of the {@link Subject} to move.
+         * @param toPosition   Int position to move it to.
+         */
+        public void moveSubject(int fromPosition, int toPosition) {
+            mSubjectList.add(toPosition, mSubjectList.remove(fromPosition));
+            mSubjectIndex.move(fromPosition, toPosition);
+            notifyItemMoved(fromPosition, toPosition);
+        }
+
+        /**
+         * Writes the position of the {@link Subject} at the passed position to {@link #mStudyDb}
+         * on a background thread, as a rank between those of its neighbours. The new rank is
+         * then set on the {@link Subject}, so sorting in memory keeps it in place.
+         *
+         * @param position Int position of the moved {@link Subject}.
+         */
+        public void saveSubjectPosition(int position) {
+            Subject subject = mSubjectList.get(position);
+            long previousId = position > 0 ? mSubjectList.get(position - 1).getId() : 0;
+            long nextId = position < mSubjectList.size() - 1
+                    ? mSubjectList.get(position + 1).getId() : 0;
+            StudyDatabase.getDatabaseExecutor().execute(() -> {
+                double rank = mStudyDb.subjectDao().moveSubject(subject.getId(), previousId,
+                        nextId);
+                runOnUiThread(() -> subject.setRank(rank));
+            });
+        }
+
+        /**
+         * Sorts all {@link Subject} objects in memory in the passed order and rebinds
+         * {@link #mRecyclerView}.
+         *
+         * @param order {@link String} order value from {@link SubjectSorter}.
+         */
+        public void sortSubjects(String order) {
+            mSubjectIndex.sort(order);
+            mSubjectList = mSubjectIndex.search(mFilterQuery);
+            notifyDataSetChanged();
+        }
+
+        /**
+         * Adapts only the {@link Subject} objects whose text contains the passed query, with
+         * those starting with it first.
+         *
+         * @param query {@link String} to filter by. Empty to adapt all {@link Subject} objects.
+         */
+        public void setFilter(String query) {
+            mFilterQuery = query.trim();
+            mSubjectList = mSubjectIndex.search(mFilterQuery);
+            notifyDataSetChanged();
+        }
+
+        /**
+         * Returns whether the adapted {@link Subject} objects are filtered.
+         *
+         * @return True if a filter query is set.
+         */
+        private boolean isFiltered() {
+            return !mFilterQuery.isEmpty();
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,80 @@
+package com.davidread.studyhelper;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+
+/**
+ * {@link SubjectDailyStats} is a class used to model how much a single {@link Subject} was studied
+ * on a single day. Rows are maintained incrementally from {@link StudyEvent} objects as they are
+ * written. Instances are also used to carry the increments themselves.
+ */
+@Entity(primaryKeys = {"subject_id", "day"})
+public class SubjectDailyStats {
+
+    /**
+     * Long id of the {@link Subject}.
+     */
+    @ColumnInfo(name = "subject_id")
+    private long mSubjectId;
+
+    /**
+     * Long number of the local calendar day, counted from the epoch.
+     */
+    @ColumnInfo(name = "day")
+    private long mDay;
+
+    /**
+     * Int number of times questions of the {@link Subject} were shown.
+     */
+    @ColumnInfo(name = "shown_count")
+    private int mShownCount;
+
+    /**
+     * Int number of times answers of the {@link Subject} were revealed.
+     */
+    @ColumnInfo(name = "revealed_count")
+    private int mRevealedCount;
+
+    /**
+     * Constructs a new {@link SubjectDailyStats} with zero counts.
+     *
+     * @param subjectId Long id of the {@link Subject}.
+     * @param day       Long number of the local calendar day.
+     */
+    public SubjectDailyStats(long subjectId, long day) {
+        mSubjectId = subjectId;
+        mDay = day;
+    }
+
+    public long getSubjectId() {
+        return mSubjectId;
+    }
+
+    public void setSubjectId(long subjectId) {
+        mSubjectId = subjectId;
+    }
+
+    public long getDay() {
+        return mDay;
+    }
+
+    public void setDay(long day) {
+        mDay = day;
+    }
+
+    public int getShownCount() {
+        return mShownCount;
+    }
+
+    public void setShownCount(int shownCount) {
+        mShownCount = shownCount;
+    }
+
+    public int getRevealedCount() {
+        return mRevealedCount;
+    }
+
+    public void setRevealedCount(int revealedCount) {
+        mRevealedCount = revealedCount;
+    }
+}
@@ -5,25 +5,32 @@ import androidx.room.Delete;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
-import androidx.room.Update;
+import androidx.room.Transaction;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
  * {@link SubjectDao} defines methods to select, insert, update, and delete {@link Subject} entities
  * from the database maintained by {@link StudyDatabase}. At compile time, Room automatically
- * generates implementations of these methods.
+ * generates implementations of these methods. Queries skip deleted {@link Subject} objects, which
+ * are kept as tombstones until purged.
  */
 @Dao
 public interface SubjectDao {
 
+    /**
+     * Int maximum number of ids bound to a single statement.
+     */
+    int MAX_BOUND_IDS = 500;
+
     /**
      * Queries for a {@link Subject} matching the passed id.
      *
      * @param id Long id to match.
      * @return A {@link Subject}.
      */
-    @Query("SELECT * FROM Subject WHERE id = :id")
+    @Query("SELECT * FROM Subject WHERE id = :id AND deleted = 0")
     public Subject getSubject(long id);
 
     /**
@@ -32,15 +39,70 @@ public interface SubjectDao {
      * @param subjectText Long id to match.
      * @return A {@link Subject}.
      */
-    @Query("SELECT * FROM Subject WHERE text = :subjectText")
+    @Query("SELECT * FROM Subject WHERE text = :subjectText AND deleted = 0")
     public Subject getSubjectByText(String subjectText);
 
+    /**
+     * Queries for all {@link Subject} objects matching any of the passed ids. Use
+     * {@link #getSubjectsByIds(List)} instead, which does not limit the number of ids.
+     *
+     * @param ids {@link List} of at most {@link #MAX_BOUND_IDS} long ids to match.
+     * @return A {@link List} of matching {@link Subject} objects.
+     */
+    @Query("SELECT * FROM Subject WHERE id IN (:ids) AND deleted = 0")
+    public List<Subject> getSubjectChunkByIds(List<Long> ids);
+
+    /**
+     * Queries for all {@link Subject} objects matching any of the passed ids. Ids are bound in
+     * chunks to stay below SQLite's limit on host parameters.
+     *
+     * @param ids {@link List} of long ids to match.
+     * @return A {@link List} of matching {@link Subject} objects.
+     */
+    @Transaction
+    public default List<Subject> getSubjectsByIds(List<Long> ids) {
+        List<Subject> subjects = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += MAX_BOUND_IDS) {
+            subjects.addAll(getSubjectChunkByIds(ids.subList(i,
+                    Math.min(i + MAX_BOUND_IDS, ids.size()))));
+        }
+        return subjects;
+    }
+
+    /**
+     * Queries for all {@link Subject} objects matching any of the passed texts. Use
+     * {@link #getSubjectsByTexts(List)} instead, which does not limit the number of texts.
+     *
+     * @param subjectTexts {@link List} of at most {@link #MAX_BOUND_IDS} texts to match.
+     * @return A {@link List} of matching {@link Subject} objects.
+     */
+    @Query("SELECT * FROM Subject WHERE text IN (:subjectTexts) AND deleted = 0")
+    public List<Subject> getSubjectChunkByTexts(List<String> subjectTexts);
+
+    /**
+     * Queries for all {@link Subject} objects matching any of the passed texts. Texts are bound in
+     * chunks to stay below SQLite's limit on host parameters, so any number of texts takes one
+     * indexed query per {@link #MAX_BOUND_IDS} texts.
+     *
+     * @param subjectTexts {@link List} of texts to match.
+     * @return A {@link List} of matching {@link Subject} objects.
+     */
+    @Transaction
+    public default List<Subject> getSubjectsByTexts(List<String> subjectTexts) {
+        List<Subject> subjects = new ArrayList<>();
+        for (int i = 0; i < subjectTexts.size(); i += MAX_BOUND_IDS) {
+            subjects.addAll(getSubjectChunkByTexts(subjectTexts.subList(i,
+                    Math.min(i + MAX_BOUND_IDS, subjectTexts.size()))));
+        }
+        return subjects;
+    }
+
     /**
      * Queries for all {@link Subject} objects and returns them in a {@link List}.
      *
      * @return A {@link List} of {@link Subject} objects.
      */
-    @Query("SELECT * FROM Subject ORDER BY text COLLATE NOCASE")
+    @Query("SELECT * FROM Subject WHERE deleted = 0 ORDER BY text COLLATE NOCASE")
     public List<Subject> getSubjects();
 
     /**
@@ -49,7 +111,7 @@ public interface SubjectDao {
      *
      * @return A {@link List} of {@link Subject} objects.
      */
-    @Query("SELECT * FROM Subject ORDER BY updated DESC")
+    @Query("SELECT * FROM Subject WHERE deleted = 0 ORDER BY updated DESC")
     public List<Subject> getSubjectsNewerFirst();
 
     /**
@@ -58,9 +120,127 @@ public interface SubjectDao {
      *
      * @return A {@link List} of {@link Subject} objects.
      */
-    @Query("SELECT * FROM Subject ORDER BY updated ASC")
+    @Query("SELECT * FROM Subject WHERE deleted = 0 ORDER BY updated ASC")
     public List<Subject> getSubjectsOlderFirst();
 
+    /**
+     * Queries for all {@link Subject} objects and returns them in a {@link List} sorted such that
+     * objects with the most questions are returned first.
+     *
+     * @return A {@link List} of {@link Subject} objects.
+     */
+    @Query("SELECT * FROM Subject WHERE deleted = 0 "
+            + "ORDER BY question_count DESC, text COLLATE NOCASE")
+    public List<Subject> getSubjectsLargestFirst();
+
+    /**
+     * Queries for all {@link Subject} objects and returns them in a {@link List} sorted such that
+     * most recently studied objects are returned first.
+     *
+     * @return A {@link List} of {@link Subject} objects.
+     */
+    @Query("SELECT * FROM Subject WHERE deleted = 0 "
+            + "ORDER BY last_studied DESC, text COLLATE NOCASE")
+    public List<Subject> getSubjectsRecentlyStudied();
+
+    /**
+     * Queries for all {@link Subject} objects and returns them in a {@link List} sorted in their
+     * user-defined order.
+     *
+     * @return A {@link List} of {@link Subject} objects.
+     */
+    @Query("SELECT * FROM Subject WHERE deleted = 0 ORDER BY sort_rank, id")
+    public List<Subject> getSubjectsByRank();
+
+    /**
+     * Queries for the {@link FractionalRank} of the {@link Subject} matching the passed id,
+     * including deleted ones.
+     *
+     * @param id Long id to match.
+     * @return The double rank. Zero if there is no such {@link Subject}.
+     */
+    @Query("SELECT sort_rank FROM Subject WHERE id = :id")
+    public double getSubjectRank(long id);
+
+    /**
+     * Queries for the ids of all {@link Subject} objects in their user-defined order, including
+     * deleted ones so they keep their place if restored.
+     *
+     * @return A {@link List} of long ids.
+     */
+    @Query("SELECT id FROM Subject ORDER BY sort_rank, id")
+    public List<Long> getSubjectIdsByRank();
+
+    /**
+     * Queries for whether any two {@link Subject} objects have ranks closer than the passed gap.
+     * Each subject is checked with a range lookup in the rank index.
+     *
+     * @param gap Double distance between ranks below which they are crowded.
+     * @return True if the ranks are crowded.
+     */
+    @Query("SELECT EXISTS (SELECT 1 FROM Subject AS s WHERE EXISTS (SELECT 1 FROM Subject AS p "
+            + "WHERE p.sort_rank >= s.sort_rank AND p.sort_rank < s.sort_rank + :gap "
+            + "AND p.id != s.id))")
+    public boolean hasCrowdedSubjectRanks(double gap);
+
+    /**
+     * Sets the {@link FractionalRank} of the {@link Subject} matching the passed id.
+     *
+     * @param id   Long id to match.
+     * @param rank Double rank to set.
+     */
+    @Query("UPDATE Subject SET sort_rank = :rank WHERE id = :id")
+    public void setSubjectRank(long id, double rank);
+
+    /**
+     * Moves the {@link Subject} matching the passed id between the passed neighbours. Usually
+     * only the moved row is written. If the gap between the neighbours can no longer be split,
+     * all subjects are rebalanced with the move applied instead.
+     *
+     * @param id         Long id of the {@link Subject} to move.
+     * @param previousId Long id of the {@link Subject} it should follow. Zero to move it to the
+     *                   start.
+     * @param nextId     Long id of the {@link Subject} it should precede. Zero to move it to
+     *                   the end.
+     * @return The new double rank of the moved {@link Subject}.
+     */
+    @Transaction
+    public default double moveSubject(long id, long previousId, long nextId) {
+        double lower = previousId != 0 ? getSubjectRank(previousId) : FractionalRank.UNRANKED;
+        double upper = nextId != 0 ? getSubjectRank(nextId) : Double.POSITIVE_INFINITY;
+        if (FractionalRank.hasRoom(lower, upper)) {
+            double rank = FractionalRank.between(lower, upper);
+            setSubjectRank(id, rank);
+            return rank;
+        }
+
+        List<Long> ids = getSubjectIdsByRank();
+        FractionalRank.move(ids, id, previousId, nextId);
+        setSubjectRanksInOrder(ids);
+        return FractionalRank.rankAt(ids.indexOf(id));
+    }
+
+    /**
+     * Rebalances the ranks of all {@link Subject} objects to evenly spaced ranks, keeping their
+     * order.
+     */
+    @Transaction
+    public default void rebalanceSubjectRanks() {
+        setSubjectRanksInOrder(getSubjectIdsByRank());
+    }
+
+    /**
+     * Sets evenly spaced ranks on the {@link Subject} objects matching the passed ids, in the
+     * order of the ids. Use {@link #rebalanceSubjectRanks()} instead.
+     *
+     * @param ids {@link List} of long ids in their new order.
+     */
+    public default void setSubjectRanksInOrder(List<Long> ids) {
+        for (int i = 0; i < ids.size(); i++) {
+            setSubjectRank(ids.get(i), FractionalRank.rankAt(i));
+        }
+    }
+
     /**
      * Inserts a new {@link Subject}.
      *
@@ -71,14 +251,13 @@ public interface SubjectDao {
     public long insertSubject(Subject subject);
 
     /**
-     * Updates all {@link Subject} objects matching the id set in the object with the values set
-     * in the object.
+     * Sets the last studied time of the {@link Subject} matching the passed id.
      *
-     * @param subject A {@link Subject} whose id will be matched and whose values will be set onto
-     *                all matching objects.
+     * @param id          Long id to match.
+     * @param studiedTime Long representing the time the {@link Subject} was studied.
      */
-    @Update
-    public void updateSubject(Subject subject);
+    @Query("UPDATE Subject SET last_studied = :studiedTime WHERE id = :id")
+    public void updateLastStudiedTime(long id, long studiedTime);
 
     /**
      * Deletes all {@link Subject} objects matching the id set in the object.
@@ -87,4 +266,110 @@ public interface SubjectDao {
      */
     @Delete
     public void deleteSubject(Subject subject);
+
+    /**
+     * Marks all {@link Subject} objects matching the passed ids as deleted or restores them in a
+     * single transaction. Their {@link Question} objects are left untouched until purged. Ids are
+     * bound in chunks to stay below SQLite's limit on host parameters.
+     *
+     * @param ids         {@link List} of long ids to match.
+     * @param deletedTime Long representing the time of deletion. Zero to restore the
+     *                    {@link Subject} objects.
+     */
+    @Transaction
+    public default void setSubjectsDeleted(List<Long> ids, long deletedTime) {
+        for (int i = 0; i < ids.size(); i += MAX_BOUND_IDS) {
+            setSubjectChunkDeleted(ids.subList(i, Math.min(i + MAX_BOUND_IDS, ids.size())),
+                    deletedTime);
+        }
+    }
+
+    /**
+     * Marks all {@link Subject} objects matching the passed ids as deleted or restores them. Use
+     * {@link #setSubjectsDeleted(List, long)} instead, which does not limit the number of ids.
+     *
+     * @param ids         {@link List} of at most {@link #MAX_BOUND_IDS} long ids to match.
+     * @param deletedTime Long representing the time of deletion. Zero to restore the
+     *                    {@link Subject} objects.
+     */
+    @Query("UPDATE Subject SET deleted = :deletedTime WHERE id IN (:ids)")
+    public void setSubjectChunkDeleted(List<Long> ids, long deletedTime);
+
+    /**
+     * Permanently deletes up to the passed number of {@link Subject} objects that were marked as
+     * deleted before the passed time and have no {@link Question} objects left. Questions are
+     * purged first by {@link QuestionDao#purgeQuestionsOfDeletedSubjects(long, int)}, so the
+     * cascade never has to delete a large number of rows at once. Any {@link StudyEvent},
+     * {@link SubjectDailyStats}, and {@link QuestionDailyStats} rows left for the
+     * {@link Subject} objects are deleted in the same transaction.
+     *
+     * @param deletedBefore Long time before which {@link Subject} objects must have been
+     *                      deleted.
+     * @param limit         Int maximum number of {@link Subject} objects to delete. At most
+     *                      {@link #MAX_BOUND_IDS}.
+     * @return The number of {@link Subject} objects deleted.
+     */
+    @Transaction
+    public default int purgeDeletedSubjects(long deletedBefore, int limit) {
+        List<Long> ids = getPurgeableSubjectIds(deletedBefore, limit);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        deleteSubjectEventChunk(ids);
+        deleteSubjectQuestionStatsChunk(ids);
+        deleteSubjectStatsChunk(ids);
+        return deleteSubjectChunk(ids);
+    }
+
+    /**
+     * Queries for the ids of up to the passed number of {@link Subject} objects that were marked
+     * as deleted before the passed time and have no {@link Question} objects left.
+     *
+     * @param deletedBefore Long time before which {@link Subject} objects must have been
+     *                      deleted.
+     * @param limit         Int maximum number of ids to return.
+     * @return A {@link List} of long ids.
+     */
+    @Query("SELECT id FROM Subject WHERE deleted BETWEEN 1 AND :deletedBefore AND NOT EXISTS "
+            + "(SELECT 1 FROM Question WHERE Question.subject_id = Subject.id) LIMIT :limit")
+    public List<Long> getPurgeableSubjectIds(long deletedBefore, int limit);
+
+    /**
+     * Deletes all {@link StudyEvent} objects of the {@link Subject} objects matching the passed
+     * ids. Use {@link #purgeDeletedSubjects(long, int)} instead, which deletes the subjects too.
+     *
+     * @param ids {@link List} of at most {@link #MAX_BOUND_IDS} long ids to match.
+     */
+    @Query("DELETE FROM StudyEvent WHERE subject_id IN (:ids)")
+    public void deleteSubjectEventChunk(List<Long> ids);
+
+    /**
+     * Deletes all {@link QuestionDailyStats} objects of the {@link Subject} objects matching the
+     * passed ids. Use {@link #purgeDeletedSubjects(long, int)} instead, which deletes the
+     * subjects too.
+     *
+     * @param ids {@link List} of at most {@link #MAX_BOUND_IDS} long ids to match.
+     */
+    @Query("DELETE FROM QuestionDailyStats WHERE subject_id IN (:ids)")
+    public void deleteSubjectQuestionStatsChunk(List<Long> ids);
+
+    /**
+     * Deletes all {@link SubjectDailyStats} objects of the {@link Subject} objects matching the
+     * passed ids. Use {@link #purgeDeletedSubjects(long, int)} instead, which deletes the
+     * subjects too.
+     *
+     * @param ids {@link List} of at most {@link #MAX_BOUND_IDS} long ids to match.
+     */
+    @Query("DELETE FROM SubjectDailyStats WHERE subject_id IN (:ids)")
+    public void deleteSubjectStatsChunk(List<Long> ids);
+
+    /**
+     * Deletes all {@link Subject} objects matching the passed ids. Use
+     * {@link #purgeDeletedSubjects(long, int)} instead, which also deletes their statistics.
+     *
+     * @param ids {@link List} of at most {@link #MAX_BOUND_IDS} long ids to match.
+     * @return The number of {@link Subject} objects deleted.
+     */
+    @Query("DELETE FROM Subject WHERE id IN (:ids)")
+    public int deleteSubjectChunk(List<Long> ids);
 }
\ No newline at end of file
@@ -0,0 +1,137 @@
+package com.davidread.studyhelper;
+
+import android.util.SparseArray;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * {@link SubjectIndex} holds an ordered {@link List} of {@link Subject} objects together with a
+ * lower case copy of each text, so filtering by name only compares precomputed strings. Searching
+ * a few thousand subjects takes well under a frame.
+ */
+public class SubjectIndex {
+
+    /**
+     * {@link List} of indexed {@link Subject} objects in display order.
+     */
+    private final List<Subject> mSubjects = new ArrayList<>();
+
+    /**
+     * {@link List} of lower case texts parallel to {@link #mSubjects}.
+     */
+    private final List<String> mKeys = new ArrayList<>();
+
+    /**
+     * Constructs a new {@link SubjectIndex}.
+     *
+     * @param subjects {@link List} of {@link Subject} objects to index in display order.
+     */
+    public SubjectIndex(List<Subject> subjects) {
+        for (Subject subject : subjects) {
+            mSubjects.add(subject);
+            mKeys.add(createKey(subject.getText()));
+        }
+    }
+
+    /**
+     * Returns the number of indexed {@link Subject} objects.
+     *
+     * @return The int number of indexed {@link Subject} objects.
+     */
+    public int size() {
+        return mSubjects.size();
+    }
+
+    /**
+     * Inserts a {@link Subject} at the passed position.
+     *
+     * @param index   Int position to insert at.
+     * @param subject {@link Subject} to insert.
+     */
+    public void add(int index, Subject subject) {
+        mSubjects.add(index, subject);
+        mKeys.add(index, createKey(subject.getText()));
+    }
+
+    /**
+     * Moves the {@link Subject} at the passed position to another position.
+     *
+     * @param fromIndex Int position of the {@link Subject} to move.
+     * @param toIndex   Int position to move it to.
+     */
+    public void move(int fromIndex, int toIndex) {
+        mSubjects.add(toIndex, mSubjects.remove(fromIndex));
+        mKeys.add(toIndex, mKeys.remove(fromIndex));
+    }
+
+    /**
+     * Removes all {@link Subject} objects matching the passed ids.
+     *
+     * @param subjectIds {@link Set} of ids to match.
+     * @return A {@link SparseArray} of the removed {@link Subject} objects keyed by their former
+     * positions.
+     */
+    public SparseArray<Subject> removeAll(Set<Long> subjectIds) {
+        SparseArray<Subject> removedSubjects = new SparseArray<>();
+        for (int i = mSubjects.size() - 1; i >= 0; i--) {
+            if (subjectIds.contains(mSubjects.get(i).getId())) {
+                removedSubjects.put(i, mSubjects.remove(i));
+                mKeys.remove(i);
+            }
+        }
+        return removedSubjects;
+    }
+
+    /**
+     * Sorts the indexed {@link Subject} objects in the passed order.
+     *
+     * @param order {@link String} order value from {@link SubjectSorter}.
+     */
+    public void sort(String order) {
+        SubjectSorter.sort(mSubjects, order);
+        mKeys.clear();
+        for (Subject subject : mSubjects) {
+            mKeys.add(createKey(subject.getText()));
+        }
+    }
+
+    /**
+     * Returns the indexed {@link Subject} objects whose text contains the passed query, ignoring
+     * case. Texts starting with the query come first. Both groups keep display order.
+     *
+     * @param query {@link String} to search for. Every {@link Subject} matches an empty query.
+     * @return A new {@link List} of matching {@link Subject} objects.
+     */
+    public List<Subject> search(String query) {
+        String key = createKey(query.trim());
+        if (key.isEmpty()) {
+            return new ArrayList<>(mSubjects);
+        }
+
+        List<Subject> matches = new ArrayList<>();
+        List<Subject> substringMatches = new ArrayList<>();
+        for (int i = 0; i < mKeys.size(); i++) {
+            int position = mKeys.get(i).indexOf(key);
+            if (position == 0) {
+                matches.add(mSubjects.get(i));
+            } else if (position > 0) {
+                substringMatches.add(mSubjects.get(i));
+            }
+        }
+        matches.addAll(substringMatches);
+        return matches;
+    }
+
+    /**
+     * Returns the key the passed text is indexed and searched by.
+     *
+     * @param text {@link String} text.
+     * @return The {@link String} key.
+     */
+    private static String createKey(String text) {
+        return text.toLowerCase(Locale.getDefault());
+    }
+}
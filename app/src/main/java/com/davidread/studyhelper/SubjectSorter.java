@@ -0,0 +1,163 @@
+package com.davidread.studyhelper;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * {@link SubjectSorter} sorts already loaded {@link Subject} objects in memory in the same orders
+ * the {@link SubjectDao} queries return them in, so changing the sort order does not need a
+ * query. Sort keys are computed once per {@link Subject} before sorting rather than on every
+ * comparison.
+ */
+public class SubjectSorter {
+
+    /**
+     * {@link String} order value for sorting by text.
+     */
+    public static final String ORDER_ALPHA = "alpha";
+
+    /**
+     * {@link String} order value for sorting newest first.
+     */
+    public static final String ORDER_NEW_FIRST = "new_first";
+
+    /**
+     * {@link String} order value for sorting oldest first.
+     */
+    public static final String ORDER_OLD_FIRST = "old_first";
+
+    /**
+     * {@link String} order value for sorting by question count, largest first.
+     */
+    public static final String ORDER_MOST_QUESTIONS = "most_questions";
+
+    /**
+     * {@link String} order value for sorting most recently studied first.
+     */
+    public static final String ORDER_RECENTLY_STUDIED = "recently_studied";
+
+    /**
+     * {@link String} order value for sorting in the user-defined order.
+     */
+    public static final String ORDER_CUSTOM = "custom";
+
+    /**
+     * {@link SortKey} holds the precomputed sort keys of a single {@link Subject}.
+     */
+    private static class SortKey implements Comparable<SortKey> {
+
+        /**
+         * {@link Subject} the keys were computed for.
+         */
+        private final Subject mSubject;
+
+        /**
+         * Long primary key, negated for descending orders.
+         */
+        private final long mPrimary;
+
+        /**
+         * {@link String} text key compared after the primary key. Null if the order does not
+         * compare text.
+         */
+        private final String mText;
+
+        /**
+         * Constructs a new {@link SortKey}.
+         *
+         * @param subject {@link Subject} the keys are computed for.
+         * @param primary Long primary key.
+         * @param text    {@link String} text key. May be null.
+         */
+        private SortKey(Subject subject, long primary, String text) {
+            mSubject = subject;
+            mPrimary = primary;
+            mText = text;
+        }
+
+        /**
+         * Compares the primary keys, then the text keys, then the ids.
+         *
+         * @param other {@link SortKey} to compare with.
+         * @return A negative number, zero, or a positive number if this key sorts before, with,
+         * or after the other key.
+         */
+        @Override
+        public int compareTo(SortKey other) {
+            int result = Long.compare(mPrimary, other.mPrimary);
+            if (result == 0 && mText != null) {
+                result = mText.compareTo(other.mText);
+            }
+            if (result == 0) {
+                result = Long.compare(mSubject.getId(), other.mSubject.getId());
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Sorts the passed {@link List} in place in the passed order. Unknown orders sort oldest
+     * first, like {@link SubjectActivity} does when loading.
+     *
+     * @param subjects {@link List} of {@link Subject} objects to sort.
+     * @param order    {@link String} order value.
+     */
+    public static void sort(List<Subject> subjects, String order) {
+        SortKey[] keys = new SortKey[subjects.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = createSortKey(subjects.get(i), order);
+        }
+        Arrays.sort(keys);
+        for (int i = 0; i < keys.length; i++) {
+            subjects.set(i, keys[i].mSubject);
+        }
+    }
+
+    /**
+     * Returns the {@link SortKey} of the passed {@link Subject} in the passed order.
+     *
+     * @param subject {@link Subject} to compute the keys for.
+     * @param order   {@link String} order value.
+     * @return A new {@link SortKey}.
+     */
+    private static SortKey createSortKey(Subject subject, String order) {
+        switch (order) {
+            case ORDER_ALPHA:
+                return new SortKey(subject, 0, foldCase(subject.getText()));
+            case ORDER_NEW_FIRST:
+                return new SortKey(subject, -subject.getUpdateTime(), null);
+            case ORDER_MOST_QUESTIONS:
+                return new SortKey(subject, -subject.getQuestionCount(),
+                        foldCase(subject.getText()));
+            case ORDER_RECENTLY_STUDIED:
+                return new SortKey(subject, -subject.getLastStudiedTime(),
+                        foldCase(subject.getText()));
+            case ORDER_CUSTOM:
+                // Ranks are never negative, so their bits order like the ranks themselves.
+                return new SortKey(subject, Double.doubleToLongBits(subject.getRank()), null);
+            default:
+                return new SortKey(subject, subject.getUpdateTime(), null);
+        }
+    }
+
+    /**
+     * Returns the passed text with ASCII letters in lower case. This matches SQLite's NOCASE
+     * collation used by the queries, which folds only ASCII letters.
+     *
+     * @param text {@link String} to fold.
+     * @return The folded {@link String}.
+     */
+    static String foldCase(String text) {
+        char[] chars = null;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                if (chars == null) {
+                    chars = text.toCharArray();
+                }
+                chars[i] = (char) (c + ('a' - 'A'));
+            }
+        }
+        return chars == null ? text : new String(chars);
+    }
+}
@@ -0,0 +1,194 @@
+package com.davidread.studyhelper;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * {@link AnswerGraderTest} verifies that {@link AnswerGrader} forgives case, punctuation, typos,
+ * and word order but not wrong answers or signs, and that it grades long answers quickly without
+ * allocating.
+ */
+public class AnswerGraderTest {
+
+    /**
+     * Long seed of the random strings and typos.
+     */
+    private static final long SEED = 17;
+
+    /**
+     * Int number of paragraphs in the benchmark answer.
+     */
+    private static final int BENCHMARK_PARAGRAPHS = 10;
+
+    /**
+     * Int number of typed answers graded by the benchmark.
+     */
+    private static final int BENCHMARK_GRADES = 50;
+
+    /**
+     * Long nanoseconds all benchmark grades may take together.
+     */
+    private static final long BENCHMARK_BUDGET_NANOS = 500_000_000L;
+
+    /**
+     * Long bytes all benchmark grades may allocate together. Covers the allocation measurement
+     * itself, and is far less than a single grade would allocate if it copied the answer.
+     */
+    private static final long BENCHMARK_BUDGET_BYTES = 4096;
+
+    /**
+     * Verifies that answers differing only in case, punctuation, and spacing are correct.
+     */
+    @Test
+    public void grade_ignoresCaseAndPunctuation() {
+        AnswerGrader grader = new AnswerGrader();
+        assertEquals(AnswerGrader.GRADE_CORRECT, grader.grade("Mitochondria", "mitochondria"));
+        assertEquals(AnswerGrader.GRADE_CORRECT, grader.grade("Paris, France.", "  paris france"));
+        assertEquals(1f, grader.score("The cell's powerhouse", "the cell s  powerhouse!"), 0);
+    }
+
+    /**
+     * Verifies that a few typos or reordered words still count, and wrong answers do not.
+     */
+    @Test
+    public void grade_toleratesTyposAndWordOrder() {
+        AnswerGrader grader = new AnswerGrader();
+        assertEquals(AnswerGrader.GRADE_CORRECT, grader.grade("Photosynthesis", "photosinthesis"));
+        assertEquals(AnswerGrader.GRADE_CORRECT, grader.grade("The powerhouse of the cell",
+                "cell the powerhouse of"));
+        assertEquals(AnswerGrader.GRADE_ALMOST, grader.grade("red green blue yellow purple",
+                "red green blue black white"));
+        assertEquals(AnswerGrader.GRADE_INCORRECT, grader.grade("Mitochondria", "ribosome"));
+        assertEquals(AnswerGrader.GRADE_INCORRECT, grader.grade("42", "43"));
+        assertEquals(AnswerGrader.GRADE_INCORRECT, grader.grade("Mitochondria", ""));
+    }
+
+    /**
+     * Verifies that signs, symbols, and numbers count, so answers differing only in them are
+     * incorrect, while hyphens joining words are forgiven like spaces.
+     */
+    @Test
+    public void grade_keepsSignsAndSymbols() {
+        AnswerGrader grader = new AnswerGrader();
+        assertEquals(AnswerGrader.GRADE_INCORRECT, grader.grade("-5", "5"));
+        assertEquals(AnswerGrader.GRADE_INCORRECT, grader.grade("5", "-5"));
+        assertEquals(AnswerGrader.GRADE_INCORRECT, grader.grade("C++", "C"));
+        assertEquals(AnswerGrader.GRADE_INCORRECT, grader.grade("...", "!!"));
+        assertEquals(AnswerGrader.GRADE_INCORRECT, grader.grade("x = -5", "x = 5"));
+        assertEquals(AnswerGrader.GRADE_INCORRECT, grader.grade("The year 1066", "the year 1067"));
+        assertEquals(AnswerGrader.GRADE_CORRECT, grader.grade("-5", " -5 "));
+        assertEquals(AnswerGrader.GRADE_CORRECT, grader.grade("C++", "c++"));
+        assertEquals(AnswerGrader.GRADE_CORRECT, grader.grade("...", ". . ."));
+        assertEquals(AnswerGrader.GRADE_CORRECT, grader.grade("well-known", "well known"));
+        assertEquals(AnswerGrader.GRADE_CORRECT, grader.grade("x = -5", " X = -5 "));
+    }
+
+    /**
+     * Verifies that the edit score matches a full edit distance table on random short strings.
+     */
+    @Test
+    public void score_matchesFullEditDistance() {
+        AnswerGrader grader = new AnswerGrader();
+        Random random = new Random(SEED);
+        for (int i = 0; i < 2000; i++) {
+            String expected = randomLetters(random, 1 + random.nextInt(30));
+            String typed = randomLetters(random, 1 + random.nextInt(30));
+            int maxDistance = Math.round(expected.length() * 0.4f);
+            int distance = editDistance(expected, typed);
+            float editScore = distance > maxDistance ? 0
+                    : 1 - (float) distance / expected.length();
+
+            // Single words, so the token score is either 0 or 1.
+            float expectedScore = expected.equals(typed) ? 1 : editScore;
+            assertEquals(expected + " / " + typed, expectedScore,
+                    grader.score(expected, typed), 1e-6f);
+        }
+    }
+
+    /**
+     * Verifies that grading a multi-paragraph answer with a typo in every fourth word stays
+     * within its time budget and allocates nothing once the grader has warmed up. So many words
+     * differ that the token score alone grades the answer almost correct, so the correct grade
+     * shows that the edit distance was computed.
+     */
+    @Test
+    public void grade_longAnswer_withinBudget() {
+        Random random = new Random(SEED);
+        StringBuilder expectedBuilder = new StringBuilder();
+        StringBuilder typed = new StringBuilder();
+        for (int i = 0; i < BENCHMARK_PARAGRAPHS; i++) {
+            for (int j = 0; j < 40; j++) {
+                String word = randomLetters(random, 2 + random.nextInt(8));
+                expectedBuilder.append(word).append(' ');
+                if (j % 4 == 0) {
+                    int typo = random.nextInt(word.length());
+                    word = word.substring(0, typo) + 'z' + word.substring(typo + 1);
+                }
+                typed.append(word).append(' ');
+            }
+            expectedBuilder.append(".\n\n");
+            typed.append(".\n\n");
+        }
+        String expected = expectedBuilder.toString();
+
+        AnswerGrader grader = new AnswerGrader();
+        assertEquals(AnswerGrader.GRADE_CORRECT, grader.grade(expected, typed));
+
+        long allocatedBefore = PerformanceBudget.allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < BENCHMARK_GRADES; i++) {
+            grader.grade(expected, typed);
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = PerformanceBudget.allocatedBytes() - allocatedBefore;
+
+        PerformanceBudget.assertTimeWithinBudget("Grading " + BENCHMARK_GRADES
+                + " long answers", elapsed, BENCHMARK_BUDGET_NANOS);
+        PerformanceBudget.assertAllocationWithinBudget("Grading " + BENCHMARK_GRADES
+                + " long answers", allocated, BENCHMARK_BUDGET_BYTES);
+    }
+
+    /**
+     * Returns a {@link String} of the passed number of random letters from a small alphabet, so
+     * strings often share letters.
+     *
+     * @param random {@link Random} to pick letters with.
+     * @param length Int number of letters.
+     * @return The {@link String} of letters.
+     */
+    private static String randomLetters(Random random, int length) {
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            builder.append((char) ('a' + random.nextInt(4)));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Returns the Levenshtein distance between the passed strings from a full table.
+     *
+     * @param a {@link String} first string.
+     * @param b {@link String} second string.
+     * @return The int distance.
+     */
+    private static int editDistance(String a, String b) {
+        int[][] table = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            table[i][0] = i;
+        }
+        for (int j = 0; j <= b.length(); j++) {
+            table[0][j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                table[i][j] = Math.min(Math.min(table[i - 1][j] + 1, table[i][j - 1] + 1),
+                        table[i - 1][j - 1] + cost);
+            }
+        }
+        return table[a.length()][b.length()];
+    }
+}
@@ -0,0 +1,123 @@
+package com.davidread.studyhelper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * {@link DeckExporterTest} verifies that {@link DeckExporter} writes every question of the
+ * selected subjects in the JSON fields {@link StudyFetcher} reads, and as valid CSV.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class DeckExporterTest {
+
+    /**
+     * Long seed of the generated deck.
+     */
+    private static final long SEED = 5;
+
+    /**
+     * {@link StudyDatabaseRule} providing a {@link StudyDatabase} with a few generated subjects to
+     * export from.
+     */
+    @Rule
+    public final StudyDatabaseRule mDatabase = new StudyDatabaseRule().withDeck(SEED, 4, 25);
+
+    /**
+     * Verifies that a JSON export holds the selected subjects with all their questions in order.
+     */
+    @Test
+    public void exportJson_matchesDatabase() throws Exception {
+        StudyDatabase studyDb = mDatabase.getStudyDb();
+        List<Long> selectedIds = mDatabase.getSubjectIds().subList(0, 2);
+        List<int[]> progress = new ArrayList<>();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int exportedCount = new DeckExporter(studyDb).export(selectedIds,
+                DeckExporter.FORMAT_JSON, out, (exported, total) ->
+                        progress.add(new int[]{exported, total}));
+        assertEquals(50, exportedCount);
+        assertEquals(50, progress.get(progress.size() - 1)[0]);
+        assertEquals(50, progress.get(progress.size() - 1)[1]);
+
+        JSONArray subjects = new JSONObject(out.toString(StandardCharsets.UTF_8.name()))
+                .getJSONArray("subjects");
+        assertEquals(2, subjects.length());
+        for (int i = 0; i < subjects.length(); i++) {
+            JSONObject subjectObj = subjects.getJSONObject(i);
+            Subject subject = studyDb.subjectDao().getSubjectByText(
+                    subjectObj.getString("subject"));
+            assertEquals(subject.getUpdateTime(), subjectObj.getLong("updatetime"));
+
+            List<Question> questions = studyDb.questionDao().getQuestions(subject.getId());
+            JSONArray questionArray = subjectObj.getJSONArray("questions");
+            assertEquals(questions.size(), questionArray.length());
+            for (int j = 0; j < questionArray.length(); j++) {
+                assertEquals(questions.get(j).getText(),
+                        questionArray.getJSONObject(j).getString("question"));
+                assertEquals(questions.get(j).getAnswer(),
+                        questionArray.getJSONObject(j).getString("answer"));
+            }
+        }
+    }
+
+    /**
+     * Verifies that a missing answer is exported as an empty string rather than a JSON null,
+     * which the importer would read as "null", and that images are left out.
+     */
+    @Test
+    public void exportJson_missingAnswer_writesEmptyString() throws Exception {
+        StudyDatabase studyDb = mDatabase.getStudyDb();
+        long subjectId = studyDb.subjectDao().insertSubject(new Subject("Images"));
+        Question question = new Question("What is shown?", null, subjectId);
+        question.setQuestionImage("picture.jpg");
+        studyDb.questionDao().insertQuestion(question);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new DeckExporter(studyDb).export(Collections.singletonList(subjectId),
+                DeckExporter.FORMAT_JSON, out, (exported, total) -> {
+                });
+        JSONObject questionObj = new JSONObject(out.toString(StandardCharsets.UTF_8.name()))
+                .getJSONArray("subjects").getJSONObject(0).getJSONArray("questions")
+                .getJSONObject(0);
+        assertFalse(questionObj.isNull("answer"));
+        assertEquals("", questionObj.getString("answer"));
+        assertEquals(2, questionObj.length());
+    }
+
+    /**
+     * Verifies that a CSV export has a header and one row per question, with special characters
+     * quoted.
+     */
+    @Test
+    public void exportCsv_quotesFields() throws Exception {
+        StudyDatabase studyDb = mDatabase.getStudyDb();
+        long subjectId = mDatabase.getSubjectIds().get(0);
+        studyDb.questionDao().insertQuestion(new Question("Say \"hi\", then\nleave", "ok",
+                subjectId));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new DeckExporter(studyDb).export(Collections.singletonList(subjectId),
+                DeckExporter.FORMAT_CSV, out, (exported, total) -> {
+                });
+        String csv = out.toString(StandardCharsets.UTF_8.name());
+
+        assertEquals("subject,question,answer", csv.substring(0, csv.indexOf("\r\n")));
+        assertEquals(27, csv.split("\r\n").length);
+        assertEquals("\"Say \"\"hi\"\", then\nleave\"", DeckExporter.toCsvField(
+                "Say \"hi\", then\nleave"));
+        assertTrue(csv.contains(",\"Say \"\"hi\"\", then\nleave\",ok\r\n"));
+    }
+}
@@ -0,0 +1,141 @@
+package com.davidread.studyhelper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * {@link DeckGenerator} generates synthetic {@link Subject} and {@link Question} objects for load
+ * tests. Output depends only on the seed, so a failing run can be reproduced exactly. Text lengths
+ * follow log-normal distributions, which match real flash cards: most questions are a short
+ * sentence and most answers a few words, with a long tail of paragraph-sized cards.
+ */
+public class DeckGenerator {
+
+    /**
+     * Words the generated text is made of.
+     */
+    private static final String[] WORDS = {
+            "the", "of", "and", "a", "to", "in", "is", "what", "which", "how", "why", "when",
+            "cell", "energy", "protein", "theorem", "equation", "function", "variable", "market",
+            "price", "demand", "empire", "treaty", "revolution", "verb", "noun", "clause",
+            "molecule", "reaction", "velocity", "force", "mass", "array", "pointer", "thread",
+            "process", "memory", "kernel", "river", "mountain", "climate", "capital", "define",
+            "explain", "compare", "describe", "calculate", "name", "list", "primary", "secondary"
+    };
+
+    /**
+     * Double median length in characters of question text.
+     */
+    private static final double QUESTION_MEDIAN_LENGTH = 60;
+
+    /**
+     * Double log-normal shape parameter of question text length.
+     */
+    private static final double QUESTION_LENGTH_SIGMA = 0.6;
+
+    /**
+     * Double median length in characters of answer text.
+     */
+    private static final double ANSWER_MEDIAN_LENGTH = 25;
+
+    /**
+     * Double log-normal shape parameter of answer text length.
+     */
+    private static final double ANSWER_LENGTH_SIGMA = 1.0;
+
+    /**
+     * Int maximum length in characters of any generated text.
+     */
+    private static final int MAX_TEXT_LENGTH = 2000;
+
+    /**
+     * {@link Random} all output is derived from.
+     */
+    private final Random mRandom;
+
+    /**
+     * {@link StringBuilder} reused to build text.
+     */
+    private final StringBuilder mBuilder = new StringBuilder(MAX_TEXT_LENGTH + 16);
+
+    /**
+     * Constructs a new {@link DeckGenerator}.
+     *
+     * @param seed Long seed determining all generated output.
+     */
+    public DeckGenerator(long seed) {
+        mRandom = new Random(seed);
+    }
+
+    /**
+     * Returns a new {@link Subject} with unique text.
+     *
+     * @param index Int index of the subject, used to keep its text unique.
+     * @return A new {@link Subject}.
+     */
+    public Subject nextSubject(int index) {
+        Subject subject = new Subject(index + " " + nextText(12, 0.4));
+        subject.setUpdateTime(1_600_000_000_000L + index * 60_000L);
+        return subject;
+    }
+
+    /**
+     * Returns a new {@link Question} belonging to the passed subject id.
+     *
+     * @param subjectId Long id of an existing {@link Subject}.
+     * @return A new {@link Question}.
+     */
+    public Question nextQuestion(long subjectId) {
+        return new Question(nextText(QUESTION_MEDIAN_LENGTH, QUESTION_LENGTH_SIGMA),
+                nextText(ANSWER_MEDIAN_LENGTH, ANSWER_LENGTH_SIGMA), subjectId);
+    }
+
+    /**
+     * Inserts the passed number of subjects, each with the passed number of questions, into the
+     * passed database. Each subject is inserted in its own transaction to keep transactions
+     * bounded in size.
+     *
+     * @param studyDb             {@link StudyDatabase} to insert into.
+     * @param subjectCount        Int number of subjects to insert.
+     * @param questionsPerSubject Int number of questions to insert per subject.
+     * @return A {@link List} of the long ids of the inserted subjects.
+     */
+    public List<Long> populate(StudyDatabase studyDb, int subjectCount, int questionsPerSubject) {
+        List<Long> subjectIds = new ArrayList<>(subjectCount);
+        for (int i = 0; i < subjectCount; i++) {
+            Subject subject = nextSubject(i);
+            studyDb.runInTransaction(() -> {
+                long subjectId = studyDb.subjectDao().insertSubject(subject);
+                for (int j = 0; j < questionsPerSubject; j++) {
+                    studyDb.questionDao().insertQuestion(nextQuestion(subjectId));
+                }
+                subjectIds.add(subjectId);
+            });
+        }
+        return subjectIds;
+    }
+
+    /**
+     * Returns text whose length is drawn from a log-normal distribution.
+     *
+     * @param medianLength Double median length in characters.
+     * @param sigma        Double shape parameter. Larger values give a longer tail.
+     * @return A {@link String} of at least one word and at most {@link #MAX_TEXT_LENGTH}
+     * characters.
+     */
+    private String nextText(double medianLength, double sigma) {
+        double length = medianLength * Math.exp(sigma * mRandom.nextGaussian());
+        int targetLength = (int) Math.max(1, Math.min(MAX_TEXT_LENGTH, Math.round(length)));
+
+        mBuilder.setLength(0);
+        while (mBuilder.length() < targetLength) {
+            if (mBuilder.length() > 0) {
+                mBuilder.append(' ');
+            }
+            mBuilder.append(WORDS[mRandom.nextInt(WORDS.length)]);
+        }
+        mBuilder.setLength(Math.min(mBuilder.length(), MAX_TEXT_LENGTH));
+        return mBuilder.toString();
+    }
+}
@@ -0,0 +1,114 @@
+package com.davidread.studyhelper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * {@link DistractorSamplerTest} verifies that {@link DistractorSampler} picks distinct choices
+ * from the subject of the question, reproducibly for a seed, without reading every answer of the
+ * subject.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class DistractorSamplerTest {
+
+    /**
+     * Long seed of the generated deck.
+     */
+    private static final long SEED = 23;
+
+    /**
+     * Int number of generated questions per subject.
+     */
+    private static final int QUESTIONS_PER_SUBJECT = 200;
+
+    /**
+     * {@link List} of {@link String} SQL statements of the answer queries run so far.
+     */
+    private final List<String> mAnswerQueries = new ArrayList<>();
+
+    /**
+     * {@link StudyDatabaseRule} providing a {@link StudyDatabase} with a few generated subjects to
+     * sample choices from, which records the queries reading answers.
+     */
+    @Rule
+    public final StudyDatabaseRule mDatabase = new StudyDatabaseRule()
+            .withDeck(SEED, 2, QUESTIONS_PER_SUBJECT)
+            .withQueryCallback((sql, args) -> {
+                if (sql.startsWith("SELECT answer")) {
+                    mAnswerQueries.add(sql);
+                }
+            });
+
+    /**
+     * Verifies that the choices hold the answer and distinct answers of the same subject, and
+     * that the same seed picks the same choices.
+     */
+    @Test
+    public void sampleChoices_distinctChoicesOfSubject() {
+        StudyDatabase studyDb = mDatabase.getStudyDb();
+        long subjectId = mDatabase.getSubjectIds().get(0);
+        Set<String> subjectAnswers = new HashSet<>();
+        for (Question question : studyDb.questionDao().getQuestions(subjectId)) {
+            subjectAnswers.add(question.getAnswer());
+        }
+        Question question = studyDb.questionDao().getQuestions(subjectId).get(5);
+        DistractorSampler sampler = new DistractorSampler(studyDb.questionDao());
+
+        List<String> choices = sampler.sampleChoices(question, new Random(1));
+        assertEquals(DistractorSampler.CHOICE_COUNT, choices.size());
+        assertEquals(choices.size(), new HashSet<>(choices).size());
+        assertTrue(choices.contains(question.getAnswer()));
+        assertTrue(subjectAnswers.containsAll(choices));
+        assertEquals(choices, sampler.sampleChoices(question, new Random(1)));
+    }
+
+    /**
+     * Verifies that a subject with too few other answers gets fewer choices, still including the
+     * answer, and that blank answers are not offered.
+     */
+    @Test
+    public void sampleChoices_smallSubject_returnsWhatExists() {
+        StudyDatabase studyDb = mDatabase.getStudyDb();
+        long subjectId = studyDb.subjectDao().insertSubject(new Subject("Small"));
+        Question question = new Question("First?", "One", subjectId);
+        question.setId(studyDb.questionDao().insertQuestion(question));
+        studyDb.questionDao().insertQuestion(new Question("Second?", "Two", subjectId));
+        studyDb.questionDao().insertQuestion(new Question("Again?", " one ", subjectId));
+        studyDb.questionDao().insertQuestion(new Question("Blank?", " ", subjectId));
+
+        List<String> choices = new DistractorSampler(studyDb.questionDao())
+                .sampleChoices(question, new Random(2));
+        assertEquals(2, choices.size());
+        assertTrue(choices.contains("One"));
+        assertTrue(choices.contains("Two"));
+    }
+
+    /**
+     * Verifies that every answer query reads a single row, so sampling does not load the subject.
+     */
+    @Test
+    public void sampleChoices_readsSingleRows() {
+        StudyDatabase studyDb = mDatabase.getStudyDb();
+        long subjectId = mDatabase.getSubjectIds().get(1);
+        Question question = studyDb.questionDao().getQuestions(subjectId).get(0);
+        mAnswerQueries.clear();
+
+        new DistractorSampler(studyDb.questionDao()).sampleChoices(question, new Random(3));
+        assertFalse(mAnswerQueries.isEmpty());
+        for (String sql : mAnswerQueries) {
+            assertTrue(sql, sql.endsWith("LIMIT 1"));
+        }
+    }
+}
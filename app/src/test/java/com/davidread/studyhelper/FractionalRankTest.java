@@ -0,0 +1,211 @@
+package com.davidread.studyhelper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * {@link FractionalRankTest} verifies that moving questions and subjects writes only the moved
+ * row, keeps every other row in place, and rebalances once a gap is used up.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class FractionalRankTest {
+
+    /**
+     * Long seed of the generated deck.
+     */
+    private static final long SEED = 17;
+
+    /**
+     * Int number of generated questions per subject.
+     */
+    private static final int QUESTION_COUNT = 20;
+
+    /**
+     * Int number of moves into the same gap, enough to use it up.
+     */
+    private static final int REPEATED_MOVES = 100;
+
+    /**
+     * Int number of moves into the same gap that leave it narrower than
+     * {@link FractionalRank#CROWDED_GAP} but still splittable.
+     */
+    private static final int CROWDING_MOVES = 12;
+
+    /**
+     * {@link StudyDatabaseRule} providing a {@link StudyDatabase} with a few generated subjects,
+     * which holds the ranked rows.
+     */
+    @Rule
+    public final StudyDatabaseRule mDatabase = new StudyDatabaseRule()
+            .withDeck(SEED, 3, QUESTION_COUNT);
+
+    /**
+     * Verifies that inserted questions and subjects are ranked after the existing ones.
+     */
+    @Test
+    public void insert_ranksLast() {
+        StudyDatabase studyDb = mDatabase.getStudyDb();
+        long subjectId = mDatabase.getSubjectIds().get(0);
+        long questionId = studyDb.questionDao().insertQuestion(
+                new Question("Last?", "Yes", subjectId));
+        List<Long> questionIds = studyDb.questionDao().getQuestionIds(subjectId);
+        assertEquals(QUESTION_COUNT + 1, questionIds.size());
+        assertEquals(questionId, (long) questionIds.get(QUESTION_COUNT));
+
+        long newSubjectId = studyDb.subjectDao().insertSubject(new Subject("Last"));
+        List<Subject> subjects = studyDb.subjectDao().getSubjectsByRank();
+        assertEquals(newSubjectId, subjects.get(subjects.size() - 1).getId());
+    }
+
+    /**
+     * Verifies that a move changes only the rank of the moved question.
+     */
+    @Test
+    public void moveQuestion_writesOnlyMovedRow() {
+        QuestionDao questionDao = mDatabase.getStudyDb().questionDao();
+        long subjectId = mDatabase.getSubjectIds().get(1);
+        List<Long> ids = questionDao.getQuestionIds(subjectId);
+        double[] ranks = getRanks(ids);
+
+        long movedId = ids.get(15);
+        questionDao.moveQuestion(movedId, ids.get(2), ids.get(3));
+
+        List<Long> expected = new ArrayList<>(ids);
+        FractionalRank.move(expected, movedId, ids.get(2), ids.get(3));
+        assertEquals(expected, questionDao.getQuestionIds(subjectId));
+        for (int i = 0; i < ids.size(); i++) {
+            if (ids.get(i) != movedId) {
+                assertEquals(ranks[i], questionDao.getQuestionRank(ids.get(i)), 0);
+            }
+        }
+
+        // Moving to either end needs only one neighbour.
+        questionDao.moveQuestion(movedId, 0, expected.get(0));
+        assertEquals(movedId, (long) questionDao.getQuestionIds(subjectId).get(0));
+        questionDao.moveQuestion(movedId, expected.get(expected.size() - 1), 0);
+        assertEquals(movedId, (long) questionDao.getQuestionIds(subjectId).get(ids.size() - 1));
+    }
+
+    /**
+     * Verifies that moving questions into the same gap over and over keeps the expected order,
+     * rebalancing the subject once the gap can no longer be split.
+     */
+    @Test
+    public void moveQuestion_usedUpGap_rebalances() {
+        QuestionDao questionDao = mDatabase.getStudyDb().questionDao();
+        long subjectId = mDatabase.getSubjectIds().get(2);
+        for (int i = 0; i < REPEATED_MOVES; i++) {
+            List<Long> ids = questionDao.getQuestionIds(subjectId);
+            long movedId = ids.get(ids.size() - 1);
+            questionDao.moveQuestion(movedId, ids.get(0), ids.get(1));
+
+            FractionalRank.move(ids, movedId, ids.get(0), ids.get(1));
+            assertEquals(ids, questionDao.getQuestionIds(subjectId));
+        }
+        assertStrictlyIncreasing(getRanks(questionDao.getQuestionIds(subjectId)));
+    }
+
+    /**
+     * Verifies that crowded subjects are found and rebalanced to evenly spaced ranks without
+     * changing their order.
+     */
+    @Test
+    public void rebalanceQuestionRanks_spacesCrowdedRanks() {
+        QuestionDao questionDao = mDatabase.getStudyDb().questionDao();
+        long subjectId = mDatabase.getSubjectIds().get(0);
+        for (int i = 0; i < CROWDING_MOVES; i++) {
+            List<Long> ids = questionDao.getQuestionIds(subjectId);
+            questionDao.moveQuestion(ids.get(ids.size() - 1), ids.get(0), ids.get(1));
+        }
+        assertEquals(Collections.singletonList(subjectId),
+                questionDao.getSubjectIdsWithCrowdedRanks(FractionalRank.CROWDED_GAP));
+
+        List<Long> ids = questionDao.getQuestionIds(subjectId);
+        questionDao.rebalanceQuestionRanks(subjectId);
+        assertEquals(ids, questionDao.getQuestionIds(subjectId));
+        assertTrue(questionDao.getSubjectIdsWithCrowdedRanks(FractionalRank.CROWDED_GAP)
+                .isEmpty());
+        double[] ranks = getRanks(ids);
+        for (int i = 0; i < ranks.length; i++) {
+            assertEquals(FractionalRank.rankAt(i), ranks[i], 0);
+        }
+    }
+
+    /**
+     * Verifies that subjects move like questions and are sorted in memory by their new ranks.
+     */
+    @Test
+    public void moveSubject_changesCustomOrder() {
+        SubjectDao subjectDao = mDatabase.getStudyDb().subjectDao();
+        for (int i = 0; i < CROWDING_MOVES; i++) {
+            List<Long> ids = getSubjectIds();
+            long movedId = ids.get(ids.size() - 1);
+            subjectDao.moveSubject(movedId, ids.get(0), ids.get(1));
+
+            FractionalRank.move(ids, movedId, ids.get(0), ids.get(1));
+            assertEquals(ids, getSubjectIds());
+        }
+        assertTrue(subjectDao.hasCrowdedSubjectRanks(FractionalRank.CROWDED_GAP));
+
+        List<Long> ids = getSubjectIds();
+        subjectDao.rebalanceSubjectRanks();
+        assertEquals(ids, getSubjectIds());
+        assertFalse(subjectDao.hasCrowdedSubjectRanks(FractionalRank.CROWDED_GAP));
+
+        List<Subject> expected = subjectDao.getSubjectsByRank();
+        List<Subject> sorted = new ArrayList<>(expected);
+        Collections.reverse(sorted);
+        SubjectSorter.sort(sorted, SubjectSorter.ORDER_CUSTOM);
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getId(), sorted.get(i).getId());
+        }
+    }
+
+    /**
+     * Returns the ranks of the questions matching the passed ids.
+     *
+     * @param ids {@link List} of long question ids.
+     * @return A double array of ranks in the order of the ids.
+     */
+    private double[] getRanks(List<Long> ids) {
+        double[] ranks = new double[ids.size()];
+        for (int i = 0; i < ranks.length; i++) {
+            ranks[i] = mDatabase.getStudyDb().questionDao().getQuestionRank(ids.get(i));
+        }
+        return ranks;
+    }
+
+    /**
+     * Returns the ids of all subjects in their user-defined order.
+     *
+     * @return A {@link List} of long subject ids.
+     */
+    private List<Long> getSubjectIds() {
+        List<Long> ids = new ArrayList<>();
+        for (Subject subject : mDatabase.getStudyDb().subjectDao().getSubjectsByRank()) {
+            ids.add(subject.getId());
+        }
+        return ids;
+    }
+
+    /**
+     * Asserts that every rank is larger than the one before it.
+     *
+     * @param ranks Double array of ranks.
+     */
+    private static void assertStrictlyIncreasing(double[] ranks) {
+        for (int i = 1; i < ranks.length; i++) {
+            assertTrue("Rank " + i + " is not after the one before it", ranks[i] > ranks[i - 1]);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.davidread.studyhelper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.work.ListenableWorker;
+import androidx.work.testing.TestWorkerBuilder;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+/**
+ * {@link MaintenanceWorkerTest} verifies that {@link MaintenanceWorker} returns the pages freed
+ * by a large delete, reports a healthy database, and switches databases of any size to
+ * incremental vacuum.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class MaintenanceWorkerTest {
+
+    /**
+     * Long seed of the generated decks.
+     */
+    private static final long SEED = 13;
+
+    /**
+     * Long value of the auto_vacuum pragma for incremental vacuum.
+     */
+    private static final long AUTO_VACUUM_INCREMENTAL = 2;
+
+    /**
+     * Long database size in bytes the large database is grown past, well beyond what a full
+     * vacuum rewrites in an instant.
+     */
+    private static final long LARGE_DATABASE_BYTES = 4L * 1024 * 1024;
+
+    /**
+     * {@link StudyDatabaseRule} installing an empty {@link StudyDatabase} to maintain.
+     */
+    @Rule
+    public final StudyDatabaseRule mDatabase = new StudyDatabaseRule().installed();
+
+    /**
+     * Verifies that the free pages left by a cascade delete are vacuumed away without losing the
+     * remaining rows.
+     */
+    @Test
+    public void doWork_vacuumsFreePages() {
+        StudyDatabase studyDb = mDatabase.getStudyDb();
+        List<Long> subjectIds = new DeckGenerator(SEED).populate(studyDb, 20, 100);
+        for (long subjectId : subjectIds.subList(0, 15)) {
+            studyDb.subjectDao().deleteSubject(studyDb.subjectDao().getSubject(subjectId));
+        }
+
+        ListenableWorker.Result result = runWorker();
+
+        assertTrue(result instanceof ListenableWorker.Result.Success);
+        assertEquals(0, result.getOutputData().getLong(MaintenanceWorker.OUTPUT_FREELIST_PAGES,
+                -1));
+        assertTrue(result.getOutputData().getBoolean(MaintenanceWorker.OUTPUT_INTEGRITY_OK,
+                false));
+        assertEquals(5, studyDb.subjectDao().getSubjects().size());
+        assertEquals(100, studyDb.questionDao().getQuestions(subjectIds.get(19)).size());
+    }
+
+    /**
+     * Verifies that a new database is switched to incremental vacuum by the first run.
+     */
+    @Test
+    public void doWork_switchesNewDatabaseToIncrementalVacuum() {
+        StudyDatabase studyDb = mDatabase.getStudyDb();
+        SupportSQLiteDatabase database = studyDb.getOpenHelper().getWritableDatabase();
+        new DeckGenerator(SEED).populate(studyDb, 2, 10);
+
+        assertTrue(runWorker() instanceof ListenableWorker.Result.Success);
+        assertEquals(AUTO_VACUUM_INCREMENTAL, queryLong(database, "PRAGMA auto_vacuum"));
+    }
+
+    /**
+     * Verifies that a database larger than {@link #LARGE_DATABASE_BYTES} is still switched to
+     * incremental vacuum, keeping its rows and returning its free pages.
+     */
+    @Test
+    public void doWork_switchesLargeDatabaseToIncrementalVacuum() {
+        StudyDatabase studyDb = mDatabase.getStudyDb();
+        SupportSQLiteDatabase database = studyDb.getOpenHelper().getWritableDatabase();
+        DeckGenerator generator = new DeckGenerator(SEED);
+        List<Long> subjectIds = new ArrayList<>();
+        while (fileSize(database) <= LARGE_DATABASE_BYTES) {
+            subjectIds.addAll(generator.populate(studyDb, 10, 200));
+        }
+        studyDb.subjectDao().deleteSubject(studyDb.subjectDao().getSubject(subjectIds.get(0)));
+        long lastSubjectId = subjectIds.get(subjectIds.size() - 1);
+        assertTrue(queryLong(database, "PRAGMA auto_vacuum") != AUTO_VACUUM_INCREMENTAL);
+
+        ListenableWorker.Result result = runWorker();
+
+        assertTrue(result instanceof ListenableWorker.Result.Success);
+        assertEquals(AUTO_VACUUM_INCREMENTAL, queryLong(database, "PRAGMA auto_vacuum"));
+        assertEquals(0, result.getOutputData().getLong(MaintenanceWorker.OUTPUT_FREELIST_PAGES,
+                -1));
+        assertEquals(subjectIds.size() - 1, studyDb.subjectDao().getSubjects().size());
+        assertEquals(200, studyDb.questionDao().getQuestions(lastSubjectId).size());
+    }
+
+    /**
+     * Runs a {@link MaintenanceWorker} on the calling thread.
+     *
+     * @return The {@link ListenableWorker.Result} of the work.
+     */
+    private static ListenableWorker.Result runWorker() {
+        Context context = ApplicationProvider.getApplicationContext();
+        return TestWorkerBuilder.from(context, MaintenanceWorker.class,
+                Executors.newSingleThreadExecutor()).build().doWork();
+    }
+
+    /**
+     * Returns the size of the passed database in bytes.
+     *
+     * @param database {@link SupportSQLiteDatabase} to measure.
+     * @return The long size in bytes.
+     */
+    private static long fileSize(SupportSQLiteDatabase database) {
+        return queryLong(database, "PRAGMA page_size") * queryLong(database, "PRAGMA page_count");
+    }
+
+    /**
+     * Runs the passed query and returns the first column of its first row as a long.
+     *
+     * @param database {@link SupportSQLiteDatabase} to query.
+     * @param sql      {@link String} SQL query.
+     * @return The long value.
+     */
+    private static long queryLong(SupportSQLiteDatabase database, String sql) {
+        try (Cursor cursor = database.query(sql)) {
+            assertTrue(cursor.moveToFirst());
+            return cursor.getLong(0);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.davidread.studyhelper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import android.graphics.Typeface;
+import android.text.Spanned;
+import android.text.style.BackgroundColorSpan;
+import android.text.style.BulletSpan;
+import android.text.style.StyleSpan;
+import android.text.style.SuperscriptSpan;
+import android.text.style.TypefaceSpan;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * {@link MarkdownRendererTest} verifies that {@link MarkdownRenderer} turns markup into spans and
+ * leaves ordinary text alone.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class MarkdownRendererTest {
+
+    /**
+     * {@link MarkdownRenderer} under test.
+     */
+    private final MarkdownRenderer mRenderer = new MarkdownRenderer();
+
+    /**
+     * Verifies that text without markup is returned without copying, and that prices and
+     * identifiers are not mistaken for markup.
+     */
+    @Test
+    public void render_leavesPlainTextAlone() {
+        String plain = "What is the capital of France?";
+        assertSame(plain, mRenderer.render(plain));
+        assertEquals("It costs $5 and $10.", mRenderer.render("It costs $5 and $10.").toString());
+        assertEquals("Call snake_case_name() then 2 * 3 * 4",
+                mRenderer.render("Call snake_case_name() then 2 * 3 * 4").toString());
+    }
+
+    /**
+     * Verifies that bold, italic, and inline code are styled and their delimiters removed.
+     */
+    @Test
+    public void render_stylesInlineMarkup() {
+        Spanned rendered = (Spanned) mRenderer.render("**Big** and *small* `x = 1`");
+        assertEquals("Big and small x = 1", rendered.toString());
+        assertStyleSpan(rendered, Typeface.BOLD, "Big");
+        assertStyleSpan(rendered, Typeface.ITALIC, "small");
+        TypefaceSpan code = rendered.getSpans(0, rendered.length(), TypefaceSpan.class)[0];
+        assertEquals("monospace", code.getFamily());
+        assertEquals("x = 1", spanText(rendered, code));
+        assertEquals(1, rendered.getSpans(0, rendered.length(), BackgroundColorSpan.class).length);
+    }
+
+    /**
+     * Verifies that fenced code blocks keep markup characters and that headings and bullets get
+     * their spans.
+     */
+    @Test
+    public void render_stylesBlocks() {
+        Spanned rendered = (Spanned) mRenderer.render(
+                "# Title\n- first\n- second\n```\nint a = b * c * d;\n```\nend");
+        assertEquals("Title\nfirst\nsecond\nint a = b * c * d;\nend", rendered.toString());
+        assertStyleSpan(rendered, Typeface.BOLD, "Title");
+        assertEquals(2, rendered.getSpans(0, rendered.length(), BulletSpan.class).length);
+        TypefaceSpan code = rendered.getSpans(0, rendered.length(), TypefaceSpan.class)[0];
+        assertEquals("int a = b * c * d;", spanText(rendered, code));
+    }
+
+    /**
+     * Verifies that TeX commands become symbols and exponents are raised.
+     */
+    @Test
+    public void render_rendersMath() {
+        Spanned rendered = (Spanned) mRenderer.render(
+                "Area is $\\pi r^2$ and $\\frac{a}{b} \\le \\sqrt{x+1}$");
+        assertEquals("Area is \u03c0 r2 and a\u2044b \u2264 \u221a(x+1)", rendered.toString());
+        List<String> superscripts = new ArrayList<>();
+        for (SuperscriptSpan span : rendered.getSpans(0, rendered.length(),
+                SuperscriptSpan.class)) {
+            superscripts.add(spanText(rendered, span));
+        }
+        Collections.sort(superscripts);
+        assertEquals(Arrays.asList("2", "a"), superscripts);
+    }
+
+    /**
+     * Asserts that the passed text has a {@link StyleSpan} of the passed style over exactly the
+     * passed substring.
+     *
+     * @param rendered {@link Spanned} rendered text.
+     * @param style    Int {@link Typeface} style.
+     * @param expected {@link String} text the span should cover.
+     */
+    private static void assertStyleSpan(Spanned rendered, int style, String expected) {
+        for (StyleSpan span : rendered.getSpans(0, rendered.length(), StyleSpan.class)) {
+            if (span.getStyle() == style && expected.equals(spanText(rendered, span))) {
+                return;
+            }
+        }
+        throw new AssertionError("No style " + style + " span over \"" + expected + "\"");
+    }
+
+    /**
+     * Returns the text covered by the passed span.
+     *
+     * @param rendered {@link Spanned} rendered text.
+     * @param span     {@link Object} span within the text.
+     * @return The {@link String} covered by the span.
+     */
+    private static String spanText(Spanned rendered, Object span) {
+        return rendered.subSequence(rendered.getSpanStart(span), rendered.getSpanEnd(span))
+                .toString();
+    }
+}
@@ -0,0 +1,332 @@
+package com.davidread.studyhelper;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link MockStudyServer} is an in-process stand-in for zyBook's study helper API, so
+ * {@link StudyFetcher} and {@link ImportWorker} can be driven at scale without the live site. It
+ * answers "type=subjects" with a fixed number of subjects and "type=questions" with generated
+ * questions for any subject, in the same JSON fields as the live site. Latency, payload size,
+ * errors, and slow-drip responses can be injected. Output depends only on the seed.
+ */
+public class MockStudyServer {
+
+    /**
+     * {@link String} path the API is served at.
+     */
+    private static final String PATH = "/study-helper.php";
+
+    /**
+     * {@link HttpServer} handling requests.
+     */
+    private final HttpServer mServer;
+
+    /**
+     * {@link ExecutorService} handling each request on a thread of its own.
+     */
+    private final ExecutorService mExecutor = Executors.newCachedThreadPool();
+
+    /**
+     * Long seed for generated content and injected errors.
+     */
+    private final long mSeed;
+
+    /**
+     * {@link Random} deciding which requests fail.
+     */
+    private final Random mErrorRandom;
+
+    /**
+     * {@link AtomicInteger} number of requests received.
+     */
+    private final AtomicInteger mRequestCount = new AtomicInteger();
+
+    /**
+     * Int number of subjects served.
+     */
+    private volatile int mSubjectCount = 10;
+
+    /**
+     * Int number of questions served per subject.
+     */
+    private volatile int mQuestionsPerSubject = 20;
+
+    /**
+     * Int length in characters of each answer served.
+     */
+    private volatile int mAnswerLength = 20;
+
+    /**
+     * Long milliseconds each response is delayed before its headers are sent.
+     */
+    private volatile long mLatencyMillis;
+
+    /**
+     * Double share of requests from 0 to 1 that fail with a server error.
+     */
+    private volatile double mErrorRate;
+
+    /**
+     * Int bytes written per chunk of a slow-drip response. Zero writes the body at once.
+     */
+    private volatile int mDripChunkBytes;
+
+    /**
+     * Long milliseconds between chunks of a slow-drip response.
+     */
+    private volatile long mDripDelayMillis;
+
+    /**
+     * Constructs and starts a new {@link MockStudyServer} on a free port of the loopback
+     * interface.
+     *
+     * @param seed Long seed determining generated content and injected errors.
+     * @throws IOException If the server cannot be bound.
+     */
+    public MockStudyServer(long seed) throws IOException {
+        mSeed = seed;
+        mErrorRandom = new Random(seed);
+        mServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+                0);
+        mServer.createContext(PATH, this::handle);
+        mServer.setExecutor(mExecutor);
+        mServer.start();
+    }
+
+    /**
+     * Returns the base URL to pass to {@link StudyFetcher}.
+     *
+     * @return The {@link String} base URL.
+     */
+    public String getBaseUrl() {
+        return "http://" + mServer.getAddress().getHostString() + ":"
+                + mServer.getAddress().getPort() + PATH;
+    }
+
+    /**
+     * Stops this server and its request threads.
+     */
+    public void shutdown() {
+        mServer.stop(0);
+        mExecutor.shutdownNow();
+    }
+
+    public int getRequestCount() {
+        return mRequestCount.get();
+    }
+
+    /**
+     * Sets the number of subjects served by "type=subjects".
+     *
+     * @param subjectCount Int number of subjects.
+     */
+    public void setSubjectCount(int subjectCount) {
+        mSubjectCount = subjectCount;
+    }
+
+    /**
+     * Sets the number of questions served by "type=questions" for each subject.
+     *
+     * @param questionsPerSubject Int number of questions per subject.
+     */
+    public void setQuestionsPerSubject(int questionsPerSubject) {
+        mQuestionsPerSubject = questionsPerSubject;
+    }
+
+    /**
+     * Sets the length of each answer served, to make responses heavier or lighter.
+     *
+     * @param answerLength Int length in characters of each answer.
+     */
+    public void setAnswerLength(int answerLength) {
+        mAnswerLength = answerLength;
+    }
+
+    /**
+     * Delays each response by the passed time before its headers are sent, like a slow network.
+     *
+     * @param latencyMillis Long milliseconds of delay. Zero responds at once.
+     */
+    public void setLatencyMillis(long latencyMillis) {
+        mLatencyMillis = latencyMillis;
+    }
+
+    /**
+     * Makes the passed share of requests fail with a server error, chosen by the seeded
+     * {@link Random} so runs are repeatable.
+     *
+     * @param errorRate Double share of requests from 0 to 1 that fail.
+     */
+    public void setErrorRate(double errorRate) {
+        mErrorRate = errorRate;
+    }
+
+    /**
+     * Makes responses arrive in chunks of the passed size with the passed delay between them.
+     *
+     * @param chunkBytes  Int bytes per chunk. Zero turns slow drip off.
+     * @param delayMillis Long milliseconds between chunks.
+     */
+    public void setSlowDrip(int chunkBytes, long delayMillis) {
+        mDripChunkBytes = chunkBytes;
+        mDripDelayMillis = delayMillis;
+    }
+
+    /**
+     * Returns the text of the subject at the passed index, as served by "type=subjects".
+     *
+     * @param index Int index of the subject.
+     * @return The {@link String} subject text.
+     */
+    public static String getSubjectText(int index) {
+        return String.format("Subject %05d", index);
+    }
+
+    /**
+     * Handles one request on a thread of {@link #mExecutor}.
+     *
+     * @param exchange {@link HttpExchange} of the request.
+     * @throws IOException If the response cannot be written.
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        mRequestCount.incrementAndGet();
+        try {
+            if (mLatencyMillis > 0) {
+                Thread.sleep(mLatencyMillis);
+            }
+
+            boolean fail;
+            synchronized (mErrorRandom) {
+                fail = mErrorRandom.nextDouble() < mErrorRate;
+            }
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            String type = query.get("type");
+            if (fail || type == null) {
+                exchange.sendResponseHeaders(fail ? 500 : 400, -1);
+                return;
+            }
+
+            JSONObject json = "subjects".equals(type) ? subjectsJson()
+                    : questionsJson(query.get("subject"));
+            byte[] body = json.toString().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            writeBody(exchange, body);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (JSONException e) {
+            exchange.sendResponseHeaders(500, -1);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Writes the passed body, in slow-drip chunks if configured.
+     *
+     * @param exchange {@link HttpExchange} of the request.
+     * @param body     {@link byte} array of the body.
+     * @throws IOException          If writing fails.
+     * @throws InterruptedException If interrupted between chunks.
+     */
+    private void writeBody(HttpExchange exchange, byte[] body)
+            throws IOException, InterruptedException {
+        int chunkBytes = mDripChunkBytes;
+        if (chunkBytes <= 0) {
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            return;
+        }
+
+        // Zero length means a chunked body, so each write is sent as it happens.
+        exchange.sendResponseHeaders(200, 0);
+        OutputStream out = exchange.getResponseBody();
+        for (int offset = 0; offset < body.length; offset += chunkBytes) {
+            out.write(body, offset, Math.min(chunkBytes, body.length - offset));
+            out.flush();
+            Thread.sleep(mDripDelayMillis);
+        }
+    }
+
+    /**
+     * Returns the response to "type=subjects".
+     *
+     * @return The {@link JSONObject} response.
+     * @throws JSONException If the JSON cannot be built.
+     */
+    private JSONObject subjectsJson() throws JSONException {
+        JSONArray subjects = new JSONArray();
+        for (int i = 0; i < mSubjectCount; i++) {
+            subjects.put(new JSONObject()
+                    .put("subject", getSubjectText(i))
+                    .put("updatetime", 1_600_000_000_000L + i));
+        }
+        return new JSONObject().put("subjects", subjects);
+    }
+
+    /**
+     * Returns the response to "type=questions" for the passed subject. The same subject always
+     * gets the same questions.
+     *
+     * @param subjectText {@link String} subject text. May be null.
+     * @return The {@link JSONObject} response.
+     * @throws JSONException If the JSON cannot be built.
+     */
+    private JSONObject questionsJson(String subjectText) throws JSONException {
+        String subject = subjectText != null ? subjectText : "";
+        Random random = new Random(mSeed * 31 + subject.hashCode());
+        JSONArray questions = new JSONArray();
+        StringBuilder answer = new StringBuilder(mAnswerLength);
+        for (int i = 0; i < mQuestionsPerSubject; i++) {
+            answer.setLength(0);
+            while (answer.length() < mAnswerLength) {
+                answer.append((char) ('a' + random.nextInt(26)));
+            }
+            questions.put(new JSONObject()
+                    .put("question", subject + " question " + i)
+                    .put("answer", answer.toString()));
+        }
+        return new JSONObject().put("questions", questions);
+    }
+
+    /**
+     * Parses the passed raw query string into a map of decoded parameters.
+     *
+     * @param rawQuery {@link String} raw query. May be null.
+     * @return A {@link Map} of parameter names to values.
+     * @throws UnsupportedEncodingException Never, since UTF-8 is always supported.
+     */
+    private static Map<String, String> parseQuery(String rawQuery)
+            throws UnsupportedEncodingException {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null) {
+            return query;
+        }
+        for (String parameter : rawQuery.split("&")) {
+            int equals = parameter.indexOf('=');
+            if (equals > 0) {
+                query.put(URLDecoder.decode(parameter.substring(0, equals), "UTF-8"),
+                        URLDecoder.decode(parameter.substring(equals + 1), "UTF-8"));
+            }
+        }
+        return query;
+    }
+}
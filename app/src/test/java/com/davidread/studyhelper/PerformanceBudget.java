@@ -0,0 +1,85 @@
+package com.davidread.studyhelper;
+
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link PerformanceBudget} provides assertions shared by the load and screen performance tests.
+ * A failed assertion reports the measured value next to its budget, so a regression is visible
+ * straight from the CI log.
+ */
+public final class PerformanceBudget {
+
+    /**
+     * Private constructor, since this class only holds static methods.
+     */
+    private PerformanceBudget() {
+    }
+
+    /**
+     * Asserts that an operation took no longer than its budget.
+     *
+     * @param operation    {@link String} name of the operation for the failure message.
+     * @param elapsedNanos Long nanoseconds the operation took.
+     * @param budgetNanos  Long nanoseconds the operation may take.
+     */
+    public static void assertTimeWithinBudget(String operation, long elapsedNanos,
+                                              long budgetNanos) {
+        assertTrue(operation + " took " + TimeUnit.NANOSECONDS.toMillis(elapsedNanos)
+                        + " ms, budget is " + TimeUnit.NANOSECONDS.toMillis(budgetNanos) + " ms",
+                elapsedNanos <= budgetNanos);
+    }
+
+    /**
+     * Asserts that an operation allocated no more bytes than its budget. Does nothing if the JVM
+     * does not measure allocations.
+     *
+     * @param operation   {@link String} name of the operation for the failure message.
+     * @param bytes       Long bytes allocated by the operation.
+     * @param budgetBytes Long bytes the operation may allocate.
+     */
+    public static void assertAllocationWithinBudget(String operation, long bytes,
+                                                    long budgetBytes) {
+        if (!isAllocationMeasured()) {
+            return;
+        }
+        assertTrue(operation + " allocated " + bytes + " bytes, budget is " + budgetBytes,
+                bytes <= budgetBytes);
+    }
+
+    /**
+     * Asserts that an interaction ran no more queries than its budget.
+     *
+     * @param interaction {@link String} name of the interaction for the failure message.
+     * @param queries     Int number of queries the interaction ran.
+     * @param budget      Int number of queries the interaction may run.
+     */
+    public static void assertQueriesWithinBudget(String interaction, int queries, int budget) {
+        assertTrue(interaction + " ran " + queries + " queries, budget is " + budget,
+                queries <= budget);
+    }
+
+    /**
+     * Returns the number of bytes allocated by the current thread so far.
+     *
+     * @return The long number of bytes, or zero if the JVM does not measure allocations.
+     */
+    public static long allocatedBytes() {
+        if (!isAllocationMeasured()) {
+            return 0;
+        }
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Returns whether the JVM measures allocations per thread.
+     *
+     * @return True if allocations are measured.
+     */
+    private static boolean isAllocationMeasured() {
+        return ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean;
+    }
+}
@@ -0,0 +1,165 @@
+package com.davidread.studyhelper;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * {@link QuestionSamplerTest} verifies that {@link QuestionSampler} shuffles and samples questions
+ * per subject and across subjects, and that a seed always loads the same session.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class QuestionSamplerTest {
+
+    /**
+     * Long seed of the generated deck and of the partial shuffle.
+     */
+    private static final long SEED = 8;
+
+    /**
+     * Int number of generated subjects.
+     */
+    private static final int SUBJECT_COUNT = 5;
+
+    /**
+     * Int number of generated questions per subject.
+     */
+    private static final int QUESTIONS_PER_SUBJECT = 40;
+
+    /**
+     * {@link StudyDatabaseRule} providing a {@link StudyDatabase} with a few generated subjects to
+     * load sessions from.
+     */
+    @Rule
+    public final StudyDatabaseRule mDatabase = new StudyDatabaseRule()
+            .withDeck(SEED, SUBJECT_COUNT, QUESTIONS_PER_SUBJECT);
+
+    /**
+     * Verifies that a shuffled subject holds the same questions as the ordered one, in an order
+     * that depends only on the seed.
+     */
+    @Test
+    public void loadQuestions_shuffle_isReproducible() {
+        long subjectId = mDatabase.getSubjectIds().get(0);
+        List<Long> ordered = ids(load(subjectId, false, QuestionSampler.SAMPLE_ALL, 1));
+        List<Long> shuffled = ids(load(subjectId, true, QuestionSampler.SAMPLE_ALL, 1));
+
+        assertEquals(ids(mDatabase.getStudyDb().questionDao().getQuestions(subjectId)), ordered);
+        assertEquals(shuffled, ids(load(subjectId, true, QuestionSampler.SAMPLE_ALL, 1)));
+        assertNotEquals(shuffled, ids(load(subjectId, true, QuestionSampler.SAMPLE_ALL, 2)));
+        assertNotEquals(ordered, shuffled);
+        List<Long> sorted = new ArrayList<>(shuffled);
+        Collections.sort(sorted);
+        assertEquals(ordered, sorted);
+    }
+
+    /**
+     * Verifies that a sample of a subject holds distinct questions of that subject, in their
+     * user-defined order unless shuffled.
+     */
+    @Test
+    public void loadQuestions_sampleOfSubject() {
+        StudyDatabase studyDb = mDatabase.getStudyDb();
+        long subjectId = mDatabase.getSubjectIds().get(1);
+
+        // Move the last question to the front, so rank order differs from id order.
+        List<Long> idOrder = ids(studyDb.questionDao().getQuestions(subjectId));
+        studyDb.questionDao().moveQuestion(idOrder.get(idOrder.size() - 1), 0, idOrder.get(0));
+        List<Long> rankOrder = ids(studyDb.questionDao().getQuestions(subjectId));
+        assertNotEquals(idOrder, rankOrder);
+
+        List<Long> sample = ids(load(subjectId, false, 10, 3));
+        assertEquals(10, sample.size());
+        assertEquals(10, new HashSet<>(sample).size());
+        assertTrue(rankOrder.containsAll(sample));
+        List<Long> expected = new ArrayList<>(rankOrder);
+        expected.retainAll(sample);
+        assertEquals(expected, sample);
+
+        assertEquals(QUESTIONS_PER_SUBJECT, load(subjectId, true, 1000, 3).size());
+    }
+
+    /**
+     * Verifies that a sample across subjects is reproducible, holds distinct questions, and
+     * skips deleted subjects, including when nearly every question is requested.
+     */
+    @Test
+    public void loadQuestions_sampleOfAllSubjects() {
+        StudyDatabase studyDb = mDatabase.getStudyDb();
+        studyDb.subjectDao().setSubjectsDeleted(
+                Collections.singletonList(mDatabase.getSubjectIds().get(2)), 1);
+        Set<Long> deletedQuestionIds = new HashSet<>(ids(
+                studyDb.questionDao().getQuestions(mDatabase.getSubjectIds().get(2))));
+
+        List<Long> sample = ids(load(QuestionSampler.ALL_SUBJECTS, true, 20, 4));
+        assertEquals(sample, ids(load(QuestionSampler.ALL_SUBJECTS, true, 20, 4)));
+        assertEquals(20, new HashSet<>(sample).size());
+        assertTrue(Collections.disjoint(deletedQuestionIds, sample));
+
+        int remaining = (SUBJECT_COUNT - 1) * QUESTIONS_PER_SUBJECT;
+        List<Long> everything = ids(load(QuestionSampler.ALL_SUBJECTS, true, remaining, 5));
+        assertEquals(remaining, new HashSet<>(everything).size());
+        assertTrue(Collections.disjoint(deletedQuestionIds, everything));
+    }
+
+    /**
+     * Verifies that a partial shuffle moves a permutation of the ids to the front.
+     */
+    @Test
+    public void shuffle_selectsDistinctIds() {
+        long[] ids = new long[100];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = i + 1;
+        }
+        long[] original = ids.clone();
+        QuestionSampler.shuffle(ids, 30, new Random(SEED));
+        assertFalse(Arrays.equals(original, ids));
+
+        long[] sorted = ids.clone();
+        Arrays.sort(sorted);
+        assertArrayEquals(original, sorted);
+    }
+
+    /**
+     * Loads a session through {@link QuestionSampler#loadQuestions}.
+     *
+     * @param subjectId  Long subject id or {@link QuestionSampler#ALL_SUBJECTS}.
+     * @param shuffle    Boolean for whether to shuffle.
+     * @param sampleSize Int sample size or {@link QuestionSampler#SAMPLE_ALL}.
+     * @param seed       Long seed of the session.
+     * @return The {@link List} of loaded {@link Question} objects.
+     */
+    private List<Question> load(long subjectId, boolean shuffle, int sampleSize, long seed) {
+        return QuestionSampler.loadQuestions(mDatabase.getStudyDb().questionDao(), subjectId,
+                shuffle, sampleSize, seed);
+    }
+
+    /**
+     * Returns the ids of the passed {@link Question} objects in order.
+     *
+     * @param questions {@link List} of {@link Question} objects.
+     * @return A {@link List} of long ids.
+     */
+    private static List<Long> ids(List<Question> questions) {
+        List<Long> ids = new ArrayList<>();
+        for (Question question : questions) {
+            ids.add(question.getId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,346 @@
+package com.davidread.studyhelper;
+
+import static com.davidread.studyhelper.PerformanceBudget.allocatedBytes;
+import static com.davidread.studyhelper.PerformanceBudget.assertAllocationWithinBudget;
+import static com.davidread.studyhelper.PerformanceBudget.assertQueriesWithinBudget;
+import static com.davidread.studyhelper.PerformanceBudget.assertTimeWithinBudget;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.app.Activity;
+import android.content.Intent;
+import android.os.Looper;
+import android.view.View;
+import android.widget.CheckBox;
+import android.widget.EditText;
+
+import androidx.preference.PreferenceManager;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.work.testing.WorkManagerTestInitHelper;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.android.controller.ActivityController;
+import org.robolectric.fakes.RoboMenuItem;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link ScreenPerformanceTest} launches {@link SubjectActivity}, {@link QuestionActivity}, and
+ * {@link ImportActivity} headlessly against a large pre-seeded {@link StudyDatabase} or
+ * {@link MockStudyServer} and asserts budgets for launch time, queries per interaction, and
+ * allocations per navigation. Each activity is launched once before measuring, so one-time costs
+ * such as class loading and resource parsing are not counted.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class ScreenPerformanceTest {
+
+    /**
+     * Long seed of the generated decks and of the catalog served by {@link MockStudyServer}.
+     */
+    private static final long SEED = 42;
+
+    /**
+     * Int number of subjects seeded for {@link SubjectActivity}.
+     */
+    private static final int SUBJECT_COUNT = 2000;
+
+    /**
+     * Int number of questions seeded for {@link QuestionActivity}.
+     */
+    private static final int QUESTION_COUNT = 5000;
+
+    /**
+     * Int number of questions navigated through when measuring {@link QuestionActivity}.
+     */
+    private static final int NAVIGATION_COUNT = 50;
+
+    /**
+     * Int number of subjects in the catalog served to {@link ImportActivity}.
+     */
+    private static final int CATALOG_COUNT = 5000;
+
+    /**
+     * Int width and height in pixels the catalog is laid out at.
+     */
+    private static final int CATALOG_LAYOUT_SIZE = 800;
+
+    /**
+     * Long budget in milliseconds from onCreate() through the first layout after onResume().
+     */
+    private static final long LAUNCH_BUDGET_MILLIS = 1000;
+
+    /**
+     * Long budget in bytes allocated on the main thread by launching an activity.
+     */
+    private static final long LAUNCH_ALLOCATION_BUDGET_BYTES = 32 * 1024 * 1024;
+
+    /**
+     * Long budget in milliseconds for showing the next question.
+     */
+    private static final long NAVIGATION_BUDGET_MILLIS = 50;
+
+    /**
+     * Long budget in bytes allocated on the main thread by showing the next question.
+     */
+    private static final long NAVIGATION_ALLOCATION_BUDGET_BYTES = 256 * 1024;
+
+    /**
+     * {@link AtomicInteger} counting the read queries run by the {@link StudyDatabase}.
+     */
+    private final AtomicInteger mQueryCount = new AtomicInteger();
+
+    /**
+     * {@link StudyDatabaseRule} installing an empty {@link StudyDatabase} that counts read queries,
+     * which the activities under test run against. Room's own bookkeeping queries are not made by
+     * the app, so they are not counted.
+     */
+    @Rule
+    public final StudyDatabaseRule mDatabase = new StudyDatabaseRule()
+            .withQueryCallback((sql, args) -> {
+                if (sql.startsWith("SELECT") && !sql.contains("room_table_modification_log")) {
+                    mQueryCount.incrementAndGet();
+                }
+            })
+            .installed();
+
+    /**
+     * Invoked before each test case. It initializes a test WorkManager and resets the cached
+     * preferences.
+     */
+    @Before
+    public void setUp() {
+        WorkManagerTestInitHelper.initializeTestWorkManager(
+                ApplicationProvider.getApplicationContext());
+        StudyPreferences.resetInstanceForTesting();
+    }
+
+    /**
+     * Verifies that launching {@link SubjectActivity} with many subjects stays within budget.
+     */
+    @Test
+    public void subjectActivity_launchMeetsBudgets() {
+        new DeckGenerator(SEED).populate(mDatabase.getStudyDb(), SUBJECT_COUNT, 1);
+        launch(SubjectActivity.class, null).pause().stop().destroy();
+
+        mQueryCount.set(0);
+        long allocated = allocatedBytes();
+        long start = System.nanoTime();
+        ActivityController<SubjectActivity> controller = launch(SubjectActivity.class, null);
+        assertTimeWithinBudget("SubjectActivity launch", System.nanoTime() - start,
+                TimeUnit.MILLISECONDS.toNanos(LAUNCH_BUDGET_MILLIS));
+        assertAllocationWithinBudget("SubjectActivity launch", allocatedBytes() - allocated,
+                LAUNCH_ALLOCATION_BUDGET_BYTES);
+        assertQueriesWithinBudget("SubjectActivity launch", mQueryCount.get(), 1);
+
+        // Returning to the activity when nothing changed should not query.
+        mQueryCount.set(0);
+        start = System.nanoTime();
+        controller.pause().resume();
+        shadowOf(Looper.getMainLooper()).idle();
+        assertTimeWithinBudget("SubjectActivity resume", System.nanoTime() - start,
+                TimeUnit.MILLISECONDS.toNanos(LAUNCH_BUDGET_MILLIS));
+        assertQueriesWithinBudget("SubjectActivity resume", mQueryCount.get(), 0);
+
+        // Changing only the sort order should sort in memory.
+        controller.pause();
+        PreferenceManager.getDefaultSharedPreferences(ApplicationProvider.getApplicationContext())
+                .edit()
+                .putString(StudyPreferences.KEY_SUBJECT_ORDER, SubjectSorter.ORDER_NEW_FIRST)
+                .commit();
+        mQueryCount.set(0);
+        start = System.nanoTime();
+        controller.resume();
+        shadowOf(Looper.getMainLooper()).idle();
+        assertTimeWithinBudget("SubjectActivity sort order change", System.nanoTime() - start,
+                TimeUnit.MILLISECONDS.toNanos(LAUNCH_BUDGET_MILLIS));
+        assertQueriesWithinBudget("SubjectActivity sort order change", mQueryCount.get(), 0);
+
+        controller.pause().stop().destroy();
+    }
+
+    /**
+     * Verifies that launching {@link QuestionActivity} with many questions and then navigating
+     * through them stays within budget. Navigating must not query the database at all.
+     */
+    @Test
+    public void questionActivity_launchAndNavigationMeetBudgets() {
+        StudyDatabase studyDb = mDatabase.getStudyDb();
+        List<Long> subjectIds = new DeckGenerator(SEED).populate(studyDb, 1, QUESTION_COUNT);
+        Intent intent = new Intent(ApplicationProvider.getApplicationContext(),
+                QuestionActivity.class);
+        intent.putExtra(QuestionActivity.EXTRA_SUBJECT_ID, subjectIds.get(0));
+        launch(QuestionActivity.class, intent).pause().stop().destroy();
+
+        mQueryCount.set(0);
+        long allocated = allocatedBytes();
+        long start = System.nanoTime();
+        ActivityController<QuestionActivity> controller = launch(QuestionActivity.class, intent);
+        assertTimeWithinBudget("QuestionActivity launch", System.nanoTime() - start,
+                TimeUnit.MILLISECONDS.toNanos(LAUNCH_BUDGET_MILLIS));
+        assertAllocationWithinBudget("QuestionActivity launch", allocatedBytes() - allocated,
+                LAUNCH_ALLOCATION_BUDGET_BYTES);
+        assertQueriesWithinBudget("QuestionActivity launch", mQueryCount.get(), 2);
+
+        QuestionActivity activity = controller.get();
+        mQueryCount.set(0);
+        allocated = allocatedBytes();
+        start = System.nanoTime();
+        for (int i = 0; i < NAVIGATION_COUNT; i++) {
+            activity.onOptionsItemSelected(new RoboMenuItem(R.id.next));
+            shadowOf(Looper.getMainLooper()).idle();
+        }
+        assertTimeWithinBudget(NAVIGATION_COUNT + " navigations", System.nanoTime() - start,
+                TimeUnit.MILLISECONDS.toNanos(NAVIGATION_BUDGET_MILLIS * NAVIGATION_COUNT));
+        assertAllocationWithinBudget(NAVIGATION_COUNT + " navigations",
+                allocatedBytes() - allocated,
+                NAVIGATION_ALLOCATION_BUDGET_BYTES * NAVIGATION_COUNT);
+        assertQueriesWithinBudget(NAVIGATION_COUNT + " navigations", mQueryCount.get(), 0);
+        assertEquals(activity.getString(R.string.question_number,
+                        studyDb.subjectDao().getSubject(subjectIds.get(0)).getText(),
+                        NAVIGATION_COUNT + 1, QUESTION_COUNT),
+                activity.getTitle().toString());
+
+        controller.pause().stop().destroy();
+    }
+
+    /**
+     * Verifies that rotating {@link QuestionActivity} keeps the shown question without querying
+     * the database.
+     */
+    @Test
+    public void questionActivity_rotationKeepsPositionWithoutQueries() {
+        List<Long> subjectIds = new DeckGenerator(SEED).populate(mDatabase.getStudyDb(), 1,
+                QUESTION_COUNT);
+        Intent intent = new Intent(ApplicationProvider.getApplicationContext(),
+                QuestionActivity.class);
+        intent.putExtra(QuestionActivity.EXTRA_SUBJECT_ID, subjectIds.get(0));
+        ActivityController<QuestionActivity> controller = launch(QuestionActivity.class, intent);
+        for (int i = 0; i < 3; i++) {
+            controller.get().onOptionsItemSelected(new RoboMenuItem(R.id.next));
+            shadowOf(Looper.getMainLooper()).idle();
+        }
+        String title = controller.get().getTitle().toString();
+
+        mQueryCount.set(0);
+        controller.recreate();
+        shadowOf(Looper.getMainLooper()).idle();
+        assertQueriesWithinBudget("QuestionActivity rotation", mQueryCount.get(), 0);
+        assertEquals(title, controller.get().getTitle().toString());
+
+        controller.pause().stop().destroy();
+    }
+
+    /**
+     * Verifies that {@link ImportActivity} streams a large catalog into a recycled list that only
+     * binds visible rows, that selections survive filtering, and that selected subjects are
+     * prefetched so importing them commits at once.
+     */
+    @Test
+    public void importActivity_largeCatalogIsRecycledAndPrefetched() throws Exception {
+        StudyDatabase studyDb = mDatabase.getStudyDb();
+        MockStudyServer server = new MockStudyServer(SEED);
+        server.setSubjectCount(CATALOG_COUNT);
+        StudyFetcher.setBaseUrlForTesting(server.getBaseUrl());
+        try {
+            ActivityController<ImportActivity> controller = launch(ImportActivity.class, null);
+            ImportActivity activity = controller.get();
+            RecyclerView recyclerView = activity.findViewById(R.id.catalog_recycler_view);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (recyclerView.getAdapter().getItemCount() < CATALOG_COUNT
+                    && System.nanoTime() < deadline) {
+                shadowOf(Looper.getMainLooper()).idle();
+                Thread.sleep(1);
+            }
+            assertEquals(CATALOG_COUNT, recyclerView.getAdapter().getItemCount());
+
+            layOut(recyclerView);
+            assertTrue("Bound " + recyclerView.getChildCount() + " rows",
+                    recyclerView.getChildCount() < CATALOG_COUNT / 100);
+            getCheckBox(recyclerView, 0).performClick();
+
+            // Select a subject far down the catalog through the filter.
+            EditText filterEditText = activity.findViewById(R.id.catalog_filter_edit_text);
+            filterEditText.setText(MockStudyServer.getSubjectText(CATALOG_COUNT - 1));
+            layOut(recyclerView);
+            assertEquals(1, recyclerView.getAdapter().getItemCount());
+            getCheckBox(recyclerView, 0).performClick();
+
+            filterEditText.setText("");
+            layOut(recyclerView);
+            assertTrue(getCheckBox(recyclerView, 0).isChecked());
+            assertFalse(getCheckBox(recyclerView, 1).isChecked());
+
+            // Checked subjects are prefetched, so importing them commits without a worker.
+            deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (activity.getStagedSubjectCount() < 2 && System.nanoTime() < deadline) {
+                shadowOf(Looper.getMainLooper()).idle();
+                Thread.sleep(1);
+            }
+            assertEquals(2, activity.getStagedSubjectCount());
+            activity.importButtonClick(null);
+            deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (studyDb.importJobDao().countJobs(ImportJob.STATE_DONE) < 2
+                    && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            assertEquals(2, studyDb.importJobDao().countJobs(ImportJob.STATE_DONE));
+            assertEquals(2, studyDb.subjectDao().getSubjects().size());
+            assertEquals(0, activity.getStagedSubjectCount());
+
+            controller.pause().stop().destroy();
+        } finally {
+            StudyFetcher.setBaseUrlForTesting(null);
+            server.shutdown();
+        }
+    }
+
+    /**
+     * Measures and lays out the passed {@link RecyclerView} at a fixed size, binding the rows
+     * that fit.
+     *
+     * @param recyclerView {@link RecyclerView} to lay out.
+     */
+    private static void layOut(RecyclerView recyclerView) {
+        int spec = View.MeasureSpec.makeMeasureSpec(CATALOG_LAYOUT_SIZE, View.MeasureSpec.EXACTLY);
+        recyclerView.measure(spec, spec);
+        recyclerView.layout(0, 0, CATALOG_LAYOUT_SIZE, CATALOG_LAYOUT_SIZE);
+    }
+
+    /**
+     * Returns the {@link CheckBox} of the catalog row at the passed adapter position.
+     *
+     * @param recyclerView {@link RecyclerView} showing the catalog.
+     * @param position     Int adapter position of a laid out row.
+     * @return The {@link CheckBox} of the row.
+     */
+    private static CheckBox getCheckBox(RecyclerView recyclerView, int position) {
+        return recyclerView.findViewHolderForAdapterPosition(position).itemView
+                .findViewById(R.id.catalog_check_box);
+    }
+
+    /**
+     * Launches an activity through onResume() and its first layout, and runs any work it posted
+     * to the main thread.
+     *
+     * @param activityClass {@link Class} of the activity to launch.
+     * @param intent        {@link Intent} to launch the activity with. May be null.
+     * @return The {@link ActivityController} of the launched activity.
+     */
+    private static <T extends Activity> ActivityController<T> launch(
+            Class<T> activityClass, Intent intent) {
+        ActivityController<T> controller = Robolectric.buildActivity(activityClass, intent)
+                .setup();
+        shadowOf(Looper.getMainLooper()).idle();
+        return controller;
+    }
+}
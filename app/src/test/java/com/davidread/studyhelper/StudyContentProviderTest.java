@@ -0,0 +1,179 @@
+package com.davidread.studyhelper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import android.content.ContentResolver;
+import android.content.ContentUris;
+import android.database.Cursor;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * {@link StudyContentProviderTest} verifies that {@link StudyContentProvider} pushes projection
+ * and selection down to SQL, hides deleted rows and internal columns, rejects unsafe selections,
+ * and that the random question lookup used by {@link QuestionWidgetProvider} only returns visible
+ * questions.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class StudyContentProviderTest {
+
+    /**
+     * Long seed of the generated deck and of the random question lookups.
+     */
+    private static final long SEED = 3;
+
+    /**
+     * {@link StudyDatabaseRule} installing a {@link StudyDatabase} with a few generated subjects,
+     * which the provider reads.
+     */
+    @Rule
+    public final StudyDatabaseRule mDatabase = new StudyDatabaseRule().withDeck(SEED, 3, 10)
+            .installed();
+
+    /**
+     * {@link ContentResolver} to query the provider through.
+     */
+    private ContentResolver mContentResolver;
+
+    /**
+     * Invoked before each test case. It registers the provider.
+     */
+    @Before
+    public void setUp() {
+        Robolectric.setupContentProvider(StudyContentProvider.class, StudyContract.AUTHORITY);
+        mContentResolver = ApplicationProvider.getApplicationContext().getContentResolver();
+    }
+
+    /**
+     * Verifies that the projection and selection are applied and deleted subjects are skipped.
+     */
+    @Test
+    public void querySubjects_appliesProjectionAndSelection() {
+        long deletedId = mDatabase.getSubjectIds().get(0);
+        mDatabase.getStudyDb().subjectDao()
+                .setSubjectChunkDeleted(Collections.singletonList(deletedId), 1);
+
+        try (Cursor cursor = mContentResolver.query(StudyContract.Subjects.CONTENT_URI,
+                new String[]{StudyContract.Subjects.ID}, StudyContract.Subjects.QUESTION_COUNT
+                        + " = ?", new String[]{"10"}, null)) {
+            assertNotNull(cursor);
+            assertEquals(1, cursor.getColumnCount());
+            assertEquals(mDatabase.getSubjectIds().size() - 1, cursor.getCount());
+            while (cursor.moveToNext()) {
+                assertTrue(cursor.getLong(0) != deletedId);
+            }
+        }
+    }
+
+    /**
+     * Verifies that the questions of a subject are returned in id order without deleted ones.
+     */
+    @Test
+    public void querySubjectQuestions_skipsDeletedQuestions() {
+        StudyDatabase studyDb = mDatabase.getStudyDb();
+        long subjectId = mDatabase.getSubjectIds().get(1);
+        List<Question> questions = studyDb.questionDao().getQuestions(subjectId);
+        studyDb.questionDao().setQuestionDeleted(questions.get(0).getId(), 1);
+
+        try (Cursor cursor = mContentResolver.query(
+                StudyContract.Questions.forSubject(subjectId), null, null, null, null)) {
+            assertNotNull(cursor);
+            assertEquals(StudyContract.Questions.COLUMNS.length, cursor.getColumnCount());
+            assertEquals(questions.size() - 1, cursor.getCount());
+            for (int i = 1; cursor.moveToNext(); i++) {
+                assertEquals(questions.get(i).getId(), cursor.getLong(
+                        cursor.getColumnIndexOrThrow(StudyContract.Questions.ID)));
+            }
+        }
+
+        try (Cursor cursor = mContentResolver.query(ContentUris.withAppendedId(
+                StudyContract.Questions.CONTENT_URI, questions.get(0).getId()),
+                null, null, null, null)) {
+            assertNotNull(cursor);
+            assertEquals(0, cursor.getCount());
+        }
+    }
+
+    /**
+     * Verifies that internal columns cannot be read.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void query_rejectsUnexposedColumns() {
+        mContentResolver.query(StudyContract.Questions.CONTENT_URI,
+                new String[]{"content_hash"}, null, null, null);
+    }
+
+    /**
+     * Verifies that a selection cannot read internal columns or other tables through a
+     * subquery, nor close the scope that hides deleted rows.
+     */
+    @Test
+    public void query_rejectsUnsafeSelectionAndSortOrder() {
+        String[] columns = StudyContract.Questions.COLUMNS;
+        String[] unsafeClauses = {
+                "id IN (SELECT id FROM Question WHERE deleted != 0)",
+                "content_hash = 0",
+                "1) OR (1",
+                "text = 'a'; DROP TABLE Question",
+                "Question.deleted = 1",
+                "\"deleted\" = 1",
+                "id = 1 -- comment",
+        };
+        for (String clause : unsafeClauses) {
+            try {
+                StudyContentProvider.checkClause(clause, columns);
+                fail("Accepted: " + clause);
+            } catch (IllegalArgumentException e) {
+                // Expected.
+            }
+        }
+        StudyContentProvider.checkClause("text LIKE '%it''s%' AND (subject_id = ? OR id >= 2.5)",
+                columns);
+        StudyContentProvider.checkClause("text COLLATE NOCASE DESC, id", columns);
+    }
+
+    /**
+     * Verifies that a sort order naming an internal column is rejected by queries.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void query_rejectsUnexposedSortOrder() {
+        mContentResolver.query(StudyContract.Questions.CONTENT_URI, null, null, null,
+                "sort_rank");
+    }
+
+    /**
+     * Verifies that random questions never come from deleted subjects, and that no question is
+     * returned once every subject is deleted.
+     */
+    @Test
+    public void getRandomQuestion_skipsDeletedSubjects() {
+        StudyDatabase studyDb = mDatabase.getStudyDb();
+        long deletedId = mDatabase.getSubjectIds().get(2);
+        studyDb.subjectDao().setSubjectChunkDeleted(Collections.singletonList(deletedId), 1);
+
+        Random random = new Random(SEED);
+        for (int i = 0; i < 100; i++) {
+            Question question = studyDb.questionDao().getRandomQuestion(random);
+            assertNotNull(question);
+            assertTrue(question.getSubjectId() != deletedId);
+        }
+
+        studyDb.subjectDao().setSubjectsDeleted(mDatabase.getSubjectIds(), 1);
+        assertNull(studyDb.questionDao().getRandomQuestion(random));
+    }
+}
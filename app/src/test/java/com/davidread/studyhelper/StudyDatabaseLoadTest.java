@@ -0,0 +1,234 @@
+package com.davidread.studyhelper;
+
+import static com.davidread.studyhelper.PerformanceBudget.allocatedBytes;
+import static com.davidread.studyhelper.PerformanceBudget.assertAllocationWithinBudget;
+import static com.davidread.studyhelper.PerformanceBudget.assertTimeWithinBudget;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link StudyDatabaseLoadTest} loads synthetic decks made by {@link DeckGenerator} into an
+ * in-memory {@link StudyDatabase} and asserts latency and allocation budgets for the operations
+ * the app performs. Budgets are generous enough to pass on a slow machine, but not enough to hide
+ * a lost index or a query that starts scanning every {@link Question}. The number of questions
+ * loaded defaults to 10,000 and is set with the loadTestQuestions system property.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class StudyDatabaseLoadTest {
+
+    /**
+     * Long seed of the generated decks and of the random lookups timed.
+     */
+    private static final long SEED = 42;
+
+    /**
+     * Int number of questions per generated subject.
+     */
+    private static final int QUESTIONS_PER_SUBJECT = 200;
+
+    /**
+     * Int number of random lookups timed.
+     */
+    private static final int LOOKUP_COUNT = 1000;
+
+    /**
+     * Long budget in microseconds per inserted question, including its share of subject inserts
+     * and trigger updates.
+     */
+    private static final long INSERT_BUDGET_MICROS_PER_QUESTION = 500;
+
+    /**
+     * Long budget in milliseconds for a single lookup by id.
+     */
+    private static final long LOOKUP_BUDGET_MILLIS = 2;
+
+    /**
+     * Long budget in milliseconds for listing all subjects, per thousand subjects.
+     */
+    private static final long LIST_SUBJECTS_BUDGET_MILLIS_PER_THOUSAND = 200;
+
+    /**
+     * Long budget in milliseconds for listing the questions of one subject.
+     */
+    private static final long LIST_QUESTIONS_BUDGET_MILLIS = 100;
+
+    /**
+     * Long budget in milliseconds for deleting one subject and its questions.
+     */
+    private static final long CASCADE_DELETE_BUDGET_MILLIS = 250;
+
+    /**
+     * Long budget in bytes allocated per row read by a list query.
+     */
+    private static final long ALLOCATION_BUDGET_BYTES_PER_ROW = 8 * 1024;
+
+    /**
+     * {@link StudyDatabaseRule} providing an empty {@link StudyDatabase} under test.
+     */
+    @Rule
+    public final StudyDatabaseRule mDatabase = new StudyDatabaseRule();
+
+    /**
+     * Verifies that two {@link DeckGenerator} objects with the same seed generate the same text.
+     */
+    @Test
+    public void generator_isDeterministic() {
+        DeckGenerator first = new DeckGenerator(SEED);
+        DeckGenerator second = new DeckGenerator(SEED);
+        for (int i = 0; i < 100; i++) {
+            Question a = first.nextQuestion(1);
+            Question b = second.nextQuestion(1);
+            assertEquals(a.getText(), b.getText());
+            assertEquals(a.getAnswer(), b.getAnswer());
+        }
+        assertEquals(first.nextSubject(0).getText(), second.nextSubject(0).getText());
+    }
+
+    /**
+     * Verifies that the question counts maintained by triggers match the loaded deck, including
+     * after a question is deleted.
+     */
+    @Test
+    public void questionCounts_matchLoadedDeck() {
+        StudyDatabase studyDb = mDatabase.getStudyDb();
+        List<Long> subjectIds = new DeckGenerator(SEED).populate(studyDb, 5, 20);
+        for (Subject subject : studyDb.subjectDao().getSubjects()) {
+            assertEquals(20, subject.getQuestionCount());
+        }
+
+        long subjectId = subjectIds.get(0);
+        Question question = studyDb.questionDao().getQuestions(subjectId).get(0);
+        studyDb.questionDao().setQuestionDeleted(question.getId(), System.currentTimeMillis());
+        assertEquals(19, studyDb.subjectDao().getSubject(subjectId).getQuestionCount());
+    }
+
+    /**
+     * Verifies that importing the questions of a subject again, even with different case and
+     * spacing, adds nothing, while new questions are still added.
+     */
+    @Test
+    public void reimport_skipsExistingQuestions() {
+        StudyDatabase studyDb = mDatabase.getStudyDb();
+        long subjectId = new DeckGenerator(SEED).populate(studyDb, 1, QUESTIONS_PER_SUBJECT)
+                .get(0);
+        List<Question> reimported = new ArrayList<>();
+        for (Question question : studyDb.questionDao().getQuestions(subjectId)) {
+            reimported.add(new Question("  " + question.getText().toUpperCase() + " ",
+                    question.getAnswer().replace(" ", "  "), subjectId));
+        }
+        Question newQuestion = new Question("A question that was never asked", "Yes", subjectId);
+        reimported.add(newQuestion);
+
+        long start = System.nanoTime();
+        long[] ids = studyDb.questionDao().insertQuestionsIfAbsent(reimported);
+        assertTimeWithinBudget("reimport " + reimported.size() + " questions",
+                System.nanoTime() - start, TimeUnit.MICROSECONDS.toNanos(
+                        INSERT_BUDGET_MICROS_PER_QUESTION * reimported.size()));
+
+        for (int i = 0; i < QUESTIONS_PER_SUBJECT; i++) {
+            assertEquals(-1, ids[i]);
+        }
+        assertTrue(ids[QUESTIONS_PER_SUBJECT] > 0);
+        assertEquals(QUESTIONS_PER_SUBJECT + 1,
+                studyDb.subjectDao().getSubject(subjectId).getQuestionCount());
+    }
+
+    /**
+     * Verifies that a deleted question is only restored while no identical question exists, and
+     * that the returned row count tells both cases apart.
+     */
+    @Test
+    public void restoreQuestion_identicalQuestionExists_isIgnored() {
+        StudyDatabase studyDb = mDatabase.getStudyDb();
+        long subjectId = studyDb.subjectDao().insertSubject(new Subject("Restore"));
+        long deletedId = studyDb.questionDao().insertQuestion(
+                new Question("Question?", "Answer", subjectId));
+        assertEquals(1, studyDb.questionDao().setQuestionDeleted(deletedId, 1));
+        assertEquals(1, studyDb.questionDao().setQuestionDeleted(deletedId, 0));
+
+        assertEquals(1, studyDb.questionDao().setQuestionDeleted(deletedId, 1));
+        studyDb.questionDao().insertQuestion(new Question("Question?", "Answer", subjectId));
+        assertEquals(0, studyDb.questionDao().setQuestionDeleted(deletedId, 0));
+        assertNull(studyDb.questionDao().getQuestion(deletedId));
+    }
+
+    /**
+     * Loads a deck of the configured size and verifies that inserting it, looking up questions,
+     * listing subjects and questions, and cascade-deleting a subject stay within budget.
+     */
+    @Test
+    public void deckOperations_meetBudgets() {
+        StudyDatabase studyDb = mDatabase.getStudyDb();
+        int questionCount = Integer.getInteger("loadTestQuestions", 10_000);
+        int subjectCount = Math.max(1, questionCount / QUESTIONS_PER_SUBJECT);
+        int totalQuestions = subjectCount * QUESTIONS_PER_SUBJECT;
+
+        // Insert.
+        long start = System.nanoTime();
+        List<Long> subjectIds = new DeckGenerator(SEED)
+                .populate(studyDb, subjectCount, QUESTIONS_PER_SUBJECT);
+        assertTimeWithinBudget("insert " + totalQuestions + " questions",
+                System.nanoTime() - start,
+                TimeUnit.MICROSECONDS.toNanos(INSERT_BUDGET_MICROS_PER_QUESTION * totalQuestions));
+
+        // Lookup by id. Ids are assigned in insertion order starting at 1.
+        Random random = new Random(SEED);
+        start = System.nanoTime();
+        for (int i = 0; i < LOOKUP_COUNT; i++) {
+            long id = 1 + random.nextInt(totalQuestions);
+            assertEquals(id, studyDb.questionDao().getQuestion(id).getId());
+        }
+        assertTimeWithinBudget(LOOKUP_COUNT + " lookups", System.nanoTime() - start,
+                TimeUnit.MILLISECONDS.toNanos(LOOKUP_BUDGET_MILLIS * LOOKUP_COUNT));
+
+        // List subjects with each sort order that reads a maintained column.
+        long listSubjectsBudget = TimeUnit.MILLISECONDS.toNanos(
+                LIST_SUBJECTS_BUDGET_MILLIS_PER_THOUSAND * Math.max(1, subjectCount / 1000));
+        long allocated = allocatedBytes();
+        start = System.nanoTime();
+        List<Subject> subjects = studyDb.subjectDao().getSubjects();
+        assertTimeWithinBudget("list subjects", System.nanoTime() - start, listSubjectsBudget);
+        assertAllocationWithinBudget("list subjects", allocatedBytes() - allocated,
+                ALLOCATION_BUDGET_BYTES_PER_ROW * subjects.size());
+        assertEquals(subjectCount, subjects.size());
+
+        start = System.nanoTime();
+        subjects = studyDb.subjectDao().getSubjectsLargestFirst();
+        assertTimeWithinBudget("list largest subjects", System.nanoTime() - start,
+                listSubjectsBudget);
+        assertEquals(QUESTIONS_PER_SUBJECT, subjects.get(0).getQuestionCount());
+
+        // List the questions of the last subject, whose rows are deepest in the table.
+        long lastSubjectId = subjectIds.get(subjectIds.size() - 1);
+        allocated = allocatedBytes();
+        start = System.nanoTime();
+        List<Question> questions = studyDb.questionDao().getQuestions(lastSubjectId);
+        assertTimeWithinBudget("list questions", System.nanoTime() - start,
+                TimeUnit.MILLISECONDS.toNanos(LIST_QUESTIONS_BUDGET_MILLIS));
+        assertAllocationWithinBudget("list questions", allocatedBytes() - allocated,
+                ALLOCATION_BUDGET_BYTES_PER_ROW * questions.size());
+        assertEquals(QUESTIONS_PER_SUBJECT, questions.size());
+
+        // Cascade delete.
+        long firstSubjectId = subjectIds.get(0);
+        Subject firstSubject = studyDb.subjectDao().getSubject(firstSubjectId);
+        long firstQuestionId = studyDb.questionDao().getQuestions(firstSubjectId).get(0).getId();
+        start = System.nanoTime();
+        studyDb.subjectDao().deleteSubject(firstSubject);
+        assertTimeWithinBudget("cascade delete", System.nanoTime() - start,
+                TimeUnit.MILLISECONDS.toNanos(CASCADE_DELETE_BUDGET_MILLIS));
+        assertNull(studyDb.questionDao().getQuestion(firstQuestionId));
+        assertTrue(studyDb.questionDao().getQuestions(firstSubjectId).isEmpty());
+    }
+}
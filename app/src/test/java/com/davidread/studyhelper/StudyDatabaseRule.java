@@ -0,0 +1,125 @@
+package com.davidread.studyhelper;
+
+import androidx.room.RoomDatabase;
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.rules.ExternalResource;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * {@link StudyDatabaseRule} is a JUnit rule that gives each test case a fresh in-memory
+ * {@link StudyDatabase}, optionally filled by a {@link DeckGenerator}, reporting its queries, or
+ * installed as the app's database, and closes it afterwards.
+ */
+public class StudyDatabaseRule extends ExternalResource {
+
+    /**
+     * Long seed of the {@link DeckGenerator} filling the database.
+     */
+    private long mDeckSeed;
+
+    /**
+     * Int number of generated subjects. Zero leaves the database empty.
+     */
+    private int mSubjectCount;
+
+    /**
+     * Int number of generated questions per subject.
+     */
+    private int mQuestionsPerSubject;
+
+    /**
+     * {@link RoomDatabase.QueryCallback} the database reports its queries to. May be null.
+     */
+    private RoomDatabase.QueryCallback mQueryCallback;
+
+    /**
+     * Boolean for whether the database is returned by {@link StudyDatabase#getInstance}.
+     */
+    private boolean mInstalled;
+
+    /**
+     * {@link StudyDatabase} of the running test case.
+     */
+    private StudyDatabase mStudyDb;
+
+    /**
+     * {@link List} of ids of the generated {@link Subject} objects.
+     */
+    private List<Long> mSubjectIds = Collections.emptyList();
+
+    /**
+     * Fills the database with generated subjects before each test case.
+     *
+     * @param deckSeed            Long seed of the {@link DeckGenerator}.
+     * @param subjectCount        Int number of subjects to generate.
+     * @param questionsPerSubject Int number of questions to generate per subject.
+     * @return This {@link StudyDatabaseRule}.
+     */
+    public StudyDatabaseRule withDeck(long deckSeed, int subjectCount, int questionsPerSubject) {
+        mDeckSeed = deckSeed;
+        mSubjectCount = subjectCount;
+        mQuestionsPerSubject = questionsPerSubject;
+        return this;
+    }
+
+    /**
+     * Reports every query the database runs to the passed callback on the querying thread.
+     *
+     * @param queryCallback {@link RoomDatabase.QueryCallback} to report queries to.
+     * @return This {@link StudyDatabaseRule}.
+     */
+    public StudyDatabaseRule withQueryCallback(RoomDatabase.QueryCallback queryCallback) {
+        mQueryCallback = queryCallback;
+        return this;
+    }
+
+    /**
+     * Installs the database as the app's database, for code under test that gets it through
+     * {@link StudyDatabase#getInstance}.
+     *
+     * @return This {@link StudyDatabaseRule}.
+     */
+    public StudyDatabaseRule installed() {
+        mInstalled = true;
+        return this;
+    }
+
+    public StudyDatabase getStudyDb() {
+        return mStudyDb;
+    }
+
+    public List<Long> getSubjectIds() {
+        return mSubjectIds;
+    }
+
+    /**
+     * Invoked before each test case. It creates, installs, and fills the database as
+     * configured.
+     */
+    @Override
+    protected void before() {
+        mStudyDb = StudyDatabase.createInMemoryDatabase(
+                ApplicationProvider.getApplicationContext(), mQueryCallback);
+        if (mInstalled) {
+            StudyDatabase.setInstanceForTesting(mStudyDb);
+        }
+        if (mSubjectCount > 0) {
+            mSubjectIds = new DeckGenerator(mDeckSeed).populate(mStudyDb, mSubjectCount,
+                    mQuestionsPerSubject);
+        }
+    }
+
+    /**
+     * Invoked after each test case. It uninstalls and closes the database.
+     */
+    @Override
+    protected void after() {
+        if (mInstalled) {
+            StudyDatabase.setInstanceForTesting(null);
+        }
+        mStudyDb.close();
+    }
+}
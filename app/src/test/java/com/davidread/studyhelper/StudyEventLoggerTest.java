@@ -0,0 +1,159 @@
+package com.davidread.studyhelper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import android.database.Cursor;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * {@link StudyEventLoggerTest} verifies that the daily rollups written by
+ * {@link StudyEventLogger} always add up to the events it was given, across several batches, and
+ * that purging deleted rows removes their events and rollups.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class StudyEventLoggerTest {
+
+    /**
+     * Long seed of the generated deck and of the random events logged.
+     */
+    private static final long SEED = 11;
+
+    /**
+     * {@link StudyDatabaseRule} providing a {@link StudyDatabase} with a few generated subjects,
+     * which events are written to.
+     */
+    @Rule
+    public final StudyDatabaseRule mDatabase = new StudyDatabaseRule().withDeck(SEED, 3, 20);
+
+    /**
+     * {@link StudyEventLogger} under test.
+     */
+    private StudyEventLogger mEventLogger;
+
+    /**
+     * Invoked before each test case. It creates {@link #mEventLogger}.
+     */
+    @Before
+    public void createEventLogger() {
+        mEventLogger = new StudyEventLogger(mDatabase.getStudyDb());
+    }
+
+    /**
+     * Verifies that the per subject and per question rollups match the logged events.
+     */
+    @Test
+    public void flush_rollupsMatchEvents() throws Exception {
+        StudyDatabase studyDb = mDatabase.getStudyDb();
+        long subjectId = mDatabase.getSubjectIds().get(0);
+        List<Question> questions = studyDb.questionDao().getQuestions(subjectId);
+        Random random = new Random(SEED);
+        int[] shown = new int[questions.size()];
+        int[] revealed = new int[questions.size()];
+
+        // Log enough events to fill several batches, flushing part way through.
+        for (int i = 0; i < 500; i++) {
+            int index = random.nextInt(questions.size());
+            mEventLogger.log(questions.get(index), StudyEvent.TYPE_SHOWN);
+            shown[index]++;
+            if (random.nextBoolean()) {
+                mEventLogger.log(questions.get(index), StudyEvent.TYPE_ANSWER_REVEALED);
+                revealed[index]++;
+            }
+            if (i == 250) {
+                mEventLogger.flush().get();
+            }
+        }
+        mEventLogger.flush().get();
+
+        int totalShown = 0;
+        int totalRevealed = 0;
+        for (int i = 0; i < questions.size(); i++) {
+            totalShown += shown[i];
+            totalRevealed += revealed[i];
+        }
+        List<SubjectDailyStats> totals = studyDb.studyEventDao().getSubjectTotals(0);
+        assertEquals(1, totals.size());
+        assertEquals(subjectId, totals.get(0).getSubjectId());
+        assertEquals(totalShown, totals.get(0).getShownCount());
+        assertEquals(totalRevealed, totals.get(0).getRevealedCount());
+
+        List<QuestionDailyStats> questionStats = studyDb.studyEventDao()
+                .getHardestQuestions(subjectId, 0, questions.size());
+        for (QuestionDailyStats stats : questionStats) {
+            for (int i = 0; i < questions.size(); i++) {
+                if (questions.get(i).getId() == stats.getQuestionId()) {
+                    assertEquals(shown[i], stats.getShownCount());
+                    assertEquals(revealed[i], stats.getRevealedCount());
+                }
+            }
+        }
+    }
+
+    /**
+     * Verifies that purging a deleted {@link Question} and a deleted {@link Subject} also deletes
+     * their events and rollups, while those of the remaining rows are kept.
+     */
+    @Test
+    public void purge_deletesEventsAndRollups() throws Exception {
+        StudyDatabase studyDb = mDatabase.getStudyDb();
+        long deletedSubjectId = mDatabase.getSubjectIds().get(0);
+        long keptSubjectId = mDatabase.getSubjectIds().get(1);
+        List<Question> deletedSubjectQuestions = studyDb.questionDao()
+                .getQuestions(deletedSubjectId);
+        List<Question> keptSubjectQuestions = studyDb.questionDao().getQuestions(keptSubjectId);
+        for (Question question : deletedSubjectQuestions) {
+            mEventLogger.log(question, StudyEvent.TYPE_SHOWN);
+        }
+        for (Question question : keptSubjectQuestions) {
+            mEventLogger.log(question, StudyEvent.TYPE_SHOWN);
+        }
+        mEventLogger.flush().get();
+
+        // Delete one question of the kept subject and the whole other subject, then purge them
+        // in the order PurgeWorker does.
+        long deletedTime = System.currentTimeMillis();
+        Question deletedQuestion = keptSubjectQuestions.get(0);
+        studyDb.questionDao().setQuestionDeleted(deletedQuestion.getId(), deletedTime);
+        studyDb.subjectDao().setSubjectsDeleted(Collections.singletonList(deletedSubjectId),
+                deletedTime);
+        assertEquals(1, studyDb.questionDao().purgeDeletedQuestions(deletedTime, 200));
+        assertEquals(deletedSubjectQuestions.size(),
+                studyDb.questionDao().purgeQuestionsOfDeletedSubjects(deletedTime, 200));
+        assertEquals(1, studyDb.subjectDao().purgeDeletedSubjects(deletedTime, 200));
+
+        int keptCount = keptSubjectQuestions.size() - 1;
+        assertEquals(keptCount, queryCount(studyDb, "SELECT COUNT(*) FROM StudyEvent"));
+        assertEquals(keptCount, queryCount(studyDb, "SELECT COUNT(*) FROM QuestionDailyStats"));
+        List<SubjectDailyStats> totals = studyDb.studyEventDao().getSubjectTotals(0);
+        assertEquals(1, totals.size());
+        assertEquals(keptSubjectId, totals.get(0).getSubjectId());
+        for (QuestionDailyStats stats : studyDb.studyEventDao()
+                .getHardestQuestions(keptSubjectId, 0, keptSubjectQuestions.size())) {
+            assertNotEquals(deletedQuestion.getId(), stats.getQuestionId());
+        }
+    }
+
+    /**
+     * Returns the count selected by the passed query.
+     *
+     * @param studyDb {@link StudyDatabase} to query.
+     * @param sql     {@link String} query selecting a single count.
+     * @return The int count.
+     */
+    private static int queryCount(StudyDatabase studyDb, String sql) {
+        try (Cursor cursor = studyDb.query(sql, null)) {
+            cursor.moveToFirst();
+            return cursor.getInt(0);
+        }
+    }
+}
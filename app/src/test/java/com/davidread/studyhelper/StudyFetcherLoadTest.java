@@ -0,0 +1,296 @@
+package com.davidread.studyhelper;
+
+import static com.davidread.studyhelper.PerformanceBudget.assertTimeWithinBudget;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.content.Context;
+import android.os.Looper;
+
+import androidx.test.core.app.ApplicationProvider;
+import androidx.work.ListenableWorker;
+import androidx.work.testing.TestWorkerBuilder;
+
+import com.android.volley.ExecutorDelivery;
+import com.android.volley.RequestQueue;
+import com.android.volley.ServerError;
+import com.android.volley.VolleyError;
+import com.android.volley.toolbox.BasicNetwork;
+import com.android.volley.toolbox.HurlStack;
+import com.android.volley.toolbox.NoCache;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * {@link StudyFetcherLoadTest} drives {@link StudyFetcher} and {@link ImportWorker} against a
+ * {@link MockStudyServer} and asserts budgets for import throughput and tail latency, along with
+ * correct handling of server errors and slow-drip responses.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class StudyFetcherLoadTest {
+
+    /**
+     * Long seed for the {@link MockStudyServer}, so runs are reproducible.
+     */
+    private static final long SEED = 21;
+
+    /**
+     * Int number of network threads of the {@link RequestQueue} under test.
+     */
+    private static final int NETWORK_THREADS = 4;
+
+    /**
+     * Int number of threads fetching at the same time in the throughput test.
+     */
+    private static final int CONCURRENCY = 8;
+
+    /**
+     * Int number of subjects fetched in the throughput test.
+     */
+    private static final int LOAD_SUBJECT_COUNT = 200;
+
+    /**
+     * Int number of questions served per subject in the throughput test.
+     */
+    private static final int LOAD_QUESTIONS_PER_SUBJECT = 50;
+
+    /**
+     * Long milliseconds of latency injected into every response in the throughput test.
+     */
+    private static final long LOAD_LATENCY_MILLIS = 20;
+
+    /**
+     * Long budget in milliseconds for fetching all subjects in the throughput test. Four network
+     * threads need one second at the injected latency.
+     */
+    private static final long LOAD_BUDGET_MILLIS = 5000;
+
+    /**
+     * Long budget in milliseconds for the 99th percentile of a single fetch in the throughput
+     * test, including time queued behind other fetches.
+     */
+    private static final long P99_BUDGET_MILLIS = 500;
+
+    /**
+     * Int number of subjects imported by {@link ImportWorker}.
+     */
+    private static final int IMPORT_SUBJECT_COUNT = 30;
+
+    /**
+     * Long budget in milliseconds for {@link ImportWorker} to import all subjects.
+     */
+    private static final long IMPORT_BUDGET_MILLIS = 5000;
+
+    /**
+     * {@link MockStudyServer} standing in for zyBook's servers.
+     */
+    private MockStudyServer mServer;
+
+    /**
+     * {@link RequestQueue} delivering responses on its network threads, so no looper is needed.
+     */
+    private RequestQueue mRequestQueue;
+
+    /**
+     * {@link StudyFetcher} under test.
+     */
+    private StudyFetcher mStudyFetcher;
+
+    /**
+     * Invoked before each test case. It starts {@link #mServer} and a {@link StudyFetcher} aimed
+     * at it.
+     */
+    @Before
+    public void startServer() throws Exception {
+        mServer = new MockStudyServer(SEED);
+        mRequestQueue = new RequestQueue(new NoCache(), new BasicNetwork(new HurlStack()),
+                NETWORK_THREADS, new ExecutorDelivery(Runnable::run));
+        mRequestQueue.start();
+        mStudyFetcher = new StudyFetcher(mRequestQueue, mServer.getBaseUrl());
+    }
+
+    /**
+     * Invoked after each test case. It stops {@link #mStudyFetcher} and {@link #mServer}.
+     */
+    @After
+    public void stopServer() {
+        StudyFetcher.setBaseUrlForTesting(null);
+        mStudyFetcher.stop();
+        mServer.shutdown();
+    }
+
+    /**
+     * Verifies that subjects are parsed from the "type=subjects" response.
+     */
+    @Test
+    public void fetchSubjects_parsesSubjects() throws Exception {
+        mServer.setSubjectCount(25);
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicReference<List<Subject>> received = new AtomicReference<>();
+        mStudyFetcher.fetchSubjects(new StudyFetcher.OnStudyDataReceivedListener() {
+            @Override
+            public void onSubjectsReceived(List<Subject> subjectList) {
+                received.set(subjectList);
+                latch.countDown();
+            }
+
+            @Override
+            public void onQuestionsReceived(Subject subject, List<Question> questionList) {
+            }
+
+            @Override
+            public void onErrorResponse(VolleyError error) {
+                latch.countDown();
+            }
+        });
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertEquals(25, received.get().size());
+        assertEquals(MockStudyServer.getSubjectText(24), received.get().get(24).getText());
+    }
+
+    /**
+     * Verifies that many concurrent fetches with injected latency complete within the
+     * throughput and tail latency budgets.
+     */
+    @Test
+    public void fetchQuestionsSync_throughputAndTailLatency() throws Exception {
+        mServer.setQuestionsPerSubject(LOAD_QUESTIONS_PER_SUBJECT);
+        mServer.setLatencyMillis(LOAD_LATENCY_MILLIS);
+
+        ExecutorService callers = Executors.newFixedThreadPool(CONCURRENCY);
+        long[] latencies = new long[LOAD_SUBJECT_COUNT];
+        List<Future<Integer>> results = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int i = 0; i < LOAD_SUBJECT_COUNT; i++) {
+            int index = i;
+            results.add(callers.submit(() -> {
+                long fetchStart = System.nanoTime();
+                List<Question> questions = mStudyFetcher.fetchQuestionsSync(
+                        new Subject(MockStudyServer.getSubjectText(index)));
+                latencies[index] = System.nanoTime() - fetchStart;
+                return questions.size();
+            }));
+        }
+        for (Future<Integer> result : results) {
+            assertEquals(LOAD_QUESTIONS_PER_SUBJECT, (int) result.get());
+        }
+        long elapsed = System.nanoTime() - start;
+        callers.shutdown();
+
+        Arrays.sort(latencies);
+        long p99 = latencies[(int) Math.ceil(LOAD_SUBJECT_COUNT * 0.99) - 1];
+        assertEquals(LOAD_SUBJECT_COUNT, mServer.getRequestCount());
+        assertTimeWithinBudget("Fetching " + LOAD_SUBJECT_COUNT + " subjects", elapsed,
+                TimeUnit.MILLISECONDS.toNanos(LOAD_BUDGET_MILLIS));
+        assertTimeWithinBudget("99th percentile fetch", p99,
+                TimeUnit.MILLISECONDS.toNanos(P99_BUDGET_MILLIS));
+    }
+
+    /**
+     * Verifies that a server error surfaces as an {@link ExecutionException} caused by a
+     * {@link ServerError}.
+     */
+    @Test
+    public void fetchQuestionsSync_serverError_throws() throws Exception {
+        mServer.setErrorRate(1);
+        try {
+            mStudyFetcher.fetchQuestionsSync(new Subject(MockStudyServer.getSubjectText(0)));
+            fail("Expected the fetch to fail");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof ServerError);
+        }
+    }
+
+    /**
+     * Verifies that a response dripped in small chunks is read in full.
+     */
+    @Test
+    public void fetchQuestionsSync_slowDrip_readsWholeResponse() throws Exception {
+        mServer.setQuestionsPerSubject(20);
+        mServer.setAnswerLength(200);
+        mServer.setSlowDrip(256, 5);
+
+        List<Question> questions = mStudyFetcher.fetchQuestionsSync(
+                new Subject(MockStudyServer.getSubjectText(0)));
+        assertEquals(20, questions.size());
+        assertEquals(200, questions.get(19).getAnswer().length());
+    }
+
+    /**
+     * Verifies that {@link ImportWorker} retries after injected errors and then imports every
+     * subject within its budget.
+     */
+    @Test
+    public void importWorker_importsThroughServer() throws Exception {
+        Context context = ApplicationProvider.getApplicationContext();
+        StudyDatabase studyDb = StudyDatabase.createInMemoryDatabase(context);
+        StudyDatabase.setInstanceForTesting(studyDb);
+        StudyFetcher.setBaseUrlForTesting(mServer.getBaseUrl());
+        try {
+            List<ImportJob> jobs = new ArrayList<>();
+            for (int i = 0; i < IMPORT_SUBJECT_COUNT; i++) {
+                jobs.add(new ImportJob(MockStudyServer.getSubjectText(i), i));
+            }
+            studyDb.importJobDao().insertJobs(jobs);
+
+            // Some jobs fail and are left pending for the next run.
+            mServer.setErrorRate(0.2);
+            assertTrue(runImportWorker() instanceof ListenableWorker.Result.Retry);
+            assertTrue(studyDb.importJobDao().countJobs(ImportJob.STATE_PENDING) > 0);
+
+            mServer.setErrorRate(0);
+            long start = System.nanoTime();
+            assertTrue(runImportWorker() instanceof ListenableWorker.Result.Success);
+            assertTimeWithinBudget("Importing " + IMPORT_SUBJECT_COUNT + " subjects",
+                    System.nanoTime() - start, TimeUnit.MILLISECONDS.toNanos(IMPORT_BUDGET_MILLIS));
+
+            assertEquals(IMPORT_SUBJECT_COUNT,
+                    studyDb.importJobDao().countJobs(ImportJob.STATE_DONE));
+            assertEquals(IMPORT_SUBJECT_COUNT, studyDb.subjectDao().getSubjects().size());
+        } finally {
+            StudyDatabase.setInstanceForTesting(null);
+            studyDb.close();
+        }
+    }
+
+    /**
+     * Runs an {@link ImportWorker} on a background thread while idling the main looper, which
+     * is where its {@link StudyFetcher} delivers responses.
+     *
+     * @return The {@link ListenableWorker.Result} of the work.
+     */
+    private static ListenableWorker.Result runImportWorker() throws Exception {
+        Context context = ApplicationProvider.getApplicationContext();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            ImportWorker worker = TestWorkerBuilder.from(context, ImportWorker.class, executor)
+                    .build();
+            Future<ListenableWorker.Result> result = executor.submit(worker::doWork);
+            while (!result.isDone()) {
+                shadowOf(Looper.getMainLooper()).idle();
+                Thread.sleep(1);
+            }
+            return result.get();
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
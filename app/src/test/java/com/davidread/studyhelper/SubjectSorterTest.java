@@ -0,0 +1,112 @@
+package com.davidread.studyhelper;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * {@link SubjectSorterTest} verifies that {@link SubjectSorter} sorts {@link Subject} objects in
+ * memory in exactly the orders the {@link SubjectDao} queries return them in.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class SubjectSorterTest {
+
+    /**
+     * Long seed of the generated subjects, of their random text case and times, and of the
+     * shuffles sorted back.
+     */
+    private static final long SEED = 7;
+
+    /**
+     * {@link StudyDatabaseRule} providing an empty {@link StudyDatabase} to hold the
+     * {@link Subject} objects to sort.
+     */
+    @Rule
+    public final StudyDatabaseRule mDatabase = new StudyDatabaseRule();
+
+    /**
+     * Invoked before each test case. It fills the {@link StudyDatabase} with subjects with a mix
+     * of text case, question counts, and last studied times.
+     */
+    @Before
+    public void populateDatabase() {
+        StudyDatabase studyDb = mDatabase.getStudyDb();
+        DeckGenerator generator = new DeckGenerator(SEED);
+        Random random = new Random(SEED);
+        for (int i = 0; i < 50; i++) {
+            Subject subject = generator.nextSubject(i);
+            if (random.nextBoolean()) {
+                subject.setText(subject.getText().toUpperCase());
+            }
+            subject.setUpdateTime(random.nextInt(10));
+            subject.setLastStudiedTime(random.nextInt(3));
+            long subjectId = studyDb.subjectDao().insertSubject(subject);
+
+            for (int j = 0; j < 5; j++) {
+                long questionId = studyDb.questionDao()
+                        .insertQuestion(generator.nextQuestion(subjectId));
+                if (random.nextInt(3) == 0) {
+                    studyDb.questionDao().setQuestionDeleted(questionId, 1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Verifies that every order whose query breaks ties matches the query result exactly.
+     */
+    @Test
+    public void sort_matchesQueryOrder() {
+        SubjectDao subjectDao = mDatabase.getStudyDb().subjectDao();
+        assertSortedLike(subjectDao.getSubjects(), SubjectSorter.ORDER_ALPHA);
+        assertSortedLike(subjectDao.getSubjectsLargestFirst(),
+                SubjectSorter.ORDER_MOST_QUESTIONS);
+        assertSortedLike(subjectDao.getSubjectsRecentlyStudied(),
+                SubjectSorter.ORDER_RECENTLY_STUDIED);
+    }
+
+    /**
+     * Verifies that orders whose query leaves ties unordered match the query on the sort column.
+     */
+    @Test
+    public void sort_matchesQueryOrderByUpdateTime() {
+        StudyDatabase studyDb = mDatabase.getStudyDb();
+        List<Subject> sorted = new ArrayList<>(studyDb.subjectDao().getSubjects());
+        SubjectSorter.sort(sorted, SubjectSorter.ORDER_NEW_FIRST);
+        List<Subject> expected = studyDb.subjectDao().getSubjectsNewerFirst();
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getUpdateTime(), sorted.get(i).getUpdateTime());
+        }
+
+        SubjectSorter.sort(sorted, SubjectSorter.ORDER_OLD_FIRST);
+        expected = studyDb.subjectDao().getSubjectsOlderFirst();
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getUpdateTime(), sorted.get(i).getUpdateTime());
+        }
+    }
+
+    /**
+     * Asserts that sorting the passed {@link Subject} objects, shuffled, in the passed order
+     * restores the order they were passed in.
+     *
+     * @param expected {@link List} of {@link Subject} objects in the expected order.
+     * @param order    {@link String} order value to sort in.
+     */
+    private static void assertSortedLike(List<Subject> expected, String order) {
+        List<Subject> sorted = new ArrayList<>(expected);
+        Collections.shuffle(sorted, new Random(SEED));
+        SubjectSorter.sort(sorted, order);
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(order + " at " + i, expected.get(i).getId(), sorted.get(i).getId());
+        }
+    }
+}